@@ -18,116 +18,251 @@
 
 package org.mycore.access;
 
-import org.mycore.common.MCRCache;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.mycore.access.mcrimpl.MCRAccessControlSystem;
 import org.mycore.common.MCRSession;
 import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRSystemUserInformation;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.events.MCRSessionEvent;
 import org.mycore.common.events.MCRSessionListener;
 
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
 
 /**
+ * Caches permission decisions of all sessions in one bounded cache.
+ *
+ * Decisions are cached under a fingerprint of the user identity, the object ID and the permission. Sessions of the
+ * guest user share their decisions, optionally separated by IP address
+ * (<code>MCR.Access.Cache.ShareGuestByIP</code>). As soon as a permission of a guest session is invalidated locally,
+ * e.g. because an access key was added to the session, the session gets a private fingerprint. All other sessions
+ * have a private fingerprint, which changes on every login.
+ *
+ * Cached decisions are indexed by object ID and by session, so invalidation only touches affected decisions.
+ * Decisions of permissions without object ID are indexed under {@link MCRAccessControlSystem#POOL_PRIVILEGE_ID}.
+ * Invalidating an ID for all sessions increments a generation counter of the ID, so decisions computed before the
+ * invalidation are not cached afterwards.
+ *
  * @author Thomas Scheffler (yagee)
  *
  */
 class MCRAccessCacheManager implements MCRSessionListener {
     private static final int CAPACITY = MCRConfiguration2.getOrThrow("MCR.Access.Cache.Size", Integer::valueOf);
 
-    private static String key = MCRAccessCacheManager.class.getCanonicalName();
+    private static final boolean SHARE_GUEST_BY_IP = MCRConfiguration2
+        .getBoolean("MCR.Access.Cache.ShareGuestByIP").orElse(true);
 
-    ThreadLocal<MCRCache<MCRPermissionHandle, Boolean>> accessCache = ThreadLocal.withInitial(() -> {
-        //this is only called for every session that was created before this class could attach to session events
-        MCRSession session = MCRSessionMgr.getCurrentSession();
-        @SuppressWarnings("unchecked")
-        MCRCache<MCRPermissionHandle, Boolean> cache = (MCRCache<MCRPermissionHandle, Boolean>) session.get(key);
-        if (cache == null) {
-            cache = createCache(session);
-            session.put(key, cache);
-        }
-        return cache;
-    });
+    private static final int GENERATION_STRIPES = 64;
 
-    @Override
-    @SuppressWarnings("unchecked")
-    public void sessionEvent(MCRSessionEvent event) {
-        MCRCache<MCRPermissionHandle, Boolean> cache;
-        MCRSession session = event.getSession();
-        switch (event.getType()) {
-        case created:
-        case activated:
-            break;
-        case passivated:
-            accessCache.remove();
-            break;
-
-        case destroyed:
-            cache = getCacheFromSession(session);
-            if (cache != null) {
-                cache.close();
-            }
-            break;
-        default:
-            break;
-        }
-    }
+    private static final String PRIVATE_KEY = MCRAccessCacheManager.class.getCanonicalName() + ".private";
 
-    private MCRCache<MCRPermissionHandle, Boolean> getCacheFromSession(MCRSession session) {
-        return (MCRCache<MCRPermissionHandle, Boolean>) session.get(key);
-    }
+    private final Map<String, Set<PermissionKey>> keysById = new ConcurrentHashMap<>();
 
-    private MCRCache<MCRPermissionHandle, Boolean> createCache(MCRSession session) {
-        return new MCRCache<>(CAPACITY, "Access rights in MCRSession " + session.getID());
-    }
+    private final Map<String, Set<PermissionKey>> keysBySession = new ConcurrentHashMap<>();
+
+    /** Generation counters of the IDs, striped by hash code */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Cache<PermissionKey, Boolean> accessCache = CacheBuilder.newBuilder()
+        .maximumSize(CAPACITY)
+        .removalListener(this::removed)
+        .build();
 
     MCRAccessCacheManager() {
-        //init for current user done
         MCRSessionMgr.addSessionListener(this);
     }
 
+    @Override
+    public void sessionEvent(MCRSessionEvent event) {
+        if (event.getType() == MCRSessionEvent.Type.destroyed) {
+            invalidate(keysBySession.remove(event.getSession().getID()));
+        }
+    }
+
     public Boolean isPermitted(String id, String permission) {
-        MCRPermissionHandle handle = new MCRPermissionHandle(id, permission);
-        MCRCache<MCRPermissionHandle, Boolean> permissionCache = accessCache.get();
-        MCRSession currentSession = MCRSessionMgr.getCurrentSession();
-        return permissionCache.getIfUpToDate(handle, currentSession.getLoginTime());
+        return accessCache.getIfPresent(getKey(MCRSessionMgr.getCurrentSession(), id, permission));
+    }
+
+    /**
+     * Returns the generation of the given ID. Pass it to {@link #cachePermission(String, String, boolean, long)}
+     * to discard decisions that were computed while the ID was invalidated.
+     *
+     * @param id the object ID or null for permissions without object ID
+     */
+    public long getGeneration(String id) {
+        return generations.get(getGenerationIndex(PermissionKey.toId(id)));
     }
 
     public void cachePermission(String id, String permission, boolean permitted) {
-        MCRPermissionHandle handle = new MCRPermissionHandle(id, permission);
-        accessCache.get().put(handle, permitted);
+        cachePermission(id, permission, permitted, getGeneration(id));
+    }
+
+    /**
+     * Caches a decision, unless the ID was invalidated after the given generation was read.
+     *
+     * @param generation the generation of the ID read before the decision was computed
+     */
+    public void cachePermission(String id, String permission, boolean permitted, long generation) {
+        PermissionKey key = getKey(MCRSessionMgr.getCurrentSession(), id, permission);
+        int generationIndex = getGenerationIndex(key.id);
+        if (generations.get(generationIndex) != generation) {
+            return;
+        }
+        accessCache.put(key, permitted);
+        index(keysById, key.id, key);
+        if (key.sessionId != null) {
+            index(keysBySession, key.sessionId, key);
+        }
+        // an invalidation may have removed the index of the ID before the key was added to it
+        if (generations.get(generationIndex) != generation) {
+            accessCache.invalidate(key);
+        }
     }
 
     public void removePermission(String id, String permission) {
-        MCRPermissionHandle handle = new MCRPermissionHandle(id, permission);
-        MCRCache<MCRPermissionHandle, Boolean> permissionCache = accessCache.get();
-        permissionCache.remove(handle);
+        accessCache.invalidate(getKey(getPrivateSession(), id, permission));
     }
 
     public void removePermission(String... ids) {
-        MCRCache<MCRPermissionHandle, Boolean> permissionCache = accessCache.get();
-        removePermissionFromCache(permissionCache, Stream.of(ids).collect(Collectors.toSet()));
+        String fingerprint = getFingerprint(getPrivateSession());
+        List<PermissionKey> keys = new ArrayList<>();
+        for (String id : ids) {
+            keysById.computeIfPresent(id, (i, idKeys) -> {
+                idKeys.stream().filter(key -> key.fingerprint.equals(fingerprint)).forEach(keys::add);
+                return idKeys;
+            });
+        }
+        invalidate(keys);
     }
 
-    private void removePermissionFromCache(MCRCache<MCRPermissionHandle, Boolean> permissionCache, Set<String> ids) {
-        final List<MCRPermissionHandle> handlesToRemove = permissionCache.keys()
-            .stream()
-            .filter(hdl -> hdl.getId() != null)
-            .filter(hdl -> ids.contains(hdl.getId()))
-            .collect(Collectors.toList());
-        handlesToRemove.forEach(permissionCache::remove);
+    public void removePermissionFromAllCachesById(String... ids) {
+        for (String id : ids) {
+            generations.incrementAndGet(getGenerationIndex(id));
+            invalidate(keysById.remove(id));
+        }
     }
 
-    public void removePermissionFromAllCachesById(String... ids) {
-        final Set<String> idSet = Stream.of(ids).collect(Collectors.toSet());
-        MCRSessionMgr.getAllSessions().forEach((sessionId, mcrSession) -> {
-            final MCRCache<MCRPermissionHandle, Boolean> cache = getCacheFromSession(mcrSession);
-            if (cache != null) {
-                removePermissionFromCache(cache, idSet);
-            }
+    private static int getGenerationIndex(String id) {
+        return Math.floorMod(id.hashCode(), GENERATION_STRIPES);
+    }
+
+    /**
+     * Returns the current session, after it got a private fingerprint.
+     *
+     * Local invalidation signals a state of the session that is not shared with other sessions of the same user.
+     */
+    private static MCRSession getPrivateSession() {
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        session.put(PRIVATE_KEY, Boolean.TRUE);
+        return session;
+    }
+
+    private static PermissionKey getKey(MCRSession session, String id, String permission) {
+        String fingerprint = getFingerprint(session);
+        return new PermissionKey(fingerprint, isShared(session) ? null : session.getID(), id, permission);
+    }
+
+    private static boolean isShared(MCRSession session) {
+        return session.get(PRIVATE_KEY) == null && MCRSystemUserInformation.getGuestInstance().getUserID()
+            .equals(session.getUserInformation().getUserID());
+    }
+
+    private static String getFingerprint(MCRSession session) {
+        if (isShared(session)) {
+            String guest = session.getUserInformation().getUserID();
+            return SHARE_GUEST_BY_IP ? guest + "@" + session.getCurrentIP() : guest;
+        }
+        return session.getID() + "@" + session.getLoginTime();
+    }
+
+    private void invalidate(Collection<PermissionKey> keys) {
+        if (keys != null) {
+            accessCache.invalidateAll(keys);
+        }
+    }
+
+    private void removed(RemovalNotification<PermissionKey, Boolean> notification) {
+        if (notification.getCause() == RemovalCause.REPLACED) {
+            return;
+        }
+        PermissionKey key = notification.getKey();
+        unindex(keysById, key.id, key);
+        if (key.sessionId != null) {
+            unindex(keysBySession, key.sessionId, key);
+        }
+    }
+
+    private static void index(Map<String, Set<PermissionKey>> index, String name, PermissionKey key) {
+        index.compute(name, (n, keys) -> {
+            Set<PermissionKey> result = keys == null ? new HashSet<>() : keys;
+            result.add(key);
+            return result;
+        });
+    }
+
+    private static void unindex(Map<String, Set<PermissionKey>> index, String name, PermissionKey key) {
+        index.computeIfPresent(name, (n, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
         });
     }
 
+    /**
+     * Returns the number of cached permissions.
+     */
+    long size() {
+        accessCache.cleanUp();
+        return accessCache.size();
+    }
+
+    private static final class PermissionKey {
+
+        private final String fingerprint;
+
+        private final String sessionId;
+
+        private final String id;
+
+        private final MCRPermissionHandle handle;
+
+        private PermissionKey(String fingerprint, String sessionId, String id, String permission) {
+            this.fingerprint = fingerprint;
+            this.sessionId = sessionId;
+            this.id = toId(id);
+            this.handle = new MCRPermissionHandle(id, permission);
+        }
+
+        private static String toId(String id) {
+            return id == null ? MCRAccessControlSystem.POOL_PRIVILEGE_ID : id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fingerprint.hashCode() + handle.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PermissionKey)) {
+                return false;
+            }
+            PermissionKey other = (PermissionKey) obj;
+            return fingerprint.equals(other.fingerprint) && handle.equals(other.handle);
+        }
+    }
+
 }
@@ -274,8 +274,9 @@ public class MCRAccessManager {
     public static boolean checkPermission(String id, String permission) {
         Boolean value = ACCESS_CACHE.isPermitted(id, permission);
         if (value == null) {
+            long generation = ACCESS_CACHE.getGeneration(id);
             value = getAccessStrategy().checkPermission(id, permission);
-            ACCESS_CACHE.cachePermission(id, permission, value);
+            ACCESS_CACHE.cachePermission(id, permission, value, generation);
         }
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("checkPermission id:{} permission:{} --> {}", id, permission, value);
@@ -293,8 +294,9 @@ public class MCRAccessManager {
     public static boolean checkPermission(String permission) {
         Boolean value = ACCESS_CACHE.isPermitted(null, permission);
         if (value == null) {
+            long generation = ACCESS_CACHE.getGeneration(null);
             value = getAccessImpl().checkPermission(permission);
-            ACCESS_CACHE.cachePermission(null, permission, value);
+            ACCESS_CACHE.cachePermission(null, permission, value, generation);
         }
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("checkPermission permission:{} --> {}", permission, value);
@@ -20,17 +20,27 @@ package org.mycore.backend.hibernate;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mycore.backend.jpa.MCREntityManagerProvider;
 import org.mycore.backend.jpa.links.MCRLINKHREF;
 import org.mycore.backend.jpa.links.MCRLINKHREFPK;
+import org.mycore.common.MCRException;
 import org.mycore.common.MCRPersistenceException;
 import org.mycore.common.MCRUtils;
+import org.mycore.datamodel.common.MCRLinkTableEntry;
 import org.mycore.datamodel.common.MCRLinkTableInterface;
 
+import com.google.common.collect.Iterables;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 
@@ -44,6 +54,8 @@ public class MCRHIBLinkTableStore implements MCRLinkTableInterface {
     // logger
     static Logger LOGGER = LogManager.getLogger(MCRHIBLinkTableStore.class);
 
+    private static final int MAX_SOURCES_PER_QUERY = 1000;
+
     private String classname = MCRLINKHREF.class.getCanonicalName();
 
     /**
@@ -74,17 +86,111 @@ public class MCRHIBLinkTableStore implements MCRLinkTableInterface {
         LOGGER.debug("Inserting {}/{}/{} into database MCRLINKHREF", from, to, type);
 
         MCRLINKHREFPK key = getKey(from, to, type);
-        MCRLINKHREF linkHref = entityMananger.find(MCRLINKHREF.class, key);
-        if (linkHref != null) {
-            linkHref.setMcrattr(attr);
-        } else {
-            linkHref = new MCRLINKHREF();
-            linkHref.setKey(key);
+        write(entityMananger, entityMananger.find(MCRLINKHREF.class, key), key, attr);
+    }
+
+    /**
+     * Creates the given items. Stored items of all sources are loaded at once, so only new or changed items are
+     * written.
+     *
+     * @param links
+     *            the items to create
+     */
+    @Override
+    public void create(Collection<MCRLinkTableEntry> links) {
+        Map<MCRLINKHREFPK, String> newLinks = toMap(links);
+        if (newLinks.isEmpty()) {
+            return;
+        }
+        EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        Set<String> sources = newLinks.keySet()
+            .stream()
+            .map(MCRLINKHREFPK::getMcrfrom)
+            .collect(Collectors.toSet());
+        Map<MCRLINKHREFPK, MCRLINKHREF> stored = getLinks(em, sources);
+        newLinks.forEach((key, attr) -> write(em, stored.get(key), key, attr));
+    }
+
+    /**
+     * Replaces all items of the source. Stored items are loaded with one query, only items that were removed, added
+     * or got a different attribute are written.
+     *
+     * @param from
+     *            a string with the link ID MCRFROM
+     * @param links
+     *            the new items of <code>from</code>
+     */
+    @Override
+    public void update(String from, Collection<MCRLinkTableEntry> links) {
+        String source = checkAttributeIsNotEmpty(from, "from");
+        Map<MCRLINKHREFPK, String> newLinks = toMap(links);
+        newLinks.keySet()
+            .stream()
+            .filter(key -> !source.equals(key.getMcrfrom()))
+            .findAny()
+            .ifPresent(key -> {
+                throw new MCRPersistenceException("Link " + key.getMcrfrom() + "->" + key.getMcrto()
+                    + " does not start at " + source + ".");
+            });
+        EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        Map<MCRLINKHREFPK, MCRLINKHREF> stored = getLinks(em, Set.of(source));
+        stored.values()
+            .stream()
+            .filter(linkHref -> !newLinks.containsKey(linkHref.getKey()))
+            .forEach(em::remove);
+        newLinks.forEach((key, attr) -> write(em, stored.get(key), key, attr));
+        LOGGER.debug("Updated links of {}: {} stored, {} new", source, stored.size(), newLinks.size());
+    }
+
+    /**
+     * Returns the stored items of the given sources or all items, if <code>from</code> is null. All items are read
+     * as a stream without loading entities.
+     */
+    @Override
+    public Stream<MCRLinkTableEntry> getLinks(Collection<String> from) {
+        EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        if (from == null) {
+            return em.createNamedQuery("MCRLINKHREF.getAllEntries", MCRLinkTableEntry.class).getResultStream();
+        }
+        return getLinks(em, from).values()
+            .stream()
+            .map(linkHref -> new MCRLinkTableEntry(linkHref.getMcrfrom(), linkHref.getMcrto(), linkHref.getMcrtype(),
+                linkHref.getMcrattr()));
+    }
+
+    private static void write(EntityManager em, MCRLINKHREF linkHref, MCRLINKHREFPK key, String attr) {
+        if (linkHref == null) {
+            MCRLINKHREF newLinkHref = new MCRLINKHREF();
+            newLinkHref.setKey(key);
+            newLinkHref.setMcrattr(attr);
+            em.persist(newLinkHref);
+        } else if (!attr.equals(linkHref.getMcrattr())) {
             linkHref.setMcrattr(attr);
-            entityMananger.persist(linkHref);
         }
     }
 
+    private static Map<MCRLINKHREFPK, String> toMap(Collection<MCRLinkTableEntry> links) {
+        //later items win like with subsequent calls of create(String, String, String, String)
+        Map<MCRLINKHREFPK, String> map = new LinkedHashMap<>();
+        for (MCRLinkTableEntry link : links) {
+            MCRLINKHREFPK key = getKey(checkAttributeIsNotEmpty(link.getFrom(), "from"),
+                checkAttributeIsNotEmpty(link.getTo(), "to"), checkAttributeIsNotEmpty(link.getType(), "type"));
+            map.put(key, MCRUtils.filterTrimmedNotEmpty(link.getAttr()).orElse(""));
+        }
+        return map;
+    }
+
+    private static Map<MCRLINKHREFPK, MCRLINKHREF> getLinks(EntityManager em, Collection<String> sources) {
+        Map<MCRLINKHREFPK, MCRLINKHREF> links = new HashMap<>();
+        TypedQuery<MCRLINKHREF> query = em.createNamedQuery("MCRLINKHREF.getLinks", MCRLINKHREF.class);
+        for (List<String> part : Iterables.partition(sources, MAX_SOURCES_PER_QUERY)) {
+            query.setParameter("from", part)
+                .getResultList()
+                .forEach(linkHref -> links.put(linkHref.getKey(), linkHref));
+        }
+        return links;
+    }
+
     private static String checkAttributeIsNotEmpty(String attr, String name) {
         return MCRUtils.filterTrimmedNotEmpty(attr)
             .orElseThrow(() -> new MCRPersistenceException("The " + name + " value is null or empty."));
@@ -232,4 +338,26 @@ public class MCRHIBLinkTableStore implements MCRLinkTableInterface {
         return toQuery.getResultList();
     }
 
+    /**
+     * Returns the length of the column mapped for the given value.
+     */
+    @Override
+    public int getMaxLength(String value) {
+        return switch (value) {
+            case "from" -> getColumnLength(MCRLINKHREFPK.class, "getMcrfrom");
+            case "to" -> getColumnLength(MCRLINKHREFPK.class, "getMcrto");
+            case "type" -> getColumnLength(MCRLINKHREFPK.class, "getMcrtype");
+            case "attr" -> getColumnLength(MCRLINKHREF.class, "getMcrattr");
+            default -> throw new IllegalArgumentException("Unknown value of link table items: " + value);
+        };
+    }
+
+    private static int getColumnLength(Class<?> entity, String getter) {
+        try {
+            return entity.getMethod(getter).getAnnotation(Column.class).length();
+        } catch (NoSuchMethodException e) {
+            throw new MCRException("Could not get column mapped by " + entity.getName() + "." + getter, e);
+        }
+    }
+
 }
@@ -48,6 +48,10 @@ import jakarta.persistence.Transient;
     @NamedQuery(name = "MCRLINKHREF.getSources", query = "SELECT key.mcrfrom FROM MCRLINKHREF WHERE key.mcrto=:to"),
     @NamedQuery(name = "MCRLINKHREF.getSourcesWithType",
         query = "SELECT key.mcrfrom FROM MCRLINKHREF WHERE key.mcrto=:to AND key.mcrtype=:type"),
+    @NamedQuery(name = "MCRLINKHREF.getLinks", query = "FROM MCRLINKHREF WHERE key.mcrfrom IN (:from)"),
+    @NamedQuery(name = "MCRLINKHREF.getAllEntries",
+        query = "SELECT new org.mycore.datamodel.common.MCRLinkTableEntry(key.mcrfrom, key.mcrto, key.mcrtype,"
+            + " mcrattr) FROM MCRLINKHREF"),
     @NamedQuery(name = "MCRLINKHREF.group",
         query = "SELECT count(key.mcrfrom), key.mcrto FROM MCRLINKHREF WHERE key.mcrto like :like GROUP BY key.mcrto")
 })
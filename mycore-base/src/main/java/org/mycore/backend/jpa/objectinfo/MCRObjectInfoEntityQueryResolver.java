@@ -19,11 +19,13 @@
 package org.mycore.backend.jpa.objectinfo;
 
 import java.sql.Date;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.mycore.backend.jpa.MCREntityManagerProvider;
 import org.mycore.datamodel.classifications2.MCRCategLinkReference_;
@@ -271,6 +273,22 @@ public class MCRObjectInfoEntityQueryResolver implements MCRObjectQueryResolver
             .collect(Collectors.toList());
     }
 
+    /**
+     * Selects only the id parts and the modification date, so no entity is loaded.
+     */
+    @Override
+    public Stream<MCRObjectIDDate> streamIdDates(String project, String type) {
+        EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        return em.createQuery("SELECT oe.objectNumber, oe.modifyDate FROM MCRObjectInfoEntity oe"
+            + " WHERE oe.objectProject = :project AND oe.objectType = :type"
+            + " AND oe.deleteDate IS NULL AND oe.deletedBy IS NULL ORDER BY oe.objectNumber", Object[].class)
+            .setParameter("project", project)
+            .setParameter("type", type)
+            .getResultStream()
+            .map(row -> new MCRObjectIDDateImpl(Date.from((Instant) row[1]),
+                MCRObjectID.formatID(project, type, (Integer) row[0])));
+    }
+
     @Override
     public List<MCRObjectInfo> getInfos(MCRObjectQuery objectQuery) {
         TypedQuery<MCRObjectInfoEntity> typedQuery = convertQuery(objectQuery);
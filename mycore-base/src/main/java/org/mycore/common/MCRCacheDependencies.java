@@ -0,0 +1,150 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.common;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.config.MCRConfigurationBase;
+
+/**
+ * Tracks modifications of the things cached values depend on, e.g. objects, classifications or configuration
+ * properties.
+ *
+ * A cache takes a {@link Stamp} of the dependencies of a value <em>before</em> computing it and stores it together
+ * with the value. The value is up-to-date as long as {@link Stamp#isValid()} returns true. Writers call
+ * {@link #modified(String)}, so only values depending on the modified thing are invalidated. Changes of
+ * configuration properties are tracked automatically.
+ *
+ * Modifications are counted in a fixed number of slots, so memory usage does not depend on the number of
+ * dependencies. If two dependencies share a slot, a modification of one invalidates values of the other, too.
+ * Modifications of other processes sharing the same data directory are detected by
+ * {@link MCRConfigurationBase#getSystemLastModified()} and invalidate all values.
+ */
+public final class MCRCacheDependencies {
+
+    /**
+     * Dependency of values using links between objects and categories
+     */
+    public static final String CLASSIFICATION_LINKS = "classificationLinks";
+
+    private static final int SLOTS = 1 << 16;
+
+    private static final AtomicLongArray VERSIONS = new AtomicLongArray(SLOTS);
+
+    private static final AtomicLong GLOBAL_VERSION = new AtomicLong();
+
+    static {
+        MCRConfiguration2.addPropertyChangeEventLister(key -> true,
+            (key, oldValue, newValue) -> modified(config(key)));
+    }
+
+    private MCRCacheDependencies() {
+    }
+
+    /**
+     * Returns the dependency on the object or derivate with the given ID.
+     */
+    public static String object(String id) {
+        return "object:" + id;
+    }
+
+    /**
+     * Returns the dependency on the classification with the given root ID.
+     */
+    public static String classification(String rootID) {
+        return "classification:" + rootID;
+    }
+
+    /**
+     * Returns the dependency on the configuration property with the given name.
+     */
+    public static String config(String name) {
+        return "config:" + name;
+    }
+
+    /**
+     * Invalidates all values depending on the given dependency.
+     */
+    public static void modified(String dependency) {
+        VERSIONS.incrementAndGet(getSlot(dependency));
+    }
+
+    /**
+     * Invalidates all values.
+     */
+    public static void modifiedAll() {
+        GLOBAL_VERSION.incrementAndGet();
+    }
+
+    /**
+     * Returns the current state of the given dependencies.
+     */
+    public static Stamp stamp(Collection<String> dependencies) {
+        int[] slots = dependencies.stream().mapToInt(MCRCacheDependencies::getSlot).distinct().toArray();
+        long[] versions = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            versions[i] = VERSIONS.get(slots[i]);
+        }
+        return new Stamp(GLOBAL_VERSION.get(), slots, versions);
+    }
+
+    private static int getSlot(String dependency) {
+        int hash = dependency.hashCode();
+        return (hash ^ (hash >>> 16)) & (SLOTS - 1);
+    }
+
+    /**
+     * The state of dependencies at the time a value was computed.
+     */
+    public static final class Stamp {
+
+        private final long globalVersion;
+
+        private final int[] slots;
+
+        private final long[] versions;
+
+        private Stamp(long globalVersion, int[] slots, long[] versions) {
+            this.globalVersion = globalVersion;
+            this.slots = slots;
+            this.versions = versions;
+        }
+
+        /**
+         * Returns true, if none of the dependencies was modified since this stamp was taken.
+         */
+        public boolean isValid() {
+            //detects modifications of other processes
+            MCRConfigurationBase.getSystemLastModified();
+            if (GLOBAL_VERSION.get() != globalVersion) {
+                return false;
+            }
+            for (int i = 0; i < slots.length; i++) {
+                if (VERSIONS.get(slots[i]) != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
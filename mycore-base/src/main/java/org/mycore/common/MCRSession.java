@@ -447,6 +447,22 @@ public class MCRSession implements Cloneable {
         this.onCommitTasks.get().offer(Objects.requireNonNull(task));
     }
 
+    /**
+     * Returns the first task of the given type that was added by {@link #onCommit(Runnable)} in the current thread
+     * and is still waiting for the commit. Tasks are discarded on rollback and when the session is released
+     * without commit.
+     *
+     * @param type the class of the task
+     * @return the waiting task or an empty optional
+     */
+    public <T extends Runnable> Optional<T> getOnCommitTask(Class<T> type) {
+        return onCommitTasks.get().stream().filter(type::isInstance).map(type::cast).findFirst();
+    }
+
+    protected void discardOnCommitTasks() {
+        onCommitTasks.remove();
+    }
+
     protected void submitOnCommitTasks() {
         Queue<Runnable> runnables = onCommitTasks.get();
         onCommitTasks.remove();
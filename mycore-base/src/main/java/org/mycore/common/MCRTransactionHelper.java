@@ -24,6 +24,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.events.MCREventManager;
 import org.mycore.util.concurrent.MCRPool;
 
 public class MCRTransactionHelper {
@@ -75,18 +76,23 @@ public class MCRTransactionHelper {
             TRANSACTION.get().forEach(MCRPersistenceTransaction::commit);
             TRANSACTION.remove();
         }
+        MCREventManager.submitPendingEvents();
         MCRSessionMgr.getCurrentSession().submitOnCommitTasks();
     }
 
     /**
      * forces the database transaction to roll back. Roll back is only performed if {@link #isTransactionActive()}
-     * returns true.
+     * returns true. Tasks registered with {@link MCRSession#onCommit(Runnable)} are discarded.
      */
     public static void rollbackTransaction() {
         if (isTransactionActive()) {
             TRANSACTION.get().forEach(MCRPersistenceTransaction::rollback);
             TRANSACTION.remove();
         }
+        MCREventManager.discardPendingEvents();
+        if (MCRSessionMgr.hasCurrentSession()) {
+            MCRSessionMgr.getCurrentSession().discardOnCommitTasks();
+        }
     }
 
     /**
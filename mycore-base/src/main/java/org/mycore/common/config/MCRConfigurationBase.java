@@ -31,6 +31,7 @@ import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRCacheDependencies;
 import org.mycore.common.MCRException;
 import org.mycore.common.MCRPropertiesResolver;
 
@@ -53,14 +54,25 @@ public final class MCRConfigurationBase {
      */
     private static MCRProperties deprecatedProperties = new MCRProperties();
 
+    /**
+     * Period in milliseconds after which {@link #lastModifiedFile} is checked for modifications by other processes
+     */
+    private static final long LAST_MODIFIED_CHECK_PERIOD = 1000;
+
     private static File lastModifiedFile;
 
+    private static volatile long systemLastModified;
+
+    private static volatile long lastModifiedChecked;
+
     static {
         try {
             createLastModifiedFile();
         } catch (IOException e) {
             throw new MCRConfigurationException("Could not initialize MyCoRe configuration", e);
         }
+        systemLastModified = lastModifiedFile.lastModified();
+        lastModifiedChecked = System.currentTimeMillis();
     }
 
     private MCRConfigurationBase() {
@@ -70,16 +82,36 @@ public final class MCRConfigurationBase {
      * returns the last point in time when the MyCoRe system was last modified. This method can help you to validate
      * caches not under your controll, e.g. client caches.
      *
+     * The time is kept in memory. The file shared with other processes is checked at most every
+     * {@value #LAST_MODIFIED_CHECK_PERIOD} milliseconds, a modification by another process invalidates all values
+     * tracked by {@link MCRCacheDependencies}.
+     *
      * @see System#currentTimeMillis()
      */
     public static long getSystemLastModified() {
-        return lastModifiedFile.lastModified();
+        long now = System.currentTimeMillis();
+        if (now - lastModifiedChecked > LAST_MODIFIED_CHECK_PERIOD) {
+            lastModifiedChecked = now;
+            long fileLastModified = lastModifiedFile.lastModified();
+            if (fileLastModified > systemLastModified) {
+                synchronized (MCRConfigurationBase.class) {
+                    systemLastModified = Math.max(systemLastModified, fileLastModified);
+                }
+                MCRCacheDependencies.modifiedAll();
+            }
+        }
+        return systemLastModified;
     }
 
     /**
      * signalize that the system state has changed. Call this method when ever you changed the persistency layer.
      */
     public static void systemModified() {
+        long now;
+        synchronized (MCRConfigurationBase.class) {
+            now = Math.max(System.currentTimeMillis(), systemLastModified);
+            systemLastModified = now;
+        }
         if (!lastModifiedFile.exists()) {
             try {
                 createLastModifiedFile();
@@ -87,7 +119,7 @@ public final class MCRConfigurationBase {
                 throw new MCRException("Could not change modify date of file " + lastModifiedFile.getAbsolutePath(),
                     ioException);
             }
-        } else if (!lastModifiedFile.setLastModified(System.currentTimeMillis())) {
+        } else if (!lastModifiedFile.setLastModified(now)) {
             // a problem occurs, when a linux user other than the file owner
             // tries to change the last modified date
             // @see Java Bug:
@@ -0,0 +1,247 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.common.events;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRUserInformation;
+import org.mycore.datamodel.classifications2.MCRCategory;
+import org.mycore.datamodel.metadata.MCRBase;
+import org.mycore.util.concurrent.MCRTransactionableRunnable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Calls {@link MCRAsyncEventHandler asynchronous event handlers} in a thread pool.
+ *
+ * Events are queued per object, a queue is processed by one thread at a time. An event replaces the last waiting
+ * event of its queue, if both have the same type and handlers. The number of waiting events is limited, callers
+ * block if the limit is reached. Events fired by asynchronous handlers are queued beyond the limit, as blocking the
+ * threads that free the queue could dead lock.
+ */
+class MCRAsyncEventDispatcher implements MCRShutdownHandler.Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String OLD_KEY_SUFFIX = ".old";
+
+    private final ExecutorService executor;
+
+    private final Semaphore capacity;
+
+    private final Map<String, Deque<AsyncEvent>> queues = new HashMap<>();
+
+    private final AtomicLong unkeyed = new AtomicLong();
+
+    private final ThreadLocal<Boolean> handlerThread = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    /**
+     * @param threads number of threads calling event handlers
+     * @param queueSize maximum number of waiting events
+     */
+    MCRAsyncEventDispatcher(int threads, int queueSize) {
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+            .setNameFormat("MCREventManager-Async-#%d")
+            .setThreadFactory(r -> new Thread(() -> {
+                handlerThread.set(Boolean.TRUE);
+                r.run();
+            }))
+            .build());
+        capacity = new Semaphore(queueSize);
+        MCRShutdownHandler.getInstance().addCloseable(this);
+    }
+
+    /**
+     * Queues the given event for the given handlers.
+     *
+     * @param user the user that fired the event, handlers are called in a session of this user
+     */
+    void submit(MCREvent evt, List<MCREventHandler> handlers, MCRUserInformation user) {
+        AsyncEvent event = new AsyncEvent(evt, handlers, user);
+        if (handlerThread.get()) {
+            event.permit = capacity.tryAcquire();
+        } else {
+            try {
+                capacity.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("Interrupted while waiting to queue event, handling it synchronously.");
+                event.run();
+                return;
+            }
+        }
+        String key = getKey(evt);
+        synchronized (queues) {
+            Deque<AsyncEvent> queue = queues.get(key);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queue.add(event);
+                queues.put(key, queue);
+                try {
+                    executor.execute(() -> process(key));
+                } catch (RejectedExecutionException e) {
+                    LOGGER.warn("Event dispatcher is shut down, handling event {} synchronously.", key);
+                    process(key);
+                }
+                return;
+            }
+            AsyncEvent last = queue.peekLast();
+            if (last != null && last.canBeReplacedBy(event)) {
+                queue.pollLast();
+                event.keepOldValues(last);
+                if (last.permit && event.permit) {
+                    capacity.release();
+                }
+                event.permit |= last.permit;
+                LOGGER.debug("Coalesced event {} {}", key, evt.getEventType());
+            }
+            queue.add(event);
+        }
+    }
+
+    private void process(String key) {
+        while (true) {
+            AsyncEvent event;
+            synchronized (queues) {
+                event = queues.get(key).poll();
+                if (event == null) {
+                    queues.remove(key);
+                    return;
+                }
+            }
+            try {
+                event.run();
+            } finally {
+                if (event.permit) {
+                    capacity.release();
+                }
+            }
+        }
+    }
+
+    private String getKey(MCREvent evt) {
+        Object id = switch (evt.getObjectType()) {
+            case OBJECT -> getId(evt.get(MCREvent.OBJECT_KEY));
+            case DERIVATE -> getId(evt.get(MCREvent.DERIVATE_KEY));
+            case PATH -> evt.get(MCREvent.PATH_KEY);
+            case CLASS -> evt.get(MCREvent.CLASS_KEY) instanceof MCRCategory
+                ? ((MCRCategory) evt.get(MCREvent.CLASS_KEY)).getId()
+                : null;
+            default -> null;
+        };
+        if (id == null) {
+            //never coalesced
+            return "#" + unkeyed.incrementAndGet();
+        }
+        return evt.getObjectType() + ":" + id;
+    }
+
+    private static Object getId(Object base) {
+        return base instanceof MCRBase ? ((MCRBase) base).getId() : null;
+    }
+
+    @Override
+    public void prepareClose() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.MINUTES)) {
+                LOGGER.warn("Asynchronous event handlers did not finish in time.");
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("Error while waiting for shutdown.", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int getPriority() {
+        //before the services used by event handlers are closed
+        return Integer.MAX_VALUE - 10;
+    }
+
+    private static final class AsyncEvent implements Runnable {
+
+        private final MCREvent evt;
+
+        private final List<MCREventHandler> handlers;
+
+        private final MCRUserInformation user;
+
+        /** false, if the event was queued beyond the capacity */
+        private boolean permit = true;
+
+        AsyncEvent(MCREvent evt, List<MCREventHandler> handlers, MCRUserInformation user) {
+            this.evt = evt;
+            this.handlers = handlers;
+            this.user = user;
+        }
+
+        boolean canBeReplacedBy(AsyncEvent other) {
+            return evt.getEventType() == other.evt.getEventType()
+                && Objects.equals(evt.getCustomEventType(), other.evt.getCustomEventType())
+                && handlers.equals(other.handlers);
+        }
+
+        /**
+         * Keeps the state before the replaced event, so handlers see all changes.
+         */
+        void keepOldValues(AsyncEvent replaced) {
+            replaced.evt.entrySet()
+                .stream()
+                .filter(e -> e.getKey().endsWith(OLD_KEY_SUFFIX))
+                .forEach(e -> evt.put(e.getKey(), e.getValue()));
+        }
+
+        @Override
+        public void run() {
+            new MCRTransactionableRunnable(() -> {
+                if (user != null) {
+                    MCRSessionMgr.getCurrentSession().setUserInformation(user);
+                }
+                for (MCREventHandler handler : handlers) {
+                    try {
+                        handler.doHandleEvent(evt);
+                    } catch (Exception e) {
+                        LOGGER.error("Exception caught while calling asynchronous event handler {} for {} {}",
+                            handler.getClass().getName(), evt.getObjectType(), evt.getEventType(), e);
+                    }
+                }
+            }).run();
+        }
+    }
+
+}
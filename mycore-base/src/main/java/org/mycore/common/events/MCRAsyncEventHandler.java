@@ -0,0 +1,38 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.common.events;
+
+/**
+ * Marks an event handler that does not need to run within the transaction that fired the event, e.g. because it
+ * only updates side indexes or generates static files.
+ *
+ * Such handlers are called by {@link MCREventManager} after the transaction was committed, in a thread pool of
+ * <code>MCR.EventManager.Async.Threads</code> threads. Events of the same object are handled in the order they
+ * were fired, repeated events of the same type and object that are still waiting are handled once with the latest
+ * event. If the transaction is rolled back, the events are discarded. Exceptions are logged and
+ * {@link #undoHandleEvent(MCREvent)} is never called.
+ *
+ * Only transactions of {@link org.mycore.common.MCRTransactionHelper} are known to the event manager. Code
+ * committing an <code>EntityTransaction</code> of its own, like job threads of the job queue, has to wrap it in
+ * {@link MCREventManager#holdEvents()} and {@link MCREventManager#releaseEvents(boolean)}.
+ *
+ * Setting <code>MCR.EventManager.Async.Enabled=false</code> calls all handlers synchronously.
+ */
+public interface MCRAsyncEventHandler extends MCREventHandler {
+}
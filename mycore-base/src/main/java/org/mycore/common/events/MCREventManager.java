@@ -28,6 +28,9 @@ import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mycore.common.MCRException;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRTransactionHelper;
+import org.mycore.common.MCRUserInformation;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.config.MCRConfigurationException;
 
@@ -35,6 +38,9 @@ import org.mycore.common.config.MCRConfigurationException;
  * Acts as a multiplexer to forward events that are created to all registered
  * event handlers, in the order that is configured in mycore properties. For
  * information how to configure, see MCREventHandler javadocs.
+ *
+ * Handlers implementing {@link MCRAsyncEventHandler} are called asynchronously after the current transaction is
+ * committed.
  * 
  * @see MCREventHandler
  * @see MCREventHandlerBase
@@ -55,11 +61,22 @@ public class MCREventManager {
 
     private static MCREventManager instance;
 
+    /** Events for asynchronous handlers fired in the current transaction */
+    private static final ThreadLocal<List<Runnable>> PENDING_EVENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    /** true, if events are kept for a transaction not managed by {@link MCRTransactionHelper} */
+    private static final ThreadLocal<Boolean> HOLD_EVENTS = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
     /** Table of all configured event handlers * */
     private ConcurrentHashMap<String, List<MCREventHandler>> handlers;
 
+    private final boolean asyncEnabled;
+
+    private MCRAsyncEventDispatcher asyncDispatcher;
+
     private MCREventManager() {
         handlers = new ConcurrentHashMap<>();
+        asyncEnabled = MCRConfiguration2.getBoolean("MCR.EventManager.Async.Enabled").orElse(true);
 
         Map<String, String> props = MCRConfiguration2.getPropertiesMap()
             .entrySet()
@@ -143,8 +160,13 @@ public class MCREventManager {
         Exception handleEventExceptionCaught = null;
         final String eventType = evt.getEventType() == MCREvent.EventType.CUSTOM ? evt.getCustomEventType()
             : evt.getEventType().name();
+        List<MCREventHandler> asyncHandlers = new ArrayList<>();
         for (int i = first; i != last + step; i += step) {
             MCREventHandler eh = list.get(i);
+            if (isAsync(eh)) {
+                asyncHandlers.add(eh);
+                continue;
+            }
             logger.debug("EventManager {} {} calling handler {}", objectType, eventType,
                 eh.getClass().getName());
 
@@ -164,6 +186,9 @@ public class MCREventManager {
         // Rollback by calling undo of successfull handlers
         for (int i = undoPos - step; i != first - step; i -= step) {
             MCREventHandler eh = list.get(i);
+            if (isAsync(eh)) {
+                continue;
+            }
             logger.debug("EventManager {} {} calling undo of handler {}", objectType, eventType,
                 eh.getClass().getName());
 
@@ -178,6 +203,78 @@ public class MCREventManager {
             String msg = "Exception caught in EventHandler, rollback by calling undo of successfull handlers done.";
             throw new MCRException(msg, handleEventExceptionCaught);
         }
+
+        if (!asyncHandlers.isEmpty()) {
+            dispatchAfterCommit(evt, asyncHandlers);
+        }
+    }
+
+    private boolean isAsync(MCREventHandler handler) {
+        return asyncEnabled && handler instanceof MCRAsyncEventHandler;
+    }
+
+    private void dispatchAfterCommit(MCREvent evt, List<MCREventHandler> asyncHandlers) {
+        MCRAsyncEventDispatcher dispatcher = getAsyncDispatcher();
+        MCRUserInformation user = MCRSessionMgr.hasCurrentSession()
+            ? MCRSessionMgr.getCurrentSession().getUserInformation()
+            : null;
+        Runnable submit = () -> dispatcher.submit(evt, asyncHandlers, user);
+        if (HOLD_EVENTS.get() || MCRTransactionHelper.isTransactionActive()) {
+            PENDING_EVENTS.get().add(submit);
+        } else {
+            submit.run();
+        }
+    }
+
+    private synchronized MCRAsyncEventDispatcher getAsyncDispatcher() {
+        if (asyncDispatcher == null) {
+            asyncDispatcher = new MCRAsyncEventDispatcher(
+                MCRConfiguration2.getInt("MCR.EventManager.Async.Threads").orElse(2),
+                MCRConfiguration2.getInt("MCR.EventManager.Async.QueueSize").orElse(10_000));
+        }
+        return asyncDispatcher;
+    }
+
+    /**
+     * Passes events fired in the current thread to the {@link MCRAsyncEventHandler asynchronous handlers}.
+     * Called after the transaction was committed.
+     */
+    public static void submitPendingEvents() {
+        List<Runnable> pending = PENDING_EVENTS.get();
+        PENDING_EVENTS.remove();
+        pending.forEach(Runnable::run);
+    }
+
+    /**
+     * Discards events fired in the current thread for {@link MCRAsyncEventHandler asynchronous handlers}.
+     * Called after the transaction was rolled back.
+     */
+    public static void discardPendingEvents() {
+        PENDING_EVENTS.remove();
+    }
+
+    /**
+     * Keeps events fired in the current thread for {@link MCRAsyncEventHandler asynchronous handlers} until
+     * {@link #releaseEvents(boolean)} is called, even if no transaction of {@link MCRTransactionHelper} is active.
+     * Code committing an <code>EntityTransaction</code> of its own has to call this before changing data, otherwise
+     * the handlers may see the data before it is committed.
+     */
+    public static void holdEvents() {
+        HOLD_EVENTS.set(Boolean.TRUE);
+    }
+
+    /**
+     * Ends {@link #holdEvents()} and passes the kept events to the asynchronous handlers or discards them.
+     *
+     * @param committed true, if the transaction was committed, false, if it was rolled back
+     */
+    public static void releaseEvents(boolean committed) {
+        HOLD_EVENTS.remove();
+        if (committed) {
+            submitPendingEvents();
+        } else {
+            discardPendingEvents();
+        }
     }
 
     /** Same as handleEvent( evt, MCREventManager.FORWARD ) */
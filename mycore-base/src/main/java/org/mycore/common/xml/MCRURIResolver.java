@@ -70,6 +70,7 @@ import org.jdom2.input.sax.XMLReaders;
 import org.jdom2.transform.JDOMSource;
 import org.mycore.access.MCRAccessManager;
 import org.mycore.common.MCRCache;
+import org.mycore.common.MCRCacheDependencies;
 import org.mycore.common.MCRClassTools;
 import org.mycore.common.MCRConstants;
 import org.mycore.common.MCRDeveloperTools;
@@ -871,7 +872,7 @@ public final class MCRURIResolver implements URIResolver {
 
         private static final String SORT_CONFIG_PREFIX = CONFIG_PREFIX + "Classification.Sort.";
 
-        private static MCRCache<String, Element> categoryCache;
+        private static MCRCache<String, CachedElement> categoryCache;
 
         private static MCRCategoryDAO DAO;
 
@@ -902,12 +903,6 @@ public final class MCRURIResolver implements URIResolver {
             return MCRConfiguration2.getBoolean(SORT_CONFIG_PREFIX + classId).orElse(true);
         }
 
-        private static long getSystemLastModified() {
-            long xmlLastModified = MCRXMLMetadataManager.instance().getLastModified();
-            long classLastModified = DAO.getLastModified();
-            return Math.max(xmlLastModified, classLastModified);
-        }
-
         /**
          * returns a classification in a specific format. Syntax:
          * <code>classification:{editor[Complete]['['formatAlias']']|metadata}:{Levels}[:noEmptyLeaves]:{parents|
@@ -923,16 +918,46 @@ public final class MCRURIResolver implements URIResolver {
         public Source resolve(String href, String base) throws TransformerException {
             LOGGER.debug("start resolving {}", href);
             String cacheKey = getCacheKey(href);
-            Element returns = categoryCache.getIfUpToDate(cacheKey, getSystemLastModified());
-            if (returns == null) {
-                returns = getClassElement(href);
-                if (returns != null) {
-                    categoryCache.put(cacheKey, returns);
-                }
+            CachedElement cached = categoryCache.get(cacheKey);
+            if (cached != null && cached.stamp.isValid()) {
+                return new JDOMSource(cached.element);
+            }
+            //take the stamp before reading, so modifications while reading invalidate the result
+            MCRCacheDependencies.Stamp stamp = MCRCacheDependencies.stamp(getDependencies(href));
+            Element returns = getClassElement(href);
+            if (returns != null) {
+                categoryCache.put(cacheKey, new CachedElement(returns, stamp));
             }
             return new JDOMSource(returns);
         }
 
+        /**
+         * Returns the dependencies of the result of the given URI, see {@link #resolve(String, String)} for the
+         * syntax.
+         */
+        private static List<String> getDependencies(String uri) {
+            String[] parts = uri.split(":");
+            if (parts.length < 5) {
+                //invalid URI, fails in getClassElement()
+                return Collections.emptyList();
+            }
+            boolean noEmptyLeaves = "noEmptyLeaves".equals(parts[3]);
+            String classID = parts[noEmptyLeaves ? 5 : 4];
+            List<String> dependencies = new ArrayList<>();
+            dependencies.add(MCRCacheDependencies.classification(classID));
+            dependencies.add(MCRCacheDependencies.config(SORT_CONFIG_PREFIX + classID));
+            Matcher m = EDITORFORMAT_PATTERN.matcher(parts[1]);
+            boolean hasLabelFormat = m.find() && m.groupCount() == 3;
+            if (hasLabelFormat) {
+                dependencies.add(MCRCacheDependencies.config(FORMAT_CONFIG_PREFIX + m.group(2)));
+            }
+            if (noEmptyLeaves || hasLabelFormat) {
+                //label formats may contain the number of linked objects
+                dependencies.add(MCRCacheDependencies.CLASSIFICATION_LINKS);
+            }
+            return dependencies;
+        }
+
         protected String getCacheKey(String uri) {
             return uri;
         }
@@ -1023,6 +1048,18 @@ public final class MCRURIResolver implements URIResolver {
             return returns;
         }
 
+        private static final class CachedElement {
+
+            private final Element element;
+
+            private final MCRCacheDependencies.Stamp stamp;
+
+            CachedElement(Element element, MCRCacheDependencies.Stamp stamp) {
+                this.element = element;
+                this.stamp = stamp;
+            }
+        }
+
     }
 
     private static class MCRExceptionAsXMLResolver implements URIResolver {
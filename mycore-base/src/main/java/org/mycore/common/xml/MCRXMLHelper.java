@@ -27,11 +27,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
-import javax.xml.XMLConstants;
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 
 import org.apache.logging.log4j.LogManager;
@@ -118,20 +116,16 @@ public class MCRXMLHelper {
 
     /**
      * Resolve the schema from the schemaURI honoring the catalog.xml
+     *
+     * Compiled schemas are cached, so the returned schema may be shared.
      * @param schemaURI URI of XML Schema document
      * @param disableSchemaFullCheckingFeature if true disable the feature
      *                                         http://apache.org/xml/features/validation/schema-full-checking
      * @return the schema
      */
-    public static synchronized Schema resolveSchema(String schemaURI, boolean disableSchemaFullCheckingFeature)
+    public static Schema resolveSchema(String schemaURI, boolean disableSchemaFullCheckingFeature)
         throws IOException, SAXException {
-        SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        if (disableSchemaFullCheckingFeature) {
-            sf.setFeature("http://apache.org/xml/features/validation/schema-full-checking", false);
-        }
-        sf.setResourceResolver(MCREntityResolver.instance());
-        Source source = resolveSource(schemaURI);
-        return sf.newSchema(source);
+        return MCRXMLSchemaCache.getSchema(schemaURI, disableSchemaFullCheckingFeature);
     }
 
     /**
@@ -44,7 +44,9 @@ public class MCRXMLParserFactory {
 
     private static XMLReaderJDOMFactory nonValidatingFactory = new MCRXMLReaderSAX2Factory(false);
 
-    private static XMLReaderJDOMFactory validatingFactory = new MCRXMLReaderSAX2Factory(true);
+    private static XMLReaderJDOMFactory validatingFactory = MCRConfiguration2
+        .getBoolean("MCR.XMLParser.CacheGrammars").orElse(false) ? new MCRXMLReaderSchemaFactory()
+            : new MCRXMLReaderSAX2Factory(true);
 
     private static ThreadLocal<MCRXMLParserImpl> nonValidating = ThreadLocal.withInitial(
         () -> new MCRXMLParserImpl(nonValidatingFactory));
@@ -122,4 +124,31 @@ public class MCRXMLParserFactory {
             }
         }
     }
+
+    /**
+     * Creates readers validating by the shared schema of {@link MCRXMLSchemaCache}, so grammars referenced by
+     * <code>xsi:schemaLocation</code> are compiled once. Other than {@link MCRXMLReaderSAX2Factory} readers do not
+     * validate against a DTD.
+     */
+    static class MCRXMLReaderSchemaFactory implements XMLReaderJDOMFactory {
+
+        @Override
+        public XMLReader createXMLReader() throws JDOMException {
+            try {
+                SAXParserFactory factory = SAXParserFactory.newDefaultInstance();
+                factory.setNamespaceAware(true);
+                factory.setSchema(MCRXMLSchemaCache.getSharedSchema());
+                XMLReader reader = factory.newSAXParser().getXMLReader();
+                reader.setFeature(SAX_FEATURE_NAMESPACE_PREFIXES, true);
+                return reader;
+            } catch (SAXException | ParserConfigurationException e) {
+                throw new JDOMException("Unable to create schema validating XMLReader.", e);
+            }
+        }
+
+        @Override
+        public boolean isValidating() {
+            return true;
+        }
+    }
 }
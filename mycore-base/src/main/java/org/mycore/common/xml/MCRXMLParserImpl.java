@@ -57,6 +57,8 @@ public class MCRXMLParserImpl implements MCRXMLParser {
 
     private boolean validate;
 
+    private boolean sharedSchema;
+
     private SAXBuilder builder;
 
     public MCRXMLParserImpl(XMLReaderJDOMFactory factory) {
@@ -65,12 +67,17 @@ public class MCRXMLParserImpl implements MCRXMLParser {
 
     public MCRXMLParserImpl(XMLReaderJDOMFactory factory, boolean silent) {
         this.validate = factory.isValidating();
+        //readers of a schema factory validate by the shared schema, which is replaced if a schema was modified
+        sharedSchema = factory instanceof MCRXMLParserFactory.MCRXMLReaderSchemaFactory;
         builder = new SAXBuilder(factory);
+        builder.setReuseParser(!sharedSchema);
         builder.setFeature(FEATURE_NAMESPACES, true);
-        builder.setFeature(FEATURE_SCHEMA_SUPPORT, validate);
+        builder.setFeature(FEATURE_SCHEMA_SUPPORT, validate && !sharedSchema);
         builder.setFeature(FEATURE_FULL_SCHEMA_SUPPORT, false);
         builder.setErrorHandler(new MCRXMLParserErrorHandler(silent));
-        builder.setEntityResolver(new AbsoluteToRelativeResolver(MCREntityResolver.instance()));
+        EntityResolver2 resolver = new AbsoluteToRelativeResolver(MCREntityResolver.instance());
+        builder.setEntityResolver(sharedSchema ? MCRXMLSchemaCache.getRecordingResolver(resolver)
+            : resolver);
     }
 
     public boolean isValidating() {
@@ -78,6 +85,9 @@ public class MCRXMLParserImpl implements MCRXMLParser {
     }
 
     public Document parseXML(MCRContent content) throws SAXParseException {
+        if (sharedSchema) {
+            MCRXMLSchemaCache.checkModified();
+        }
         try {
             InputSource source = content.getInputSource();
             return builder.build(source);
@@ -0,0 +1,243 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.common.xml;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRCache;
+import org.mycore.common.config.MCRConfiguration2;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.EntityResolver2;
+
+/**
+ * Caches compiled XML schemas.
+ *
+ * Schemas compiled by {@link MCRXMLHelper#resolveSchema(String, boolean)} are cached by their URI, the cache size
+ * can be set via MCR.XMLParser.SchemaCache.Size (default is 50). Validating parsers share one schema that loads
+ * grammars by the <code>xsi:schemaLocation</code> hints of the parsed documents and keeps them for further documents.
+ *
+ * Schema documents are checked for modifications every MCR.XMLParser.LastModifiedCheckPeriod milliseconds
+ * (default is 10000). If a schema document of the shared schema was modified, all cached schemas are dropped.
+ */
+final class MCRXMLSchemaCache {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final long CHECK_PERIOD = MCRConfiguration2.getLong("MCR.XMLParser.LastModifiedCheckPeriod")
+        .orElse(10000L);
+
+    private static final Set<String> LOCAL_PROTOCOLS = Set.of("file", "jar");
+
+    private static final MCRCache<String, Schema> SCHEMAS = new MCRCache<>(
+        MCRConfiguration2.getInt("MCR.XMLParser.SchemaCache.Size").orElse(50), "XML Schemas");
+
+    /**
+     * Resolved schema documents of the shared schema, mapped to their last modified time
+     */
+    private static final Map<String, Long> RESOURCES = new ConcurrentHashMap<>();
+
+    private static volatile Schema sharedSchema;
+
+    private static volatile long lastCheck;
+
+    private MCRXMLSchemaCache() {
+    }
+
+    /**
+     * Returns the compiled schema of the given URI.
+     *
+     * @param schemaURI URI of XML Schema document
+     * @param disableSchemaFullCheckingFeature if true disable the feature
+     *                                         http://apache.org/xml/features/validation/schema-full-checking
+     */
+    static Schema getSchema(String schemaURI, boolean disableSchemaFullCheckingFeature)
+        throws IOException, SAXException {
+        String key = schemaURI + (disableSchemaFullCheckingFeature ? "#noFullChecking" : "");
+        InputSource entity = MCREntityResolver.instance().resolveEntity(null, schemaURI);
+        String systemId = entity == null || entity.getSystemId() == null ? schemaURI : entity.getSystemId();
+        Schema schema = SCHEMAS.getIfUpToDate(key, new SchemaModifiedHandle(systemId));
+        if (schema == null) {
+            schema = newSchemaFactory(disableSchemaFullCheckingFeature)
+                .newSchema(MCRXMLHelper.resolveSource(schemaURI));
+            SCHEMAS.put(key, schema);
+        }
+        return schema;
+    }
+
+    /**
+     * Returns the schema used by validating parsers.
+     *
+     * The schema validates against the schemas referenced in the documents, compiled grammars are kept as long as
+     * memory is available.
+     */
+    static Schema getSharedSchema() throws SAXException {
+        Schema schema = sharedSchema;
+        if (schema == null) {
+            synchronized (MCRXMLSchemaCache.class) {
+                schema = sharedSchema;
+                if (schema == null) {
+                    schema = newSchemaFactory(false).newSchema();
+                    sharedSchema = schema;
+                }
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Returns an entity resolver, that records the resolved documents for {@link #checkModified()}.
+     */
+    static EntityResolver2 getRecordingResolver(EntityResolver2 resolver) {
+        return new RecordingResolver(resolver);
+    }
+
+    private static SchemaFactory newSchemaFactory(boolean disableSchemaFullCheckingFeature) throws SAXException {
+        SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        if (disableSchemaFullCheckingFeature) {
+            sf.setFeature("http://apache.org/xml/features/validation/schema-full-checking", false);
+        }
+        sf.setResourceResolver(MCREntityResolver.instance());
+        return sf;
+    }
+
+    /**
+     * Drops all cached schemas, if a resolved schema document was modified.
+     *
+     * Schema documents are checked at most every MCR.XMLParser.LastModifiedCheckPeriod milliseconds.
+     */
+    static void checkModified() {
+        long now = System.currentTimeMillis();
+        if (now - lastCheck < CHECK_PERIOD) {
+            return;
+        }
+        lastCheck = now;
+        RESOURCES.entrySet()
+            .stream()
+            .filter(resource -> getLastModified(resource.getKey()) != resource.getValue())
+            .findFirst()
+            .ifPresent(resource -> {
+                LOGGER.info("{} was modified, dropping cached XML schemas.", resource.getKey());
+                synchronized (MCRXMLSchemaCache.class) {
+                    sharedSchema = null;
+                    SCHEMAS.clear();
+                    RESOURCES.clear();
+                }
+            });
+    }
+
+    private static void record(String systemId) {
+        RESOURCES.computeIfAbsent(systemId, MCRXMLSchemaCache::getLastModified);
+    }
+
+    /**
+     * Returns the last modified time of local resources, remote resources are considered as unmodified.
+     */
+    private static long getLastModified(String systemId) {
+        try {
+            URL url = URI.create(systemId).toURL();
+            if (!LOCAL_PROTOCOLS.contains(url.getProtocol())) {
+                return -1;
+            }
+            URLConnection con = url.openConnection();
+            try {
+                return con.getLastModified();
+            } finally {
+                con.getInputStream().close();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Could not get last modified time of {}", systemId, e);
+            return -1;
+        }
+    }
+
+    private static String resolve(String baseURI, String systemId) {
+        try {
+            return URI.create(baseURI).resolve(systemId).toString();
+        } catch (IllegalArgumentException e) {
+            return systemId;
+        }
+    }
+
+    private static final class SchemaModifiedHandle implements MCRCache.ModifiedHandle {
+
+        private final String systemId;
+
+        SchemaModifiedHandle(String systemId) {
+            this.systemId = systemId;
+        }
+
+        @Override
+        public long getCheckPeriod() {
+            return CHECK_PERIOD;
+        }
+
+        @Override
+        public long getLastModified() {
+            return MCRXMLSchemaCache.getLastModified(systemId);
+        }
+    }
+
+    private static final class RecordingResolver implements EntityResolver2 {
+
+        private final EntityResolver2 resolver;
+
+        RecordingResolver(EntityResolver2 resolver) {
+            this.resolver = resolver;
+        }
+
+        @Override
+        public InputSource getExternalSubset(String name, String baseURI) throws SAXException, IOException {
+            return resolver.getExternalSubset(name, baseURI);
+        }
+
+        @Override
+        public InputSource resolveEntity(String name, String publicId, String baseURI, String systemId)
+            throws SAXException, IOException {
+            return record(resolver.resolveEntity(name, publicId, baseURI, systemId), baseURI, systemId);
+        }
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
+            return record(resolver.resolveEntity(publicId, systemId), null, systemId);
+        }
+
+        private static InputSource record(InputSource entity, String baseURI, String systemId) {
+            if (entity != null && entity.getSystemId() != null) {
+                MCRXMLSchemaCache.record(entity.getSystemId());
+            } else if (systemId != null) {
+                MCRXMLSchemaCache.record(baseURI == null ? systemId : resolve(baseURI, systemId));
+            }
+            return entity;
+        }
+    }
+
+}
@@ -158,4 +158,23 @@ public interface MCRCategLinkService {
      */
     void setLinks(MCRCategLinkReference objectReference, Collection<MCRCategoryID> categories);
 
+    /**
+     * Replaces all links of an Object by links to the given categories.
+     * 
+     * Other than {@link #setLinks(MCRCategLinkReference, Collection)} existing links to categories not given are
+     * removed. Implementors should only change links that differ.
+     * 
+     * @param objectReference
+     *            reference to a Object
+     * @param categories
+     *            a collection of categoryIDs to be linked to, an empty collection removes all links
+     * @see #deleteLink(MCRCategLinkReference)
+     */
+    default void updateLinks(MCRCategLinkReference objectReference, Collection<MCRCategoryID> categories) {
+        deleteLink(objectReference);
+        if (!categories.isEmpty()) {
+            setLinks(objectReference, categories);
+        }
+    }
+
 }
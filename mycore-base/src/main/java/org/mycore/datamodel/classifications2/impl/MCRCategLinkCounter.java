@@ -0,0 +1,276 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.classifications2.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.datamodel.classifications2.MCRCategoryID;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Maintains the precomputed link counts stored in {@link MCRCategoryLinkCount}.
+ *
+ * For every category and object type the number of objects linked to the category or any of its descendants is
+ * stored, so {@link MCRCategLinkServiceImpl#countLinksForType(org.mycore.datamodel.classifications2.MCRCategory,
+ * String, boolean)} does not need to aggregate the link table. Counts are updated with the links of an object and
+ * are recalculated for a classification if its structure changes. Counts without object type are the sum of all
+ * object types.
+ */
+final class MCRCategLinkCounter {
+
+    static final String ENABLED_PROPERTY = "MCR.Classifications.LinkServiceImpl.Counts.Enabled";
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String NAMED_QUERY_NAMESPACE = "MCRCategoryLinkCount.";
+
+    private MCRCategLinkCounter() {
+    }
+
+    static boolean isEnabled() {
+        return MCRConfiguration2.getBoolean(ENABLED_PROPERTY).orElse(false);
+    }
+
+    /**
+     * Returns the link counts of all categories of a classification having links.
+     *
+     * @param type object type to count or null, to count objects of all types
+     */
+    static Map<MCRCategoryID, Number> getCounts(EntityManager em, String classID, String type) {
+        TypedQuery<Object[]> q;
+        if (type == null) {
+            q = em.createNamedQuery(NAMED_QUERY_NAMESPACE + "byClassID", Object[].class);
+        } else {
+            q = em.createNamedQuery(NAMED_QUERY_NAMESPACE + "byClassIDAndType", Object[].class);
+            q.setParameter("type", type);
+        }
+        q.setParameter("classID", classID);
+        Map<MCRCategoryID, Number> counts = new HashMap<>();
+        for (Object[] row : q.getResultList()) {
+            counts.put(new MCRCategoryID(classID, toCategID(row[0])), (Number) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Updates the counts after the links of one object changed.
+     *
+     * @param type type of the object
+     * @param before the categories linked before
+     * @param after the categories linked now
+     */
+    static void update(EntityManager em, String type, Collection<MCRCategoryID> before,
+        Collection<MCRCategoryID> after) {
+        Map<String, Set<String>> beforeByClass = groupByClassID(before);
+        Map<String, Set<String>> afterByClass = groupByClassID(after);
+        Set<String> classIDs = new HashSet<>(beforeByClass.keySet());
+        classIDs.addAll(afterByClass.keySet());
+        for (String classID : classIDs) {
+            Set<String> beforeIDs = beforeByClass.getOrDefault(classID, Set.of());
+            Set<String> afterIDs = afterByClass.getOrDefault(classID, Set.of());
+            if (beforeIDs.equals(afterIDs)) {
+                continue;
+            }
+            Set<String> categIDs = new HashSet<>(beforeIDs);
+            categIDs.addAll(afterIDs);
+            Map<String, Set<String>> ancestors = getAncestors(em, classID, categIDs);
+            Set<String> beforeCounted = getCounted(ancestors, beforeIDs);
+            Set<String> afterCounted = getCounted(ancestors, afterIDs);
+            Set<String> added = new HashSet<>(afterCounted);
+            added.removeAll(beforeCounted);
+            Set<String> removed = new HashSet<>(beforeCounted);
+            removed.removeAll(afterCounted);
+            increment(em, classID, type, added, 1);
+            increment(em, classID, type, removed, -1);
+        }
+    }
+
+    /**
+     * Recalculates the counts of all classifications.
+     */
+    static void rebuild(EntityManager em) {
+        em.createNamedQuery(NAMED_QUERY_NAMESPACE + "deleteAll").executeUpdate();
+        List<String> classIDs = em.createNamedQuery("MCRCategory.rootIds", MCRCategoryID.class)
+            .getResultList()
+            .stream()
+            .map(MCRCategoryID::getRootID)
+            .collect(Collectors.toList());
+        for (String classID : classIDs) {
+            insertCounts(em, classID);
+        }
+    }
+
+    /**
+     * Recalculates the counts of one classification.
+     */
+    static void rebuild(EntityManager em, String classID) {
+        em.createNamedQuery(NAMED_QUERY_NAMESPACE + "deleteByClassID")
+            .setParameter("classID", classID)
+            .executeUpdate();
+        insertCounts(em, classID);
+    }
+
+    private static void insertCounts(EntityManager em, String classID) {
+        List<String> types = em.createNamedQuery("MCRCategoryLink.types", String.class).getResultList();
+        int rows = 0;
+        for (String type : types) {
+            List<Object[]> counts = em.createNamedQuery("MCRCategoryLink.NumberByTypePerClassID", Object[].class)
+                .setParameter("classID", classID)
+                .setParameter("type", type)
+                .getResultList();
+            for (Object[] row : counts) {
+                em.persist(new MCRCategoryLinkCount(classID, toCategID(row[0]), type,
+                    ((Number) row[1]).intValue()));
+                rows++;
+            }
+        }
+        LOGGER.info("Rebuilt {} link counts of classification {}.", rows, classID);
+    }
+
+    private static Map<String, Set<String>> groupByClassID(Collection<MCRCategoryID> categories) {
+        return categories.stream()
+            .collect(Collectors.groupingBy(MCRCategoryID::getRootID,
+                Collectors.mapping(MCRCategoryID::getID, Collectors.toSet())));
+    }
+
+    /**
+     * Returns the given categories mapped to the categories they count for, i.e. themselves and their ancestors.
+     */
+    private static Map<String, Set<String>> getAncestors(EntityManager em, String classID, Set<String> categIDs) {
+        List<Object[]> rows = em.createNamedQuery(NAMED_QUERY_NAMESPACE + "ancestors", Object[].class)
+            .setParameter("classID", classID)
+            .setParameter("categIDs", categIDs)
+            .getResultList();
+        Map<String, Set<String>> ancestors = new HashMap<>();
+        for (Object[] row : rows) {
+            ancestors.computeIfAbsent(toCategID(row[0]), k -> new HashSet<>()).add(toCategID(row[1]));
+        }
+        return ancestors;
+    }
+
+    private static Set<String> getCounted(Map<String, Set<String>> ancestors, Set<String> categIDs) {
+        return categIDs.stream()
+            .map(ancestors::get)
+            .filter(Objects::nonNull)
+            .flatMap(Set::stream)
+            .collect(Collectors.toSet());
+    }
+
+    private static void increment(EntityManager em, String classID, String type, Set<String> categIDs,
+        int increment) {
+        if (categIDs.isEmpty()) {
+            return;
+        }
+        if (increment > 0) {
+            createMissing(em, classID, type, categIDs);
+        }
+        em.createNamedQuery(NAMED_QUERY_NAMESPACE + "increment")
+            .setParameter("increment", increment)
+            .setParameter("classID", classID)
+            .setParameter("type", type)
+            .setParameter("categIDs", categIDs)
+            .executeUpdate();
+    }
+
+    /**
+     * Creates counts of zero for categories without count, so they can be incremented.
+     */
+    private static void createMissing(EntityManager em, String classID, String type, Set<String> categIDs) {
+        Set<String> missing = getMissing(em, classID, type, categIDs);
+        if (!missing.isEmpty()) {
+            insertZeroCounts(em, classID, type, missing);
+        }
+    }
+
+    /**
+     * Inserts counts of zero. A concurrent transaction may have inserted the same count since it was found missing,
+     * which is not visible here in every isolation level. Every row is inserted within a savepoint, so such
+     * duplicates are skipped without failing the transaction.
+     */
+    static void insertZeroCounts(EntityManager em, String classID, String type, Set<String> categIDs) {
+        em.flush();
+        String insert = "INSERT INTO " + getTableName(em)
+            + " (ClassID, CategID, objectType, linkCount) VALUES (?, ?, ?, 0)";
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(insert)) {
+                for (String categID : categIDs) {
+                    Savepoint savepoint = connection.setSavepoint();
+                    try {
+                        stmt.setString(1, classID);
+                        stmt.setString(2, categID);
+                        stmt.setString(3, type);
+                        stmt.executeUpdate();
+                        connection.releaseSavepoint(savepoint);
+                    } catch (SQLException e) {
+                        if (!isConstraintViolation(e)) {
+                            throw e;
+                        }
+                        connection.rollback(savepoint);
+                        LOGGER.debug("Count of {}:{} for type {} was inserted concurrently.", classID, categID,
+                            type);
+                    }
+                }
+            }
+        });
+    }
+
+    private static boolean isConstraintViolation(SQLException e) {
+        //SQL state class 23: integrity constraint violation
+        return e.getSQLState() != null && e.getSQLState().startsWith("23");
+    }
+
+    private static String getTableName(EntityManager em) {
+        SessionFactoryImpl sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactoryImpl.class);
+        return ((AbstractEntityPersister) sessionFactory.getMetamodel().entityPersister(MCRCategoryLinkCount.class))
+            .getTableName();
+    }
+
+    private static Set<String> getMissing(EntityManager em, String classID, String type, Set<String> categIDs) {
+        Set<String> missing = new HashSet<>(categIDs);
+        missing.removeAll(em.createNamedQuery(NAMED_QUERY_NAMESPACE + "existing", String.class)
+            .setParameter("classID", classID)
+            .setParameter("type", type)
+            .setParameter("categIDs", categIDs)
+            .getResultList());
+        return missing;
+    }
+
+    private static String toCategID(Object categID) {
+        return categID == null ? "" : categID.toString();
+    }
+
+}
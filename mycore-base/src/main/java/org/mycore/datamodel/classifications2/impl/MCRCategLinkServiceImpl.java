@@ -18,6 +18,7 @@
 
 package org.mycore.datamodel.classifications2.impl;
 
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
@@ -26,6 +27,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -33,6 +35,7 @@ import org.apache.logging.log4j.Logger;
 import org.hibernate.annotations.QueryHints;
 import org.mycore.backend.jpa.MCREntityManagerProvider;
 import org.mycore.common.MCRCache;
+import org.mycore.common.MCRCacheDependencies;
 import org.mycore.common.MCRPersistenceException;
 import org.mycore.common.MCRStreamUtils;
 import org.mycore.common.config.MCRConfiguration2;
@@ -97,6 +100,14 @@ public class MCRCategLinkServiceImpl implements MCRCategLinkService {
         //have to use rootID here if childrenOnly=false
         //old classification browser/editor could not determine links correctly otherwise
         final EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        if (MCRCategLinkCounter.isEnabled()) {
+            MCRCategLinkCounter.getCounts(em, parent.getId().getRootID(), type).forEach((id, count) -> {
+                if (!childrenOnly || countLinks.containsKey(id)) {
+                    countLinks.put(id, count);
+                }
+            });
+            return countLinks;
+        }
         if (!childrenOnly) {
             parent = parent.getRoot();
         } else if (!(parent instanceof MCRCategoryImpl) || ((MCRCategoryImpl) parent).getInternalID() == 0) {
@@ -128,10 +139,14 @@ public class MCRCategLinkServiceImpl implements MCRCategLinkService {
     @Override
     public void deleteLink(MCRCategLinkReference reference) {
         final EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        if (MCRCategLinkCounter.isEnabled()) {
+            MCRCategLinkCounter.update(em, reference.getType(), getLinkIDs(em, reference).keySet(), Set.of());
+        }
         Query q = em.createNamedQuery(NAMED_QUERY_NAMESPACE + "deleteByObjectID");
         q.setParameter("id", reference.getObjectID());
         q.setParameter("type", reference.getType());
         int deleted = q.executeUpdate();
+        MCRCacheDependencies.modified(MCRCacheDependencies.CLASSIFICATION_LINKS);
         LOGGER.debug("Number of Links deleted: {}", deleted);
     }
 
@@ -154,6 +169,11 @@ public class MCRCategLinkServiceImpl implements MCRCategLinkService {
             objectIds.add(ref.getObjectID());
         }
         EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        if (MCRCategLinkCounter.isEnabled()) {
+            for (MCRCategLinkReference ref : ids) {
+                MCRCategLinkCounter.update(em, ref.getType(), getLinkIDs(em, ref).keySet(), Set.of());
+            }
+        }
         jakarta.persistence.Query q = em.createNamedQuery(NAMED_QUERY_NAMESPACE + "deleteByObjectCollection");
         int deleted = 0;
         for (Map.Entry<String, Collection<String>> entry : typeMap.entrySet()) {
@@ -161,6 +181,7 @@ public class MCRCategLinkServiceImpl implements MCRCategLinkService {
             q.setParameter("type", entry.getKey());
             deleted += q.executeUpdate();
         }
+        MCRCacheDependencies.modified(MCRCacheDependencies.CLASSIFICATION_LINKS);
         LOGGER.debug("Number of Links deleted: {}", deleted);
     }
 
@@ -200,28 +221,132 @@ public class MCRCategLinkServiceImpl implements MCRCategLinkService {
     @Override
     public void setLinks(MCRCategLinkReference objectReference, Collection<MCRCategoryID> categories) {
         EntityManager entityManager = MCREntityManagerProvider.getCurrentEntityManager();
-        categories
+        Set<MCRCategoryID> linked = getLinkIDs(entityManager, objectReference).keySet();
+        List<MCRCategoryID> added = categories.stream()
+            .distinct()
+            .filter(categID -> !linked.contains(categID))
+            .collect(Collectors.toList());
+        if (addLinks(entityManager, objectReference, added)) {
+            if (MCRCategLinkCounter.isEnabled()) {
+                Set<MCRCategoryID> after = new HashSet<>(linked);
+                after.addAll(added);
+                MCRCategLinkCounter.update(entityManager, objectReference.getType(), linked, after);
+            }
+            MCRCacheDependencies.modified(MCRCacheDependencies.CLASSIFICATION_LINKS);
+        }
+    }
+
+    /**
+     * Replaces the links of the given reference. Current links are loaded in one query, only links to categories
+     * not given are removed and only links to categories not linked yet are created.
+     */
+    @Override
+    public void updateLinks(MCRCategLinkReference objectReference, Collection<MCRCategoryID> categories) {
+        EntityManager entityManager = MCREntityManagerProvider.getCurrentEntityManager();
+        Map<MCRCategoryID, Integer> linked = getLinkIDs(entityManager, objectReference);
+        Set<MCRCategoryID> categorySet = new HashSet<>(categories);
+        List<Integer> removed = linked.entrySet()
             .stream()
+            .filter(link -> !categorySet.contains(link.getKey()))
+            .map(Map.Entry::getValue)
+            .collect(Collectors.toList());
+        List<MCRCategoryID> added = categories.stream()
             .distinct()
-            .forEach(categID -> {
-                final MCRCategory category = getMCRCategory(entityManager, categID);
-                if (category == null) {
-                    throw new MCRPersistenceException("Could not link to unknown category " + categID);
-                }
-                MCRCategoryLinkImpl link = new MCRCategoryLinkImpl(category, objectReference);
-                if (LOGGER.isDebugEnabled()) {
-                    MCRCategory linkedCategory = link.getCategory();
-                    StringBuilder debugMessage = new StringBuilder("Adding Link from ").append(linkedCategory.getId());
-                    if (linkedCategory instanceof MCRCategoryImpl) {
-                        debugMessage.append("(").append(((MCRCategoryImpl) linkedCategory).getInternalID())
-                            .append(") ");
-                    }
-                    debugMessage.append("to ").append(objectReference);
-                    LOGGER.debug(debugMessage.toString());
+            .filter(categID -> !linked.containsKey(categID))
+            .collect(Collectors.toList());
+        boolean modified = false;
+        if (!removed.isEmpty()) {
+            Query q = entityManager.createNamedQuery(NAMED_QUERY_NAMESPACE + "deleteByIDs");
+            q.setParameter("ids", removed);
+            LOGGER.debug("Number of Links deleted: {}", q.executeUpdate());
+            modified = true;
+        }
+        if (addLinks(entityManager, objectReference, added)) {
+            modified = true;
+        }
+        if (modified) {
+            if (MCRCategLinkCounter.isEnabled()) {
+                MCRCategLinkCounter.update(entityManager, objectReference.getType(), linked.keySet(), categorySet);
+            }
+            MCRCacheDependencies.modified(MCRCacheDependencies.CLASSIFICATION_LINKS);
+        }
+    }
+
+    /**
+     * Returns the linked categories of the given reference mapped to the IDs of the links.
+     */
+    private static Map<MCRCategoryID, Integer> getLinkIDs(EntityManager entityManager,
+        MCRCategLinkReference objectReference) {
+        TypedQuery<Object[]> q = entityManager.createNamedQuery(NAMED_QUERY_NAMESPACE + "linkIDsByObjectID",
+            Object[].class);
+        q.setParameter("id", objectReference.getObjectID());
+        q.setParameter("type", objectReference.getType());
+        setReadOnly(q);
+        Map<MCRCategoryID, Integer> links = new HashMap<>();
+        for (Object[] row : q.getResultList()) {
+            links.put((MCRCategoryID) row[1], (Integer) row[0]);
+        }
+        return links;
+    }
+
+    private static boolean addLinks(EntityManager entityManager, MCRCategLinkReference objectReference,
+        Collection<MCRCategoryID> categories) {
+        if (categories.isEmpty()) {
+            return false;
+        }
+        Map<MCRCategoryID, MCRCategory> categoryMap = getMCRCategories(entityManager, categories);
+        for (MCRCategoryID categID : categories) {
+            final MCRCategory category = categoryMap.get(categID);
+            if (category == null) {
+                throw new MCRPersistenceException("Could not link to unknown category " + categID);
+            }
+            MCRCategoryLinkImpl link = new MCRCategoryLinkImpl(category, objectReference);
+            if (LOGGER.isDebugEnabled()) {
+                MCRCategory linkedCategory = link.getCategory();
+                StringBuilder debugMessage = new StringBuilder("Adding Link from ").append(linkedCategory.getId());
+                if (linkedCategory instanceof MCRCategoryImpl) {
+                    debugMessage.append("(").append(((MCRCategoryImpl) linkedCategory).getInternalID())
+                        .append(") ");
                 }
-                entityManager.persist(link);
-                LOGGER.debug("===DONE: {}", link.id);
-            });
+                debugMessage.append("to ").append(objectReference);
+                LOGGER.debug(debugMessage.toString());
+            }
+            entityManager.persist(link);
+            LOGGER.debug("===DONE: {}", link.id);
+        }
+        return true;
+    }
+
+    /**
+     * Resolves the given categories. Categories not cached are loaded with one query per classification.
+     */
+    private static Map<MCRCategoryID, MCRCategory> getMCRCategories(EntityManager entityManager,
+        Collection<MCRCategoryID> categIDs) {
+        Map<MCRCategoryID, MCRCategory> categories = new HashMap<>();
+        Map<String, List<String>> missing = new HashMap<>();
+        long lastModified = DAO.getLastModified();
+        for (MCRCategoryID categID : categIDs) {
+            MCRCategory categ = categCache.getIfUpToDate(categID, lastModified);
+            if (categ != null) {
+                categories.put(categID, categ);
+            } else if (categID.isRootID()) {
+                Optional.ofNullable(getMCRCategory(entityManager, categID))
+                    .ifPresent(c -> categories.put(categID, c));
+            } else {
+                missing.computeIfAbsent(categID.getRootID(), k -> new ArrayList<>()).add(categID.getID());
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : missing.entrySet()) {
+            TypedQuery<MCRCategoryImpl> q = entityManager.createNamedQuery("MCRCategory.byNaturalIDs",
+                MCRCategoryImpl.class);
+            q.setParameter("classID", entry.getKey());
+            q.setParameter("categIDs", entry.getValue());
+            for (MCRCategoryImpl categ : q.getResultList()) {
+                categCache.put(categ.getId(), categ);
+                categories.put(categ.getId(), categ);
+            }
+        }
+        return categories;
     }
 
     private static MCRCategory getMCRCategory(EntityManager entityManager, MCRCategoryID categID) {
@@ -383,6 +508,25 @@ public class MCRCategLinkServiceImpl implements MCRCategLinkService {
         return q.getResultList();
     }
 
+    /**
+     * Recalculates the precomputed link counts of all classifications.
+     *
+     * @see #countLinksForType(MCRCategory, String, boolean)
+     */
+    public void rebuildLinkCounts() {
+        MCRCategLinkCounter.rebuild(MCREntityManagerProvider.getCurrentEntityManager());
+    }
+
+    /**
+     * Recalculates the precomputed link counts of the given classification.
+     *
+     * @param classID ID of the classification
+     * @see #countLinksForType(MCRCategory, String, boolean)
+     */
+    public void rebuildLinkCounts(String classID) {
+        MCRCategLinkCounter.rebuild(MCREntityManagerProvider.getCurrentEntityManager(), classID);
+    }
+
     private static void setReadOnly(Query query) {
         query.setHint("org.hibernate.readOnly", Boolean.TRUE);
     }
@@ -22,11 +22,13 @@ import java.net.URI;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -36,9 +38,14 @@ import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mycore.backend.jpa.MCREntityManagerProvider;
+import org.mycore.common.MCRCacheDependencies;
 import org.mycore.common.MCRException;
 import org.mycore.common.MCRPersistenceException;
+import org.mycore.common.MCRSession;
+import org.mycore.common.MCRSessionMgr;
 import org.mycore.common.MCRStreamUtils;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.config.MCRConfigurationBase;
 import org.mycore.datamodel.classifications2.MCRCategory;
 import org.mycore.datamodel.classifications2.MCRCategoryDAO;
 import org.mycore.datamodel.classifications2.MCRCategoryID;
@@ -71,7 +78,11 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
 
     private static final String NAMED_QUERY_NAMESPACE = "MCRCategory.";
 
-    private static HashMap<String, Long> LAST_MODIFIED_MAP = new HashMap<>();
+    private static final Map<String, Long> LAST_MODIFIED_MAP = new ConcurrentHashMap<>();
+
+    private static final String SNAPSHOT_PROPERTY = "MCR.Category.DAO.Snapshot.Enabled";
+
+    private static final Map<String, MCRCategorySnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
 
     @Override
     public MCRCategory addCategory(MCRCategoryID parentID, MCRCategory category) {
@@ -84,7 +95,7 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
 
     @Override
     public MCRCategory addCategory(MCRCategoryID parentID, MCRCategory category, int position) {
-        if (exist(category.getId())) {
+        if (existsInDatabase(category.getId())) {
             throw new MCRException("Cannot add category. A category with ID " + category.getId() + " already exists");
         }
         return withoutFlush(MCREntityManagerProvider.getCurrentEntityManager(), false, entityManager -> {
@@ -107,6 +118,19 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
             LOGGER.debug("Calculating LEFT,RIGHT and LEVEL attributes...");
             final MCRCategoryImpl wrapCategory = MCRCategoryImpl.wrapCategory(category, parent,
                 parent == null ? category.getRoot() : parent.getRoot());
+            int gap = getGap();
+            if (gap > 1) {
+                if (parent == null) {
+                    wrapCategory.calculateLeftRightAndLevel(leftStart, levelStart, gap);
+                } else {
+                    new MCRCategoryGapNumbering(gap).insert(entityManager, parent, wrapCategory, position);
+                }
+                entityManager.persist(category);
+                LOGGER.info("Category {} saved.", category.getId());
+                updateTimeStamp();
+                updateLastModified(category.getRoot().getId().toString());
+                return parent;
+            }
             wrapCategory.calculateLeftRightAndLevel(leftStart, levelStart);
             // always add +1 for the current node
             int nodes = 1 + (wrapCategory.getRight() - wrapCategory.getLeft()) / 2;
@@ -149,10 +173,16 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
             throw new MCRPersistenceException("Category " + id + " was not found. Delete aborted.");
         }
         LOGGER.debug("Will delete: {}", category.getId());
-        MCRCategory parent = category.parent;
+        MCRCategoryImpl parent = (MCRCategoryImpl) category.parent;
         category.detachFromParent();
         entityManager.remove(category);
-        if (parent != null) {
+        if (parent != null && getGap() > 1) {
+            //unused values are kept as gap
+            entityManager.flush();
+            if (parent.getChildren().isEmpty()) {
+                parent.setRight(parent.getLeft() + 1);
+            }
+        } else if (parent != null) {
             entityManager.flush();
             LOGGER.debug("Left: {} Right: {}", category.getLeft(), category.getRight());
             // always add +1 for the currentNode
@@ -163,6 +193,7 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
         }
         updateTimeStamp();
         updateLastModified(category.getRootID());
+        updateLinkCounts(entityManager, category.getRootID());
     }
 
     /*
@@ -172,7 +203,12 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
      */
     @Override
     public boolean exist(MCRCategoryID id) {
-        return getLeftRightLevelValues(MCREntityManagerProvider.getCurrentEntityManager(), id) != null;
+        EntityManager entityManager = MCREntityManagerProvider.getCurrentEntityManager();
+        MCRCategorySnapshot snapshot = getSnapshot(entityManager, id);
+        if (snapshot != null) {
+            return snapshot.contains(id);
+        }
+        return getLeftRightLevelValues(entityManager, id) != null;
     }
 
     @Override
@@ -187,7 +223,9 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
     @Override
     public List<MCRCategory> getCategoriesByLabel(MCRCategoryID baseID, String lang, String text) {
         EntityManager entityManager = MCREntityManagerProvider.getCurrentEntityManager();
-        MCRCategoryDTO leftRight = getLeftRightLevelValues(entityManager, baseID);
+        MCRCategorySnapshot snapshot = getSnapshot(entityManager, baseID);
+        MCRCategoryDTO leftRight = snapshot != null ? snapshot.getLeftRightLevelValues(baseID)
+            : getLeftRightLevelValues(entityManager, baseID);
         return cast(entityManager
             .createNamedQuery(NAMED_QUERY_NAMESPACE + "byLabelInClass", MCRCategoryImpl.class)
             .setParameter("rootID", baseID.getRootID())
@@ -202,6 +240,11 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
     @SuppressWarnings("unchecked")
     public MCRCategory getCategory(MCRCategoryID id, int childLevel) {
         EntityManager entityManager = MCREntityManagerProvider.getCurrentEntityManager();
+        MCRCategorySnapshot snapshot = getSnapshot(entityManager, id);
+        if (snapshot != null) {
+            List<MCRCategoryDTO> rows = snapshot.getCategoryRows(id, childLevel);
+            return rows.isEmpty() ? null : buildCategoryFromPrefetchedList(rows, id);
+        }
         final boolean fetchAllChildren = childLevel < 0;
         Query q;
         if (id.isRootID()) {
@@ -259,18 +302,28 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
     @Override
     public List<MCRCategory> getParents(MCRCategoryID id) {
         EntityManager entityManager = MCREntityManagerProvider.getCurrentEntityManager();
-        MCRCategoryDTO leftRight = getLeftRightLevelValues(entityManager, id);
-        if (leftRight == null) {
-            return null;
+        MCRCategorySnapshot snapshot = getSnapshot(entityManager, id);
+        List<MCRCategoryDTO> resultList;
+        if (snapshot != null) {
+            resultList = snapshot.getParentRows(id);
+            if (resultList == null) {
+                return null;
+            }
+        } else {
+            MCRCategoryDTO leftRight = getLeftRightLevelValues(entityManager, id);
+            if (leftRight == null) {
+                return null;
+            }
+            Query parentQuery = entityManager
+                .createNamedQuery(NAMED_QUERY_NAMESPACE + "parentQuery")
+                .setParameter("classID", id.getRootID())
+                .setParameter("categID", id.getID())
+                .setParameter("left", leftRight.leftValue)
+                .setParameter("right", leftRight.rightValue);
+            @SuppressWarnings("unchecked")
+            List<MCRCategoryDTO> queryResult = parentQuery.getResultList();
+            resultList = queryResult;
         }
-        Query parentQuery = entityManager
-            .createNamedQuery(NAMED_QUERY_NAMESPACE + "parentQuery")
-            .setParameter("classID", id.getRootID())
-            .setParameter("categID", id.getID())
-            .setParameter("left", leftRight.leftValue)
-            .setParameter("right", leftRight.rightValue);
-        @SuppressWarnings("unchecked")
-        List<MCRCategoryDTO> resultList = parentQuery.getResultList();
         MCRCategory category = buildCategoryFromPrefetchedList(resultList, id);
         List<MCRCategory> parents = new ArrayList<>();
         while (category.getParent() != null) {
@@ -355,7 +408,12 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
     public boolean hasChildren(MCRCategoryID cid) {
         // SELECT * FROM MCRCATEGORY WHERE PARENTID=(SELECT INTERNALID FROM
         // MCRCATEGORY WHERE rootID=cid.getRootID() and ID...);
-        return getNumberOfChildren(MCREntityManagerProvider.getCurrentEntityManager(), cid) > 0;
+        EntityManager entityManager = MCREntityManagerProvider.getCurrentEntityManager();
+        MCRCategorySnapshot snapshot = getSnapshot(entityManager, cid);
+        if (snapshot != null) {
+            return snapshot.getNumberOfChildren(cid) > 0;
+        }
+        return getNumberOfChildren(entityManager, cid) > 0;
     }
 
     @Override
@@ -398,13 +456,19 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
             newParent.getChildren().add(index, subTree);
             subTree.parent = newParent;
             MCREntityManagerProvider.getCurrentEntityManager().flush();
-            int left = commonAncestor.getLeft();
-            commonAncestor.calculateLeftRightAndLevel(Integer.MAX_VALUE / 2, commonAncestor.getLevel());
-            e.flush();
-            commonAncestor.calculateLeftRightAndLevel(left, commonAncestor.getLevel());
+            int gap = getGap();
+            if (gap > 1) {
+                new MCRCategoryGapNumbering(gap).renumber(e, commonAncestor);
+            } else {
+                int left = commonAncestor.getLeft();
+                commonAncestor.calculateLeftRightAndLevel(Integer.MAX_VALUE / 2, commonAncestor.getLevel());
+                e.flush();
+                commonAncestor.calculateLeftRightAndLevel(left, commonAncestor.getLevel());
+            }
             updateTimeStamp();
             updateLastModified(id.getRootID());
         });
+        updateLinkCounts(MCREntityManagerProvider.getCurrentEntityManager(), id.getRootID());
     }
 
     @Override
@@ -421,7 +485,7 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
 
     @Override
     public Collection<MCRCategoryImpl> replaceCategory(MCRCategory newCategory) throws IllegalArgumentException {
-        if (!exist(newCategory.getId())) {
+        if (!existsInDatabase(newCategory.getId())) {
             throw new IllegalArgumentException(
                 "MCRCategory can not be replaced. MCRCategoryID '" + newCategory.getId() + "' is unknown.");
         }
@@ -485,11 +549,17 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
                             })
                             .collect(Collectors.toList()));
                 });
-            oldCategory.calculateLeftRightAndLevel(Integer.MAX_VALUE / 2, oldLevel);
-            em.flush();
-            oldCategory.calculateLeftRightAndLevel(oldLeft, oldLevel);
+            int gap = getGap();
+            if (gap > 1) {
+                new MCRCategoryGapNumbering(gap).renumber(em, oldCategory);
+            } else {
+                oldCategory.calculateLeftRightAndLevel(Integer.MAX_VALUE / 2, oldLevel);
+                em.flush();
+                oldCategory.calculateLeftRightAndLevel(oldLeft, oldLevel);
+            }
             updateTimeStamp();
             updateLastModified(newCategory.getId().getRootID());
+            updateLinkCounts(em, newCategory.getId().getRootID());
             return newMap.values();
         });
     }
@@ -546,6 +616,11 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
     }
 
     public void repairLeftRightValue(String classID) {
+        int gap = getGap();
+        if (gap > 1) {
+            renumber(classID, gap);
+            return;
+        }
         final MCRCategoryID rootID = MCRCategoryID.rootID(classID);
         withoutFlush(MCREntityManagerProvider.getCurrentEntityManager(), true, entityManager -> {
             MCRCategoryImpl classification = MCRCategoryDAOImpl.getByNaturalID(entityManager, rootID);
@@ -553,6 +628,31 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
             entityManager.flush();
             classification.calculateLeftRightAndLevel(LEFT_START_VALUE, LEVEL_START_VALUE);
         });
+        updateLastModified(classID);
+    }
+
+    /**
+     * Renumbers the left and right values of the given classification.
+     *
+     * @param gap difference between the values of neighboring categories, 1 for compact numbering without unused
+     *            values
+     */
+    public void renumber(String classID, int gap) {
+        if (gap < 1) {
+            throw new IllegalArgumentException("Gap must be at least 1: " + gap);
+        }
+        final MCRCategoryID rootID = MCRCategoryID.rootID(classID);
+        withoutFlush(MCREntityManagerProvider.getCurrentEntityManager(), true, entityManager -> {
+            MCRCategoryImpl classification = MCRCategoryDAOImpl.getByNaturalID(entityManager, rootID);
+            if (classification == null) {
+                throw new MCRPersistenceException("Classification " + classID + " was not found.");
+            }
+            classification.setLeft(LEFT_START_VALUE);
+            classification.setLevel(LEVEL_START_VALUE);
+            MCRCategoryGapNumbering.number(entityManager, classification, gap);
+        });
+        updateTimeStamp();
+        updateLastModified(classID);
     }
 
     @Override
@@ -642,6 +742,34 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
         target.getLabels().removeIf(mcrLabel -> !source.getLabel(mcrLabel.getLang()).isPresent());
     }
 
+    /**
+     * Recalculates precomputed link counts after the structure of a classification changed.
+     *
+     * @see MCRCategLinkCounter
+     */
+    private static void updateLinkCounts(EntityManager entityManager, String classID) {
+        if (MCRCategLinkCounter.isEnabled()) {
+            entityManager.flush();
+            MCRCategLinkCounter.rebuild(entityManager, classID);
+        }
+    }
+
+    /**
+     * Returns the difference between left and right values of neighboring categories, that is used for new
+     * categories. Values greater than 1 leave gaps, so categories can be added without shifting all following
+     * categories.
+     */
+    private static int getGap() {
+        return MCRConfiguration2.getInt("MCR.Category.DAO.NestedSet.Gap").orElse(1);
+    }
+
+    /**
+     * Modifications are checked against the database, as a snapshot may be outdated.
+     */
+    private static boolean existsInDatabase(MCRCategoryID id) {
+        return getLeftRightLevelValues(MCREntityManagerProvider.getCurrentEntityManager(), id) != null;
+    }
+
     private static MCRCategoryDTO getLeftRightLevelValues(EntityManager entityManager, MCRCategoryID id) {
         return getSingleResult(entityManager
             .createNamedQuery(NAMED_QUERY_NAMESPACE + "leftRightLevelQuery")
@@ -676,11 +804,78 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
     }
 
     /**
-     * Method updates the last modified timestamp, for the given root id.
+     * Method updates the last modified timestamp, for the given root id, when the current transaction is committed.
      * 
      */
     protected synchronized void updateLastModified(String root) {
-        LAST_MODIFIED_MAP.put(root, System.currentTimeMillis());
+        if (!MCRSessionMgr.hasCurrentSession()) {
+            touch(root);
+            MCRConfigurationBase.systemModified();
+            return;
+        }
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        ModifiedRoots modifiedRoots = session.getOnCommitTask(ModifiedRoots.class).orElseGet(() -> {
+            ModifiedRoots newModifiedRoots = new ModifiedRoots();
+            session.onCommit(newModifiedRoots);
+            return newModifiedRoots;
+        });
+        modifiedRoots.roots.add(root);
+    }
+
+    /**
+     * Checks if the classification was modified in the current transaction of this thread.
+     */
+    private static boolean isModified(String root) {
+        return MCRSessionMgr.hasCurrentSession() && MCRSessionMgr.getCurrentSession()
+            .getOnCommitTask(ModifiedRoots.class)
+            .filter(modifiedRoots -> modifiedRoots.roots.contains(root))
+            .isPresent();
+    }
+
+    private static void touch(String root) {
+        //strictly increasing, so a snapshot built in the same millisecond is recognized as outdated
+        LAST_MODIFIED_MAP.merge(root, System.currentTimeMillis(), (old, now) -> Math.max(old + 1, now));
+        MCRCacheDependencies.modified(MCRCacheDependencies.classification(root));
+    }
+
+    /**
+     * Returns the snapshot of the classification of the given category, if
+     * <code>MCR.Category.DAO.Snapshot.Enabled</code> is true.
+     *
+     * The snapshot is built on first access and after every modification of the classification. It is not used for
+     * classifications modified in the current transaction of this thread, as it does not contain uncommitted changes.
+     *
+     * @return the snapshot or null, if the database has to be queried
+     */
+    private MCRCategorySnapshot getSnapshot(EntityManager entityManager, MCRCategoryID id) {
+        if (id == null || !MCRConfiguration2.getBoolean(SNAPSHOT_PROPERTY).orElse(false)) {
+            return null;
+        }
+        String rootID = id.getRootID();
+        if (isModified(rootID)) {
+            return null;
+        }
+        long lastModified = getLastModified(rootID);
+        MCRCategorySnapshot snapshot = SNAPSHOTS.get(rootID);
+        if (snapshot != null && snapshot.isValid(lastModified)) {
+            return snapshot;
+        }
+        MCRCacheDependencies.Stamp stamp = MCRCacheDependencies
+            .stamp(List.of(MCRCacheDependencies.classification(rootID)));
+        @SuppressWarnings("unchecked")
+        List<MCRCategoryDTO> rows = entityManager.createNamedQuery(NAMED_QUERY_NAMESPACE + "prefetchClassQuery")
+            .setParameter("classID", rootID)
+            .getResultList();
+        snapshot = MCRCategorySnapshot.build(rows, lastModified, stamp);
+        if (snapshot == null) {
+            SNAPSHOTS.remove(rootID);
+            return null;
+        }
+        if (snapshot.isValid(getLastModified(rootID))) {
+            LOGGER.debug("Built snapshot of classification {} with {} rows.", rootID, rows.size());
+            SNAPSHOTS.put(rootID, snapshot);
+        }
+        return snapshot;
     }
 
     /**
@@ -691,6 +886,10 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
     @Override
     public long getLastModified(String root) {
         Long long1 = LAST_MODIFIED_MAP.get(root);
+        if (isModified(root)) {
+            //timestamp is updated on commit, until then uncommitted changes are always newer
+            return Math.max(long1 == null ? 0 : long1 + 1, System.currentTimeMillis());
+        }
         if (long1 != null) {
             return long1;
         }
@@ -735,4 +934,22 @@ public class MCRCategoryDAOImpl implements MCRCategoryDAO {
             return null;
         });
     }
+
+    /**
+     * Classifications modified in the current transaction, reads of this thread have to see the changes. Registered
+     * with {@link MCRSession#onCommit(Runnable)}, so it is discarded on rollback and the timestamps of the
+     * classifications only change when the modifications are visible to other threads.
+     */
+    private static final class ModifiedRoots implements Runnable {
+
+        private final Set<String> roots = new LinkedHashSet<>();
+
+        @Override
+        public void run() {
+            roots.forEach(MCRCategoryDAOImpl::touch);
+            //notify other processes sharing the database
+            MCRConfigurationBase.systemModified();
+        }
+    }
+
 }
@@ -0,0 +1,182 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.classifications2.impl;
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.datamodel.classifications2.MCRCategory;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Nested set numbering that leaves unused values between the left and right values of neighboring categories.
+ *
+ * A category inserted into a gap is numbered without changing any other category. Only if the gap is too small,
+ * the smallest enclosing subtree with enough unused values is renumbered. The root category may always grow, so in
+ * the worst case the whole classification is renumbered. The numbering stays a valid nested set, so all queries
+ * comparing left and right values work unchanged. Categories without children always have
+ * <code>right = left + 1</code>.
+ *
+ * @see MCRCategoryImpl#calculateLeftRightAndLevel(int, int, int)
+ */
+final class MCRCategoryGapNumbering {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /**
+     * Start value while renumbering, as left and right values are unique within a classification
+     */
+    private static final int TEMPORARY_START_VALUE = Integer.MIN_VALUE / 2;
+
+    private final int gap;
+
+    /**
+     * @param gap the difference between neighboring values of newly numbered categories, at least 2
+     */
+    MCRCategoryGapNumbering(int gap) {
+        if (gap < 2) {
+            throw new IllegalArgumentException("Gap must be at least 2: " + gap);
+        }
+        this.gap = gap;
+    }
+
+    /**
+     * Adds a new category to the children of the given parent and numbers it.
+     *
+     * @param parent the persistent parent category
+     * @param category the new category, not persisted yet
+     * @param position the index in the children of the parent or -1 to append the category
+     */
+    void insert(EntityManager entityManager, MCRCategoryImpl parent, MCRCategoryImpl category, int position) {
+        List<MCRCategory> siblings = parent.getChildren();
+        int index = position < 0 ? siblings.size() : position;
+        boolean append = index == siblings.size();
+        int lower = index == 0 ? parent.getLeft() : ((MCRCategoryImpl) siblings.get(index - 1)).getRight();
+        int upper;
+        //one more value is needed for the right value of the parent, if the category is appended
+        int margin = append ? 3 : 2;
+        if (!append) {
+            upper = ((MCRCategoryImpl) siblings.get(index)).getLeft();
+        } else if (parent.getParent() == null) {
+            upper = lower + margin + getWidth(category, gap) + 2 * gap;
+        } else {
+            upper = getUpperBound(parent);
+        }
+        int categoryGap = getFittingGap(category, upper - lower - margin);
+        if (categoryGap > 0) {
+            int width = getWidth(category, categoryGap);
+            int left = lower + 1 + (upper - lower - margin - width) / 2;
+            if (append && parent.getRight() <= left + width) {
+                parent.setRight(left + width + 1);
+                //updates are flushed after inserts
+                entityManager.flush();
+            }
+            category.calculateLeftRightAndLevel(left, parent.getLevel() + 1, categoryGap);
+            siblings.add(index, category);
+            LOGGER.debug("Inserted {} between {} and {}.", category.getId(), lower, upper);
+            return;
+        }
+        siblings.add(index, category);
+        renumber(entityManager, parent);
+    }
+
+    /**
+     * Renumbers the given category or the smallest ancestor having enough unused values to leave gaps between
+     * the values of all descendants.
+     */
+    void renumber(EntityManager entityManager, MCRCategoryImpl category) {
+        MCRCategoryImpl current = category;
+        while (current.getParent() != null) {
+            int fittingGap = getFittingGap(current, getUpperBound(current) - 1 - current.getLeft());
+            if (fittingGap > 1) {
+                number(entityManager, current, fittingGap);
+                return;
+            }
+            current = (MCRCategoryImpl) current.getParent();
+        }
+        number(entityManager, current, gap);
+    }
+
+    /**
+     * Numbers the given category and all descendants, the left value and the level of the category are kept.
+     */
+    static void number(EntityManager entityManager, MCRCategoryImpl category, int gap) {
+        LOGGER.info("Renumbering {} with gap {}.", category.getId(), gap);
+        int left = category.getLeft();
+        category.calculateLeftRightAndLevel(TEMPORARY_START_VALUE, category.getLevel(), gap);
+        entityManager.flush();
+        category.calculateLeftRightAndLevel(left, category.getLevel(), gap);
+    }
+
+    /**
+     * Returns the width <code>right - left</code> of the given subtree, if numbered with the given gap.
+     */
+    static int getWidth(MCRCategoryImpl category, int gap) {
+        int[] counts = count(category);
+        return Math.toIntExact((long) gap * counts[0] + counts[1]);
+    }
+
+    /**
+     * Returns the largest gap up to {@link #gap}, so that the subtree is not wider than the given width.
+     *
+     * @return the gap or 0, if the subtree does not fit at all
+     */
+    private int getFittingGap(MCRCategoryImpl category, int maxWidth) {
+        int[] counts = count(category);
+        if (counts[0] == 0) {
+            return counts[1] <= maxWidth ? gap : 0;
+        }
+        long fittingGap = Math.min(gap, ((long) maxWidth - counts[1]) / counts[0]);
+        return fittingGap < 1 ? 0 : (int) fittingGap;
+    }
+
+    /**
+     * Returns the value the right value of the given category has to stay below.
+     */
+    private static int getUpperBound(MCRCategoryImpl category) {
+        List<MCRCategory> siblings = category.getParent().getChildren();
+        for (int i = 0; i < siblings.size() - 1; i++) {
+            if (siblings.get(i) == category) {
+                return ((MCRCategoryImpl) siblings.get(i + 1)).getLeft();
+            }
+        }
+        return ((MCRCategoryImpl) category.getParent()).getRight();
+    }
+
+    /**
+     * Returns the number of values depending on the gap (a child or the end of children) and the number of
+     * categories without children in the given subtree.
+     */
+    private static int[] count(MCRCategoryImpl category) {
+        List<MCRCategory> children = category.getChildren();
+        if (children.isEmpty()) {
+            return new int[] { 0, 1 };
+        }
+        int[] counts = { children.size() + 1, 0 };
+        for (MCRCategory child : children) {
+            int[] childCounts = count((MCRCategoryImpl) child);
+            counts[0] += childCounts[0];
+            counts[1] += childCounts[1];
+        }
+        return counts;
+    }
+
+}
@@ -90,6 +90,8 @@ import jakarta.persistence.UniqueConstraint;
     @NamedQuery(name = "MCRCategory.byNaturalId",
         query = "FROM MCRCategoryImpl as cat WHERE "
             + "cat.id.rootID=:classID and (cat.id.id=:categID OR cat.id.id IS NULL AND :categID IS NULL)"),
+    @NamedQuery(name = "MCRCategory.byNaturalIDs",
+        query = "FROM MCRCategoryImpl as cat WHERE cat.id.rootID=:classID and cat.id.id IN (:categIDs)"),
     @NamedQuery(name = "MCRCategory.byLabelInClass",
         query = "FROM MCRCategoryImpl as cat "
             + "INNER JOIN cat.labels as label "
@@ -444,15 +446,38 @@ public class MCRCategoryImpl extends MCRAbstractCategoryImpl implements Serializ
      * @return this.right
      */
     public int calculateLeftRightAndLevel(int leftStart, int levelStart) {
+        return calculateLeftRightAndLevel(leftStart, levelStart, 1);
+    }
+
+    /**
+     * calculates left and right value throug the subtree rooted at
+     * <code>co</code> and leaves <code>gap - 1</code> unused values before
+     * every child and after the last child. Categories without children
+     * always get <code>right = left + 1</code>.
+     * 
+     * @param leftStart
+     *            this.left will be set to this value
+     * @param levelStart
+     *            this.getLevel() will return this value
+     * @param gap
+     *            difference between neighboring values, 1 for no unused values
+     * @return this.right
+     */
+    public int calculateLeftRightAndLevel(int leftStart, int levelStart, int gap) {
         int curValue = leftStart;
         final int nextLevel = levelStart + 1;
         setLeft(leftStart);
         setLevel(levelStart);
+        if (getChildren().isEmpty()) {
+            setRight(leftStart + 1);
+            return leftStart + 1;
+        }
         for (MCRCategory child : getChildren()) {
             LOGGER.debug(child.getId());
-            curValue = ((MCRCategoryImpl) child).calculateLeftRightAndLevel(++curValue, nextLevel);
+            curValue = ((MCRCategoryImpl) child).calculateLeftRightAndLevel(curValue + gap, nextLevel, gap);
         }
-        setRight(++curValue);
+        curValue += gap;
+        setRight(curValue);
         return curValue;
     }
 
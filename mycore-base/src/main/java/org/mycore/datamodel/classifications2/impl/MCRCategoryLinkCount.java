@@ -0,0 +1,146 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.classifications2.impl;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedQueries;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Table;
+
+/**
+ * Number of objects of one type linked to a category or any of its descendants.
+ *
+ * @see MCRCategLinkCounter
+ */
+@Entity
+@IdClass(MCRCategoryLinkCount.Key.class)
+@Table(name = "MCRCategoryLinkCount",
+    indexes = { @Index(columnList = "ClassID, objectType", name = "LinkCountClassIDType") })
+@NamedQueries({
+    @NamedQuery(name = "MCRCategoryLinkCount.byClassID",
+        query = "SELECT categID, sum(linkCount) FROM MCRCategoryLinkCount WHERE classID=:classID GROUP BY categID"),
+    @NamedQuery(name = "MCRCategoryLinkCount.byClassIDAndType",
+        query = "SELECT categID, linkCount FROM MCRCategoryLinkCount WHERE classID=:classID AND objectType=:type"),
+    @NamedQuery(name = "MCRCategoryLinkCount.existing",
+        query = "SELECT categID FROM MCRCategoryLinkCount WHERE classID=:classID AND objectType=:type"
+            + " AND categID IN (:categIDs)"),
+    @NamedQuery(name = "MCRCategoryLinkCount.increment",
+        query = "UPDATE MCRCategoryLinkCount SET linkCount=linkCount+:increment WHERE classID=:classID"
+            + " AND objectType=:type AND categID IN (:categIDs)"),
+    @NamedQuery(name = "MCRCategoryLinkCount.deleteByClassID",
+        query = "DELETE FROM MCRCategoryLinkCount WHERE classID=:classID"),
+    @NamedQuery(name = "MCRCategoryLinkCount.deleteAll",
+        query = "DELETE FROM MCRCategoryLinkCount"),
+    @NamedQuery(name = "MCRCategoryLinkCount.ancestors",
+        query = "SELECT cat.id.id, ancestor.id.id FROM MCRCategoryImpl cat, MCRCategoryImpl ancestor"
+            + " WHERE cat.id.rootID=:classID AND cat.id.id IN (:categIDs) AND ancestor.id.rootID=:classID"
+            + " AND cat.left BETWEEN ancestor.left AND ancestor.right")
+})
+public class MCRCategoryLinkCount {
+
+    @Id
+    @Column(name = "ClassID", length = 32)
+    private String classID;
+
+    @Id
+    @Column(name = "CategID", length = 128)
+    private String categID;
+
+    @Id
+    @Column(name = "objectType", length = 128)
+    private String objectType;
+
+    @Column(name = "linkCount")
+    private int linkCount;
+
+    public MCRCategoryLinkCount() {
+    }
+
+    MCRCategoryLinkCount(String classID, String categID, String objectType, int linkCount) {
+        this.classID = classID;
+        this.categID = categID;
+        this.objectType = objectType;
+        this.linkCount = linkCount;
+    }
+
+    public String getClassID() {
+        return classID;
+    }
+
+    public String getCategID() {
+        return categID;
+    }
+
+    public String getObjectType() {
+        return objectType;
+    }
+
+    public int getLinkCount() {
+        return linkCount;
+    }
+
+    /**
+     * Primary key of {@link MCRCategoryLinkCount}.
+     */
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String classID;
+
+        private String categID;
+
+        private String objectType;
+
+        public Key() {
+        }
+
+        public Key(String classID, String categID, String objectType) {
+            this.classID = classID;
+            this.categID = categID;
+            this.objectType = objectType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(classID, categID, objectType);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(classID, other.classID) && Objects.equals(categID, other.categID)
+                && Objects.equals(objectType, other.objectType);
+        }
+    }
+
+}
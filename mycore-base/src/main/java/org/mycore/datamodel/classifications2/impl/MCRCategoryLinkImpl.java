@@ -72,6 +72,9 @@ import jakarta.persistence.UniqueConstraint;
     @NamedQuery(name = "MCRCategoryLink.categoriesByObjectID",
         query = "SELECT category.id FROM MCRCategoryLinkImpl WHERE "
             + "objectReference.objectID=:id and objectReference.type=:type"),
+    @NamedQuery(name = "MCRCategoryLink.linkIDsByObjectID",
+        query = "SELECT link.id, link.category.id FROM MCRCategoryLinkImpl link WHERE "
+            + "link.objectReference.objectID=:id and link.objectReference.type=:type"),
     @NamedQuery(name = "MCRCategoryLink.ObjectIDByCategoryAndType",
         query = "SELECT objectReference.objectID FROM MCRCategoryLinkImpl WHERE "
             + "category.id=:id and objectReference.type=:type"),
@@ -95,6 +98,8 @@ import jakarta.persistence.UniqueConstraint;
             + "  GROUP BY cat.id.id"),
     @NamedQuery(name = "MCRCategoryLink.deleteByObjectID",
         query = "DELETE FROM MCRCategoryLinkImpl WHERE objectReference.objectID=:id and objectReference.type=:type"),
+    @NamedQuery(name = "MCRCategoryLink.deleteByIDs",
+        query = "DELETE FROM MCRCategoryLinkImpl WHERE id IN (:ids)"),
     @NamedQuery(name = "MCRCategoryLink.CategoryAndObjectID",
         query = "SELECT link.objectReference.objectID"
             + "  FROM MCRCategoryLinkImpl link, MCRCategoryImpl cat, MCRCategoryImpl cattree"
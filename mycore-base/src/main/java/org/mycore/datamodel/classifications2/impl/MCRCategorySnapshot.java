@@ -0,0 +1,248 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.classifications2.impl;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mycore.common.MCRCacheDependencies;
+import org.mycore.datamodel.classifications2.MCRCategoryID;
+
+/**
+ * Immutable in-memory copy of one classification used by {@link MCRCategoryDAOImpl} to answer read-only requests
+ * without querying the database.
+ *
+ * The categories are stored in arrays in the order of their left values, so a subtree is a continuous range. Labels
+ * are stored in flat arrays as well. Requests are answered with the same {@link MCRCategoryDTO} rows the named
+ * queries of {@link MCRCategoryImpl} would return, so callers build their categories exactly like from a database
+ * result.
+ *
+ * A snapshot is never modified. If the classification changes, the snapshot becomes invalid and a new one is built.
+ */
+final class MCRCategorySnapshot {
+
+    private final long lastModified;
+
+    private final MCRCacheDependencies.Stamp stamp;
+
+    private final MCRCategoryID[] ids;
+
+    private final int[] internalIDs;
+
+    private final URI[] uris;
+
+    private final int[] lefts;
+
+    private final int[] rights;
+
+    private final int[] levels;
+
+    private final int[] parents;
+
+    private final int[] ends;
+
+    private final int[] labelStarts;
+
+    private final String[] langs;
+
+    private final String[] texts;
+
+    private final String[] descriptions;
+
+    private final Map<MCRCategoryID, Integer> index;
+
+    private MCRCategorySnapshot(List<MCRCategoryDTO> rows, int size, long lastModified,
+        MCRCacheDependencies.Stamp stamp) {
+        this.lastModified = lastModified;
+        this.stamp = stamp;
+        ids = new MCRCategoryID[size];
+        internalIDs = new int[size];
+        uris = new URI[size];
+        lefts = new int[size];
+        rights = new int[size];
+        levels = new int[size];
+        parents = new int[size];
+        ends = new int[size];
+        labelStarts = new int[size + 1];
+        int labelCount = (int) rows.stream().filter(row -> row.lang != null).count();
+        langs = new String[labelCount];
+        texts = new String[labelCount];
+        descriptions = new String[labelCount];
+        index = new HashMap<>(size * 4 / 3 + 1);
+
+        Deque<Integer> ancestors = new ArrayDeque<>();
+        int node = -1;
+        int label = 0;
+        for (MCRCategoryDTO row : rows) {
+            if (node < 0 || internalIDs[node] != row.internalID) {
+                node++;
+                ids[node] = row.id;
+                internalIDs[node] = row.internalID;
+                uris[node] = row.uri;
+                lefts[node] = row.leftValue;
+                rights[node] = row.rightValue;
+                levels[node] = row.level;
+                labelStarts[node] = label;
+                while (!ancestors.isEmpty() && rights[ancestors.peek()] < row.leftValue) {
+                    ends[ancestors.pop()] = node;
+                }
+                parents[node] = ancestors.isEmpty() ? -1 : ancestors.peek();
+                ancestors.push(node);
+                index.put(row.id, node);
+            }
+            if (row.lang != null) {
+                langs[label] = row.lang;
+                texts[label] = row.text;
+                descriptions[label] = row.description;
+                label++;
+            }
+        }
+        while (!ancestors.isEmpty()) {
+            ends[ancestors.pop()] = size;
+        }
+        labelStarts[size] = label;
+    }
+
+    /**
+     * Builds a snapshot.
+     *
+     * @param rows all rows of the classification ordered by left value, as returned by the named query
+     *             <code>MCRCategory.prefetchClassQuery</code>
+     * @param lastModified the last modified value of the classification before the rows were queried
+     * @param stamp the state of the classification dependency before the rows were queried
+     * @return the snapshot or null, if there are no rows
+     */
+    static MCRCategorySnapshot build(List<MCRCategoryDTO> rows, long lastModified,
+        MCRCacheDependencies.Stamp stamp) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+        int size = 0;
+        int previous = 0;
+        for (MCRCategoryDTO row : rows) {
+            if (size == 0 || row.internalID != previous) {
+                size++;
+                previous = row.internalID;
+            }
+        }
+        return new MCRCategorySnapshot(rows, size, lastModified, stamp);
+    }
+
+    /**
+     * Returns true, if the classification was not modified since the snapshot was built.
+     *
+     * @param currentLastModified the current last modified value of the classification
+     */
+    boolean isValid(long currentLastModified) {
+        return lastModified == currentLastModified && stamp.isValid();
+    }
+
+    boolean contains(MCRCategoryID id) {
+        return index.containsKey(id);
+    }
+
+    /**
+     * Returns left, right and level value of the given category like <code>MCRCategory.leftRightLevelQuery</code>.
+     *
+     * @return the values or null, if the category does not exist
+     */
+    MCRCategoryDTO getLeftRightLevelValues(MCRCategoryID id) {
+        Integer node = index.get(id);
+        return node == null ? null : new MCRCategoryDTO(lefts[node], rights[node], levels[node]);
+    }
+
+    /**
+     * Returns the rows of the given category and its descendants like the named <code>prefetch*Query</code>
+     * queries. For categories other than the root category, the rows of the root category are included.
+     *
+     * @param childLevel number of descendant levels to include, all levels if negative
+     * @return the rows or an empty list, if the category does not exist
+     */
+    List<MCRCategoryDTO> getCategoryRows(MCRCategoryID id, int childLevel) {
+        Integer node = index.get(id);
+        List<MCRCategoryDTO> rows = new ArrayList<>();
+        if (node == null) {
+            return rows;
+        }
+        if (node != 0) {
+            addRows(rows, 0);
+        }
+        int endLevel = childLevel < 0 ? Integer.MAX_VALUE : levels[node] + childLevel;
+        for (int i = node; i < ends[node]; i++) {
+            if (levels[i] <= endLevel) {
+                addRows(rows, i);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the rows of the given category and all its ancestors like <code>MCRCategory.parentQuery</code>.
+     *
+     * @return the rows or null, if the category does not exist
+     */
+    List<MCRCategoryDTO> getParentRows(MCRCategoryID id) {
+        Integer node = index.get(id);
+        if (node == null) {
+            return null;
+        }
+        Deque<Integer> path = new ArrayDeque<>();
+        for (int i = node; i >= 0; i = parents[i]) {
+            path.push(i);
+        }
+        List<MCRCategoryDTO> rows = new ArrayList<>();
+        path.forEach(i -> addRows(rows, i));
+        return rows;
+    }
+
+    /**
+     * Returns the number of children of the given category or 0, if the category does not exist.
+     */
+    int getNumberOfChildren(MCRCategoryID id) {
+        Integer node = index.get(id);
+        if (node == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = node + 1; i < ends[node]; i = ends[i]) {
+            count++;
+        }
+        return count;
+    }
+
+    private void addRows(List<MCRCategoryDTO> rows, int node) {
+        int start = labelStarts[node];
+        int end = labelStarts[node + 1];
+        if (start == end) {
+            rows.add(new MCRCategoryDTO(internalIDs[node], uris[node], ids[node], lefts[node], rights[node],
+                levels[node], null, null, null));
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            rows.add(new MCRCategoryDTO(internalIDs[node], uris[node], ids[node], lefts[node], rights[node],
+                levels[node], langs[i], texts[i], descriptions[i]));
+        }
+    }
+
+}
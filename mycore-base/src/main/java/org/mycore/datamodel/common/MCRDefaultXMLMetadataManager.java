@@ -36,9 +36,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -53,6 +56,7 @@ import org.mycore.common.content.MCRContent;
 import org.mycore.common.content.MCRJDOMContent;
 import org.mycore.datamodel.ifs2.MCRMetadataStore;
 import org.mycore.datamodel.ifs2.MCRMetadataVersion;
+import org.mycore.datamodel.ifs2.MCRObjectIDDateImpl;
 import org.mycore.datamodel.ifs2.MCRObjectIDFileSystemDate;
 import org.mycore.datamodel.ifs2.MCRStore;
 import org.mycore.datamodel.ifs2.MCRStoreCenter;
@@ -319,6 +323,14 @@ public class MCRDefaultXMLMetadataManager implements MCRXMLMetadataManagerAdapte
         }
     }
 
+    public void rebuildIDIndex(String base) {
+        try {
+            getStore(base, true).rebuildIDIndex();
+        } catch (IOException e) {
+            throw new MCRPersistenceException("Could not rebuild ID index of store " + base, e);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private void setupStore(String project, String objectType, String configPrefix, boolean readOnly)
         throws ReflectiveOperationException {
@@ -545,6 +557,22 @@ public class MCRDefaultXMLMetadataManager implements MCRXMLMetadataManagerAdapte
         return list;
     }
 
+    @Override
+    public Stream<String> streamIDsForBase(String base) {
+        MCRMetadataStore store;
+        try {
+            store = getStore(base, true);
+        } catch (MCRPersistenceException e) {
+            LOGGER.warn("Store for '{}' does not exist.", base);
+            return Stream.empty();
+        }
+
+        Iterator<Integer> it = store.listIDs(MCRStore.ASCENDING);
+        String[] idParts = MCRObjectID.getIDParts(base);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED), false)
+            .map(id -> MCRObjectID.formatID(idParts[0], idParts[1], id));
+    }
+
     public List<String> listIDsOfType(String type) {
         try (Stream<Path> streamBasePath = list(basePath)) {
             return streamBasePath.flatMap(projectPath -> {
@@ -616,6 +644,24 @@ public class MCRDefaultXMLMetadataManager implements MCRXMLMetadataManagerAdapte
         return objidlist;
     }
 
+    /**
+     * Walks the store of the base once and takes the dates from the file attributes, no object is retrieved.
+     */
+    @Override
+    public Stream<MCRObjectIDDate> streamObjectDates(String base) throws IOException {
+        MCRMetadataStore store;
+        try {
+            store = getStore(base, true);
+        } catch (MCRPersistenceException e) {
+            LOGGER.warn("Store for '{}' does not exist.", base);
+            return Stream.empty();
+        }
+        String[] idParts = MCRObjectID.getIDParts(base);
+        return store.streamLastModifiedTimes()
+            .map(entry -> new MCRObjectIDDateImpl(new Date(entry.getValue()),
+                MCRObjectID.formatID(idParts[0], idParts[1], entry.getKey())));
+    }
+
     public long getLastModified(MCRObjectID id) throws IOException {
         MCRMetadataStore store = getStore(id, true);
         MCRStoredMetadata metadata = store.retrieve(id.getNumberAsInteger());
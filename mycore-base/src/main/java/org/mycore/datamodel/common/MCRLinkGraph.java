@@ -0,0 +1,486 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.datamodel.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory adjacency index of the link table, answering link queries and traversals without SQL.
+ *
+ * Every ID is mapped to a dense node number. IDs ending with <code>_</code> and a number, like object IDs, are
+ * resolved through an <code>int</code> array per prefix (the object base) indexed by that number, all other IDs
+ * (categories, derivate file links) through a map. The array of a prefix grows only with the number of its IDs, so
+ * sparse or huge numbers are resolved through the map, too. The links of every node are kept in primitive arrays in
+ * both directions. Link attributes are not kept.
+ *
+ * Instances are safe for use by multiple threads.
+ */
+public final class MCRLinkGraph {
+
+    private static final long[] NO_LINKS = new long[0];
+
+    private static final int TYPE_BITS = 8;
+
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+    private static final int MAX_NUMBER_DIGITS = 9;
+
+    /** numbers below are always resolved through the array of their prefix */
+    private static final int MIN_NUMBERED_CAPACITY = 1024;
+
+    /** the array of a prefix is at most this factor larger than the number of its IDs */
+    private static final int MAX_NUMBERED_SPARSENESS = 4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, NumberedNodes> numberedNodes = new HashMap<>();
+
+    private final Map<String, Integer> otherNodes = new HashMap<>();
+
+    private final Map<String, Integer> typeIndex = new HashMap<>();
+
+    private final List<String> types = new ArrayList<>();
+
+    private String[] ids = new String[1024];
+
+    /** links per node as <code>node &lt;&lt; 8 | type</code> */
+    private long[][] outLinks = new long[1024][];
+
+    private int[] outSize = new int[1024];
+
+    private long[][] inLinks = new long[1024][];
+
+    private int[] inSize = new int[1024];
+
+    private int nodeCount;
+
+    private int linkCount;
+
+    /**
+     * Builds a graph from the given links.
+     *
+     * @param links all items of the link table
+     */
+    public static MCRLinkGraph build(Stream<MCRLinkTableEntry> links) {
+        MCRLinkGraph graph = new MCRLinkGraph();
+        links.forEach(link -> graph.addLink(graph.getOrCreateNode(link.getFrom()), graph.getOrCreateNode(link.getTo()),
+            graph.getOrCreateType(link.getType())));
+        return graph;
+    }
+
+    /**
+     * Replaces all links of the given source.
+     *
+     * @param from the source ID
+     * @param links the current links of <code>from</code>, other sources are ignored
+     */
+    public void setLinks(String from, Collection<MCRLinkTableEntry> links) {
+        write(() -> {
+            int node = getOrCreateNode(from);
+            for (int i = outSize[node] - 1; i >= 0; i--) {
+                long link = outLinks[node][i];
+                removeLink(inLinks, inSize, target(link), encode(node, type(link)));
+            }
+            linkCount -= outSize[node];
+            outSize[node] = 0;
+            links.stream()
+                .filter(link -> from.equals(link.getFrom()))
+                .forEach(link -> addLink(node, getOrCreateNode(link.getTo()), getOrCreateType(link.getType())));
+            return null;
+        });
+    }
+
+    /**
+     * Returns the sources of all links to <code>to</code>.
+     *
+     * @param to the destination ID
+     * @param type the link type, null for all types
+     */
+    public Collection<String> getSources(String to, String type) {
+        return read(() -> toIDs(inLinks, inSize, getNode(to), getType(type)));
+    }
+
+    /**
+     * Returns the destinations of all links from <code>from</code>.
+     *
+     * @param from the source ID
+     * @param type the link type, null for all types
+     */
+    public Collection<String> getDestinations(String from, String type) {
+        return read(() -> toIDs(outLinks, outSize, getNode(from), getType(type)));
+    }
+
+    /**
+     * Counts the links to <code>to</code>.
+     *
+     * @param to the destination ID
+     * @param type the link type, null for all types
+     */
+    public int countSources(String to, String type) {
+        return read(() -> {
+            int node = getNode(to);
+            int typeNumber = getType(type);
+            if (node < 0 || typeNumber == -1) {
+                return 0;
+            }
+            if (typeNumber == -2) {
+                return inSize[node];
+            }
+            int count = 0;
+            for (int i = 0; i < inSize[node]; i++) {
+                if (type(inLinks[node][i]) == typeNumber) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Returns all IDs that reach <code>id</code> by following links of the given type, e.g. all descendants of an
+     * object for {@link MCRLinkTableManager#ENTRY_TYPE_PARENT}. The result is in breadth-first order.
+     *
+     * @param id the ID to start from, not part of the result
+     * @param type the link type, null for all types
+     */
+    public Collection<String> getTransitiveSources(String id, String type) {
+        return read(() -> traverse(inLinks, inSize, getNode(id), getType(type)));
+    }
+
+    /**
+     * Returns all IDs reached from <code>id</code> by following links of the given type, e.g. all ancestors of an
+     * object for {@link MCRLinkTableManager#ENTRY_TYPE_PARENT}. The result is in breadth-first order.
+     *
+     * @param id the ID to start from, not part of the result
+     * @param type the link type, null for all types
+     */
+    public Collection<String> getTransitiveDestinations(String id, String type) {
+        return read(() -> traverse(outLinks, outSize, getNode(id), getType(type)));
+    }
+
+    /**
+     * Sorts the given IDs so that the destination of every link between them comes before its source, e.g. parents
+     * and referenced objects before the objects linking to them. Runs in linear time of the IDs and their links.
+     *
+     * @param unsorted the IDs to sort
+     * @param linkTypes the link types to consider, all types if empty
+     * @return the sorted IDs or null, if the links between them contain a cycle
+     */
+    public List<String> sort(Collection<String> unsorted, String... linkTypes) {
+        return read(() -> {
+            List<String> input = new ArrayList<>(new LinkedHashSet<>(unsorted));
+            Map<Integer, Integer> positions = new HashMap<>();
+            for (int i = 0; i < input.size(); i++) {
+                int node = getNode(input.get(i));
+                if (node >= 0) {
+                    positions.put(node, i);
+                }
+            }
+            BitSet typeFilter = toTypeFilter(linkTypes);
+            int[] missingDestinations = new int[input.size()];
+            List<List<Integer>> sources = new ArrayList<>(input.size());
+            for (int i = 0; i < input.size(); i++) {
+                sources.add(new ArrayList<>());
+            }
+            positions.forEach((node, position) -> {
+                for (int i = 0; i < outSize[node]; i++) {
+                    long link = outLinks[node][i];
+                    Integer destination = positions.get(target(link));
+                    if (destination != null && (typeFilter == null || typeFilter.get(type(link)))) {
+                        missingDestinations[position]++;
+                        sources.get(destination).add(position);
+                    }
+                }
+            });
+            ArrayDeque<Integer> ready = new ArrayDeque<>();
+            for (int i = 0; i < input.size(); i++) {
+                if (missingDestinations[i] == 0) {
+                    ready.add(i);
+                }
+            }
+            List<String> result = new ArrayList<>(input.size());
+            while (!ready.isEmpty()) {
+                int position = ready.poll();
+                result.add(input.get(position));
+                for (int source : sources.get(position)) {
+                    if (--missingDestinations[source] == 0) {
+                        ready.add(source);
+                    }
+                }
+            }
+            return result.size() == input.size() ? result : null;
+        });
+    }
+
+    /**
+     * Returns all links of the graph, without attributes.
+     */
+    public List<MCRLinkTableEntry> getLinks() {
+        return read(() -> {
+            List<MCRLinkTableEntry> links = new ArrayList<>(linkCount);
+            for (int node = 0; node < nodeCount; node++) {
+                for (int i = 0; i < outSize[node]; i++) {
+                    long link = outLinks[node][i];
+                    links.add(new MCRLinkTableEntry(ids[node], ids[target(link)], types.get(type(link)), null));
+                }
+            }
+            return links;
+        });
+    }
+
+    /**
+     * Returns the number of links in the graph.
+     */
+    public int size() {
+        return read(() -> linkCount);
+    }
+
+    private <T> T read(Supplier<T> supplier) {
+        return locked(lock.readLock(), supplier);
+    }
+
+    private <T> T write(Supplier<T> supplier) {
+        return locked(lock.writeLock(), supplier);
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> supplier) {
+        lock.lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<String> toIDs(long[][] links, int[] sizes, int node, int type) {
+        if (node < 0 || type == -1) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(sizes[node]);
+        for (int i = 0; i < sizes[node]; i++) {
+            long link = links[node][i];
+            if (type == -2 || type(link) == type) {
+                result.add(ids[target(link)]);
+            }
+        }
+        return result;
+    }
+
+    private List<String> traverse(long[][] links, int[] sizes, int start, int type) {
+        if (start < 0 || type == -1) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        BitSet visited = new BitSet(nodeCount);
+        visited.set(start);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < sizes[node]; i++) {
+                long link = links[node][i];
+                int next = target(link);
+                if ((type == -2 || type(link) == type) && !visited.get(next)) {
+                    visited.set(next);
+                    result.add(ids[next]);
+                    queue.add(next);
+                }
+            }
+        }
+        return result;
+    }
+
+    private BitSet toTypeFilter(String... typeNames) {
+        if (typeNames == null || typeNames.length == 0) {
+            return null;
+        }
+        BitSet filter = new BitSet();
+        Stream.of(typeNames)
+            .map(typeIndex::get)
+            .filter(Objects::nonNull)
+            .forEach(filter::set);
+        return filter;
+    }
+
+    /**
+     * @return the type number, -2 for all types or -1 for an unknown type
+     */
+    private int getType(String type) {
+        if (type == null) {
+            return -2;
+        }
+        return typeIndex.getOrDefault(type, -1);
+    }
+
+    private int getOrCreateType(String type) {
+        return typeIndex.computeIfAbsent(type, t -> {
+            if (types.size() > TYPE_MASK) {
+                throw new IllegalStateException("Too many link types, cannot add " + t + ".");
+            }
+            types.add(t);
+            return types.size() - 1;
+        });
+    }
+
+    /**
+     * @return the node or -1, if <code>id</code> is unknown
+     */
+    private int getNode(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int separator = getNumberSeparator(id);
+        if (separator > 0) {
+            NumberedNodes numbered = numberedNodes.get(id.substring(0, separator));
+            int number = Integer.parseInt(id, separator + 1, id.length(), 10);
+            if (numbered != null && number < numbered.nodes.length) {
+                int node = numbered.nodes[number] - 1;
+                if (node >= 0 && id.equals(ids[node])) {
+                    return node;
+                }
+            }
+        }
+        return otherNodes.getOrDefault(id, -1);
+    }
+
+    private int getOrCreateNode(String id) {
+        int node = getNode(id);
+        if (node >= 0) {
+            return node;
+        }
+        node = nodeCount++;
+        if (node == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            outLinks = Arrays.copyOf(outLinks, capacity);
+            outSize = Arrays.copyOf(outSize, capacity);
+            inLinks = Arrays.copyOf(inLinks, capacity);
+            inSize = Arrays.copyOf(inSize, capacity);
+        }
+        ids[node] = id;
+        outLinks[node] = NO_LINKS;
+        inLinks[node] = NO_LINKS;
+        int separator = getNumberSeparator(id);
+        if (separator > 0) {
+            int number = Integer.parseInt(id, separator + 1, id.length(), 10);
+            NumberedNodes numbered = numberedNodes.computeIfAbsent(id.substring(0, separator),
+                base -> new NumberedNodes());
+            int capacity = Math.max(MIN_NUMBERED_CAPACITY, (numbered.count + 1) * MAX_NUMBERED_SPARSENESS);
+            if (number >= numbered.nodes.length && number < capacity) {
+                numbered.nodes = Arrays.copyOf(numbered.nodes,
+                    Math.min(Math.max(number + 1, numbered.nodes.length * 2), capacity));
+            }
+            if (number < numbered.nodes.length && numbered.nodes[number] == 0) {
+                numbered.nodes[number] = node + 1;
+                numbered.count++;
+                return node;
+            }
+        }
+        //too sparse numbers or another spelling of an indexed number, e.g. without leading zeros
+        otherNodes.put(id, node);
+        return node;
+    }
+
+    /**
+     * @return the index of the <code>_</code> before the trailing number or -1, if <code>id</code> does not end with
+     *         one
+     */
+    private static int getNumberSeparator(String id) {
+        int separator = id.lastIndexOf('_');
+        int digits = id.length() - separator - 1;
+        if (separator <= 0 || digits == 0 || digits > MAX_NUMBER_DIGITS) {
+            return -1;
+        }
+        for (int i = separator + 1; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        return separator;
+    }
+
+    private void addLink(int from, int to, int type) {
+        long link = encode(to, type);
+        for (int i = 0; i < outSize[from]; i++) {
+            if (outLinks[from][i] == link) {
+                return;
+            }
+        }
+        appendLink(outLinks, outSize, from, link);
+        appendLink(inLinks, inSize, to, encode(from, type));
+        linkCount++;
+    }
+
+    private static void appendLink(long[][] links, int[] sizes, int node, long link) {
+        if (sizes[node] == links[node].length) {
+            links[node] = Arrays.copyOf(links[node], Math.max(4, sizes[node] * 2));
+        }
+        links[node][sizes[node]++] = link;
+    }
+
+    private static void removeLink(long[][] links, int[] sizes, int node, long link) {
+        for (int i = 0; i < sizes[node]; i++) {
+            if (links[node][i] == link) {
+                links[node][i] = links[node][--sizes[node]];
+                return;
+            }
+        }
+    }
+
+    private static long encode(int node, int type) {
+        return (long) node << TYPE_BITS | type;
+    }
+
+    private static int target(long link) {
+        return (int) (link >>> TYPE_BITS);
+    }
+
+    private static int type(long link) {
+        return (int) link & TYPE_MASK;
+    }
+
+    /**
+     * The nodes of the IDs with a common prefix, indexed by the number of the ID.
+     */
+    private static final class NumberedNodes {
+
+        /** node + 1 per number, 0 if the number is unknown */
+        private int[] nodes = new int[16];
+
+        private int count;
+    }
+
+}
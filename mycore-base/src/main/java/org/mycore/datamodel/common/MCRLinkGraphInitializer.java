@@ -0,0 +1,52 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.datamodel.common;
+
+import org.mycore.backend.jpa.MCREntityManagerProvider;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.events.MCRStartupHandler;
+import org.mycore.util.concurrent.MCRTransactionableRunnable;
+
+import jakarta.servlet.ServletContext;
+
+/**
+ * Builds the link graph of {@link MCRLinkTableManager#getLinkGraph()} at startup, if it is enabled.
+ */
+public class MCRLinkGraphInitializer implements MCRStartupHandler.AutoExecutable {
+
+    @Override
+    public String getName() {
+        return "Link Graph";
+    }
+
+    @Override
+    public int getPriority() {
+        return 0;
+    }
+
+    @Override
+    public void startUp(ServletContext servletContext) {
+        if (MCRConfiguration2.getBoolean("MCR.Persistence.LinkTable.Graph.Enabled").orElse(false)
+            && MCRConfiguration2.getBoolean("MCR.Persistence.Database.Enable").orElse(true)
+            && MCREntityManagerProvider.getEntityManagerFactory() != null) {
+            new MCRTransactionableRunnable(() -> MCRLinkTableManager.instance().getLinkGraph()).run();
+        }
+    }
+}
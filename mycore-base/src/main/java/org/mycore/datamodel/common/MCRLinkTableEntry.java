@@ -0,0 +1,94 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.common;
+
+import java.util.Objects;
+
+/**
+ * A link stored in the link table, used to add or replace several links at once.
+ *
+ * @see MCRLinkTableManager#addReferenceLinks(java.util.Collection)
+ */
+public final class MCRLinkTableEntry {
+
+    private final String from;
+
+    private final String to;
+
+    private final String type;
+
+    private final String attr;
+
+    /**
+     * @param from
+     *            the source of the reference
+     * @param to
+     *            the target of the reference
+     * @param type
+     *            the type of the reference
+     * @param attr
+     *            the optional attribute of the reference
+     */
+    public MCRLinkTableEntry(String from, String to, String type, String attr) {
+        this.from = from;
+        this.to = to;
+        this.type = type;
+        this.attr = attr;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getAttr() {
+        return attr;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, type, attr);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        MCRLinkTableEntry other = (MCRLinkTableEntry) obj;
+        return Objects.equals(from, other.from) && Objects.equals(to, other.to) && Objects.equals(type, other.type)
+            && Objects.equals(attr, other.attr);
+    }
+
+    @Override
+    public String toString() {
+        return from + " -" + type + "-> " + to;
+    }
+
+}
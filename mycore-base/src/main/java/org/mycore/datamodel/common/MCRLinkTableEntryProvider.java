@@ -0,0 +1,57 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.datamodel.common;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.mycore.datamodel.classifications2.MCRCategoryID;
+import org.mycore.datamodel.metadata.MCRObject;
+
+/**
+ * Provides additional reference links and classification links of an object, that are not derived from its MyCoRe
+ * metadata. The links of all providers are stored together with the links of the object, so updates replace the
+ * complete set.
+ *
+ * Providers are configured by <code>MCR.Persistence.LinkTable.LinkProvider.{name}.Class</code>.
+ */
+public interface MCRLinkTableEntryProvider {
+
+    /**
+     * Returns the links starting at the given object.
+     *
+     * @param obj
+     *            the object
+     * @return the links of <code>obj</code>, may be empty
+     */
+    Collection<MCRLinkTableEntry> getLinks(MCRObject obj);
+
+    /**
+     * Returns the categories the given object is linked to.
+     *
+     * @param obj
+     *            the object
+     * @return the categories of <code>obj</code>, may be empty
+     */
+    default Collection<MCRCategoryID> getCategories(MCRObject obj) {
+        return Collections.emptyList();
+    }
+
+}
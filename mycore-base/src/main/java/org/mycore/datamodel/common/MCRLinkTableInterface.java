@@ -20,6 +20,7 @@ package org.mycore.datamodel.common;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * This interface is designed to choose the persistence for the link tables.
@@ -43,6 +44,32 @@ public interface MCRLinkTableInterface {
      */
     void create(String from, String to, String type, String attr);
 
+    /**
+     * Creates the given items in the datastore, items already stored get the new attribute value.
+     * 
+     * @param links
+     *            the items to create, all values except the attribute have to be set
+     */
+    default void create(Collection<MCRLinkTableEntry> links) {
+        for (MCRLinkTableEntry link : links) {
+            create(link.getFrom(), link.getTo(), link.getType(), link.getAttr());
+        }
+    }
+
+    /**
+     * Replaces all items of the given source ID in the datastore. Implementations should only write items that
+     * changed.
+     * 
+     * @param from
+     *            a string with the link ID MCRFROM
+     * @param links
+     *            the new items of <code>from</code>, an empty collection removes all items
+     */
+    default void update(String from, Collection<MCRLinkTableEntry> links) {
+        delete(from, null, null);
+        create(links);
+    }
+
     /**
      * The method remove a item for the from ID from the datastore.
      * 
@@ -110,4 +137,28 @@ public interface MCRLinkTableInterface {
      */
     Collection<String> getDestinationsOf(String from, String type);
 
+    /**
+     * Returns the stored items of the given sources. The returned stream has to be closed.
+     * 
+     * @param from
+     *            the link IDs MCRFROM, null for all items of the datastore
+     * @return the stored items including their attributes
+     * @throws UnsupportedOperationException
+     *             if the datastore cannot list its items
+     */
+    default Stream<MCRLinkTableEntry> getLinks(Collection<String> from) {
+        throw new UnsupportedOperationException(getClass().getName() + " cannot list its links.");
+    }
+
+    /**
+     * Returns the maximum length of a value of the items, longer values cannot be stored.
+     *
+     * @param value
+     *            one of <code>from</code>, <code>to</code>, <code>type</code> or <code>attr</code>
+     * @return the maximum length, {@link Integer#MAX_VALUE} if the length is not limited
+     */
+    default int getMaxLength(String value) {
+        return Integer.MAX_VALUE;
+    }
+
 }
@@ -18,20 +18,33 @@
 
 package org.mycore.datamodel.common;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRCacheDependencies;
+import org.mycore.common.MCRSession;
+import org.mycore.common.MCRSessionMgr;
 import org.mycore.common.MCRUtils;
 import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.config.MCRConfigurationBase;
+import org.mycore.common.config.MCRConfigurationException;
 import org.mycore.datamodel.classifications2.MCRCategLinkReference;
 import org.mycore.datamodel.classifications2.MCRCategLinkServiceFactory;
 import org.mycore.datamodel.classifications2.MCRCategoryID;
@@ -72,8 +85,31 @@ public class MCRLinkTableManager {
     // logger
     static Logger LOGGER = LogManager.getLogger();
 
+    private static final String GRAPH_PROPERTY = "MCR.Persistence.LinkTable.Graph.Enabled";
+
+    private static final String LINK_PROVIDER_PREFIX = "MCR.Persistence.LinkTable.LinkProvider.";
+
     private MCRLinkTableInterface linkTableInstance = null;
 
+    private final List<MCRLinkTableEntryProvider> linkProviders;
+
+    /** maximum lengths of the values the link table store accepts */
+    private final int maxFromLength;
+
+    private final int maxToLength;
+
+    private final int maxTypeLength;
+
+    private final int maxAttrLength;
+
+    private volatile MCRLinkGraph linkGraph;
+
+    /** state of the cache dependencies when the link table was read for the link graph */
+    private volatile MCRCacheDependencies.Stamp linkGraphStamp;
+
+    /** sources committed while the link graph is built, null if no graph is built */
+    private volatile Set<String> pendingSources;
+
     /**
      * Returns the link table manager singleton.
      * 
@@ -94,6 +130,23 @@ public class MCRLinkTableManager {
         // Load the persistence class
         linkTableInstance = MCRConfiguration2
             .getOrThrow("MCR.Persistence.LinkTable.Store.Class", MCRConfiguration2::instantiateClass);
+        linkProviders = new TreeMap<>(MCRConfiguration2.<MCRLinkTableEntryProvider>getInstances(LINK_PROVIDER_PREFIX))
+            .values()
+            .stream()
+            .map(MCRLinkTableManager::instantiate)
+            .collect(Collectors.toList());
+        maxFromLength = linkTableInstance.getMaxLength("from");
+        maxToLength = linkTableInstance.getMaxLength("to");
+        maxTypeLength = linkTableInstance.getMaxLength("type");
+        maxAttrLength = linkTableInstance.getMaxLength("attr");
+    }
+
+    private static MCRLinkTableEntryProvider instantiate(Callable<MCRLinkTableEntryProvider> factory) {
+        try {
+            return factory.call();
+        } catch (Exception e) {
+            throw new MCRConfigurationException("Could not instantiate link provider.", e);
+        }
     }
 
     /**
@@ -125,34 +178,106 @@ public class MCRLinkTableManager {
      *            the optional attribute of the reference as String
      */
     public void addReferenceLink(String from, String to, String type, String attr) {
+        MCRLinkTableEntry link = checkLink(from, to, type, attr);
+        if (link == null) {
+            return;
+        }
+
+        LOGGER.debug("Link in table {} add for {}<-->{} with {} and {}", link.getType(), link.getFrom(),
+            link.getTo(), link.getType(), link.getAttr());
+
+        try {
+            linkTableInstance.create(link.getFrom(), link.getTo(), link.getType(), link.getAttr());
+            linksChanged(link.getFrom());
+        } catch (Exception e) {
+            LOGGER.warn("An error occured while adding a dataset from the reference link table, adding not succesful.",
+                e);
+        }
+    }
+
+    /**
+     * The method adds several reference link pairs at once. Links already stored are only written if their
+     * attribute changed, so this is the preferred method for imports.
+     * 
+     * @param links
+     *            the reference links, links without source, target or type are skipped
+     */
+    public void addReferenceLinks(Collection<MCRLinkTableEntry> links) {
+        List<MCRLinkTableEntry> checkedLinks = links.stream()
+            .map(link -> checkLink(link.getFrom(), link.getTo(), link.getType(), link.getAttr()))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        if (checkedLinks.isEmpty()) {
+            return;
+        }
+        LOGGER.debug("Adding {} links to link table", checkedLinks.size());
+        try {
+            linkTableInstance.create(checkedLinks);
+            checkedLinks.forEach(link -> linksChanged(link.getFrom()));
+        } catch (Exception e) {
+            LOGGER.warn("An error occured while adding datasets to the reference link table, adding not succesful.",
+                e);
+        }
+    }
+
+    /**
+     * Replaces all reference links of the given source. Only links that changed are written.
+     * 
+     * @param from
+     *            the source of the references
+     * @param links
+     *            the new reference links of <code>from</code>, links without target or type are skipped
+     */
+    public void updateReferenceLinks(String from, Collection<MCRLinkTableEntry> links) {
+        String source = MCRUtils.filterTrimmedNotEmpty(from).orElse(null);
+        if (source == null) {
+            LOGGER.warn("The from value of a reference link is false, the links were not updated in the link table");
+            return;
+        }
+        List<MCRLinkTableEntry> checkedLinks = links.stream()
+            .map(link -> checkLink(link.getFrom(), link.getTo(), link.getType(), link.getAttr()))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        try {
+            linkTableInstance.update(source, checkedLinks);
+            linksChanged(source);
+        } catch (Exception e) {
+            LOGGER.warn("An error occured while updating the reference links of " + source
+                + ", updating is not succesful.", e);
+        }
+    }
+
+    /**
+     * Returns the link with trimmed values or null, if a mandatory value is missing.
+     */
+    private MCRLinkTableEntry checkLink(String from, String to, String type, String attr) {
         from = MCRUtils.filterTrimmedNotEmpty(from).orElse(null);
         if (from == null) {
             LOGGER.warn("The from value of a reference link is false, the link was not added to the link table");
-            return;
+            return null;
         }
 
         to = MCRUtils.filterTrimmedNotEmpty(to).orElse(null);
         if (to == null) {
             LOGGER.warn("The to value of a reference link is false, the link was not added to the link table");
-            return;
+            return null;
         }
 
         type = MCRUtils.filterTrimmedNotEmpty(type).orElse(null);
         if (type == null) {
             LOGGER.warn("The type value of a reference link is false, the link was not added to the link table");
-            return;
+            return null;
         }
 
         attr = MCRUtils.filterTrimmedNotEmpty(attr).orElse("");
-
-        LOGGER.debug("Link in table {} add for {}<-->{} with {} and {}", type, from, to, type, attr);
-
-        try {
-            linkTableInstance.create(from, to, type, attr);
-        } catch (Exception e) {
-            LOGGER.warn("An error occured while adding a dataset from the reference link table, adding not succesful.",
-                e);
+        if (from.length() > maxFromLength || to.length() > maxToLength || type.length() > maxTypeLength
+            || attr.length() > maxAttrLength) {
+            LOGGER.warn("The reference link {}->{} of type {} with attribute {} exceeds the column lengths"
+                + " (from: {}, to: {}, type: {}, attr: {}), the link was not added to the link table", from, to,
+                type, attr, maxFromLength, maxToLength, maxTypeLength, maxAttrLength);
+            return null;
         }
+        return new MCRLinkTableEntry(from, to, type, attr);
     }
 
     /**
@@ -181,6 +306,7 @@ public class MCRLinkTableManager {
 
         try {
             linkTableInstance.delete(from, null, null);
+            linksChanged(from);
         } catch (Exception e) {
             LOGGER.warn("An error occured while deleting a dataset from the" + from
                 + " reference link table, deleting could be not succesful.", e);
@@ -206,6 +332,7 @@ public class MCRLinkTableManager {
         }
         try {
             linkTableInstance.delete(from, to, type);
+            linksChanged(from);
         } catch (Exception e) {
             LOGGER.warn("An error occured while deleting a dataset from the"
                 + " reference link table, deleting is not succesful.", e);
@@ -239,6 +366,10 @@ public class MCRLinkTableManager {
         }
 
         try {
+            MCRLinkGraph graph = getCommittedLinkGraph();
+            if (graph != null) {
+                return graph.countSources(to, null);
+            }
             return linkTableInstance.countTo(null, to, null, null);
         } catch (Exception e) {
             LOGGER.warn("An error occured while searching for references of " + to + ".", e);
@@ -327,6 +458,10 @@ public class MCRLinkTableManager {
         }
 
         try {
+            MCRLinkGraph graph = getCommittedLinkGraph();
+            if (graph != null) {
+                return graph.getSources(to, null);
+            }
             return linkTableInstance.getSourcesOf(to, null);
         } catch (Exception e) {
             LOGGER.warn("An error occured while searching for references to " + to + ".", e);
@@ -369,6 +504,10 @@ public class MCRLinkTableManager {
         }
 
         try {
+            MCRLinkGraph graph = getCommittedLinkGraph();
+            if (graph != null) {
+                return graph.getSources(to, type);
+            }
             return linkTableInstance.getSourcesOf(to, type);
         } catch (Exception e) {
             LOGGER.warn("An error occured while searching for references to " + to + " with " + type + ".", e);
@@ -393,8 +532,10 @@ public class MCRLinkTableManager {
         }
         LinkedList<String> ll = new LinkedList<>();
         try {
+            MCRLinkGraph graph = getCommittedLinkGraph();
             for (String singleTo : to) {
-                ll.addAll(linkTableInstance.getSourcesOf(singleTo, type));
+                ll.addAll(graph != null ? graph.getSources(singleTo, type)
+                    : linkTableInstance.getSourcesOf(singleTo, type));
             }
             return ll;
         } catch (Exception e) {
@@ -439,6 +580,10 @@ public class MCRLinkTableManager {
         }
 
         try {
+            MCRLinkGraph graph = getCommittedLinkGraph();
+            if (graph != null) {
+                return graph.getDestinations(from, type);
+            }
             return linkTableInstance.getDestinationsOf(from, type);
         } catch (Exception e) {
             LOGGER.warn("An error occured while searching for references from " + from + ".", e);
@@ -446,6 +591,154 @@ public class MCRLinkTableManager {
         }
     }
 
+    /**
+     * Returns the in-memory graph of all links, if <code>MCR.Persistence.LinkTable.Graph.Enabled</code> is true. The
+     * graph is built from the link table on first use and afterwards updated with the links of every source changed
+     * through this class, when the transaction is committed. The graph is rebuilt, if another process sharing the
+     * database signals a modification with {@link MCRConfigurationBase#systemModified()}. It answers the link queries
+     * of this class, except in threads with uncommitted link changes, and allows traversals like
+     * {@link MCRLinkGraph#getTransitiveSources}.
+     *
+     * @return the link graph or null, if it is disabled or cannot be built
+     */
+    public MCRLinkGraph getLinkGraph() {
+        if (!MCRConfiguration2.getBoolean(GRAPH_PROPERTY).orElse(false)) {
+            linkGraph = null;
+            return null;
+        }
+        MCRLinkGraph graph = linkGraph;
+        if (graph == null || !linkGraphStamp.isValid()) {
+            synchronized (this) {
+                graph = linkGraph;
+                if (graph == null || !linkGraphStamp.isValid()) {
+                    if (graph != null) {
+                        LOGGER.info("Link table was modified by another process, rebuilding link graph.");
+                    }
+                    graph = buildLinkGraph();
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Builds the link graph from the link table and replaces the current one, if it is enabled.
+     *
+     * @return a list of links that differ between the previous graph and the link table, each with the attribute
+     *         <code>missing</code> if the previous graph lacked it or <code>obsolete</code> if only the graph had it
+     */
+    public List<MCRLinkTableEntry> rebuildLinkGraph() {
+        MCRLinkGraph oldGraph = getLinkGraph();
+        if (oldGraph == null) {
+            return Collections.emptyList();
+        }
+        MCRLinkGraph newGraph;
+        synchronized (this) {
+            newGraph = buildLinkGraph();
+            if (newGraph == null) {
+                return Collections.emptyList();
+            }
+        }
+        Set<MCRLinkTableEntry> oldLinks = new HashSet<>(oldGraph.getLinks());
+        Set<MCRLinkTableEntry> newLinks = new HashSet<>(newGraph.getLinks());
+        return Stream.concat(
+            newLinks.stream().filter(link -> !oldLinks.contains(link)).map(link -> withAttr(link, "missing")),
+            oldLinks.stream().filter(link -> !newLinks.contains(link)).map(link -> withAttr(link, "obsolete")))
+            .collect(Collectors.toList());
+    }
+
+    private static MCRLinkTableEntry withAttr(MCRLinkTableEntry link, String attr) {
+        return new MCRLinkTableEntry(link.getFrom(), link.getTo(), link.getType(), attr);
+    }
+
+    /**
+     * Builds the link graph and makes it the current one. Links of sources committed meanwhile are reread afterwards,
+     * as the link table may have been read before.
+     *
+     * @return the new graph or null, if it cannot be built
+     */
+    private MCRLinkGraph buildLinkGraph() {
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        pendingSources = pending;
+        //taken before reading, so modifications of other processes meanwhile cause another rebuild
+        MCRCacheDependencies.Stamp stamp = MCRCacheDependencies.stamp(Collections.emptyList());
+        MCRLinkGraph graph;
+        try (Stream<MCRLinkTableEntry> links = linkTableInstance.getLinks(null)) {
+            graph = MCRLinkGraph.build(links);
+            LOGGER.info("Built link graph with {} links.", graph.size());
+        } catch (Exception e) {
+            LOGGER.warn("Could not build link graph, using link table.", e);
+            pendingSources = null;
+            return null;
+        }
+        //committing threads update the graph themselves from now on, sources added before are replayed here
+        linkGraphStamp = stamp;
+        linkGraph = graph;
+        pendingSources = null;
+        if (!pending.isEmpty()) {
+            try {
+                setLinks(graph, new ArrayList<>(pending));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not update link graph, it will be rebuilt on next use.", e);
+                linkGraph = null;
+                return null;
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the link graph, if it is enabled and knows all link changes of the current thread.
+     *
+     * @return the link graph or null, if the link table has to be queried
+     */
+    public MCRLinkGraph getCommittedLinkGraph() {
+        //the graph does not know the uncommitted changes of this thread
+        boolean changed = MCRSessionMgr.hasCurrentSession()
+            && MCRSessionMgr.getCurrentSession().getOnCommitTask(ChangedSources.class).isPresent();
+        return changed ? null : getLinkGraph();
+    }
+
+    private void linksChanged(String from) {
+        if (!MCRConfiguration2.getBoolean(GRAPH_PROPERTY).orElse(false) || !MCRSessionMgr.hasCurrentSession()) {
+            return;
+        }
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        ChangedSources changedSources = session.getOnCommitTask(ChangedSources.class).orElseGet(() -> {
+            ChangedSources newChangedSources = new ChangedSources();
+            session.onCommit(newChangedSources);
+            return newChangedSources;
+        });
+        changedSources.sources.add(from);
+    }
+
+    private void updateLinkGraph(Set<String> changedSources) {
+        List<String> sources = new ArrayList<>(changedSources);
+        //register before reading the graph, so a graph published meanwhile is updated by one of both threads
+        Set<String> pending = pendingSources;
+        if (pending != null) {
+            pending.addAll(sources);
+        }
+        MCRLinkGraph graph = linkGraph;
+        try {
+            if (graph != null) {
+                setLinks(graph, sources);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not update link graph, it will be rebuilt on next use.", e);
+            linkGraph = null;
+        }
+    }
+
+    private void setLinks(MCRLinkGraph graph, List<String> sources) {
+        //reread the links, so changes rolled back before are not applied
+        Map<String, List<MCRLinkTableEntry>> links;
+        try (Stream<MCRLinkTableEntry> stored = linkTableInstance.getLinks(sources)) {
+            links = stored.collect(Collectors.groupingBy(MCRLinkTableEntry::getFrom));
+        }
+        sources.forEach(from -> graph.setLinks(from, links.getOrDefault(from, Collections.emptyList())));
+    }
+
     /**
      * Creates all references for the given object. You should call {@link #delete(MCRObjectID)} before using this
      * method otherwise doublets could occur.
@@ -453,7 +746,15 @@ public class MCRLinkTableManager {
      * @param obj the object to create the references
      */
     public void create(MCRObject obj) {
+        createLinks(obj, false);
+    }
+
+    /**
+     * @param replace true, if existing links should be replaced, false if there are none
+     */
+    private void createLinks(MCRObject obj, boolean replace) {
         MCRObjectID mcrId = obj.getId();
+        List<MCRLinkTableEntry> links = new ArrayList<>();
         // set new entries
         MCRObjectMetadata meta = obj.getMetadata();
         //use Set for category collection to remove duplicates if there are any
@@ -464,11 +765,11 @@ public class MCRLinkTableManager {
                 String categId = ((MCRMetaClassification) inf).getCategId();
                 categories.add(new MCRCategoryID(classId, categId));
             } else if (inf instanceof MCRMetaLinkID) {
-                addReferenceLink(mcrId.toString(), ((MCRMetaLink) inf).getXLinkHref(),
-                    MCRLinkTableManager.ENTRY_TYPE_REFERENCE, "");
+                links.add(new MCRLinkTableEntry(mcrId.toString(), ((MCRMetaLink) inf).getXLinkHref(),
+                    MCRLinkTableManager.ENTRY_TYPE_REFERENCE, ""));
             } else if (inf instanceof MCRMetaDerivateLink) {
-                addReferenceLink(mcrId.toString(), ((MCRMetaLink) inf).getXLinkHref(),
-                    MCRLinkTableManager.ENTRY_TYPE_DERIVATE_LINK, "");
+                links.add(new MCRLinkTableEntry(mcrId.toString(), ((MCRMetaLink) inf).getXLinkHref(),
+                    MCRLinkTableManager.ENTRY_TYPE_DERIVATE_LINK, ""));
             }
         });
         MCRCategoryID state = obj.getService().getState();
@@ -476,20 +777,58 @@ public class MCRLinkTableManager {
             categories.add(state);
         }
         categories.addAll(obj.getService().getClassifications());
-        if (categories.size() > 0) {
-            MCRCategLinkReference objectReference = new MCRCategLinkReference(mcrId);
+        categories.addAll(getProvidedCategories(obj));
+        MCRCategLinkReference objectReference = new MCRCategLinkReference(mcrId);
+        if (replace) {
+            MCRCategLinkServiceFactory.getInstance().updateLinks(objectReference, categories);
+        } else if (categories.size() > 0) {
             MCRCategLinkServiceFactory.getInstance().setLinks(objectReference, categories);
         }
         // add derivate reference
         MCRObjectStructure structure = obj.getStructure();
         for (int i = 0; i < structure.getDerivates().size(); i++) {
             MCRMetaLinkID lid = structure.getDerivates().get(i);
-            addReferenceLink(obj.getId(), lid.getXLinkHrefID(), MCRLinkTableManager.ENTRY_TYPE_DERIVATE, "");
+            links.add(new MCRLinkTableEntry(mcrId.toString(), lid.getXLinkHrefID().toString(),
+                MCRLinkTableManager.ENTRY_TYPE_DERIVATE, ""));
         }
         // add parent reference
         if (structure.getParentID() != null) {
-            addReferenceLink(mcrId, structure.getParentID(), MCRLinkTableManager.ENTRY_TYPE_PARENT, "");
+            links.add(new MCRLinkTableEntry(mcrId.toString(), structure.getParentID().toString(),
+                MCRLinkTableManager.ENTRY_TYPE_PARENT, ""));
+        }
+        // add links of configured providers, so the complete set is replaced at once
+        links.addAll(getProvidedLinks(obj));
+        if (replace) {
+            updateReferenceLinks(mcrId.toString(), links);
+        } else {
+            addReferenceLinks(links);
+        }
+    }
+
+    private List<MCRLinkTableEntry> getProvidedLinks(MCRObject obj) {
+        List<MCRLinkTableEntry> links = new ArrayList<>();
+        for (MCRLinkTableEntryProvider linkProvider : linkProviders) {
+            try {
+                links.addAll(linkProvider.getLinks(obj));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not get links of {} from {}, they were not added to the link table", obj.getId(),
+                    linkProvider.getClass().getName(), e);
+            }
         }
+        return links;
+    }
+
+    private List<MCRCategoryID> getProvidedCategories(MCRObject obj) {
+        List<MCRCategoryID> categories = new ArrayList<>();
+        for (MCRLinkTableEntryProvider linkProvider : linkProviders) {
+            try {
+                categories.addAll(linkProvider.getCategories(obj));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not get categories of {} from {}, they were not linked", obj.getId(),
+                    linkProvider.getClass().getName(), e);
+            }
+        }
+        return categories;
     }
 
     /**
@@ -505,19 +844,27 @@ public class MCRLinkTableManager {
 
     /**
      * Updates all references of this object. Old ones will be removed and new links will be created.
+     * Links are replaced, so that only changed links are written.
      *
      * @param id the mycore object identifer
      */
     public void update(MCRObjectID id) {
-        delete(id);
         if ("derivate".equals(id.getTypeId())) {
-            create(MCRMetadataManager.retrieveMCRDerivate(id));
+            createLinks(MCRMetadataManager.retrieveMCRDerivate(id), true);
         } else {
-            create(MCRMetadataManager.retrieveMCRObject(id));
+            createLinks(MCRMetadataManager.retrieveMCRObject(id), true);
         }
     }
 
     public void create(MCRDerivate der) {
+        createLinks(der, false);
+    }
+
+    private void createLinks(MCRDerivate der, boolean replace) {
+        if (replace) {
+            //derivates have no reference links
+            updateReferenceLinks(der.getId().toString(), Collections.emptyList());
+        }
         Collection<MCRCategoryID> categoryList = new HashSet<>();
         categoryList.addAll(der.getDerivate().getClassifications()
             .stream()
@@ -530,10 +877,32 @@ public class MCRLinkTableManager {
         }
 
         MCRCategLinkReference objectReference = new MCRCategLinkReference(der.getId());
-        MCRCategLinkServiceFactory.getInstance().setLinks(objectReference, categoryList);
+        if (replace) {
+            MCRCategLinkServiceFactory.getInstance().updateLinks(objectReference, categoryList);
+        } else {
+            MCRCategLinkServiceFactory.getInstance().setLinks(objectReference, categoryList);
+        }
     }
 
     private MCRCategoryID metaClassToCategoryID(MCRMetaClassification metaClazz) {
         return new MCRCategoryID(metaClazz.getClassId(), metaClazz.getCategId());
     }
+
+    /**
+     * Sources whose links were changed in the current transaction. Registered with
+     * {@link MCRSession#onCommit(Runnable)}, so it is discarded on rollback and the link graph only learns about
+     * committed links.
+     */
+    private final class ChangedSources implements Runnable {
+
+        private final Set<String> sources = new LinkedHashSet<>();
+
+        @Override
+        public void run() {
+            updateLinkGraph(sources);
+            //notify other processes sharing the database
+            MCRConfigurationBase.systemModified();
+        }
+    }
+
 }
@@ -19,14 +19,18 @@
 package org.mycore.datamodel.common;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 import org.mycore.common.MCRCache;
+import org.mycore.common.MCRCacheDependencies;
 import org.mycore.common.MCRPersistenceException;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.config.MCRConfigurationBase;
@@ -34,6 +38,7 @@ import org.mycore.common.content.MCRByteContent;
 import org.mycore.common.content.MCRContent;
 import org.mycore.common.content.MCRJDOMContent;
 import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.datamodel.objectinfo.MCRObjectQueryResolver;
 import org.xml.sax.SAXException;
 
 /**
@@ -93,6 +98,23 @@ public class MCRXMLMetadataManager {
         IMPLEMENTATION.verifyStore(base);
     }
 
+    /**
+     * Delegation, see linked method for relevant documentation.
+     *
+     * @param base
+     * @see MCRXMLMetadataManagerAdapter#rebuildIDIndex(String)
+     */
+    public void rebuildIDIndex(String base) {
+        IMPLEMENTATION.rebuildIDIndex(base);
+    }
+
+    /**
+     * Invalidates cached data depending on the given object, independent of the configured implementation.
+     */
+    private static void modified(MCRObjectID mcrid) {
+        MCRCacheDependencies.modified(MCRCacheDependencies.object(mcrid.toString()));
+    }
+
     /**
      * Delegation, see linked method for relevant documentation.
      *
@@ -104,7 +126,11 @@ public class MCRXMLMetadataManager {
      */
     public void create(MCRObjectID mcrid, MCRContent xml, Date lastModified)
         throws MCRPersistenceException {
-        IMPLEMENTATION.create(mcrid, xml, lastModified);
+        try {
+            IMPLEMENTATION.create(mcrid, xml, lastModified);
+        } finally {
+            modified(mcrid);
+        }
     }
 
     /**
@@ -115,7 +141,11 @@ public class MCRXMLMetadataManager {
      * @see MCRXMLMetadataManagerAdapter#delete(MCRObjectID)
      */
     public void delete(MCRObjectID mcrid) throws MCRPersistenceException {
-        IMPLEMENTATION.delete(mcrid);
+        try {
+            IMPLEMENTATION.delete(mcrid);
+        } finally {
+            modified(mcrid);
+        }
     }
 
     /**
@@ -128,7 +158,11 @@ public class MCRXMLMetadataManager {
      */
     public void update(MCRObjectID mcrid, MCRContent xml, Date lastModified)
         throws MCRPersistenceException {
-        IMPLEMENTATION.update(mcrid, xml, lastModified);
+        try {
+            IMPLEMENTATION.update(mcrid, xml, lastModified);
+        } finally {
+            modified(mcrid);
+        }
     }
 
     /**
@@ -203,6 +237,17 @@ public class MCRXMLMetadataManager {
         return IMPLEMENTATION.listIDsForBase(base);
     }
 
+    /**
+     * Delegation, see linked method for relevant documentation.
+     *
+     * @param base
+     * @return
+     * @see MCRXMLMetadataManagerAdapter#streamIDsForBase(String)
+     */
+    public Stream<String> streamIDsForBase(String base) {
+        return IMPLEMENTATION.streamIDsForBase(base);
+    }
+
     /**
      * Delegation, see linked method for relevant documentation.
      *
@@ -384,7 +429,7 @@ public class MCRXMLMetadataManager {
      * @throws IOException
      */
     public List<MCRObjectIDDate> listObjectDates() throws IOException {
-        return retrieveObjectDates(this.listIDs());
+        return listObjectDates(base -> true);
     }
 
     /**
@@ -394,7 +439,37 @@ public class MCRXMLMetadataManager {
      * @throws IOException
      */
     public List<MCRObjectIDDate> listObjectDates(String type) throws IOException {
-        return retrieveObjectDates(this.listIDsOfType(type));
+        return listObjectDates(base -> type.equals(MCRObjectID.getIDParts(base)[1]));
+    }
+
+    private List<MCRObjectIDDate> listObjectDates(Predicate<String> baseFilter) throws IOException {
+        List<MCRObjectIDDate> dates = new ArrayList<>();
+        for (String base : getObjectBaseIds()) {
+            if (baseFilter.test(base)) {
+                try (Stream<MCRObjectIDDate> baseDates = streamObjectDates(base)) {
+                    baseDates.forEach(dates::add);
+                }
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Streams the object ids of the given base and their last modified date in ascending order of the id, without
+     * retrieving the objects one by one. If <code>MCR.Metadata.ObjectDates.UseObjectInfo</code> is true, the dates
+     * of objects are read from the object info table of {@link MCRObjectQueryResolver}, only the dates of derivates
+     * are read from the store.
+     *
+     * @param base the MCRObjectID base, e.g. DocPortal_document
+     * @see MCRXMLMetadataManagerAdapter#streamObjectDates(String)
+     */
+    public Stream<MCRObjectIDDate> streamObjectDates(String base) throws IOException {
+        String[] idParts = MCRObjectID.getIDParts(base);
+        if (MCRConfiguration2.getBoolean("MCR.Metadata.ObjectDates.UseObjectInfo").orElse(false)
+            && !"derivate".equals(idParts[1])) {
+            return MCRObjectQueryResolver.getInstance().streamIdDates(idParts[0], idParts[1]);
+        }
+        return IMPLEMENTATION.streamObjectDates(base);
     }
 
     /**
@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.mycore.common.MCRCache;
 import org.mycore.common.MCRPersistenceException;
@@ -85,6 +86,13 @@ public interface MCRXMLMetadataManagerAdapter {
      */
     void verifyStore(String base);
 
+    /**
+     * Rebuilds the index of stored IDs of a store, if the implementation keeps one.
+     *
+     * @param base The base ID of the store
+     */
+    void rebuildIDIndex(String base);
+
     /**
      * Stores metadata of a new MCRObject in the persistent store.
      *
@@ -185,6 +193,18 @@ public interface MCRXMLMetadataManagerAdapter {
      */
     List<String> listIDsForBase(String base);
 
+    /**
+     * Streams all MCRObjectIDs stored for the given base in ascending order. In contrast to
+     * {@link #listIDsForBase(String)}, implementations should not hold all identifiers in memory.
+     *
+     * @param base
+     *            the MCRObjectID base, e.g. DocPortal_document
+     * @return Stream of Strings with all MyCoRe identifiers found in the metadata stores for the given base
+     */
+    default Stream<String> streamIDsForBase(String base) {
+        return listIDsForBase(base).stream();
+    }
+
     /**
      * Lists all MCRObjectIDs stored for the given object type, for all projects
      *
@@ -225,6 +245,18 @@ public interface MCRXMLMetadataManagerAdapter {
      */
     List<MCRObjectIDDate> retrieveObjectDates(List<String> ids) throws IOException;
 
+    /**
+     * Streams the object ids of the given base and their last modified date in ascending order of the id.
+     * Implementations should read the dates in bulk instead of retrieving every object.
+     *
+     * @param base
+     *            the MCRObjectID base, e.g. DocPortal_document
+     * @throws IOException
+     */
+    default Stream<MCRObjectIDDate> streamObjectDates(String base) throws IOException {
+        return retrieveObjectDates(listIDsForBase(base)).stream();
+    }
+
     /**
      * Returns the time when the xml data of a MCRObject was last modified.
      *
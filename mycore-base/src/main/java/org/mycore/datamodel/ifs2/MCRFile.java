@@ -76,7 +76,7 @@ public class MCRFile extends MCRStoredNode {
         super(parent, name, "file");
         Files.createFile(path);
         writeData(e -> e.setAttribute("md5", MCRFile.MD5_OF_EMPTY_FILE));
-        getRoot().saveAdditionalData();
+        getRoot().saveFileData(this, MCRFile.MD5_OF_EMPTY_FILE);
     }
 
     /**
@@ -122,7 +122,7 @@ public class MCRFile extends MCRStoredNode {
             source.sendTo(path, StandardCopyOption.REPLACE_EXISTING);
             String md5 = cis.getMD5String();
             writeData(e -> e.setAttribute("md5", md5));
-            getRoot().saveAdditionalData();
+            getRoot().saveFileData(this, md5);
             return md5;
         }
     }
@@ -136,7 +136,7 @@ public class MCRFile extends MCRStoredNode {
      */
     public void setMD5(String md5) throws IOException {
         writeData(e -> e.setAttribute("md5", md5));
-        getRoot().saveAdditionalData();
+        getRoot().saveFileData(this, md5);
     }
 
     /**
@@ -26,6 +26,7 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
@@ -34,6 +35,8 @@ import org.jdom2.Content;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.content.MCRJDOMContent;
 import org.mycore.common.content.MCRPathContent;
 import org.mycore.datamodel.niofs.utils.MCRRecursiveDeleter;
@@ -44,6 +47,11 @@ import org.xml.sax.SAXException;
  * Represents a set of files and directories belonging together, that are stored
  * in a persistent MCRFileStore. A FileCollection has a unique ID within the
  * store, it is the root folder of all files and directories in the collection.
+ *
+ * If <code>MCR.IFS2.FileCollection.Journal.Enabled</code> is <code>true</code>, changes of file checksums are
+ * appended to {@link #JOURNAL_FILE} instead of rewriting {@link #DATA_FILE} every time. The journal is compacted
+ * into the data file on transaction commit, when <code>MCR.IFS2.FileCollection.Journal.Threshold</code> entries
+ * are reached or when any other metadata changes. A journal left over from a crash is replayed on loading.
  * 
  * @author Frank Lützenkirchen
  */
@@ -56,6 +64,10 @@ public class MCRFileCollection extends MCRDirectory {
 
     public static final String DATA_FILE = "mcrdata.xml";
 
+    public static final String JOURNAL_FILE = "mcrdata.journal";
+
+    private static final String JOURNAL_PROPERTY_PREFIX = "MCR.IFS2.FileCollection.Journal.";
+
     /**
      * The store this file collection is stored in.
      */
@@ -73,6 +85,17 @@ public class MCRFileCollection extends MCRDirectory {
      */
     private MCRReadWriteGuard dataGuard;
 
+    /**
+     * Journal of checksum changes not yet written to {@link #DATA_FILE}
+     */
+    private MCRFileCollectionJournal journal;
+
+    private boolean journalEnabled;
+
+    private int journalThreshold;
+
+    private AtomicBoolean compactionScheduled;
+
     /**
      * Creates a new file collection in the given store, or retrieves an
      * existing one.
@@ -89,6 +112,10 @@ public class MCRFileCollection extends MCRDirectory {
         this.store = store;
         this.id = id;
         this.dataGuard = new MCRReadWriteGuard();
+        this.journal = new MCRFileCollectionJournal(path.resolve(JOURNAL_FILE));
+        this.journalEnabled = MCRConfiguration2.getBoolean(JOURNAL_PROPERTY_PREFIX + "Enabled").orElse(false);
+        this.journalThreshold = MCRConfiguration2.getInt(JOURNAL_PROPERTY_PREFIX + "Threshold").orElse(1000);
+        this.compactionScheduled = new AtomicBoolean();
         if (Files.exists(path)) {
             readAdditionalData();
         } else {
@@ -128,9 +155,72 @@ public class MCRFileCollection extends MCRDirectory {
         } catch (JDOMException | SAXException e) {
             throw new IOException(e);
         }
+        if (journal.exists()) {
+            LOGGER.info("Replaying metadata journal of file collection {}...", path);
+            try {
+                writeData(e -> {
+                    try {
+                        LOGGER.info("Replayed {} journal entries.", journal.replay(e, path));
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            saveAdditionalData();
+        }
+    }
+
+    /**
+     * Persists the md5 checksum of the given file, which is already set in the additional data.
+     *
+     * If the journal is enabled, only a journal entry is written. Otherwise the complete
+     * {@link #DATA_FILE} is written.
+     *
+     * @param file the file that was changed
+     * @param md5 the new md5 checksum of the file
+     */
+    void saveFileData(MCRFile file, String md5) throws IOException {
+        if (!journalEnabled || !journal.append(file, md5)) {
+            saveAdditionalData();
+            return;
+        }
+        if (journal.size() >= journalThreshold) {
+            LOGGER.debug("Journal threshold of {} reached, compacting {}.", journalThreshold, path);
+            saveAdditionalData();
+        } else if (MCRSessionMgr.hasCurrentSession() && compactionScheduled.compareAndSet(false, true)) {
+            MCRSessionMgr.getCurrentSession().onCommit(this::compactJournalUnchecked);
+        }
+    }
+
+    /**
+     * Writes all pending journal entries to {@link #DATA_FILE}.
+     */
+    public void compactJournal() throws IOException {
+        if (journal.size() > 0 || journal.exists()) {
+            saveAdditionalData();
+        }
+    }
+
+    private void compactJournalUnchecked() {
+        try {
+            compactJournal();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     protected void saveAdditionalData() throws IOException {
+        compactionScheduled.set(false);
+        //prevent journal entries between writing the data file and clearing the journal
+        synchronized (journal) {
+            writeDataFile();
+            journal.clear();
+        }
+    }
+
+    private void writeDataFile() throws IOException {
         Path target = path.resolve(DATA_FILE);
         try {
             readData(e -> {
@@ -159,7 +249,7 @@ public class MCRFileCollection extends MCRDirectory {
     @Override
     public Stream<MCRNode> getChildren() throws IOException {
         return super.getChildren()
-            .filter(f -> !DATA_FILE.equals(f.getName()));
+            .filter(f -> !isDataFile(f.getName()));
     }
 
     /**
@@ -211,7 +301,7 @@ public class MCRFileCollection extends MCRDirectory {
 
     @Override
     public MCRNode getChild(String name) {
-        if (DATA_FILE.equals(name)) {
+        if (isDataFile(name)) {
             return null;
         } else {
             return super.getChild(name);
@@ -234,7 +324,16 @@ public class MCRFileCollection extends MCRDirectory {
 
     private Stream<Path> getUsableChildSream() throws IOException {
         return Files.list(path)
-            .filter(p -> !DATA_FILE.equals(p.getFileName().toString()));
+            .filter(p -> !isDataFile(p.getFileName().toString()));
+    }
+
+    /**
+     * Returns true, if the given file name is reserved for additional data of the file collection
+     *
+     * @param fileName name of a direct child of the file collection
+     */
+    public static boolean isDataFile(String fileName) {
+        return DATA_FILE.equals(fileName) || JOURNAL_FILE.equals(fileName);
     }
 
     @Override
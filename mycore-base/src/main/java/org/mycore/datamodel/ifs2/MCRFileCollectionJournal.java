@@ -0,0 +1,177 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Element;
+import org.mycore.datamodel.ifs.MCRContentInputStream;
+
+/**
+ * Append-only journal of file metadata changes of a {@link MCRFileCollection}.
+ *
+ * Instead of rewriting {@link MCRFileCollection#DATA_FILE} on every change of a file's md5 checksum, a single line
+ * <code>md5 TAB size TAB lastModified TAB path</code> is appended to {@link MCRFileCollection#JOURNAL_FILE}.
+ * The journal is merged into the data file on compaction and replayed when the collection is loaded, so
+ * an interrupted upload does not lose any checksum already written to the journal.
+ *
+ * @see MCRFileCollection
+ */
+class MCRFileCollectionJournal {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String SEPARATOR = "\t";
+
+    private final Path journalFile;
+
+    private int entries;
+
+    MCRFileCollectionJournal(Path journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Returns true, if a journal file is present and needs to be replayed.
+     */
+    boolean exists() {
+        return Files.exists(journalFile);
+    }
+
+    /**
+     * Returns the number of entries appended since the last call of {@link #clear()}.
+     */
+    synchronized int size() {
+        return entries;
+    }
+
+    /**
+     * Appends the current state of the given file to the journal.
+     *
+     * @return false, if the file can not be represented in the journal and the data file has to be written instead
+     */
+    synchronized boolean append(MCRFile file, String md5) throws IOException {
+        String path = file.getPath();
+        if (path.indexOf('\n') >= 0 || path.indexOf('\r') >= 0) {
+            return false;
+        }
+        BasicFileAttributes attrs = Files.readAttributes(file.getLocalPath(), BasicFileAttributes.class);
+        String line = String.join(SEPARATOR, md5, Long.toString(attrs.size()),
+            Long.toString(attrs.lastModifiedTime().toMillis()), path);
+        try (BufferedWriter writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC)) {
+            writer.write(line);
+            writer.newLine();
+        }
+        entries++;
+        return true;
+    }
+
+    /**
+     * Deletes the journal. Must only be called after all entries are persisted in the data file.
+     */
+    synchronized void clear() throws IOException {
+        Files.deleteIfExists(journalFile);
+        entries = 0;
+    }
+
+    /**
+     * Applies all journal entries to the additional data of the file collection.
+     *
+     * @param collectionData the root element of the additional data
+     * @param collectionPath the directory of the file collection
+     * @return the number of entries applied
+     */
+    synchronized int replay(Element collectionData, Path collectionPath) throws IOException {
+        List<String> lines = Files.readAllLines(journalFile, StandardCharsets.UTF_8);
+        int applied = 0;
+        for (String line : lines) {
+            String[] parts = line.split(SEPARATOR, 4);
+            if (parts.length != 4 || !parts[3].startsWith("/")) {
+                //incomplete last line if writing the journal was interrupted
+                LOGGER.warn("Skipping invalid journal entry in {}: {}", journalFile, line);
+                continue;
+            }
+            String md5 = parts[0];
+            long size;
+            long lastModified;
+            try {
+                size = Long.parseLong(parts[1]);
+                lastModified = Long.parseLong(parts[2]);
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Skipping invalid journal entry in {}: {}", journalFile, line);
+                continue;
+            }
+            String path = parts[3];
+            Path localFile = collectionPath.resolve(path.substring(1));
+            if (!Files.isRegularFile(localFile)) {
+                LOGGER.debug("Skipping journal entry of deleted file {}", path);
+                continue;
+            }
+            BasicFileAttributes attrs = Files.readAttributes(localFile, BasicFileAttributes.class);
+            if (attrs.size() != size || attrs.lastModifiedTime().toMillis() != lastModified) {
+                LOGGER.warn("{} was modified after journal entry was written, recalculating md5 checksum.", path);
+                md5 = calculateMD5(localFile);
+            }
+            getFileData(collectionData, path).setAttribute("md5", md5);
+            applied++;
+        }
+        entries = 0;
+        return applied;
+    }
+
+    private static Element getFileData(Element collectionData, String path) {
+        String[] names = path.substring(1).split("/");
+        Element current = collectionData;
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            String type = i == names.length - 1 ? "file" : "dir";
+            Element child = current.getChildren()
+                .stream()
+                .filter(e -> name.equals(e.getAttributeValue("name")))
+                .findFirst()
+                .orElseGet(() -> new Element(type).setAttribute("name", name));
+            if (child.getParent() == null) {
+                current.addContent(child);
+            }
+            current = child;
+        }
+        return current;
+    }
+
+    private static String calculateMD5(Path localFile) throws IOException {
+        try (InputStream is = Files.newInputStream(localFile);
+            MCRContentInputStream cis = new MCRContentInputStream(is)) {
+            IOUtils.consume(cis);
+            return cis.getMD5String();
+        }
+    }
+
+}
@@ -84,7 +84,13 @@ public class MCRFileStore extends MCRStore {
             String msg = "FileCollection with ID " + id + " already exists";
             throw new MCRException(msg);
         }
-        return collectionLoadingCache.getUnchecked(id);
+        addToIDIndex(id);
+        try {
+            return collectionLoadingCache.getUnchecked(id);
+        } catch (RuntimeException e) {
+            removeFromIDIndex(id);
+            throw e;
+        }
     }
 
     @Override
@@ -21,17 +21,24 @@ package org.mycore.datamodel.ifs2;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.StringTokenizer;
@@ -43,6 +50,7 @@ import java.util.stream.StreamSupport;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mycore.common.MCRException;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.config.MCRConfigurationException;
 import org.mycore.datamodel.niofs.utils.MCRRecursiveDeleter;
 
@@ -76,6 +84,12 @@ import org.mycore.datamodel.niofs.utils.MCRRecursiveDeleter;
  * MCR.IFS2.Store.ID.BaseDir=/foo/bar
  * MCR.IFS2.Store.ID.SlotLayout=4-2-2
  * 
+ * If MCR.IFS2.Store.ID.IDIndex (or MCR.IFS2.Store.IDIndex for all stores) is true, the IDs stored are
+ * additionally kept in a persistent index in the base directory. Checking for existence, listing IDs and
+ * getting the highest stored ID then do not require to walk the slot directories. The index is built on
+ * first access and can be rebuilt by {@link #rebuildIDIndex()}, which is required if data is copied into the
+ * base directory bypassing the store. IDs found by {@link #exists(int)} are added to the index.
+ * 
  * @author Frank Lützenkirchen
  */
 public abstract class MCRStore {
@@ -135,6 +149,10 @@ public abstract class MCRStore {
 
     public static final Logger LOGGER = LogManager.getLogger();
 
+    private Boolean useIDIndex;
+
+    private MCRStoreIDIndex idIndex;
+
     /**
      * Deletes the data stored under the given ID from the store
      * 
@@ -153,11 +171,22 @@ public abstract class MCRStore {
      * @return true, if data for the given ID is existing in the store.
      */
     public boolean exists(final int id) throws IOException {
-        return Files.exists(getSlot(id));
+        MCRStoreIDIndex index = getIDIndex();
+        boolean exists = Files.exists(getSlot(id));
+        if (exists && index != null && !index.contains(id)) {
+            //data copied or restored into the base directory bypassing the store
+            LOGGER.warn("ID {} of store {} is missing in the ID index, adding it.", id, getID());
+            index.add(id);
+        }
+        return exists;
     }
 
     public synchronized int getHighestStoredID() {
         try {
+            MCRStoreIDIndex index = getIDIndex();
+            if (index != null) {
+                return index.getHighestID();
+            }
             String max = findMaxID(baseDirectory, 0);
             if (max != null) {
                 return slot2id(max);
@@ -191,7 +220,7 @@ public abstract class MCRStore {
 
     public boolean isEmpty() {
         try (Stream<Path> streamBaseDirectory = Files.list(baseDirectory)) {
-            return streamBaseDirectory.findAny().isEmpty();
+            return streamBaseDirectory.filter(this::isNotIndexFile).findAny().isEmpty();
         } catch (final IOException e) {
             LOGGER.error("Error while checking if base directory is empty: " + baseDirectory, e);
             return false;
@@ -202,6 +231,10 @@ public abstract class MCRStore {
      * @return all Ids of this store
      */
     public IntStream getStoredIDs() {
+        BitSet indexedIDs = getIndexedIDs();
+        if (indexedIDs != null) {
+            return indexedIDs.stream();
+        }
         int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED;
         return StreamSupport
             .stream(() -> Spliterators
@@ -223,6 +256,45 @@ public abstract class MCRStore {
      * @return all IDs currently used in the store
      */
     public Iterator<Integer> listIDs(final boolean order) {
+        BitSet indexedIDs = getIndexedIDs();
+        if (indexedIDs != null) {
+            return new Iterator<Integer>() {
+                final PrimitiveIterator.OfInt ids = MCRStoreIDIndex.iterator(indexedIDs, order);
+
+                int lastID;
+
+                @Override
+                public boolean hasNext() {
+                    return ids.hasNext();
+                }
+
+                @Override
+                public Integer next() {
+                    lastID = ids.nextInt();
+                    return lastID;
+                }
+
+                @Override
+                public void remove() {
+                    if (lastID == 0) {
+                        throw new IllegalStateException();
+                    }
+                    try {
+                        MCRStore.this.delete(lastID);
+                    } catch (final Exception ex) {
+                        throw new MCRException("Could not delete " + MCRStore.this.getID() + " " + lastID, ex);
+                    }
+                    lastID = 0;
+                }
+            };
+        }
+        return walkIDs(order);
+    }
+
+    /**
+     * Lists all IDs currently used in the store by walking the slot directories.
+     */
+    private Iterator<Integer> walkIDs(final boolean order) {
         return new Iterator<Integer>() {
             /**
              * List of files or directories in store not yet handled
@@ -304,7 +376,7 @@ public abstract class MCRStore {
             private void addChildren(final Path dir) throws IOException {
                 if (Files.isDirectory(dir)) {
                     try (Stream<Path> steamDir = Files.list(dir)) {
-                        final Path[] children = steamDir.toArray(Path[]::new);
+                        final Path[] children = steamDir.filter(MCRStore.this::isNotIndexFile).toArray(Path[]::new);
                         Arrays.sort(children, new MCRPathComparator());
 
                         for (int i = 0; i < children.length; i++) {
@@ -342,6 +414,34 @@ public abstract class MCRStore {
         }.init(order);
     }
 
+    /**
+     * Returns the IDs of this store with the last modified time of their data in ascending order of the ID. The
+     * slot directories are walked once and the times are taken from the file attributes read by the walk, no slot
+     * is opened. About 20 bytes per ID are held in memory until the stream is consumed.
+     *
+     * @return pairs of ID and last modified time in milliseconds
+     */
+    public Stream<Map.Entry<Integer, Long>> streamLastModifiedTimes() throws IOException {
+        if (!Files.isDirectory(baseDirectory)) {
+            return Stream.empty();
+        }
+        int slotNameLength = idLength + prefix.length() + suffix.length();
+        SlotTimes slotTimes = new SlotTimes();
+        Files.walkFileTree(baseDirectory, EnumSet.noneOf(FileVisitOption.class), slotLength.length + 1,
+            new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String fileName = file.getFileName().toString();
+                    if (fileName.length() == slotNameLength && fileName.startsWith(prefix)
+                        && fileName.endsWith(suffix)) {
+                        slotTimes.add(slot2id(fileName), attrs.lastModifiedTime().toMillis());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        return slotTimes.stream();
+    }
+
     /**
      * Deletes the data stored in the given file object from the store
      *
@@ -369,6 +469,90 @@ public abstract class MCRStore {
                 Files.delete(current);
             }
         }
+        String slotName = path.getFileName().toString();
+        MCRStoreIDIndex index = getIDIndex();
+        if (index != null && slotName.length() == idLength + prefix.length() + suffix.length()) {
+            index.remove(slot2id(slotName));
+        }
+    }
+
+    /**
+     * Marks the given ID as stored in the ID index, if the index is used.
+     * Must be called <em>before</em> data is created in the store.
+     *
+     * @param id the ID of the data that will be created
+     */
+    void addToIDIndex(final int id) throws IOException {
+        MCRStoreIDIndex index = getIDIndex();
+        if (index != null) {
+            index.add(id);
+        }
+    }
+
+    /**
+     * Removes the given ID from the ID index, if the index is used and no data is stored for the ID.
+     * Used to revert {@link #addToIDIndex(int)} if data could not be created.
+     *
+     * @param id the ID of the data that could not be created
+     */
+    void removeFromIDIndex(final int id) throws IOException {
+        MCRStoreIDIndex index = getIDIndex();
+        if (index != null && !Files.exists(getSlot(id))) {
+            index.remove(id);
+        }
+    }
+
+    /**
+     * Rebuilds the ID index of this store by walking the slot directories.
+     * Does nothing if the ID index is not used by this store.
+     */
+    public synchronized void rebuildIDIndex() throws IOException {
+        MCRStoreIDIndex index = getIDIndex();
+        if (index != null) {
+            rebuildIDIndex(index);
+        }
+    }
+
+    private void rebuildIDIndex(MCRStoreIDIndex index) throws IOException {
+        LOGGER.info("Building ID index of store {} in {}", getID(), baseDirectory);
+        Iterator<Integer> ids = walkIDs(ASCENDING);
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED;
+        index.rebuild(StreamSupport.stream(Spliterators.spliteratorUnknownSize(ids, characteristics), false)
+            .mapToInt(Integer::intValue));
+    }
+
+    /**
+     * Returns the opened ID index or null, if this store does not use an ID index.
+     */
+    private synchronized MCRStoreIDIndex getIDIndex() throws IOException {
+        if (useIDIndex == null) {
+            useIDIndex = MCRConfiguration2.getBoolean("MCR.IFS2.Store." + getID() + ".IDIndex")
+                .or(() -> MCRConfiguration2.getBoolean("MCR.IFS2.Store.IDIndex"))
+                .orElse(false);
+        }
+        if (!useIDIndex || idIndex != null) {
+            return idIndex;
+        }
+        MCRStoreIDIndex index = new MCRStoreIDIndex(baseDirectory.resolve(MCRStoreIDIndex.INDEX_FILE), idLength);
+        if (!index.open()) {
+            rebuildIDIndex(index);
+        }
+        idIndex = index;
+        return idIndex;
+    }
+
+    private BitSet getIndexedIDs() {
+        try {
+            MCRStoreIDIndex index = getIDIndex();
+            return index == null ? null : index.getIDs();
+        } catch (IOException e) {
+            LOGGER.error("Error while reading ID index of " + baseDirectory + ", walking directories instead.", e);
+            return null;
+        }
+    }
+
+    private boolean isNotIndexFile(Path path) {
+        return !MCRStoreIDIndex.INDEX_FILE.equals(path.getFileName().toString());
     }
 
     /**
@@ -560,7 +744,7 @@ public abstract class MCRStore {
         final Path[] children;
 
         try (Stream<Path> streamDirectory = Files.list(dir)) {
-            children = streamDirectory.toArray(Path[]::new);
+            children = streamDirectory.filter(this::isNotIndexFile).toArray(Path[]::new);
         }
 
         if (children.length == 0) {
@@ -590,6 +774,33 @@ public abstract class MCRStore {
         return null;
     }
 
+    /**
+     * IDs and last modified times collected by a walk. They are sorted by packing the ID and the index of the time
+     * into one <code>long</code>.
+     */
+    private static final class SlotTimes {
+
+        private long[] keys = new long[1024];
+
+        private long[] times = new long[1024];
+
+        private int size;
+
+        void add(int id, long time) {
+            if (size == times.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            keys[size] = (long) id << 32 | size;
+            times[size++] = time;
+        }
+
+        Stream<Map.Entry<Integer, Long>> stream() {
+            Arrays.sort(keys, 0, size);
+            return Arrays.stream(keys, 0, size).mapToObj(key -> Map.entry((int) (key >>> 32), times[(int) key]));
+        }
+    }
+
     public interface MCRStoreConfig {
         String getBaseDir();
 
@@ -0,0 +1,284 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Persistent index of all IDs stored in a {@link MCRStore}.
+ *
+ * The index is a bitmap stored in {@link #INDEX_FILE} in the base directory of the store. Bit <code>n</code> is
+ * set, if data for ID <code>n</code> is stored. The file is memory mapped in segments, so several processes
+ * working on the same store (e.g. web application and command line interface) share the same view. Modifications
+ * are guarded by a file lock.
+ *
+ * To stay crash safe, the bit of an ID is set <em>before</em> data is created and cleared <em>after</em> data is
+ * deleted. So after a crash, the index may report an ID that is not stored, but never misses a stored ID and
+ * never causes an ID to be assigned twice. {@link #rebuild(IntStream)} restores the exact state.
+ */
+class MCRStoreIDIndex {
+
+    /**
+     * Name of the index file in the base directory of the store
+     */
+    static final String INDEX_FILE = ".mcrids";
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int MAGIC = 0x4D435249; //MCRI
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * File locks are held per JVM, so store instances of the same directory have to synchronize on a shared monitor
+     */
+    private static final ConcurrentMap<Path, Object> FILE_LOCK_MONITORS = new ConcurrentHashMap<>();
+
+    private final Path indexFile;
+
+    private final Object fileLockMonitor;
+
+    private final int idLength;
+
+    private FileChannel channel;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * @param indexFile the file storing the bitmap
+     * @param idLength the maximum length of IDs in the store, if this changes the index is rebuilt
+     */
+    MCRStoreIDIndex(Path indexFile, int idLength) {
+        this.indexFile = indexFile;
+        this.idLength = idLength;
+        this.fileLockMonitor = FILE_LOCK_MONITORS.computeIfAbsent(indexFile.toAbsolutePath().normalize(),
+            p -> new Object());
+    }
+
+    /**
+     * Opens the index file.
+     *
+     * @return false, if the index file is new or invalid and needs to be rebuilt
+     */
+    synchronized boolean open() throws IOException {
+        channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        synchronized (fileLockMonitor) {
+            try (FileLock lock = channel.lock(0, HEADER_SIZE, false)) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+                if (header.getInt(0) == MAGIC && header.getInt(4) == VERSION && header.getInt(8) == idLength) {
+                    return true;
+                }
+                LOGGER.info("ID index {} is missing or invalid.", indexFile);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Marks the given ID as stored.
+     */
+    synchronized void add(int id) throws IOException {
+        update(id, true);
+    }
+
+    /**
+     * Marks the given ID as not stored.
+     */
+    synchronized void remove(int id) throws IOException {
+        update(id, false);
+    }
+
+    /**
+     * Returns true, if the given ID is marked as stored.
+     */
+    synchronized boolean contains(int id) throws IOException {
+        if (id < 0) {
+            return false;
+        }
+        MappedByteBuffer segment = getSegment(id, false);
+        if (segment == null) {
+            return false;
+        }
+        return (segment.get(getOffset(id)) & getMask(id)) != 0;
+    }
+
+    /**
+     * Returns the highest ID marked as stored or 0.
+     */
+    synchronized int getHighestID() throws IOException {
+        int segmentCount = getSegmentCount();
+        for (int s = segmentCount - 1; s >= 0; s--) {
+            MappedByteBuffer segment = getSegment(s);
+            for (int i = SEGMENT_SIZE - 1; i >= 0; i--) {
+                byte b = segment.get(i);
+                if (b != 0) {
+                    int bit = 31 - Integer.numberOfLeadingZeros(b & 0xFF);
+                    return (s * SEGMENT_SIZE + i) * Byte.SIZE + bit;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns all IDs marked as stored in ascending order.
+     */
+    synchronized BitSet getIDs() throws IOException {
+        int segmentCount = getSegmentCount();
+        BitSet ids = new BitSet();
+        byte[] bytes = new byte[SEGMENT_SIZE];
+        for (int s = 0; s < segmentCount; s++) {
+            getSegment(s).get(0, bytes);
+            BitSet segmentIds = BitSet.valueOf(bytes);
+            int base = s * SEGMENT_SIZE * Byte.SIZE;
+            segmentIds.stream().forEach(i -> ids.set(base + i));
+        }
+        return ids;
+    }
+
+    /**
+     * Replaces the content of the index with the given IDs.
+     *
+     * The file is updated in place, so other processes having the index mapped see the new state.
+     *
+     * @param storedIDs all IDs currently stored
+     */
+    synchronized void rebuild(IntStream storedIDs) throws IOException {
+        BitSet ids = new BitSet();
+        storedIDs.forEach(ids::set);
+        synchronized (fileLockMonitor) {
+            try (FileLock lock = channel.lock()) {
+                int segmentCount = Math.max(getSegmentCount(), (ids.length() + SEGMENT_SIZE * Byte.SIZE - 1)
+                    / (SEGMENT_SIZE * Byte.SIZE));
+                for (int s = 0; s < segmentCount; s++) {
+                    MappedByteBuffer segment = getSegment(s);
+                    byte[] bytes = ids.get(s * SEGMENT_SIZE * Byte.SIZE, (s + 1) * SEGMENT_SIZE * Byte.SIZE)
+                        .toByteArray();
+                    for (int i = 0; i < SEGMENT_SIZE; i++) {
+                        segment.put(i, i < bytes.length ? bytes[i] : 0);
+                    }
+                }
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(8, idLength);
+                header.force();
+            }
+        }
+        LOGGER.info("Rebuilt ID index {} with {} IDs.", indexFile, ids.cardinality());
+    }
+
+    private void update(int id, boolean stored) throws IOException {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID must not be negative: " + id);
+        }
+        MappedByteBuffer segment = getSegment(id, true);
+        int offset = getOffset(id);
+        byte mask = getMask(id);
+        long position = HEADER_SIZE + (long) getSegmentIndex(id) * SEGMENT_SIZE + offset;
+        synchronized (fileLockMonitor) {
+            try (FileLock lock = channel.lock(position, 1, false)) {
+                byte b = segment.get(offset);
+                segment.put(offset, (byte) (stored ? b | mask : b & ~mask));
+            }
+        }
+    }
+
+    private int getSegmentCount() throws IOException {
+        return Math.toIntExact((channel.size() - HEADER_SIZE + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+    }
+
+    private MappedByteBuffer getSegment(int id, boolean create) throws IOException {
+        int segmentIndex = getSegmentIndex(id);
+        if (!create && segmentIndex >= getSegmentCount()) {
+            return null;
+        }
+        return getSegment(segmentIndex);
+    }
+
+    private MappedByteBuffer getSegment(int segmentIndex) throws IOException {
+        while (segments.size() <= segmentIndex) {
+            long position = HEADER_SIZE + (long) segments.size() * SEGMENT_SIZE;
+            //extends the file if needed
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, SEGMENT_SIZE));
+        }
+        return segments.get(segmentIndex);
+    }
+
+    private static int getSegmentIndex(int id) {
+        return id / Byte.SIZE / SEGMENT_SIZE;
+    }
+
+    private static int getOffset(int id) {
+        return id / Byte.SIZE % SEGMENT_SIZE;
+    }
+
+    private static byte getMask(int id) {
+        return (byte) (1 << (id % Byte.SIZE));
+    }
+
+    /**
+     * Returns an iterator over all given IDs in the requested order.
+     */
+    static PrimitiveIterator.OfInt iterator(BitSet ids, boolean ascending) {
+        if (ascending) {
+            return ids.stream().iterator();
+        }
+        return new PrimitiveIterator.OfInt() {
+            int next = ids.previousSetBit(ids.length() - 1);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                int current = next;
+                next = current == 0 ? -1 : ids.previousSetBit(current - 1);
+                return current;
+            }
+        };
+    }
+
+}
@@ -90,7 +90,13 @@ public class MCRStoredMetadata {
         if (!Files.exists(path.getParent())) {
             Files.createDirectories(path.getParent());
         }
-        xml.sendTo(path);
+        store.addToIDIndex(id);
+        try {
+            xml.sendTo(path);
+        } catch (IOException | RuntimeException e) {
+            store.removeFromIDIndex(id);
+            throw e;
+        }
     }
 
     /**
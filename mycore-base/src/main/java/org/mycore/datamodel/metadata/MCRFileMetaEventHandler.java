@@ -70,8 +70,21 @@ public class MCRFileMetaEventHandler extends MCREventHandlerBase {
         HashSet<MCRCategLinkReference> before = new HashSet<>();
         before.addAll(CATEGLINK_SERVICE.getReferences(der.getId().toString()));
 
-        handleDerivateDeleted(evt, der);
-        handleDerivateCreated(evt, der);
+        //only update links of files with categories and delete links of all other files
+        MCRObjectID derivateID = der.getId();
+        HashSet<MCRCategLinkReference> removed = new HashSet<>(before);
+        for (MCRFileMetadata metadata : der.getDerivate().getFileMetadata()) {
+            Collection<MCRCategoryID> categories = metadata.getCategories();
+            if (!categories.isEmpty()) {
+                MCRPath path = MCRPath.getPath(derivateID.toString(), metadata.getName());
+                MCRCategLinkReference linkReference = new MCRCategLinkReference(path);
+                removed.remove(linkReference);
+                CATEGLINK_SERVICE.updateLinks(linkReference, categories);
+            }
+        }
+        if (!removed.isEmpty()) {
+            CATEGLINK_SERVICE.deleteLinks(removed);
+        }
 
         HashSet<MCRCategLinkReference> after = new HashSet<>();
         after.addAll(CATEGLINK_SERVICE.getReferences(der.getId().toString()));
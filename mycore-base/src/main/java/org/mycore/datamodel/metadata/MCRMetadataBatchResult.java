@@ -0,0 +1,82 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of {@link MCRMetadataManager#createAll(java.util.Collection)} and
+ * {@link MCRMetadataManager#updateAll(java.util.Collection)}.
+ */
+public class MCRMetadataBatchResult {
+
+    private final List<MCRObjectID> succeeded = new ArrayList<>();
+
+    private final Map<MCRBase, Exception> failed = new IdentityHashMap<>();
+
+    private final Map<MCRObjectID, Exception> parentLinkFailed = new LinkedHashMap<>();
+
+    void addSuccess(MCRObjectID id) {
+        succeeded.add(id);
+    }
+
+    void addFailure(MCRBase base, Exception e) {
+        failed.putIfAbsent(base, e);
+    }
+
+    void addParentLinkFailure(MCRObjectID id, Exception e) {
+        parentLinkFailed.putIfAbsent(id, e);
+    }
+
+    /**
+     * Returns the IDs of all objects that were stored, in the order they were processed.
+     */
+    public List<MCRObjectID> getSucceeded() {
+        return Collections.unmodifiableList(succeeded);
+    }
+
+    /**
+     * Returns all objects that failed with the first exception that occurred.
+     */
+    public Map<MCRBase, Exception> getFailed() {
+        return Collections.unmodifiableMap(failed);
+    }
+
+    /**
+     * Returns the IDs of stored objects that could not be linked as child of their parent, with the exception
+     * that occurred. These objects are also contained in {@link #getSucceeded()}, only the parent needs repair.
+     */
+    public Map<MCRObjectID, Exception> getParentLinkFailed() {
+        return Collections.unmodifiableMap(parentLinkFailed);
+    }
+
+    public boolean hasFailures() {
+        return !failed.isEmpty();
+    }
+
+    public boolean hasParentLinkFailures() {
+        return !parentLinkFailed.isEmpty();
+    }
+
+}
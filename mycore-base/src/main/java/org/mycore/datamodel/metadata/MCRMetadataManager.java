@@ -25,9 +25,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
@@ -35,14 +38,14 @@ import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jdom2.Document;
-import org.jdom2.JDOMException;
 import org.mycore.access.MCRAccessException;
 import org.mycore.access.MCRAccessManager;
 import org.mycore.common.MCRCache;
 import org.mycore.common.MCRCache.ModifiedHandle;
 import org.mycore.common.MCRException;
 import org.mycore.common.MCRPersistenceException;
+import org.mycore.common.MCRTransactionHelper;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.events.MCREvent;
 import org.mycore.common.events.MCREventManager;
 import org.mycore.datamodel.common.MCRActiveLinkException;
@@ -55,7 +58,8 @@ import org.mycore.datamodel.metadata.share.MCRMetadataShareAgentFactory;
 import org.mycore.datamodel.niofs.MCRPath;
 import org.mycore.datamodel.niofs.utils.MCRRecursiveDeleter;
 import org.mycore.datamodel.niofs.utils.MCRTreeCopier;
-import org.xml.sax.SAXException;
+
+import com.google.common.collect.Iterables;
 
 import jakarta.persistence.PersistenceException;
 
@@ -302,6 +306,17 @@ public final class MCRMetadataManager {
      * @throws MCRAccessException if "create-{objectType}" privilege is missing
      */
     public static void create(final MCRObject mcrObject) throws MCRPersistenceException, MCRAccessException {
+        create(mcrObject, null);
+    }
+
+    /**
+     * Stores the object.
+     *
+     * @param childLinks if not null, the link to the parent object is added to this map instead of updating the
+     *            parent
+     */
+    private static void create(final MCRObject mcrObject, Map<MCRObjectID, List<MCRMetaLinkID>> childLinks)
+        throws MCRPersistenceException, MCRAccessException {
 
         MCRObjectID objectId = mcrObject.getId();
 
@@ -349,12 +364,152 @@ public final class MCRMetadataManager {
 
         // add the MCRObjectID to the child list in the parent object
         if (parentId != null) {
-            parent.getStructure().addChild(new MCRMetaLinkID("child", objectId,
-                mcrObject.getStructure().getParent().getXLinkLabel(), mcrObject.getLabel()));
+            MCRMetaLinkID childLink = new MCRMetaLinkID("child", objectId,
+                mcrObject.getStructure().getParent().getXLinkLabel(), mcrObject.getLabel());
+            if (childLinks != null) {
+                childLinks.computeIfAbsent(parentId, k -> new ArrayList<>()).add(childLink);
+                return;
+            }
+            parent.getStructure().addChild(childLink);
             MCRMetadataManager.fireUpdateEvent(parent);
         }
     }
 
+    /**
+     * Stores the given objects like {@link #create(MCRObject)}.
+     *
+     * The objects are processed in chunks of <code>MCR.Metadata.Batch.Size</code> objects. If a transaction is
+     * active, every chunk is committed on its own and a new transaction is started afterwards, so database writes
+     * are batched and events for {@link org.mycore.common.events.MCRAsyncEventHandler asynchronous handlers} are
+     * dispatched per chunk. Parent objects are updated once per chunk with the links to all their new children.
+     *
+     * Every object succeeds or fails on its own: a failing object is reported in the result and the remaining
+     * objects are processed. If a failure or the commit leaves the transaction to be rolled back, the objects
+     * already stored in the chunk are repaired from the metadata store in a new transaction. If the parent of an
+     * object cannot be updated, the object is stored and reported in
+     * {@link MCRMetadataBatchResult#getParentLinkFailed()}, so only the link in the parent needs repair.
+     *
+     * @param objects the objects to store
+     * @return the stored and the failed objects
+     */
+    public static MCRMetadataBatchResult createAll(Collection<MCRObject> objects) {
+        MCRMetadataBatchResult result = new MCRMetadataBatchResult();
+        for (List<MCRObject> chunk : Iterables.partition(objects, getBatchSize())) {
+            Map<MCRObjectID, List<MCRMetaLinkID>> childLinks = new LinkedHashMap<>();
+            List<MCRObject> stored = processChunk(chunk, o -> create(o, childLinks), result);
+            childLinks.forEach((parentId, links) -> addChildren(parentId, links, stored, result));
+            commitChunk(stored, result);
+        }
+        return result;
+    }
+
+    /**
+     * Updates the given objects like {@link #update(MCRObject)}. The objects are processed in chunks with the
+     * same semantics as {@link #createAll(Collection)}.
+     *
+     * @param objects the objects to update
+     * @return the updated and the failed objects
+     */
+    public static MCRMetadataBatchResult updateAll(Collection<MCRObject> objects) {
+        MCRMetadataBatchResult result = new MCRMetadataBatchResult();
+        for (List<MCRObject> chunk : Iterables.partition(objects, getBatchSize())) {
+            commitChunk(processChunk(chunk, MCRMetadataManager::update, result), result);
+        }
+        return result;
+    }
+
+    private static int getBatchSize() {
+        return MCRConfiguration2.getInt("MCR.Metadata.Batch.Size").orElse(100);
+    }
+
+    private static List<MCRObject> processChunk(List<MCRObject> chunk, BatchOperation operation,
+        MCRMetadataBatchResult result) {
+        List<MCRObject> stored = new ArrayList<>(chunk.size());
+        for (MCRObject mcrObject : chunk) {
+            try {
+                operation.accept(mcrObject);
+                stored.add(mcrObject);
+            } catch (MCRAccessException | RuntimeException e) {
+                LOGGER.error("Error while storing {}.", mcrObject.getId(), e);
+                result.addFailure(mcrObject, e);
+                if (MCRTransactionHelper.transactionRequiresRollback()) {
+                    MCRTransactionHelper.rollbackTransaction();
+                    MCRTransactionHelper.beginTransaction();
+                    repair(stored, result);
+                }
+            }
+        }
+        return stored;
+    }
+
+    private static void addChildren(MCRObjectID parentId, List<MCRMetaLinkID> links, List<MCRObject> stored,
+        MCRMetadataBatchResult result) {
+        try {
+            MCRObject parent = retrieveMCRObject(parentId);
+            links.forEach(parent.getStructure()::addChild);
+            fireUpdateEvent(parent);
+        } catch (RuntimeException e) {
+            LOGGER.error("Error while adding {} children to {}.", links.size(), parentId, e);
+            links.stream().map(MCRMetaLinkID::getXLinkHrefID).forEach(child -> result.addParentLinkFailure(child, e));
+            if (MCRTransactionHelper.transactionRequiresRollback()) {
+                MCRTransactionHelper.rollbackTransaction();
+                MCRTransactionHelper.beginTransaction();
+                repair(stored, result);
+            }
+        }
+    }
+
+    private static void commitChunk(List<MCRObject> stored, MCRMetadataBatchResult result) {
+        if (MCRTransactionHelper.isTransactionActive()) {
+            RuntimeException commitException = commitAndBegin();
+            if (commitException != null) {
+                LOGGER.error("Error while committing {} objects, repairing them.", stored.size(), commitException);
+                repair(stored, result);
+                RuntimeException repairException = commitAndBegin();
+                if (repairException != null) {
+                    LOGGER.error("Error while committing repaired objects.", repairException);
+                    stored.forEach(o -> result.addFailure(o, repairException));
+                    stored.clear();
+                }
+            }
+        }
+        stored.stream().map(MCRBase::getId).forEach(result::addSuccess);
+    }
+
+    /**
+     * Commits the current transaction and begins a new one.
+     *
+     * @return the exception, if the transaction could not be committed and was rolled back
+     */
+    private static RuntimeException commitAndBegin() {
+        RuntimeException exception = null;
+        try {
+            MCRTransactionHelper.commitTransaction();
+        } catch (RuntimeException e) {
+            exception = e;
+            MCRTransactionHelper.rollbackTransaction();
+        }
+        MCRTransactionHelper.beginTransaction();
+        return exception;
+    }
+
+    /**
+     * Restores the database state of objects whose transaction was rolled back, objects that cannot be repaired
+     * are moved to the failures.
+     */
+    private static void repair(List<MCRObject> stored, MCRMetadataBatchResult result) {
+        stored.removeIf(mcrObject -> {
+            try {
+                fireRepairEvent(mcrObject);
+                return false;
+            } catch (RuntimeException e) {
+                LOGGER.error("Error while repairing {}.", mcrObject.getId(), e);
+                result.addFailure(mcrObject, e);
+                return true;
+            }
+        });
+    }
+
     /**
      * Deletes MCRDerivate.
      * 
@@ -657,15 +812,7 @@ public final class MCRMetadataManager {
      *                if a persistence problem is occurred
      */
     public static MCRDerivate retrieveMCRDerivate(final MCRObjectID id) throws MCRPersistenceException {
-        try {
-            Document xml = MCRXMLMetadataManager.instance().retrieveXML(id);
-            if (xml == null) {
-                throw new MCRPersistenceException("Could not retrieve xml of derivate: " + id);
-            }
-            return new MCRDerivate(xml);
-        } catch (IOException | JDOMException | SAXException e) {
-            throw new MCRPersistenceException("Could not retrieve xml of derivate: " + id, e);
-        }
+        return new MCRDerivate(MCRObjectCache.instance().getXML(id));
     }
 
     /**
@@ -677,15 +824,7 @@ public final class MCRMetadataManager {
      *                if a persistence problem is occurred
      */
     public static MCRObject retrieveMCRObject(final MCRObjectID id) throws MCRPersistenceException {
-        try {
-            Document xml = MCRXMLMetadataManager.instance().retrieveXML(id);
-            if (xml == null) {
-                throw new MCRPersistenceException("Could not retrieve xml of object: " + id);
-            }
-            return new MCRObject(xml);
-        } catch (IOException | JDOMException | SAXException e) {
-            throw new MCRPersistenceException("Could not retrieve xml of object: " + id, e);
-        }
+        return new MCRObject(MCRObjectCache.instance().getXML(id));
     }
 
     /**
@@ -995,4 +1134,9 @@ public final class MCRMetadataManager {
             MCREventManager.instance().handleEvent(evt);
         }
     }
+
+    @FunctionalInterface
+    private interface BatchOperation {
+        void accept(MCRObject mcrObject) throws MCRAccessException;
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.metadata;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.mycore.common.MCRCache;
+import org.mycore.common.MCRCacheDependencies;
+import org.mycore.common.MCRException;
+import org.mycore.common.MCRPersistenceException;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.events.MCREvent;
+import org.mycore.common.events.MCREventHandler;
+import org.mycore.common.events.MCREventManager;
+import org.mycore.datamodel.common.MCRXMLMetadataManager;
+import org.xml.sax.SAXException;
+
+/**
+ * Shared cache of parsed objects and derivates used by {@link MCRMetadataManager}.
+ *
+ * The parsed XML is never handed out. {@link #getXML(MCRObjectID)} returns a clone of it, so callers may modify
+ * the result or build new instances from it. {@link #get(MCRObjectID)} returns an instance shared by all callers, that
+ * must not be modified.
+ *
+ * An entry stays valid until the stored object is modified, see {@link MCRCacheDependencies}. Entries are removed
+ * early on object and derivate events. The size is set by <code>MCR.Metadata.ObjectCache.Size</code>, the hit rate
+ * is available via JMX.
+ */
+public final class MCRObjectCache implements MCREventHandler {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final MCRObjectCache SINGLETON = new MCRObjectCache();
+
+    private final MCRCache<MCRObjectID, CachedBase> cache;
+
+    private MCRObjectCache() {
+        cache = new MCRCache<>(MCRConfiguration2.getInt("MCR.Metadata.ObjectCache.Size").orElse(1000),
+            "Metadata objects");
+        MCREventManager.instance().addEventHandler(MCREvent.ObjectType.OBJECT, this);
+        MCREventManager.instance().addEventHandler(MCREvent.ObjectType.DERIVATE, this);
+    }
+
+    public static MCRObjectCache instance() {
+        return SINGLETON;
+    }
+
+    /**
+     * Returns a copy of the XML of the object or derivate with the given ID.
+     *
+     * @throws MCRPersistenceException if the object does not exist or could not be read
+     */
+    public Document getXML(MCRObjectID id) throws MCRPersistenceException {
+        CachedBase cached = cache.get(id);
+        if (cached == null || cached.xml == null || !cached.stamp.isValid()) {
+            cached = load(id);
+        }
+        return cached.xml.clone();
+    }
+
+    /**
+     * Returns the shared instance of the object or derivate with the given ID. The returned instance must not be
+     * modified.
+     *
+     * @throws MCRPersistenceException if the object does not exist or could not be read
+     */
+    public MCRBase get(MCRObjectID id) throws MCRPersistenceException {
+        CachedBase cached = cache.get(id);
+        if (cached == null || !cached.stamp.isValid()) {
+            cached = load(id);
+        }
+        MCRBase shared = cached.shared;
+        if (shared == null) {
+            //concurrent callers may create different instances, only one is kept
+            shared = create(id, cached.xml.clone());
+            cached.shared = shared;
+        }
+        return shared;
+    }
+
+    /**
+     * Caches the given instance as shared instance of the given ID until the object is modified.
+     */
+    void put(MCRObjectID id, MCRBase base) {
+        CachedBase cached = new CachedBase(null, dependencyStamp(id));
+        cached.shared = base;
+        cache.put(id, cached);
+    }
+
+    /**
+     * Removes the object or derivate with the given ID from the cache.
+     */
+    public void remove(MCRObjectID id) {
+        cache.remove(id);
+    }
+
+    private CachedBase load(MCRObjectID id) {
+        //take the stamp before reading, so modifications while reading invalidate the entry
+        MCRCacheDependencies.Stamp stamp = dependencyStamp(id);
+        String type = isDerivate(id) ? "derivate" : "object";
+        Document xml;
+        try {
+            xml = MCRXMLMetadataManager.instance().retrieveXML(id);
+        } catch (IOException | JDOMException | SAXException e) {
+            throw new MCRPersistenceException("Could not retrieve xml of " + type + ": " + id, e);
+        }
+        if (xml == null) {
+            throw new MCRPersistenceException("Could not retrieve xml of " + type + ": " + id);
+        }
+        LOGGER.debug("caching {} {}", type, id);
+        CachedBase cached = new CachedBase(xml, stamp);
+        cache.put(id, cached);
+        return cached;
+    }
+
+    private static MCRCacheDependencies.Stamp dependencyStamp(MCRObjectID id) {
+        return MCRCacheDependencies.stamp(List.of(MCRCacheDependencies.object(id.toString())));
+    }
+
+    private static boolean isDerivate(MCRObjectID id) {
+        return "derivate".equals(id.getTypeId());
+    }
+
+    private static MCRBase create(MCRObjectID id, Document xml) {
+        if (isDerivate(id)) {
+            return new MCRDerivate(xml);
+        }
+        return new MCRObject(xml);
+    }
+
+    @Override
+    public void doHandleEvent(MCREvent evt) throws MCRException {
+        String key = evt.getObjectType() == MCREvent.ObjectType.DERIVATE ? MCREvent.DERIVATE_KEY
+            : MCREvent.OBJECT_KEY;
+        Object base = evt.get(key);
+        if (base instanceof MCRBase && ((MCRBase) base).getId() != null) {
+            remove(((MCRBase) base).getId());
+        }
+    }
+
+    @Override
+    public void undoHandleEvent(MCREvent evt) throws MCRException {
+        doHandleEvent(evt);
+    }
+
+    private static final class CachedBase {
+
+        private final Document xml;
+
+        private final MCRCacheDependencies.Stamp stamp;
+
+        private volatile MCRBase shared;
+
+        CachedBase(Document xml, MCRCacheDependencies.Stamp stamp) {
+            this.xml = xml;
+            this.stamp = stamp;
+        }
+    }
+
+}
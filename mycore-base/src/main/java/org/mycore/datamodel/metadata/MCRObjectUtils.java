@@ -20,6 +20,7 @@ package org.mycore.datamodel.metadata;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -36,6 +37,7 @@ import org.mycore.common.MCRException;
 import org.mycore.common.MCRPersistenceException;
 import org.mycore.common.content.MCRContent;
 import org.mycore.datamodel.classifications2.MCRCategoryID;
+import org.mycore.datamodel.common.MCRLinkGraph;
 import org.mycore.datamodel.common.MCRLinkTableManager;
 import org.mycore.datamodel.common.MCRXMLMetadataManager;
 
@@ -65,11 +67,20 @@ public abstract class MCRObjectUtils {
     /**
      * Retrieves a list of all ancestors of the given object. The first entry
      * is the parent object, the last entry is the root node. Returns an empty
-     * list if no ancestor is found.
+     * list if no ancestor is found. The ancestors of the parent are taken from the link graph, if it is enabled.
      * 
      * @return list of ancestors
      */
     public static List<MCRObject> getAncestors(MCRObject mcrObject) {
+        MCRLinkGraph graph = MCRLinkTableManager.instance().getCommittedLinkGraph();
+        if (graph != null && mcrObject.hasParent()) {
+            MCRObjectID parentID = mcrObject.getStructure().getParentID();
+            List<MCRObject> ancestorList = new ArrayList<>();
+            ancestorList.add(MCRMetadataManager.retrieveMCRObject(parentID));
+            ancestorList.addAll(retrieveObjects(
+                graph.getTransitiveDestinations(parentID.toString(), MCRLinkTableManager.ENTRY_TYPE_PARENT)));
+            return ancestorList;
+        }
         List<MCRObject> ancestorList = new ArrayList<>();
         while (mcrObject.hasParent()) {
             MCRObjectID parentID = mcrObject.getStructure().getParentID();
@@ -137,16 +148,28 @@ public abstract class MCRObjectUtils {
     /**
      * Returns a list of all descendants of the given object. Be aware that
      * there is no specific order. The list is empty if the object has no
-     * children.
+     * children. The descendants are taken from the link graph, if it is enabled.
      * 
      * @return list of all descendants 
      */
     public static List<MCRObject> getDescendants(MCRObject mcrObject) {
+        MCRLinkGraph graph = MCRLinkTableManager.instance().getCommittedLinkGraph();
+        if (graph != null) {
+            return retrieveObjects(
+                graph.getTransitiveSources(mcrObject.getId().toString(), MCRLinkTableManager.ENTRY_TYPE_PARENT));
+        }
         List<MCRObject> objectList = new ArrayList<>();
         getChildren(mcrObject).forEach(child -> objectList.addAll(getDescendantsAndSelf(child)));
         return objectList;
     }
 
+    private static List<MCRObject> retrieveObjects(Collection<String> ids) {
+        return ids.stream()
+            .map(MCRObjectID::getInstance)
+            .map(MCRMetadataManager::retrieveMCRObject)
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
     /**
      * Returns all derivates connected with this object. This includes derivates which are defined in the
      * structure part and also derivate links.
@@ -23,6 +23,7 @@ import org.mycore.datamodel.common.MCRObjectIDDate;
 import org.mycore.datamodel.metadata.MCRObjectID;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Allows to query objects using {@link MCRObjectQuery}.
@@ -43,6 +44,17 @@ public interface MCRObjectQueryResolver {
      */
     List<MCRObjectIDDate> getIdDates(MCRObjectQuery objectQuery);
 
+    /**
+     * Streams the ids and modification dates of all not deleted objects of a base in ascending order of the id
+     * @param project the project of the objects
+     * @param type the type of the objects
+     * @return the ids and dates of the object info
+     */
+    default Stream<MCRObjectIDDate> streamIdDates(String project, String type) {
+        return getIdDates(new MCRObjectQuery().project(project).type(type)
+            .sort(MCRObjectQuery.SortBy.id, MCRObjectQuery.SortOrder.asc)).stream();
+    }
+
     /**
      * Gets all the object info which match the restrictions of the query
      * @param objectQuery the query
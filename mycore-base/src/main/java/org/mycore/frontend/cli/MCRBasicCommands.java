@@ -165,6 +165,27 @@ public class MCRBasicCommands {
         MCRCommandLineInterface.skipOnError();
     }
 
+    @MCRCommand(syntax = "set parallel threads to {0}",
+        help = "Process the commands returned by bulk commands like 'export all objects of type' on {0} threads,"
+            + " 1 processes them one after another",
+        order = 112)
+    public static void setParallelThreads(int threads) {
+        MCRCommandLineInterface.setParallelThreads(threads);
+    }
+
+    @MCRCommand(syntax = "enable checkpoints in file {0}",
+        help = "Records completed commands of bulk commands in file {0}, commands recorded there are skipped,"
+            + " so an interrupted run is resumed by processing the same commands again",
+        order = 114)
+    public static void enableCheckpoints(String file) throws IOException {
+        MCRCommandLineInterface.enableCheckpoints(file);
+    }
+
+    @MCRCommand(syntax = "disable checkpoints", help = "Stops recording completed commands", order = 116)
+    public static void disableCheckpoints() {
+        MCRCommandLineInterface.disableCheckpoints();
+    }
+
     @MCRCommand(syntax = "get uri {0} to file {1}",
         help = "Get XML content from URI {0} and save it to a local file {1}",
         order = 120)
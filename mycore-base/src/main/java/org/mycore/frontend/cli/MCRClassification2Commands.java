@@ -49,16 +49,20 @@ import org.jdom2.transform.JDOMSource;
 import org.mycore.backend.jpa.MCREntityManagerProvider;
 import org.mycore.common.MCRConstants;
 import org.mycore.common.MCRException;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.content.MCRSourceContent;
 import org.mycore.common.content.MCRURLContent;
 import org.mycore.common.xml.MCRURIResolver;
 import org.mycore.common.xml.MCRXMLParserFactory;
+import org.mycore.datamodel.classifications2.MCRCategLinkService;
+import org.mycore.datamodel.classifications2.MCRCategLinkServiceFactory;
 import org.mycore.datamodel.classifications2.MCRCategory;
 import org.mycore.datamodel.classifications2.MCRCategoryDAO;
 import org.mycore.datamodel.classifications2.MCRCategoryDAOFactory;
 import org.mycore.datamodel.classifications2.MCRCategoryID;
 import org.mycore.datamodel.classifications2.MCRLabel;
 import org.mycore.datamodel.classifications2.MCRUnmappedCategoryRemover;
+import org.mycore.datamodel.classifications2.impl.MCRCategLinkServiceImpl;
 import org.mycore.datamodel.classifications2.impl.MCRCategoryDAOImpl;
 import org.mycore.datamodel.classifications2.impl.MCRCategoryImpl;
 import org.mycore.datamodel.classifications2.utils.MCRCategoryTransformer;
@@ -535,6 +539,42 @@ public class MCRClassification2Commands extends MCRAbstractCommands {
         ((MCRCategoryDAOImpl) DAO).repairLeftRightValue(classID);
     }
 
+    @MCRCommand(syntax = "renumber classification {0} with gap {1}",
+        help = "renumbers left and right values of classification {0} leaving {1} - 1 unused values between "
+            + "neighboring categories, so that categories can be added without shifting all following categories",
+        order = 135)
+    public static void renumberClassification(String classID, int gap) {
+        if (!(DAO instanceof MCRCategoryDAOImpl)) {
+            LOGGER.error("Command not compatible with {}", DAO.getClass().getName());
+            return;
+        }
+        ((MCRCategoryDAOImpl) DAO).renumber(classID, gap);
+    }
+
+    @MCRCommand(syntax = "rebuild classification link counts",
+        help = "recalculates the precomputed number of linked objects of all categories",
+        order = 137)
+    public static void rebuildLinkCounts() {
+        MCRCategLinkService linkService = MCRCategLinkServiceFactory.getInstance();
+        if (!(linkService instanceof MCRCategLinkServiceImpl)) {
+            LOGGER.error("Command not compatible with {}", linkService.getClass().getName());
+            return;
+        }
+        ((MCRCategLinkServiceImpl) linkService).rebuildLinkCounts();
+    }
+
+    @MCRCommand(syntax = "rebuild link counts of classification {0}",
+        help = "recalculates the precomputed number of linked objects of all categories of classification {0}",
+        order = 138)
+    public static void rebuildLinkCounts(String classID) {
+        MCRCategLinkService linkService = MCRCategLinkServiceFactory.getInstance();
+        if (!(linkService instanceof MCRCategLinkServiceImpl)) {
+            LOGGER.error("Command not compatible with {}", linkService.getClass().getName());
+            return;
+        }
+        ((MCRCategLinkServiceImpl) linkService).rebuildLinkCounts(classID);
+    }
+
     @MCRCommand(syntax = "check all classifications",
         help = "checks if all redundant information are stored without conflicts",
         order = 140)
@@ -584,11 +624,20 @@ public class MCRClassification2Commands extends MCRAbstractCommands {
 
     private static int checkLeftRightAndLevel(MCRCategoryImpl category, int leftStart, int levelStart,
         List<String> log) {
-        int curValue = leftStart;
+        //with gaps only the order of values can be checked, see MCRCategoryDAOImpl#renumber(String, int)
+        boolean gaps = MCRConfiguration2.getInt("MCR.Category.DAO.NestedSet.Gap").orElse(1) > 1;
+        return checkLeftRightAndLevel(category, leftStart, levelStart, gaps, log);
+    }
+
+    private static int checkLeftRightAndLevel(MCRCategoryImpl category, int leftStart, int levelStart,
+        boolean gaps, List<String> log) {
         final int nextLevel = levelStart + 1;
-        if (leftStart != category.getLeft()) {
-            log.add("LEFT of " + category.getId() + " is " + category.getLeft() + " should be " + leftStart);
+        boolean exactLeft = !gaps || levelStart == 0;
+        if (exactLeft ? leftStart != category.getLeft() : category.getLeft() < leftStart) {
+            log.add("LEFT of " + category.getId() + " is " + category.getLeft() + " should be "
+                + (exactLeft ? "" : "at least ") + leftStart);
         }
+        int curValue = exactLeft ? leftStart : category.getLeft();
         if (levelStart != category.getLevel()) {
             log.add("LEVEL of " + category.getId() + " is " + category.getLevel() + " should be " + levelStart);
         }
@@ -599,14 +648,16 @@ public class MCRClassification2Commands extends MCRAbstractCommands {
                 continue;
             }
             LOGGER.debug(child.getId());
-            curValue = checkLeftRightAndLevel((MCRCategoryImpl) child, ++curValue, nextLevel, log);
+            curValue = checkLeftRightAndLevel((MCRCategoryImpl) child, ++curValue, nextLevel, gaps, log);
             position++;
         }
         ++curValue;
-        if (curValue != category.getRight()) {
-            log.add("RIGHT of " + category.getId() + " is " + category.getRight() + " should be " + curValue);
+        boolean exactRight = !gaps || category.getChildren().isEmpty();
+        if (exactRight ? curValue != category.getRight() : category.getRight() < curValue) {
+            log.add("RIGHT of " + category.getId() + " is " + category.getRight() + " should be "
+                + (exactRight ? "" : "at least ") + curValue);
         }
-        return curValue;
+        return exactRight ? curValue : Math.max(curValue, category.getRight());
     }
 
     private static void checkEmptyLabels(String classID, List<String> log) {
@@ -71,6 +71,9 @@ public class MCRCommand {
     /** The help text String */
     protected String help;
 
+    /** true, if the commands returned by this command may be processed in parallel */
+    protected boolean parallel;
+
     /**
      * use this to overwrite this class.
      */
@@ -143,6 +146,7 @@ public class MCRCommand {
         org.mycore.frontend.cli.annotation.MCRCommand cmdAnnotation = cmd
             .getAnnotation(org.mycore.frontend.cli.annotation.MCRCommand.class);
         help = cmdAnnotation.help();
+        parallel = cmdAnnotation.parallel();
         messageFormat = new MessageFormat(cmdAnnotation.syntax(), Locale.ROOT);
         setMethod(cmd);
 
@@ -175,6 +179,14 @@ public class MCRCommand {
         return help;
     }
 
+    /**
+     * Returns true, if the commands returned by this command do not depend on each other and may be processed in
+     * parallel.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
     /**
      * Parses an input string and tries to match it with the message format used to invoke this command.
      * 
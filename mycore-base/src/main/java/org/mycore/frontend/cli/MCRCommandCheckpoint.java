@@ -0,0 +1,122 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.frontend.cli;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records completed commands in a checkpoint file, so that an interrupted run of the command line interface can be
+ * resumed by processing the same commands again.
+ *
+ * Only commands processing a single item are recorded, i.e. commands returned by a command marked as
+ * {@link org.mycore.frontend.cli.annotation.MCRCommand#parallel() parallel} and the files processed by the bulk
+ * load and update commands of {@link MCRObjectCommands}. If checkpoints are enabled, such commands found in the
+ * checkpoint file are skipped. Every completed command is appended to the file immediately, so the file is
+ * consistent even if the process is killed.
+ */
+final class MCRCommandCheckpoint {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static Path file;
+
+    private static Set<String> completed = new HashSet<>();
+
+    private static BufferedWriter writer;
+
+    private MCRCommandCheckpoint() {
+    }
+
+    /**
+     * Enables checkpoints. Commands already recorded in the given file are skipped from now on.
+     *
+     * @return the number of commands already recorded
+     */
+    static synchronized int enable(Path checkpointFile) throws IOException {
+        disable();
+        Set<String> commands = new HashSet<>();
+        String content = Files.exists(checkpointFile) ? Files.readString(checkpointFile, StandardCharsets.UTF_8)
+            : "";
+        //last line may be incomplete if the process was killed while writing, it never matches a command
+        content.lines().forEach(commands::add);
+        writer = Files.newBufferedWriter(checkpointFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+        if (!content.isEmpty() && !content.endsWith("\n")) {
+            writer.newLine();
+        }
+        file = checkpointFile;
+        completed = commands;
+        return completed.size();
+    }
+
+    /**
+     * Disables checkpoints, the checkpoint file is kept.
+     */
+    static synchronized void disable() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.error("Error while closing checkpoint file {}.", file, e);
+            }
+        }
+        writer = null;
+        file = null;
+        completed = new HashSet<>();
+    }
+
+    static synchronized boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * Returns true, if checkpoints are enabled and the given command was completed before.
+     */
+    static synchronized boolean isCompleted(String command) {
+        return completed.contains(command);
+    }
+
+    /**
+     * Records the given command as completed, if checkpoints are enabled.
+     */
+    static synchronized void complete(String command) {
+        if (writer == null || !completed.add(command)) {
+            return;
+        }
+        try {
+            writer.write(command);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            LOGGER.error("Could not write to checkpoint file {}.", file, e);
+        }
+    }
+
+}
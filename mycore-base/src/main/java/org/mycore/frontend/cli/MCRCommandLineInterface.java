@@ -31,11 +31,21 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.text.StringSubstitutor;
@@ -52,6 +62,8 @@ import org.mycore.common.content.MCRJDOMContent;
 import org.mycore.common.events.MCRStartupHandler;
 import org.mycore.common.xml.MCRURIResolver;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * The main class implementing the MyCoRe command line interface. With the
  * command line interface, you can import, export, update and delete documents
@@ -88,6 +100,8 @@ public class MCRCommandLineInterface {
 
     private static ThreadLocal<String> sessionId = new ThreadLocal<>();
 
+    private static int parallelThreads = 1;
+
     /**
      * The main method that either shows up an interactive command prompt or
      * reads a file containing a list of commands to be processed
@@ -99,6 +113,7 @@ public class MCRCommandLineInterface {
         }
         MCRStartupHandler.startUp(null/*no servlet context here*/);
         system = MCRConfiguration2.getStringOrThrow("MCR.CommandLineInterface.SystemName") + ":";
+        parallelThreads = MCRConfiguration2.getInt("MCR.CLI.Parallel.Threads").orElse(1);
 
         initSession();
 
@@ -191,26 +206,133 @@ public class MCRCommandLineInterface {
         MCRSession session = MCRSessionMgr.getSession(sessionId.get());
         MCRSessionMgr.setCurrentSession(session);
 
+        List<String> commandsReturned;
         try {
             MCRTransactionHelper.beginTransaction();
-            List<String> commandsReturned = knownCommands.invokeCommand(expandCommand(command));
+            commandsReturned = knownCommands.invokeCommand(expandCommand(command));
             MCRTransactionHelper.commitTransaction();
-            addCommandsToQueue(commandsReturned);
         } catch (Exception ex) {
             MCRCLIExceptionHandler.handleException(ex);
             rollbackTransaction(session);
             if (SKIP_FAILED_COMMAND) {
                 saveFailedCommand(command);
             } else {
-                saveQueue(command);
-                if (!interactiveMode) {
-                    System.exit(1);
+                cancel(command);
+            }
+            return;
+        } finally {
+            MCRSessionMgr.releaseCurrentSession();
+        }
+        if (commandsReturned instanceof MCRIndependentCommands
+            && (parallelThreads > 1 || MCRCommandCheckpoint.isEnabled())) {
+            processIndependentCommands(commandsReturned);
+        } else {
+            addCommandsToQueue(commandsReturned);
+        }
+    }
+
+    /**
+     * Processes commands that do not depend on each other on {@link #setParallelThreads(int) parallel threads}.
+     * Every command runs in its own session and transaction, commands returned by it are processed on the same
+     * thread afterwards. Commands recorded as completed in the checkpoint file are skipped.
+     */
+    private static void processIndependentCommands(List<String> commands) {
+        List<String> pending = commands.stream()
+            .filter(command -> !MCRCommandCheckpoint.isCompleted(command))
+            .collect(Collectors.toList());
+        if (pending.size() < commands.size()) {
+            output("Skipping " + (commands.size() - pending.size()) + " commands completed before");
+        }
+        int threads = Math.max(1, Math.min(parallelThreads, pending.size()));
+        output("Processing " + pending.size() + " commands on " + threads + " threads");
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<String> firstFailed = new AtomicReference<>();
+        Set<String> processed = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+            new ThreadFactoryBuilder().setNameFormat("MCRCommandLineInterface-#%d").build());
+        pending.forEach(command -> executor.execute(() -> {
+            if (cancelled.get()) {
+                return;
+            }
+            if (processIndependentCommand(command) || SKIP_FAILED_COMMAND) {
+                processed.add(command);
+            } else if (firstFailed.compareAndSet(null, command)) {
+                cancelled.set(true);
+            }
+        }));
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            cancelled.set(true);
+        }
+        List<String> unprocessed = pending.stream()
+            .filter(command -> !processed.contains(command))
+            .collect(Collectors.toList());
+        if (cancelled.get() && !unprocessed.isEmpty()) {
+            String failed = firstFailed.get() == null ? unprocessed.get(0) : firstFailed.get();
+            unprocessed.remove(failed);
+            commandQueue.addAll(0, unprocessed);
+            cancel(failed);
+        }
+    }
+
+    /**
+     * Processes a command and all commands returned by it in a new session.
+     *
+     * @return true, if all commands were processed successfully
+     */
+    private static boolean processIndependentCommand(String command) {
+        MCRSessionMgr.unlock();
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        session.setCurrentIP("127.0.0.1");
+        session.setUserInformation(MCRSystemUserInformation.getSuperUserInstance());
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(command);
+        boolean success = true;
+        try {
+            while (!queue.isEmpty()) {
+                String current = queue.removeFirst();
+                System.out.println(system + "> " + current);
+                try {
+                    MCRTransactionHelper.beginTransaction();
+                    List<String> commandsReturned = knownCommands.invokeCommand(expandCommand(current));
+                    MCRTransactionHelper.commitTransaction();
+                    for (int i = commandsReturned.size() - 1; i >= 0; i--) {
+                        queue.addFirst(commandsReturned.get(i));
+                    }
+                } catch (Exception ex) {
+                    MCRCLIExceptionHandler.handleException(ex);
+                    rollbackTransaction(session);
+                    if (!SKIP_FAILED_COMMAND) {
+                        return false;
+                    }
+                    saveFailedCommand(current);
+                    success = false;
                 }
-                commandQueue.clear();
             }
         } finally {
             MCRSessionMgr.releaseCurrentSession();
+            session.close();
+        }
+        if (success) {
+            MCRCommandCheckpoint.complete(command);
+        }
+        return success;
+    }
+
+    /**
+     * Cancels the execution of further commands after the given command failed.
+     */
+    private static void cancel(String failedCommand) {
+        saveQueue(failedCommand);
+        if (!interactiveMode) {
+            System.exit(1);
         }
+        commandQueue.clear();
     }
 
     /**
@@ -402,6 +524,34 @@ public class MCRCommandLineInterface {
         SKIP_FAILED_COMMAND = true;
     }
 
+    /**
+     * Sets the number of threads processing commands returned by a command marked as
+     * {@link org.mycore.frontend.cli.annotation.MCRCommand#parallel() parallel}. The default is taken from
+     * <code>MCR.CLI.Parallel.Threads</code>.
+     *
+     * @param threads number of threads, 1 processes the commands one after another
+     */
+    public static void setParallelThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+        }
+        parallelThreads = threads;
+    }
+
+    /**
+     * Enables checkpoints, see {@link MCRCommandCheckpoint}.
+     *
+     * @param file the checkpoint file, created if it does not exist
+     */
+    public static void enableCheckpoints(String file) throws IOException {
+        int completed = MCRCommandCheckpoint.enable(Paths.get(file));
+        output("Checkpoints are recorded in " + file + ", " + completed + " commands were completed before.");
+    }
+
+    public static void disableCheckpoints() {
+        MCRCommandCheckpoint.disable();
+    }
+
     /**
      * Exits the command line interface. This method implements the "exit" and
      * "quit" commands.
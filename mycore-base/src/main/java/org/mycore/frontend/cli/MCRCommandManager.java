@@ -159,6 +159,9 @@ public class MCRCommandManager {
                     MCRCommandLineInterface.output("Command processed (" + timeNeeded + " ms)");
                     MCRCommandStatistics.commandInvoked(currentCommand, timeNeeded);
 
+                    if (currentCommand.isParallel() && commandsReturned.size() > 1) {
+                        return new MCRIndependentCommands(commandsReturned);
+                    }
                     return commandsReturned;
                 }
             }
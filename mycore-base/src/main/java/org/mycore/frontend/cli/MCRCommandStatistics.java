@@ -37,7 +37,7 @@ public class MCRCommandStatistics {
         return entries.computeIfAbsent(command, k -> new StatisticsEntry());
     }
 
-    public static void commandInvoked(MCRCommand command, long timeNeeded) {
+    public static synchronized void commandInvoked(MCRCommand command, long timeNeeded) {
         StatisticsEntry entry = getEntry(command);
         entry.numInvocations++;
         entry.totalTimeNeeded += timeNeeded;
@@ -47,7 +47,7 @@ public class MCRCommandStatistics {
      * Shows statistics on number of invocations and time needed for each
      * command successfully executed.
      */
-    public static void showCommandStatistics() {
+    public static synchronized void showCommandStatistics() {
         System.out.println();
         for (Entry<MCRCommand, StatisticsEntry> entry : entries.entrySet()) {
             System.out.println(entry.getKey().getSyntax());
@@ -105,7 +105,9 @@ public class MCRDerivateCommands extends MCRAbstractCommands {
     public static final String DEFAULT_STYLE = "save-derivate.xsl";
 
     /** Static compiled transformer stylesheets */
-    private static final Map<String, Transformer> TRANSFORMER_CACHE = new HashMap<>();
+    /** Transformers are not thread safe, so every thread keeps its own cache */
+    private static final ThreadLocal<Map<String, Transformer>> TRANSFORMER_CACHE = ThreadLocal
+        .withInitial(HashMap::new);
 
     /**
      * deletes all MCRDerivate from the datastore.
@@ -476,7 +478,8 @@ public class MCRDerivateCommands extends MCRAbstractCommands {
     @MCRCommand(syntax = "export all derivates to directory {0} with stylesheet {1}",
         help = "Stores all derivates to the directory {0} with the stylesheet {1}-derivate.xsl."
             + " For {1}, the default is xsl/save.",
-        order = 100)
+        order = 100,
+        parallel = true)
     public static List<String> exportAllDerivatesWithStylesheet(String dirname, String style) {
         return MCRCommandUtils.getIdsForType("derivate")
             .map(id -> "export derivate " + id + " to directory " + dirname + " with stylesheet " + style)
@@ -496,7 +499,8 @@ public class MCRDerivateCommands extends MCRAbstractCommands {
     @MCRCommand(syntax = "export all derivates of project {0} to directory {1} with stylesheet {2}",
         help = "Stores all derivates of project {0} to the directory {1} with the stylesheet {2}-derivate.xsl."
             + " For {2}, the default is xsl/save.",
-        order = 110)
+        order = 110,
+        parallel = true)
     public static List<String> exportAllDerivatesOfProjectWithStylesheet(String project, String dirname, String style) {
         return MCRCommandUtils.getIdsForProjectAndType(project, "derivate")
             .map(id -> "export derivate " + id + " to directory " + dirname + " with stylesheet " + style)
@@ -576,7 +580,7 @@ public class MCRDerivateCommands extends MCRAbstractCommands {
      * @return the transformer
      */
     private static Transformer getTransformer(String style) {
-        return MCRCommandUtils.getTransformer(style, DEFAULT_STYLE, TRANSFORMER_CACHE);
+        return MCRCommandUtils.getTransformer(style, DEFAULT_STYLE, TRANSFORMER_CACHE.get());
     }
 
     /**
@@ -584,7 +588,8 @@ public class MCRDerivateCommands extends MCRAbstractCommands {
      */
     @MCRCommand(syntax = "repair derivate search of type derivate",
         help = "The command read the Content store and reindex the derivate search stores.",
-        order = 140)
+        order = 140,
+        parallel = true)
     public static List<String> repairDerivateSearch() {
         LOGGER.info("Start the repair for type derivate.");
         return MCRCommandUtils.getIdsForType("derivate")
@@ -600,7 +605,8 @@ public class MCRDerivateCommands extends MCRAbstractCommands {
      */
     @MCRCommand(syntax = "repair derivate search of project {0}",
         help = "Reads the Content store for project {0} and reindexes the derivate search stores.",
-        order = 141)
+        order = 141,
+        parallel = true)
     public static List<String> repairDerivateSearchForBase(String project) {
         LOGGER.info("Start the repair for project {}.", project);
         return MCRCommandUtils.getIdsForProjectAndType(project, "derivate")
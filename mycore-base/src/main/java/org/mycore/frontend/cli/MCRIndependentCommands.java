@@ -0,0 +1,38 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.frontend.cli;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Commands returned by a command marked as {@link org.mycore.frontend.cli.annotation.MCRCommand#parallel() parallel}.
+ * They do not depend on each other, so {@link MCRCommandLineInterface} may process them in any order and on several
+ * threads.
+ */
+final class MCRIndependentCommands extends ArrayList<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    MCRIndependentCommands(Collection<String> commands) {
+        super(commands);
+    }
+
+}
@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -84,12 +85,14 @@ import org.mycore.common.xml.MCRXSLTransformerUtils;
 import org.mycore.common.xsl.MCRErrorListener;
 import org.mycore.datamodel.common.MCRAbstractMetadataVersion;
 import org.mycore.datamodel.common.MCRActiveLinkException;
+import org.mycore.datamodel.common.MCRLinkTableEntry;
 import org.mycore.datamodel.common.MCRLinkTableManager;
 import org.mycore.datamodel.common.MCRXMLMetadataManager;
 import org.mycore.datamodel.metadata.MCRBase;
 import org.mycore.datamodel.metadata.MCRDerivate;
 import org.mycore.datamodel.metadata.MCRMetaEnrichedLinkID;
 import org.mycore.datamodel.metadata.MCRMetaLinkID;
+import org.mycore.datamodel.metadata.MCRMetadataBatchResult;
 import org.mycore.datamodel.metadata.MCRMetadataManager;
 import org.mycore.datamodel.metadata.MCRObject;
 import org.mycore.datamodel.metadata.MCRObjectID;
@@ -101,6 +104,8 @@ import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 import org.xml.sax.XMLReader;
 
+import com.google.common.collect.Iterables;
+
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 
@@ -129,7 +134,9 @@ public class MCRObjectCommands extends MCRAbstractCommands {
     public static final String DEFAULT_STYLE = "save-object.xsl";
 
     /** Static compiled transformer stylesheets */
-    private static final Map<String, Transformer> TRANSFORMER_CACHE = new HashMap<>();
+    /** Transformers are not thread safe, so every thread keeps its own cache */
+    private static final ThreadLocal<Map<String, Transformer>> TRANSFORMER_CACHE = ThreadLocal
+        .withInitial(HashMap::new);
 
     public static void setSelectedObjectIDs(List<String> selected) {
         LOGGER.info("{} objects selected", selected.size());
@@ -221,15 +228,13 @@ public class MCRObjectCommands extends MCRAbstractCommands {
     public static List<String> deleteTopologicalAllObjects() {
         final List<String> objectIds = MCRXMLMetadataManager.instance().listIDs();
         String[] objects = objectIds.stream().filter(id -> !id.contains("_derivate_")).toArray(String[]::new);
-        MCRTopologicalSort<String> ts = new MCRTopologicalSort<>();
-        MCRTopologicalSort.prepareMCRObjects(ts, objects);
-        int[] order = ts.doTopoSort();
+        List<String> order = MCRTopologicalSort.sortMCRObjects(objects);
 
         List<String> cmds = new ArrayList<>(objectIds.size());
         if (order != null) {
             //delete in reverse order
-            for (int o = order.length - 1; o >= 0; o--) {
-                cmds.add("delete object " + ts.getNodeName(order[o]));
+            for (int o = order.size() - 1; o >= 0; o--) {
+                cmds.add("delete object " + order.get(o));
             }
         }
         return cmds;
@@ -242,10 +247,7 @@ public class MCRObjectCommands extends MCRAbstractCommands {
     public static void checkForCircles() {
         final List<String> objectIds = MCRXMLMetadataManager.instance().listIDs();
         String[] objects = objectIds.stream().filter(id -> !id.contains("_derivate_")).toArray(String[]::new);
-        MCRTopologicalSort<String> ts = new MCRTopologicalSort<>();
-        MCRTopologicalSort.prepareMCRObjects(ts, objects);
-        int[] order = ts.doTopoSort();
-        if (order != null) {
+        if (MCRTopologicalSort.sortMCRObjects(objects) != null) {
             LOGGER.info("OK - No circles detected!");
         }
     }
@@ -400,25 +402,76 @@ public class MCRObjectCommands extends MCRAbstractCommands {
         }
 
         Predicate<String> isMetaXML = file -> file.endsWith(".xml") && !file.contains("derivate");
-        Function<String, String> cmdFromFile = file -> (update ? "update" : "load") + " object from file "
-            + new File(dir, file).getAbsolutePath();
+        Stream<String> files;
         if (topological) {
             MCRTopologicalSort<String> ts = new MCRTopologicalSort<>();
             MCRTopologicalSort.prepareData(ts, list, dir.toPath());
-            return Optional.ofNullable(ts.doTopoSort())
+            files = Optional.ofNullable(ts.doTopoSort())
                 .map(Arrays::stream)
                 .map(is -> is.mapToObj(i -> list[i]))
-                .orElse(Stream.empty())
-                .filter(isMetaXML)
-                .map(cmdFromFile)
-                .collect(Collectors.toList());
+                .orElse(Stream.empty());
         } else {
-            return Arrays.stream(list)
-                .filter(isMetaXML)
-                .sorted()
-                .map(cmdFromFile)
-                .collect(Collectors.toList());
+            files = Arrays.stream(list).sorted();
+        }
+        return processFiles(files.filter(isMetaXML).map(file -> new File(dir, file)).collect(Collectors.toList()),
+            update);
+    }
+
+    /**
+     * Loads or updates MCRObjects from the given XML files in chunks of <code>MCR.Metadata.Batch.Size</code> objects
+     * using {@link MCRMetadataManager#createAll(java.util.Collection)} or
+     * {@link MCRMetadataManager#updateAll(java.util.Collection)}.
+     *
+     * Files recorded in the {@link MCRCommandCheckpoint checkpoint file} are skipped.
+     *
+     * @return commands to process failed files one by one, so their errors are handled as usual, and to repair
+     * parents that could not be linked to their stored children
+     */
+    private static List<String> processFiles(List<File> files, boolean update) {
+        Function<File, String> cmdFromFile = file -> (update ? "update" : "load") + " object from file "
+            + file.getAbsolutePath();
+        List<String> failedCommands = new ArrayList<>();
+        int batchSize = MCRConfiguration2.getInt("MCR.Metadata.Batch.Size").orElse(100);
+        int skipped = 0;
+        for (List<File> chunk : Iterables.partition(files, batchSize)) {
+            Map<MCRObject, File> objects = new LinkedHashMap<>();
+            for (File file : chunk) {
+                if (MCRCommandCheckpoint.isCompleted(cmdFromFile.apply(file))) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    LOGGER.info("Reading file {} ...", file);
+                    MCRObject mcrObject = new MCRObject(file.toURI());
+                    mcrObject.setImportMode(true);
+                    objects.put(mcrObject, file);
+                } catch (SAXParseException | IOException | RuntimeException e) {
+                    LOGGER.error("Could not read {}.", file, e);
+                    failedCommands.add(cmdFromFile.apply(file));
+                }
+            }
+            List<MCRObject> mcrObjects = new ArrayList<>(objects.keySet());
+            MCRMetadataBatchResult result = update ? MCRMetadataManager.updateAll(mcrObjects)
+                : MCRMetadataManager.createAll(mcrObjects);
+            result.getSucceeded().forEach(id -> LOGGER.info("{} {}.", id, update ? "updated" : "loaded"));
+            objects.forEach((mcrObject, file) -> {
+                if (result.getFailed().containsKey(mcrObject)) {
+                    failedCommands.add(cmdFromFile.apply(file));
+                } else {
+                    MCRCommandCheckpoint.complete(cmdFromFile.apply(file));
+                }
+            });
+            result.getParentLinkFailed().keySet()
+                .forEach(id -> failedCommands.add("repair parent link of object " + id));
+        }
+        if (skipped > 0) {
+            LOGGER.info("Skipped {} files completed before.", skipped);
         }
+        if (!failedCommands.isEmpty()) {
+            LOGGER.warn("{} files or parent links failed and are processed again one by one.",
+                failedCommands.size());
+        }
+        return failedCommands;
     }
 
     /**
@@ -717,7 +770,8 @@ public class MCRObjectCommands extends MCRAbstractCommands {
         syntax = "export all objects of type {0} to directory {1} with stylesheet {2}",
         help = "Stores all MCRObjects of type {0} to directory {1} with the stylesheet {2}-object.xsl."
             + "For {2}, the default is xsl/save.",
-        order = 120)
+        order = 120,
+        parallel = true)
     public static List<String> exportAllObjectsOfTypeWithStylesheet(String type, String dirname, String style) {
         List<String> objectIds = MCRXMLMetadataManager.instance().listIDsOfType(type);
         return buildExportCommands(new File(dirname), style, objectIds);
@@ -738,7 +792,8 @@ public class MCRObjectCommands extends MCRAbstractCommands {
         syntax = "export all objects of base {0} to directory {1} with stylesheet {2}",
         help = "Stores all MCRObjects of base {0} to directory {1} with the stylesheet {2}-object.xsl."
             + " For {2}, the default is xsl/save.",
-        order = 130)
+        order = 130,
+        parallel = true)
     public static List<String> exportAllObjectsOfBaseWithStylesheet(String base, String dirname, String style) {
         List<String> objectIds = MCRXMLMetadataManager.instance().listIDsForBase(base);
         return buildExportCommands(new File(dirname), style, objectIds);
@@ -767,7 +822,7 @@ public class MCRObjectCommands extends MCRAbstractCommands {
      * @return the transformer
      */
     private static Transformer getTransformer(String style) {
-        return MCRCommandUtils.getTransformer(style, DEFAULT_STYLE, TRANSFORMER_CACHE);
+        return MCRCommandUtils.getTransformer(style, DEFAULT_STYLE, TRANSFORMER_CACHE.get());
     }
 
     /**
@@ -860,6 +915,20 @@ public class MCRObjectCommands extends MCRAbstractCommands {
         LOGGER.info(MCRObjectID.getLastID(base));
     }
 
+    /**
+     * Rebuilds the index of stored IDs for the given MCRObjectID base.
+     *
+     * @param base
+     *            the MCRObjectID base string
+     */
+    @MCRCommand(
+        syntax = "rebuild ID index for base {0}",
+        help = "Rebuilds the index of stored IDs for the ID base {0} from the metadata store.",
+        order = 145)
+    public static void rebuildIDIndex(String base) {
+        MCRXMLMetadataManager.instance().rebuildIDIndex(base);
+    }
+
     /**
      * List all selected MCRObjects.
      */
@@ -1149,6 +1218,34 @@ public class MCRObjectCommands extends MCRAbstractCommands {
         }
     }
 
+    /**
+     * Adds the child link of an object to its parent, if it is missing there.
+     *
+     * @param id
+     *            the ID of the child object
+     */
+    @MCRCommand(
+        syntax = "repair parent link of object {0}",
+        help = "adds the object {0} to the children of its parent, if the link is missing",
+        order = 305)
+    public static void repairParentLink(String id) throws MCRPersistenceException {
+        MCRObject mcrObject = MCRMetadataManager.retrieveMCRObject(MCRObjectID.getInstance(id));
+        MCRObjectID parentId = mcrObject.getStructure().getParentID();
+        if (parentId == null) {
+            LOGGER.info("Object {} has no parent.", id);
+            return;
+        }
+        MCRObject parent = MCRMetadataManager.retrieveMCRObject(parentId);
+        MCRMetaLinkID childLink = new MCRMetaLinkID("child", mcrObject.getId(),
+            mcrObject.getStructure().getParent().getXLinkLabel(), mcrObject.getLabel());
+        if (!parent.getStructure().addChild(childLink)) {
+            LOGGER.info("Object {} is already child of {}.", id, parentId);
+            return;
+        }
+        LOGGER.info("Adding child {} to parent {}.", id, parentId);
+        MCRMetadataManager.fireUpdateEvent(parent);
+    }
+
     /**
      * Check the derivate links in objects of MCR base ID for existing. It looks to the XML store on the disk to get all
      * object IDs.
@@ -1195,7 +1292,8 @@ public class MCRObjectCommands extends MCRAbstractCommands {
     @MCRCommand(
         syntax = "validate object schema for base {0}",
         help = "Validates all objects of base {0} against their specified schema.",
-        order = 401)
+        order = 401,
+        parallel = true)
     public static List<String> validateObjectsOfBase(String baseID) {
         return MCRCommandUtils.getIdsForBaseId(baseID)
             .map(id -> "validate object schema for ID " + id)
@@ -1211,7 +1309,8 @@ public class MCRObjectCommands extends MCRAbstractCommands {
     @MCRCommand(
         syntax = "validate object schema for type {0}",
         help = "Validates all object of type {0} against their specified schema.",
-        order = 402)
+        order = 402,
+        parallel = true)
     public static List<String> validateObjectsOfType(String type) {
         return MCRCommandUtils.getIdsForType(type)
             .map(id -> "validate object schema for ID " + id)
@@ -1341,7 +1440,8 @@ public class MCRObjectCommands extends MCRAbstractCommands {
     @MCRCommand(
         syntax = "repair metadata search of type {0}",
         help = "Scans the metadata store for MCRObjects of type {0} and restores them in the search store.",
-        order = 170)
+        order = 170,
+        parallel = true)
     public static List<String> repairMetadataSearch(String type) {
         LOGGER.info("Start the repair for type {}", type);
         return MCRCommandUtils.getIdsForType(type)
@@ -1358,7 +1458,8 @@ public class MCRObjectCommands extends MCRAbstractCommands {
     @MCRCommand(
         syntax = "repair metadata search of base {0}",
         help = "Scans the metadata store for MCRObjects of base {0} and restores them in the search store.",
-        order = 171)
+        order = 171,
+        parallel = true)
     public static List<String> repairMetadataSearchForBase(String baseID) {
         LOGGER.info("Start the repair for base {}", baseID);
         return MCRCommandUtils.getIdsForBaseId(baseID)
@@ -1421,4 +1522,21 @@ public class MCRObjectCommands extends MCRAbstractCommands {
         MCRLinkTableManager.instance().update(MCRObjectID.getInstance(objectId));
     }
 
+    @MCRCommand(
+        syntax = "check mcrlinkhref graph",
+        help = "Rebuilds the in-memory link graph from the link href table and lists the links it was missing or had"
+            + " in excess.",
+        order = 189)
+    public static void checkMCRLinkHrefGraph() {
+        MCRLinkTableManager linkTableManager = MCRLinkTableManager.instance();
+        if (linkTableManager.getLinkGraph() == null) {
+            LOGGER.warn("The link graph is not enabled, see MCR.Persistence.LinkTable.Graph.Enabled.");
+            return;
+        }
+        List<MCRLinkTableEntry> differences = linkTableManager.rebuildLinkGraph();
+        differences.forEach(link -> LOGGER.warn("Link graph was inconsistent, {} link {} -> {} of type {}.",
+            link.getAttr(), link.getFrom(), link.getTo(), link.getType()));
+        LOGGER.info("Checked link graph, found {} differences.", differences.size());
+    }
+
 }
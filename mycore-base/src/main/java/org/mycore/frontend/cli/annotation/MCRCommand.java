@@ -54,4 +54,10 @@ public @interface MCRCommand {
      * If {@link #syntax()} conflicts, use <code>order</code> to specify in which order the invocation should be tried.
      */
     int order() default 1;
+
+    /**
+     * If <code>true</code>, the commands returned by this command do not depend on each other and may be processed
+     * in parallel, see {@link MCRCommandLineInterface#setParallelThreads(int)}.
+     */
+    boolean parallel() default false;
 }
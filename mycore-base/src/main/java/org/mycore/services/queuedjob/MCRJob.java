@@ -65,6 +65,10 @@ public class MCRJob implements Cloneable {
 
     private Date finished;
 
+    private String node;
+
+    private Date heartbeat;
+
     private Map<String, String> parameters;
 
     protected MCRJob() {
@@ -190,6 +194,46 @@ public class MCRJob implements Cloneable {
         this.finished = finished;
     }
 
+    /**
+     * Returns the ID of the node that claimed the job for processing.
+     *
+     * @return the node ID or <code>null</code> if the job is not claimed
+     * @see MCRJobQueue#NODE_ID
+     */
+    @Column(name = "node", length = 128, nullable = true)
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Set the ID of the node that claimed the job.
+     *
+     * @param node - the node ID
+     */
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    /**
+     * Returns the date the claiming node last confirmed that it is still processing the job.
+     * The lease on the job expires if this date is older than <code>MCR.QueuedJob.TimeTillReset</code>.
+     *
+     * @return the last heartbeat date
+     */
+    @Column(name = "heartbeat", nullable = true)
+    public Date getHeartbeat() {
+        return heartbeat;
+    }
+
+    /**
+     * Set the last heartbeat date.
+     *
+     * @param heartbeat - the heartbeat date
+     */
+    public void setHeartbeat(Date heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
     /**
      * Returns all set parameters of the job.
      * 
@@ -253,6 +297,8 @@ public class MCRJob implements Cloneable {
         clone.setId(getId());
         clone.setStart(getStart());
         clone.setStatus(getStatus());
+        clone.setNode(getNode());
+        clone.setHeartbeat(getHeartbeat());
 
         Map<String, String> map = new HashMap<>(getParameters());
         clone.setParameters(map);
@@ -0,0 +1,50 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.services.queuedjob;
+
+import java.util.function.Consumer;
+
+/**
+ * Delivers wakeups for jobs added in this JVM only.
+ *
+ * Jobs added on other nodes are found when a waiting {@link MCRJobMaster} polls the database again.
+ */
+public class MCRJobLocalWakeupChannel implements MCRJobWakeupChannel {
+
+    private volatile Consumer<Class<? extends MCRJobAction>> listener;
+
+    @Override
+    public void start(Consumer<Class<? extends MCRJobAction>> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void jobAdded(Class<? extends MCRJobAction> action) {
+        Consumer<Class<? extends MCRJobAction>> current = listener;
+        if (current != null) {
+            current.accept(action);
+        }
+    }
+
+    @Override
+    public void stop() {
+        listener = null;
+    }
+
+}
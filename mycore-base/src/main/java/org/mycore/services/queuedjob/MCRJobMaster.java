@@ -19,14 +19,21 @@
 package org.mycore.services.queuedjob;
 
 import java.lang.reflect.Constructor;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -71,6 +78,13 @@ public class MCRJobMaster implements Runnable, Closeable {
 
     private ReentrantLock runLock;
 
+    private final AtomicInteger activeThreads = new AtomicInteger();
+
+    private final Map<Class<? extends MCRJobAction>, AtomicInteger> activeThreadsPerAction
+        = new ConcurrentHashMap<>();
+
+    private final Map<Class<? extends MCRJobAction>, MCRJobActionMetrics> metrics = new ConcurrentHashMap<>();
+
     private MCRJobMaster(Class<? extends MCRJobAction> action) {
         MCRShutdownHandler.getInstance().addCloseable(this);
         this.action = action;
@@ -127,6 +141,10 @@ public class MCRJobMaster implements Runnable, Closeable {
     /**
      * Starts local threads ({@link MCRJobThread}) and gives {@link MCRJob} instances to them.
      * Use property <code>"MCR.QueuedJob.JobThreads"</code> to specify how many concurrent threads should be running.
+     * With a single queue for all actions, <code>"MCR.QueuedJob.{MCRJobAction}.JobThreads"</code> limits the
+     * concurrent threads of an action, jobs of other actions are processed meanwhile.
+     * Set <code>"MCR.QueuedJob.{?MCRJobAction?.}VirtualThreads"</code> to <code>true</code> to run I/O-bound
+     * actions in virtual threads, if the Java runtime supports them.
      * <code>"MCR.QueuedJob.activated"</code> can be used activate or deactivate general {@link MCRJob} running. 
      */
     @Override
@@ -150,35 +168,7 @@ public class MCRJobMaster implements Runnable, Closeable {
             jobThreadCount = MCRConfiguration2
                 .getInt(MCRJobQueue.CONFIG_PREFIX + jobQueue.configPrefixAdd + "JobThreads").orElse(jobThreadCount);
 
-            ThreadFactory slaveFactory = new ThreadFactory() {
-                AtomicInteger tNum = new AtomicInteger();
-
-                ThreadGroup tg = new ThreadGroup("MCRJob slave job thread group");
-
-                public Thread newThread(Runnable r) {
-                    return new Thread(tg, r, getPreLabel() + "Slave#" + tNum.incrementAndGet());
-                }
-            };
-            final AtomicInteger activeThreads = new AtomicInteger();
-            final LinkedBlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>();
-            ThreadPoolExecutor executor = new ThreadPoolExecutor(jobThreadCount, jobThreadCount, 1, TimeUnit.DAYS,
-                workQueue,
-                slaveFactory) {
-
-                @Override
-                protected void afterExecute(Runnable r, Throwable t) {
-                    super.afterExecute(r, t);
-                    activeThreads.decrementAndGet();
-                }
-
-                @Override
-                protected void beforeExecute(Thread t, Runnable r) {
-                    super.beforeExecute(t, r);
-                    activeThreads.incrementAndGet();
-                }
-            };
-
-            jobServe = MCRProcessableFactory.newPool(executor, processableCollection);
+            jobServe = MCRProcessableFactory.newPool(createExecutor(jobThreadCount), processableCollection);
             processableCollection.setProperty("running", running);
 
             LOGGER.info("JobMaster{} with {} thread(s) is started",
@@ -195,26 +185,40 @@ public class MCRJobMaster implements Runnable, Closeable {
                             EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
                             EntityTransaction transaction = em.getTransaction();
 
+                            long wakeups = jobQueue.getWakeups();
                             MCRJob job = null;
                             MCRJobAction action = null;
+                            boolean retry = false;
                             try {
                                 transaction.begin();
 
-                                job = jobQueue.poll();
-                                processableCollection.setProperty("queue size", jobQueue.size());
+                                //jobs of actions without a free thread are skipped, so they do not block others
+                                job = jobQueue.poll(getSaturatedActions());
+                                updateQueueDepths();
 
                                 if (job != null) {
                                     action = toMCRJobAction(job.getAction());
 
-                                    if (action != null && !action.isActivated()) {
-                                        job.setStatus(MCRJobStatus.NEW);
-                                        job.setStart(null);
+                                    if (action == null) {
+                                        //lease expires, so the job is reset by MCRStalledJobResetter
+                                        jobQueue.processed(job);
+                                    } else if (!action.isActivated()) {
+                                        jobQueue.release(job);
+                                        action = null;
+                                    } else if (!acquire(job.getAction())) {
+                                        jobQueue.release(job);
+                                        action = null;
+                                        retry = true;
                                     }
                                 }
 
                                 transaction.commit();
                             } catch (RollbackException e) {
                                 LOGGER.error("Error while getting next job.", e);
+                                if (action != null) {
+                                    releaseSlot(job.getAction());
+                                    action = null;
+                                }
                                 if (transaction != null) {
                                     try {
                                         transaction.rollback();
@@ -225,35 +229,24 @@ public class MCRJobMaster implements Runnable, Closeable {
                             } finally {
                                 em.close();
                             }
-                            if (job != null && action != null && action.isActivated()
-                                && !jobServe.getExecutor().isShutdown()) {
+                            if (job != null && action != null && !jobServe.getExecutor().isShutdown()) {
                                 LOGGER.info("Creating:{}", job);
-                                jobServe.submit(new MCRJobThread(job));
-                            } else {
-                                try {
-                                    synchronized (jobQueue) {
-                                        if (running) {
-                                            LOGGER.debug("No job in queue going to sleep");
-                                            //fixes a race conditioned deadlock situation
-                                            //do not wait longer than 60 sec. for a new MCRJob
-                                            jobQueue.wait(60000);
-                                        }
-                                    }
-                                } catch (InterruptedException e) {
-                                    LOGGER.error("Job thread was interrupted.", e);
+                                submit(job);
+                            } else if (!retry) {
+                                if (action != null) {
+                                    releaseSlot(job.getAction());
                                 }
+                                LOGGER.debug("No job in queue going to sleep");
+                                //do not wait longer than 60 sec. for a new MCRJob, jobs may be reset
+                                awaitWakeup(wakeups, 60000);
                             }
                         } finally {
                             runLock.unlock();
                         }
                     } // while(activeThreads.get() < jobThreadCount)
-                    if (activeThreads.get() < jobThreadCount) {
-                        try {
-                            LOGGER.info("Waiting for a job to finish");
-                            Thread.sleep(1000);
-                        } catch (InterruptedException e) {
-                            LOGGER.error("Job thread was interrupted.", e);
-                        }
+                    if (activeThreads.get() >= jobThreadCount) {
+                        LOGGER.debug("Waiting for a job to finish");
+                        awaitWakeup(jobQueue.getWakeups(), 1000);
                     }
                 } catch (PersistenceException e) {
                     LOGGER.warn("We have an database error, sleep and run later.", e);
@@ -317,6 +310,123 @@ public class MCRJobMaster implements Runnable, Closeable {
         }
     }
 
+    private ExecutorService createExecutor(int jobThreadCount) {
+        boolean virtualThreads = MCRConfiguration2.getBoolean(MCRJobQueue.CONFIG_PREFIX + "VirtualThreads")
+            .orElse(false);
+        virtualThreads = MCRConfiguration2
+            .getBoolean(MCRJobQueue.CONFIG_PREFIX + jobQueue.configPrefixAdd + "VirtualThreads")
+            .orElse(virtualThreads);
+        if (virtualThreads) {
+            try {
+                //available since Java 21
+                ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+                LOGGER.info("{} runs jobs in virtual threads.", getName());
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Virtual threads are not supported by this Java runtime, {} uses platform threads.",
+                    getName());
+            }
+        }
+        ThreadFactory slaveFactory = new ThreadFactory() {
+            AtomicInteger tNum = new AtomicInteger();
+
+            ThreadGroup tg = new ThreadGroup("MCRJob slave job thread group");
+
+            public Thread newThread(Runnable r) {
+                return new Thread(tg, r, getPreLabel() + "Slave#" + tNum.incrementAndGet());
+            }
+        };
+        return new ThreadPoolExecutor(jobThreadCount, jobThreadCount, 1, TimeUnit.DAYS, new LinkedBlockingQueue<>(),
+            slaveFactory);
+    }
+
+    /**
+     * Reserves a thread for a job of the given action.
+     *
+     * @return false, if the limit of concurrent threads of the action is reached
+     */
+    private boolean acquire(Class<? extends MCRJobAction> jobAction) {
+        if (MCRJobQueue.singleQueue) {
+            int limit = getLimit(jobAction);
+            AtomicInteger count = activeThreadsPerAction.computeIfAbsent(jobAction, a -> new AtomicInteger());
+            if (count.incrementAndGet() > limit) {
+                count.decrementAndGet();
+                LOGGER.debug("Limit of {} concurrent jobs of {} reached.", limit, jobAction.getSimpleName());
+                return false;
+            }
+        }
+        activeThreads.incrementAndGet();
+        return true;
+    }
+
+    private static int getLimit(Class<? extends MCRJobAction> jobAction) {
+        return MCRConfiguration2.getInt(MCRJobQueue.CONFIG_PREFIX + jobAction.getSimpleName() + ".JobThreads")
+            .orElse(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the actions that reached their limit of concurrent threads.
+     */
+    private Set<Class<? extends MCRJobAction>> getSaturatedActions() {
+        if (!MCRJobQueue.singleQueue) {
+            return Collections.emptySet();
+        }
+        return activeThreadsPerAction.entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().get() >= getLimit(entry.getKey()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+    }
+
+    private void releaseSlot(Class<? extends MCRJobAction> jobAction) {
+        if (MCRJobQueue.singleQueue) {
+            activeThreadsPerAction.get(jobAction).decrementAndGet();
+        }
+        activeThreads.decrementAndGet();
+        jobQueue.wakeUpMaster();
+    }
+
+    private void submit(MCRJob job) {
+        Class<? extends MCRJobAction> jobAction = job.getAction();
+        try {
+            jobServe.submit(new MCRJobThread(job)).getFuture().whenComplete((result, error) -> {
+                getMetrics(jobAction).record(job);
+                releaseSlot(jobAction);
+            });
+        } catch (RuntimeException e) {
+            releaseSlot(jobAction);
+            throw e;
+        }
+    }
+
+    private void awaitWakeup(long wakeups, long timeout) {
+        try {
+            synchronized (jobQueue) {
+                if (running && jobQueue.getWakeups() == wakeups) {
+                    jobQueue.wait(timeout);
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.error("Job thread was interrupted.", e);
+        }
+    }
+
+    private MCRJobActionMetrics getMetrics(Class<? extends MCRJobAction> jobAction) {
+        return metrics.computeIfAbsent(jobAction, a -> new MCRJobActionMetrics());
+    }
+
+    private void updateQueueDepths() {
+        Map<Class<? extends MCRJobAction>, Long> depths = jobQueue.getQueueDepths();
+        processableCollection.setProperty("queue size", depths.values().stream().mapToLong(Long::longValue).sum());
+        depths.keySet().forEach(this::getMetrics);
+        metrics.forEach((jobAction, actionMetrics) -> {
+            actionMetrics.setQueueDepth(depths.getOrDefault(jobAction, 0L));
+            actionMetrics.publish(processableCollection, jobAction.getSimpleName());
+        });
+    }
+
     @Override
     public int getPriority() {
         return MCRShutdownHandler.Closeable.DEFAULT_PRIORITY - 1;
@@ -355,4 +465,63 @@ public class MCRJobMaster implements Runnable, Closeable {
 
         return null;
     }
+
+    /**
+     * Queue depth, wait time and run time of the jobs of one action, published as property of the processable
+     * collection.
+     */
+    private static final class MCRJobActionMetrics {
+
+        private long queueDepth;
+
+        private long finished;
+
+        private long failed;
+
+        private long totalWaitTime;
+
+        private long maxWaitTime;
+
+        private long totalRunTime;
+
+        private long maxRunTime;
+
+        private Map<String, Object> published;
+
+        synchronized void setQueueDepth(long queueDepth) {
+            this.queueDepth = queueDepth;
+        }
+
+        synchronized void record(MCRJob job) {
+            long now = System.currentTimeMillis();
+            long start = job.getStart() == null ? now : job.getStart().getTime();
+            long waitTime = job.getAdded() == null ? 0 : Math.max(0, start - job.getAdded().getTime());
+            long runTime = (job.getFinished() == null ? now : job.getFinished().getTime()) - start;
+            if (job.getStatus() == MCRJobStatus.FINISHED) {
+                finished++;
+            } else {
+                failed++;
+            }
+            totalWaitTime += waitTime;
+            maxWaitTime = Math.max(maxWaitTime, waitTime);
+            totalRunTime += runTime;
+            maxRunTime = Math.max(maxRunTime, runTime);
+        }
+
+        synchronized void publish(MCRProcessableDefaultCollection collection, String name) {
+            long count = finished + failed;
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("queue size", queueDepth);
+            values.put("finished", finished);
+            values.put("failed", failed);
+            values.put("avg wait time (ms)", count == 0 ? 0 : totalWaitTime / count);
+            values.put("max wait time (ms)", maxWaitTime);
+            values.put("avg run time (ms)", count == 0 ? 0 : totalRunTime / count);
+            values.put("max run time (ms)", maxRunTime);
+            if (!values.equals(published)) {
+                published = values;
+                collection.setProperty(name, values);
+            }
+        }
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.services.queuedjob;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.backend.jpa.MCREntityManagerProvider;
+import org.mycore.common.config.MCRConfiguration2;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Delivers wakeups for jobs added in this JVM and polls the database for jobs added on other nodes.
+ *
+ * Every <code>MCR.QueuedJob.WakeupChannel.PollInterval</code> seconds the highest ID and the number of new jobs
+ * is queried per action. A single cheap query, so the interval can be much shorter than the time a
+ * {@link MCRJobMaster} waits for new jobs otherwise.
+ */
+public class MCRJobPollingWakeupChannel extends MCRJobLocalWakeupChannel {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final int pollInterval = MCRConfiguration2
+        .getInt(MCRJobQueue.CONFIG_PREFIX + "WakeupChannel.PollInterval").orElse(5);
+
+    private final Map<Class<? extends MCRJobAction>, QueueState> lastStates = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @Override
+    public synchronized void start(Consumer<Class<? extends MCRJobAction>> listener) {
+        super.start(listener);
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("MCRJob-WakeupChannel").setDaemon(true).build());
+        scheduler.scheduleWithFixedDelay(() -> poll(listener), pollInterval, pollInterval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void poll(Consumer<Class<? extends MCRJobAction>> listener) {
+        List<Object[]> states;
+        EntityManager em = MCREntityManagerProvider.getEntityManagerFactory().createEntityManager();
+        try {
+            states = em
+                .createQuery("SELECT j.action, max(j.id), count(j) FROM MCRJob j WHERE j.status=:status"
+                    + " GROUP BY j.action", Object[].class)
+                .setParameter("status", MCRJobStatus.NEW)
+                .getResultList();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not poll for new jobs.", e);
+            return;
+        } finally {
+            em.close();
+        }
+        for (Object[] row : states) {
+            @SuppressWarnings("unchecked")
+            Class<? extends MCRJobAction> action = (Class<? extends MCRJobAction>) row[0];
+            QueueState state = new QueueState(((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+            QueueState lastState = lastStates.put(action, state);
+            if (lastState == null || state.isAfter(lastState)) {
+                LOGGER.debug("New jobs of {} found.", action);
+                listener.accept(action);
+            }
+        }
+    }
+
+    private static final class QueueState {
+
+        private final long maxId;
+
+        private final long count;
+
+        QueueState(long maxId, long count) {
+            this.maxId = maxId;
+            this.count = count;
+        }
+
+        /**
+         * Returns true, if jobs were added or reset since the given state.
+         */
+        boolean isAfter(QueueState other) {
+            return maxId > other.maxId || count > other.count;
+        }
+    }
+
+}
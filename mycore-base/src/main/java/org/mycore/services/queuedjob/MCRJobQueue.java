@@ -18,15 +18,19 @@
 
 package org.mycore.services.queuedjob;
 
+import java.lang.management.ManagementFactory;
 import java.util.AbstractQueue;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
@@ -34,16 +38,26 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.hibernate.internal.SessionFactoryImpl;
 import org.mycore.backend.jpa.MCREntityManagerProvider;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRTransactionHelper;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.events.MCRShutdownHandler;
 import org.mycore.common.events.MCRShutdownHandler.Closeable;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.NoResultException;
+import jakarta.persistence.PersistenceException;
 import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -54,6 +68,17 @@ import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 
+/**
+ * Queue of {@link MCRJob} instances stored in the database.
+ *
+ * Several nodes may share the same database. Jobs are claimed atomically in batches of
+ * <code>MCR.QueuedJob.preFetchAmount</code>: with <code>SELECT ... FOR UPDATE SKIP LOCKED</code> if the database
+ * supports it, otherwise by a conditional update that only succeeds for jobs still in status
+ * {@link MCRJobStatus#NEW}. A claimed job holds the {@link #NODE_ID} of the claiming node and a lease that is renewed
+ * every <code>MCR.QueuedJob.HeartbeatInterval</code> seconds while the job is prefetched or processed. Jobs whose
+ * lease was not renewed within <code>MCR.QueuedJob.TimeTillReset</code> minutes are reset by
+ * {@link MCRStalledJobResetter}.
+ */
 public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
     private static Logger LOGGER = LogManager.getLogger(MCRJobQueue.class);
 
@@ -63,18 +88,42 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
 
     protected static boolean singleQueue = MCRConfiguration2.getBoolean(CONFIG_PREFIX + "SingleQueue").orElse(true);
 
+    /**
+     * ID of this node stored in claimed jobs, set <code>MCR.QueuedJob.NodeID</code> to use a fixed name.
+     * Defaults to <code>pid@hostname</code>.
+     */
+    static final String NODE_ID = MCRConfiguration2.getString(CONFIG_PREFIX + "NodeID")
+        .orElseGet(() -> ManagementFactory.getRuntimeMXBean().getName());
+
+    private static final MCRJobWakeupChannel WAKEUP_CHANNEL = MCRConfiguration2
+        .<MCRJobWakeupChannel>getInstanceOf(CONFIG_PREFIX + "WakeupChannel.Class")
+        .orElseGet(MCRJobLocalWakeupChannel::new);
+
+    static {
+        WAKEUP_CHANNEL.start(MCRJobQueue::wakeUp);
+    }
+
     protected String configPrefixAdd = "";
 
     private Class<? extends MCRJobAction> action;
 
     private Queue<MCRJob> preFetch;
 
+    /**
+     * IDs of jobs claimed by this node that are prefetched or processed
+     */
+    private final Set<Long> claimedJobs = ConcurrentHashMap.newKeySet();
+
+    private Boolean skipLocked;
+
     private ScheduledExecutorService stalledJobScheduler;
 
     private final ReentrantLock pollLock;
 
     private boolean running;
 
+    private long wakeups;
+
     private MCRJobQueue(Class<? extends MCRJobAction> action) {
         int waitTime = MCRConfiguration2.getInt(CONFIG_PREFIX + "TimeTillReset").orElse(10);
         if (!singleQueue && action != null) {
@@ -86,10 +135,13 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
             waitTime = MCRConfiguration2.getInt(CONFIG_PREFIX + configPrefixAdd + "TimeTillReset").orElse(waitTime);
         }
         waitTime = waitTime * 60;
+        int heartbeatInterval = MCRConfiguration2.getInt(CONFIG_PREFIX + "HeartbeatInterval").orElse(60);
 
         stalledJobScheduler = Executors.newSingleThreadScheduledExecutor();
         stalledJobScheduler.scheduleAtFixedRate(MCRStalledJobResetter.getInstance(this.action), waitTime, waitTime,
             TimeUnit.SECONDS);
+        stalledJobScheduler.scheduleAtFixedRate(this::renewLeases, heartbeatInterval, heartbeatInterval,
+            TimeUnit.SECONDS);
         preFetch = new ConcurrentLinkedQueue<>();
         running = true;
         pollLock = new ReentrantLock();
@@ -117,20 +169,40 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
      */
     @Override
     public MCRJob poll() {
+        return poll(Collections.emptySet());
+    }
+
+    /**
+     * Returns the next available job of an action that is not excluded. Jobs of excluded actions are not claimed,
+     * prefetched ones are given back, so that any node may claim them again.
+     *
+     * @param excludedActions actions that cannot process jobs at the moment
+     * @return next available job instance
+     */
+    MCRJob poll(Set<Class<? extends MCRJobAction>> excludedActions) {
         if (!running) {
             return null;
         }
         try {
             pollLock.lock();
-            MCRJob job = getElement();
-            if (job != null) {
-                job.setStart(new Date(System.currentTimeMillis()));
-                job.setStatus(MCRJobStatus.PROCESSING);
-                if (!updateJob(job)) {
-                    job = null;
+            EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+            for (MCRJob prefetched = getElement(excludedActions); prefetched != null;
+                prefetched = getElement(excludedActions)) {
+                //the job may have been modified or removed since it was prefetched
+                MCRJob job = em.find(MCRJob.class, prefetched.getId());
+                if (job != null && job.getStatus() == MCRJobStatus.PROCESSING && NODE_ID.equals(job.getNode())) {
+                    if (excludedActions.contains(job.getAction())) {
+                        LOGGER.debug("Giving back job {} of excluded action.", job.getId());
+                        release(job);
+                        continue;
+                    }
+                    job.setStart(new Date(System.currentTimeMillis()));
+                    return job;
                 }
+                LOGGER.debug("Skipping prefetched job {} as it is not claimed anymore.", prefetched.getId());
+                claimedJobs.remove(prefetched.getId());
             }
-            return job;
+            return null;
         } finally {
             pollLock.unlock();
         }
@@ -162,7 +234,7 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
         if (!running) {
             return null;
         }
-        return getElement();
+        return getElement(Collections.emptySet());
     }
 
     /**
@@ -205,8 +277,17 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
         }
         job.setStatus(MCRJobStatus.NEW);
         job.setStart(null);
+        job.setNode(null);
+        job.setHeartbeat(null);
         if ((job.getId() == 0 && addJob(job)) || (updateJob(job))) {
             notifyListener();
+            Class<? extends MCRJobAction> jobAction = job.getAction();
+            if (MCRSessionMgr.hasCurrentSession() && MCRTransactionHelper.isTransactionActive()) {
+                //job is visible to other transactions not before commit
+                MCRSessionMgr.getCurrentSession().onCommit(() -> WAKEUP_CHANNEL.jobAdded(jobAction));
+            } else {
+                WAKEUP_CHANNEL.jobAdded(jobAction);
+            }
             return true;
         } else {
             return false;
@@ -292,6 +373,29 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
         return em.createQuery(sb.toString(), Number.class).getSingleResult().intValue();
     }
 
+    /**
+     * Returns the number of jobs in status {@link MCRJobStatus#NEW} per action.
+     */
+    public Map<Class<? extends MCRJobAction>, Long> getQueueDepths() {
+        Map<Class<? extends MCRJobAction>, Long> depths = new HashMap<>();
+        if (!running) {
+            return depths;
+        }
+        EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        TypedQuery<Object[]> query = em.createQuery("SELECT j.action, count(j) FROM MCRJob j WHERE j.status=:status"
+            + (action != null ? " AND j.action=:action" : "") + " GROUP BY j.action", Object[].class)
+            .setParameter("status", MCRJobStatus.NEW);
+        if (action != null) {
+            query.setParameter("action", action);
+        }
+        for (Object[] row : query.getResultList()) {
+            @SuppressWarnings("unchecked")
+            Class<? extends MCRJobAction> jobAction = (Class<? extends MCRJobAction>) row[0];
+            depths.put(jobAction, ((Number) row[1]).longValue());
+        }
+        return depths;
+    }
+
     /**
      * get the specific job and alters it status to {@link MCRJobStatus#PROCESSING}
      *
@@ -308,6 +412,8 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
         }
         job.setStart(new Date(System.currentTimeMillis()));
         job.setStatus(MCRJobStatus.PROCESSING);
+        job.setNode(NODE_ID);
+        job.setHeartbeat(job.getStart());
         if (!updateJob(job)) {
             throw new NoSuchElementException();
         }
@@ -381,12 +487,10 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
         });
 
         query.where(cb.equal(jobRoot.get(MCRJob_.action), action));
-        T result = consumer.apply(em.createQuery(query));
-        clearPreFetch();
-        return result;
+        return consumer.apply(em.createQuery(query));
     }
 
-    private MCRJob getElement() {
+    private MCRJob getElement(Set<Class<? extends MCRJobAction>> excludedActions) {
         if (!running) {
             return null;
         }
@@ -395,7 +499,7 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
             return job;
         }
         LOGGER.debug("No prefetched jobs available");
-        if (preFetch(MCRConfiguration2.getInt(CONFIG_PREFIX + "preFetchAmount").orElse(50)) == 0) {
+        if (preFetch(MCRConfiguration2.getInt(CONFIG_PREFIX + "preFetchAmount").orElse(50), excludedActions) == 0) {
             return null;
         }
         return getNextPrefetchedElement();
@@ -407,9 +511,32 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
         return job;
     }
 
-    private int preFetch(int amount) {
+    private int preFetch(int amount, Set<Class<? extends MCRJobAction>> excludedActions) {
         EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        Date now = new Date();
+        List<MCRJob> jobs = supportsSkipLocked(em) ? claimLocked(em, amount, now, excludedActions)
+            : claimOptimistic(em, amount, now, excludedActions);
+
+        int i = 0;
+        for (MCRJob job : jobs) {
+            if (job.getParameters().isEmpty()) {
+                unclaim(job);
+                continue;
+            }
+
+            i++;
+            claimedJobs.add(job.getId());
+            preFetch.add(job.clone());
+        }
+        LOGGER.debug("prefetched {} jobs", i);
+        return i;
+    }
 
+    /**
+     * Claims jobs with <code>SELECT ... FOR UPDATE SKIP LOCKED</code>, rows locked by other nodes are skipped.
+     */
+    private List<MCRJob> claimLocked(EntityManager em, int amount, Date now,
+        Set<Class<? extends MCRJobAction>> excludedActions) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<MCRJob> cq = cb.createQuery(MCRJob.class);
         Root<MCRJob> root = cq.from(MCRJob.class);
@@ -419,31 +546,180 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
         if (action != null) {
             predicates.add(cb.equal(root.get("action"), action));
         }
+        if (!excludedActions.isEmpty()) {
+            predicates.add(cb.not(root.get("action").in(excludedActions)));
+        }
         cq.where(cb.and(predicates.toArray(new Predicate[] {})));
         cq.orderBy(cb.asc(root.get("added")));
-        cq.distinct(true);
 
         TypedQuery<MCRJob> query = em.createQuery(cq);
         query.setMaxResults(amount);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        query.setHint(AvailableSettings.JAKARTA_JPA_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED);
 
         List<MCRJob> jobs = query.getResultList();
+        jobs.forEach(job -> claim(job, now));
+        return jobs;
+    }
 
-        int i = 0;
-        for (MCRJob job : jobs) {
-            if (job.getParameters().isEmpty()) {
-                continue;
+    /**
+     * Claims jobs by an update that only succeeds for jobs still in status {@link MCRJobStatus#NEW}, jobs claimed
+     * concurrently by other nodes are skipped.
+     */
+    private List<MCRJob> claimOptimistic(EntityManager em, int amount, Date now,
+        Set<Class<? extends MCRJobAction>> excludedActions) {
+        TypedQuery<Long> candidateQuery = em.createQuery("SELECT j.id FROM MCRJob j WHERE j.status=:status"
+            + (action != null ? " AND j.action=:action" : "")
+            + (excludedActions.isEmpty() ? "" : " AND j.action NOT IN (:excluded)")
+            + " ORDER BY j.added", Long.class)
+            .setParameter("status", MCRJobStatus.NEW)
+            .setMaxResults(amount);
+        if (action != null) {
+            candidateQuery.setParameter("action", action);
+        }
+        if (!excludedActions.isEmpty()) {
+            candidateQuery.setParameter("excluded", excludedActions);
+        }
+        List<Long> candidates = candidateQuery.getResultList();
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int claimed = em.createQuery("UPDATE MCRJob SET status=:processing, start=:now, node=:node, heartbeat=:now"
+            + " WHERE id IN (:ids) AND status=:new")
+            .setParameter("processing", MCRJobStatus.PROCESSING)
+            .setParameter("now", now)
+            .setParameter("node", NODE_ID)
+            .setParameter("ids", candidates)
+            .setParameter("new", MCRJobStatus.NEW)
+            .executeUpdate();
+        LOGGER.debug("claimed {} of {} jobs", claimed, candidates.size());
+        if (claimed == 0) {
+            return Collections.emptyList();
+        }
+        List<MCRJob> jobs = em.createQuery("FROM MCRJob WHERE id IN (:ids) AND node=:node AND status=:processing"
+            + " ORDER BY added", MCRJob.class)
+            .setParameter("ids", candidates)
+            .setParameter("node", NODE_ID)
+            .setParameter("processing", MCRJobStatus.PROCESSING)
+            .getResultList();
+        //bulk updates bypass the persistence context
+        jobs.stream().filter(job -> !NODE_ID.equals(job.getNode())).forEach(em::refresh);
+        return jobs;
+    }
+
+    private boolean supportsSkipLocked(EntityManager em) {
+        if (skipLocked == null) {
+            boolean supported;
+            try {
+                supported = em.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImpl.class)
+                    .getServiceRegistry()
+                    .getService(JdbcServices.class)
+                    .getDialect()
+                    .supportsSkipLocked();
+            } catch (PersistenceException e) {
+                supported = false;
             }
+            skipLocked = MCRConfiguration2.getBoolean(CONFIG_PREFIX + "SkipLocked").orElse(true) && supported;
+            LOGGER.info("Claiming jobs with {}.", skipLocked ? "SELECT ... FOR UPDATE SKIP LOCKED"
+                : "conditional updates");
+        }
+        return skipLocked;
+    }
 
-            i++;
-            preFetch.add(job.clone());
-            em.detach(job);
+    private static void claim(MCRJob job, Date now) {
+        job.setStatus(MCRJobStatus.PROCESSING);
+        job.setStart(now);
+        job.setNode(NODE_ID);
+        job.setHeartbeat(now);
+    }
+
+    private static void unclaim(MCRJob job) {
+        job.setStatus(MCRJobStatus.NEW);
+        job.setStart(null);
+        job.setNode(null);
+        job.setHeartbeat(null);
+    }
+
+    /**
+     * Gives back a job claimed by {@link #poll()} that is not processed, so that any node may claim it again.
+     */
+    void release(MCRJob job) {
+        claimedJobs.remove(job.getId());
+        unclaim(job);
+        updateJob(job);
+    }
+
+    /**
+     * Stops renewing the lease of the given job, must be called after the job was processed.
+     */
+    void processed(MCRJob job) {
+        claimedJobs.remove(job.getId());
+    }
+
+    /**
+     * Renews the lease of all jobs claimed by this node that are not processed yet.
+     */
+    private void renewLeases() {
+        List<Long> ids = new ArrayList<>(claimedJobs);
+        if (ids.isEmpty()) {
+            return;
+        }
+        EntityManager em = MCREntityManagerProvider.getEntityManagerFactory().createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            int renewed = em.createQuery("UPDATE MCRJob SET heartbeat=:now"
+                + " WHERE id IN (:ids) AND node=:node AND status=:processing")
+                .setParameter("now", new Date())
+                .setParameter("ids", ids)
+                .setParameter("node", NODE_ID)
+                .setParameter("processing", MCRJobStatus.PROCESSING)
+                .executeUpdate();
+            transaction.commit();
+            LOGGER.debug("Renewed lease of {} jobs.", renewed);
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not renew lease of jobs {}.", ids, e);
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        } finally {
+            em.close();
         }
-        LOGGER.debug("prefetched {} jobs", i);
-        return i;
     }
 
-    private void clearPreFetch() {
+    private void releasePreFetched() {
+        List<Long> ids = preFetch.stream().map(MCRJob::getId).collect(Collectors.toList());
         preFetch.clear();
+        if (ids.isEmpty()) {
+            return;
+        }
+        claimedJobs.removeAll(ids);
+        EntityManager em = MCREntityManagerProvider.getEntityManagerFactory().createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            int released = releaseAll(em, ids);
+            transaction.commit();
+            LOGGER.info("Gave back {} prefetched jobs.", released);
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not give back prefetched jobs {}.", ids, e);
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    private static int releaseAll(EntityManager em, Collection<Long> ids) {
+        return em.createQuery("UPDATE MCRJob SET status=:new, start=null, node=null, heartbeat=null"
+            + " WHERE id IN (:ids) AND node=:node AND status=:processing")
+            .setParameter("new", MCRJobStatus.NEW)
+            .setParameter("ids", ids)
+            .setParameter("node", NODE_ID)
+            .setParameter("processing", MCRJobStatus.PROCESSING)
+            .executeUpdate();
     }
 
     private boolean updateJob(MCRJob job) {
@@ -469,7 +745,7 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
      * Starts {@link MCRJobMaster} if <code>"MCR.QueuedJob.autostart"</code> is set <code>true</code>.
      */
     public synchronized void notifyListener() {
-        this.notifyAll();
+        wakeUpMaster();
 
         boolean autostart = MCRConfiguration2.getBoolean(CONFIG_PREFIX + "autostart").orElse(true);
         autostart = MCRConfiguration2.getBoolean(CONFIG_PREFIX + configPrefixAdd + "autostart").orElse(autostart);
@@ -479,6 +755,33 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
         }
     }
 
+    /**
+     * Returns the number of calls to {@link #notifyListener()}. A {@link MCRJobMaster} compares it before polling
+     * and before waiting, so that no wakeup is lost in between.
+     */
+    synchronized long getWakeups() {
+        return wakeups;
+    }
+
+    /**
+     * Wakes up the {@link MCRJobMaster} waiting for this queue without starting one.
+     */
+    synchronized void wakeUpMaster() {
+        wakeups++;
+        this.notifyAll();
+    }
+
+    private static void wakeUp(Class<? extends MCRJobAction> action) {
+        if (action == null) {
+            INSTANCES.values().forEach(MCRJobQueue::notifyListener);
+            return;
+        }
+        MCRJobQueue queue = getInstance(action);
+        if (queue != null) {
+            queue.notifyListener();
+        }
+    }
+
     /**
      * removes specific job from queue no matter what its current status is.
      *
@@ -512,13 +815,9 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
 
         MCRJob job = results.next();
 
-        try {
-            em.remove(job);
-            em.detach(job);
-            return 1;
-        } finally {
-            clearPreFetch();
-        }
+        em.remove(job);
+        em.detach(job);
+        return 1;
     }
 
     /**
@@ -541,28 +840,31 @@ public class MCRJobQueue extends AbstractQueue<MCRJob> implements Closeable {
         if (!results.hasNext()) {
             return 0;
         }
-        try {
-            int delC = 0;
-            while (results.hasNext()) {
-                MCRJob job = results.next();
+        int delC = 0;
+        while (results.hasNext()) {
+            MCRJob job = results.next();
 
-                em.remove(job);
-                em.detach(job);
-                delC++;
-            }
-            return delC;
-        } finally {
-            clearPreFetch();
+            em.remove(job);
+            em.detach(job);
+            delC++;
         }
+        return delC;
     }
 
     /**
-     * Shuts down {@link MCRStalledJobResetter} and does not alter any job anymore.
+     * Shuts down {@link MCRStalledJobResetter}, gives back all prefetched jobs and does not alter any job anymore.
      */
     @Override
     public void prepareClose() {
+        WAKEUP_CHANNEL.stop();
         stalledJobScheduler.shutdownNow();
-        running = false;
+        pollLock.lock();
+        try {
+            running = false;
+            releasePreFetched();
+        } finally {
+            pollLock.unlock();
+        }
         try {
             stalledJobScheduler.awaitTermination(60, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
@@ -34,6 +34,7 @@ import org.mycore.common.MCRSession;
 import org.mycore.common.MCRSessionMgr;
 import org.mycore.common.MCRSystemUserInformation;
 import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.events.MCREventManager;
 import org.mycore.common.processing.MCRAbstractProcessable;
 import org.mycore.common.processing.MCRProcessableStatus;
 
@@ -90,6 +91,8 @@ public class MCRJobThread extends MCRAbstractProcessable implements Runnable {
             MCRJobAction action = actionConstructor.newInstance(job);
 
             transaction.begin();
+            //asynchronous event handlers must not see changes of the action before they are committed
+            MCREventManager.holdEvents();
 
             try {
                 setStatus(MCRProcessableStatus.processing);
@@ -114,6 +117,7 @@ public class MCRJobThread extends MCRAbstractProcessable implements Runnable {
             }
             em.merge(job);
             transaction.commit();
+            MCREventManager.releaseEvents(true);
 
             // notify the queue we have processed the job
             synchronized (queue) {
@@ -121,10 +125,14 @@ public class MCRJobThread extends MCRAbstractProcessable implements Runnable {
             }
         } catch (Exception e) {
             LOGGER.error("Error while getting next job.", e);
+            MCREventManager.releaseEvents(false);
             if (transaction != null) {
                 transaction.rollback();
             }
         } finally {
+            if (queue != null) {
+                queue.processed(job);
+            }
             em.close();
             MCRSessionMgr.releaseCurrentSession();
             mcrSession.close();
@@ -0,0 +1,54 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.services.queuedjob;
+
+import java.util.function.Consumer;
+
+/**
+ * Wakes up {@link MCRJobMaster} instances waiting for new jobs.
+ *
+ * The channel is informed on every job added on this node and delivers a wakeup to the listener given in
+ * {@link #start(Consumer)}. Implementations may also deliver wakeups for jobs added on other nodes sharing the same
+ * database. Set property <code>MCR.QueuedJob.WakeupChannel.Class</code> to choose an implementation.
+ *
+ * @see MCRJobLocalWakeupChannel
+ * @see MCRJobPollingWakeupChannel
+ */
+public interface MCRJobWakeupChannel {
+
+    /**
+     * Starts delivering wakeups.
+     *
+     * @param listener receives the action of new jobs or <code>null</code> if any queue should wake up
+     */
+    void start(Consumer<Class<? extends MCRJobAction>> listener);
+
+    /**
+     * Called after a job was added and the transaction is committed.
+     *
+     * @param action the action of the new job
+     */
+    void jobAdded(Class<? extends MCRJobAction> action);
+
+    /**
+     * Stops delivering wakeups.
+     */
+    void stop();
+
+}
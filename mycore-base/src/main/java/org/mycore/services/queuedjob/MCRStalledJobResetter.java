@@ -20,6 +20,7 @@ package org.mycore.services.queuedjob;
 
 import java.util.Date;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -28,11 +29,11 @@ import org.mycore.common.config.MCRConfiguration2;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
 import jakarta.persistence.RollbackException;
-import jakarta.persistence.TypedQuery;
 
 /**
- * Resets jobs that took to long to perform action.
+ * Resets jobs that took to long to perform action or whose lease expired, because the claiming node stopped.
  * Set property <code>MCR.QueuedJob.TimeTillReset</code> to alter grace period.
  * 
  * @author Ren\u00E9 Adler
@@ -64,6 +65,10 @@ public class MCRStalledJobResetter implements Runnable {
 
     /**
      * Resets jobs to {@link MCRJobStatus#NEW} that where in status {@link MCRJobStatus#PROCESSING} for to long time.
+     *
+     * A job is stalled if its lease was not renewed for <code>TimeTillReset</code> minutes or, for jobs claimed
+     * without lease, if it was started <code>TimeTillReset</code> minutes ago. The reset is a single conditional
+     * update, so it is safe if several nodes check for stalled jobs concurrently.
      */
     public void run() {
         EntityManager em = MCREntityManagerProvider.getEntityManagerFactory().createEntityManager();
@@ -72,46 +77,36 @@ public class MCRStalledJobResetter implements Runnable {
         LOGGER.info("MCRJob is Checked for dead Entries");
         transaction.begin();
 
-        StringBuilder sb = new StringBuilder("FROM MCRJob WHERE ");
+        StringBuilder sb = new StringBuilder(
+            "UPDATE MCRJob SET status=:new, start=null, node=null, heartbeat=null WHERE ");
         if (action != null) {
-            sb.append("action='").append(action.getName()).append("' AND ");
+            sb.append("action=:action AND ");
         }
-        sb.append(" status='" + MCRJobStatus.PROCESSING + "' ORDER BY id ASC");
-
-        TypedQuery<MCRJob> query = em.createQuery(sb.toString(), MCRJob.class);
-
-        long current = new Date(System.currentTimeMillis()).getTime() / 60000;
-
-        boolean reset = query
-            .getResultList()
-            .stream()
-            .map(job -> {
-                boolean ret = false;
-                long start = job.getStart().getTime() / 60000;
-                if (current - start >= maxTimeDiff) {
-                    LOGGER.debug("->Resetting too long in queue");
-
-                    job.setStatus(MCRJobStatus.NEW);
-                    job.setStart(null);
-                    ret = true;
-                } else {
-                    LOGGER.debug("->ok");
-                }
-                return ret;
-            })
-            .reduce(Boolean::logicalOr)
-            .orElse(false);
+        sb.append("status=:processing AND (heartbeat < :expired OR (heartbeat IS NULL AND start < :expired))");
+
+        Query query = em.createQuery(sb.toString())
+            .setParameter("new", MCRJobStatus.NEW)
+            .setParameter("processing", MCRJobStatus.PROCESSING)
+            .setParameter("expired", new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(maxTimeDiff)));
+        if (action != null) {
+            query.setParameter("action", action);
+        }
+
+        int reset = query.executeUpdate();
         try {
             transaction.commit();
+            if (reset > 0) {
+                LOGGER.info("Reset {} stalled jobs.", reset);
+            }
         } catch (RollbackException e) {
-            e.printStackTrace();
+            LOGGER.error("Could not reset stalled jobs.", e);
             if (transaction != null) {
                 transaction.rollback();
-                reset = false;//No changes are applied, so no notification is needed as well
+                reset = 0;//No changes are applied, so no notification is needed as well
             }
         }
         //Only notify Listeners on Queue if really something is set back
-        if (reset) {
+        if (reset > 0) {
             synchronized (MCRJobQueue.getInstance(action)) {
                 MCRJobQueue.getInstance(action).notifyListener();
             }
@@ -20,11 +20,16 @@ package org.mycore.services.staticcontent;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.mycore.common.events.MCRAsyncEventHandler;
 import org.mycore.common.events.MCREvent;
 import org.mycore.common.events.MCREventHandlerBase;
 import org.mycore.datamodel.metadata.MCRObject;
 
-public class MCRStaticContentEventHandler extends MCREventHandlerBase {
+/**
+ * Generates the static content of objects. The content is generated asynchronously after the transaction is
+ * committed, see {@link MCRAsyncEventHandler}.
+ */
+public class MCRStaticContentEventHandler extends MCREventHandlerBase implements MCRAsyncEventHandler {
 
     private static final Logger LOGGER = LogManager.getLogger();
 
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -40,6 +41,7 @@ import javax.xml.stream.XMLStreamReader;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.mycore.datamodel.common.MCRLinkGraph;
 import org.mycore.datamodel.common.MCRLinkTableManager;
 import org.mycore.datamodel.metadata.MCRObjectID;
 
@@ -187,6 +189,33 @@ public class MCRTopologicalSort<T> {
         }
     }
 
+    /**
+     * sorts MCRObjectIDs, so that parents and referenced objects come before the objects linking to them
+     *
+     * uses the link graph of MCRLinkTableManager, if it is enabled, otherwise the link table
+     *
+     * @param mcrids - the MCRObjectIDs as Strings
+     * @return the sorted MCRObjectIDs or null if the input contained circular dependencies
+     */
+    public static List<String> sortMCRObjects(String[] mcrids) {
+        MCRLinkGraph graph = MCRLinkTableManager.instance().getCommittedLinkGraph();
+        if (graph != null) {
+            List<String> sorted = graph.sort(Arrays.asList(mcrids), MCRLinkTableManager.ENTRY_TYPE_PARENT,
+                MCRLinkTableManager.ENTRY_TYPE_REFERENCE);
+            if (sorted != null) {
+                return sorted;
+            }
+            //sort again to log the circular dependencies
+        }
+        MCRTopologicalSort<String> ts = new MCRTopologicalSort<>();
+        prepareMCRObjects(ts, mcrids);
+        int[] order = ts.doTopoSort();
+        if (order == null) {
+            return null;
+        }
+        return Arrays.stream(order).mapToObj(ts::getNodeName).collect(Collectors.toList());
+    }
+
     /**
      * resets the topological sort data structure
      */
@@ -0,0 +1,145 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.access;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mycore.common.MCRSession;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRSystemUserInformation;
+import org.mycore.common.MCRTestCase;
+
+public class MCRAccessCacheManagerTest extends MCRTestCase {
+
+    private static final String ID = "junit_test_00000001";
+
+    private static final String READ = MCRAccessManager.PERMISSION_READ;
+
+    @Test
+    public void shareGuestDecisions() {
+        MCRAccessCacheManager cache = new MCRAccessCacheManager();
+        cache.cachePermission(ID, READ, true);
+        cache.cachePermission(null, READ, true);
+
+        MCRSession other = newSession();
+        assertTrue("Guest sessions should share decisions", cache.isPermitted(ID, READ));
+        assertTrue("Guest sessions should share decisions", cache.isPermitted(null, READ));
+
+        other.setUserInformation(MCRSystemUserInformation.getSuperUserInstance());
+        assertNull("Decision of guest must not be used after login", cache.isPermitted(ID, READ));
+        cache.cachePermission(ID, READ, false);
+        assertEquals(3, cache.size());
+
+        cache.removePermissionFromAllCachesById(ID);
+        assertNull(cache.isPermitted(ID, READ));
+        assertEquals("Only decisions of the object should be invalidated", 1, cache.size());
+        other.close();
+    }
+
+    @Test
+    public void invalidateLocally() {
+        MCRAccessCacheManager cache = new MCRAccessCacheManager();
+        cache.cachePermission(ID, READ, true);
+
+        MCRSession keyHolder = newSession();
+        cache.removePermission(ID);
+        assertNull("Session should not use shared decisions after local invalidation", cache.isPermitted(ID, READ));
+        cache.cachePermission(ID, READ, false);
+
+        MCRSession guest = newSession();
+        assertTrue("Shared decision should survive local invalidation", cache.isPermitted(ID, READ));
+        assertEquals(2, cache.size());
+
+        keyHolder.close();
+        assertEquals("Decisions of closed session should be removed", 1, cache.size());
+        guest.close();
+    }
+
+    @Test
+    public void rejectStaleDecision() {
+        MCRAccessCacheManager cache = new MCRAccessCacheManager();
+        long generation = cache.getGeneration(ID);
+        // permission is revoked while the decision is computed
+        cache.removePermissionFromAllCachesById(ID);
+        cache.cachePermission(ID, READ, true, generation);
+        assertNull("Decision computed before revocation must not be cached", cache.isPermitted(ID, READ));
+        cache.cachePermission(ID, READ, false, cache.getGeneration(ID));
+        assertFalse(cache.isPermitted(ID, READ));
+    }
+
+    @Test
+    public void revokeWhilePutInFlight() throws Exception {
+        MCRAccessCacheManager cache = new MCRAccessCacheManager();
+        int rounds = 2000;
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> put = executor.submit(() -> {
+                MCRSessionMgr.unlock();
+                for (int i = 0; i < rounds; i++) {
+                    long generation = cache.getGeneration(ID);
+                    await(barrier);
+                    cache.cachePermission(ID, READ, true, generation);
+                }
+                MCRSessionMgr.getCurrentSession().close();
+                MCRSessionMgr.releaseCurrentSession();
+                return null;
+            });
+            Future<?> revoke = executor.submit(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    await(barrier);
+                    cache.removePermissionFromAllCachesById(ID);
+                }
+                return null;
+            });
+            put.get(60, TimeUnit.SECONDS);
+            revoke.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        // every remaining decision must still be reachable by invalidation
+        cache.removePermissionFromAllCachesById(ID);
+        assertEquals(0, cache.size());
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(60, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MCRSession newSession() {
+        MCRSessionMgr.releaseCurrentSession();
+        MCRSessionMgr.unlock();
+        return MCRSessionMgr.getCurrentSession();
+    }
+
+}
@@ -79,7 +79,7 @@ public class MCRCategoryConditionTest extends MCRJPATestCase {
     }
 
     @Test
-    public void testConditionMatch() throws NoSuchFieldException, IllegalAccessException {
+    public void testConditionMatch() {
         MCRSessionMgr.getCurrentSession().setUserInformation(MCRSystemUserInformation.getSuperUserInstance());
 
         MCRObject object = new MCRObject();
@@ -101,7 +101,7 @@ public class MCRCategoryConditionTest extends MCRJPATestCase {
     }
 
     @Test
-    public void testConditionNotMatch() throws NoSuchFieldException, IllegalAccessException {
+    public void testConditionNotMatch() {
         MCRSessionMgr.getCurrentSession().setUserInformation(MCRSystemUserInformation.getSuperUserInstance());
 
         MCRObject object = new MCRObject();
@@ -44,7 +44,7 @@ public class MCRCreatedByConditionTest extends MCRTestCase {
     }
 
     @Test
-    public void testConditionMatch() throws NoSuchFieldException, IllegalAccessException {
+    public void testConditionMatch() {
         MCRSessionMgr.getCurrentSession().setUserInformation(MCRSystemUserInformation.getSuperUserInstance());
 
         MCRObject object = new MCRObject();
@@ -62,7 +62,7 @@ public class MCRCreatedByConditionTest extends MCRTestCase {
     }
 
     @Test
-    public void testNotMatch() throws NoSuchFieldException, IllegalAccessException {
+    public void testNotMatch() {
         MCRSessionMgr.getCurrentSession().setUserInformation(MCRSystemUserInformation.getGuestInstance());
 
         MCRObject object = new MCRObject();
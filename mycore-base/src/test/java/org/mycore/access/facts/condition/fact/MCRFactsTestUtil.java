@@ -18,23 +18,13 @@
 
 package org.mycore.access.facts.condition.fact;
 
-import java.lang.reflect.Field;
-
-import org.mycore.access.facts.MCRObjectCacheFactory;
-import org.mycore.common.MCRCache;
 import org.mycore.datamodel.metadata.MCRObject;
+import org.mycore.datamodel.metadata.MCRObjectCacheTestUtil;
 import org.mycore.datamodel.metadata.MCRObjectID;
 
 public class MCRFactsTestUtil {
 
-    public static void hackObjectIntoCache(MCRObject object, MCRObjectID testId) throws NoSuchFieldException,
-        IllegalAccessException {
-        MCRObjectCacheFactory instance = MCRObjectCacheFactory.instance();
-        Field objectCacheField = instance.getClass().getDeclaredField("objectCache");
-        objectCacheField.setAccessible(true);
-        MCRCache<MCRObjectID, MCRObject> o = (MCRCache<MCRObjectID, MCRObject>) objectCacheField.get(instance);
-        objectCacheField.setAccessible(false);
-        o.put(testId, object);
-
+    public static void hackObjectIntoCache(MCRObject object, MCRObjectID testId) {
+        MCRObjectCacheTestUtil.put(testId, object);
     }
 }
@@ -69,7 +69,7 @@ public class MCRStateConditionTest extends MCRJPATestCase {
     }
 
     @Test
-    public void testConditionMatch() throws NoSuchFieldException, IllegalAccessException {
+    public void testConditionMatch() {
         MCRSessionMgr.getCurrentSession().setUserInformation(MCRSystemUserInformation.getSuperUserInstance());
 
         MCRObject object = new MCRObject();
@@ -86,7 +86,7 @@ public class MCRStateConditionTest extends MCRJPATestCase {
     }
 
     @Test
-    public void testConditionNotMatch() throws NoSuchFieldException, IllegalAccessException {
+    public void testConditionNotMatch() {
         MCRSessionMgr.getCurrentSession().setUserInformation(MCRSystemUserInformation.getSuperUserInstance());
 
         MCRObject object = new MCRObject();
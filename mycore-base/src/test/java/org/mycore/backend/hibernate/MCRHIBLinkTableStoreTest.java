@@ -0,0 +1,109 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.backend.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.backend.jpa.MCREntityManagerProvider;
+import org.mycore.backend.jpa.links.MCRLINKHREF;
+import org.mycore.backend.jpa.links.MCRLINKHREFPK;
+import org.mycore.common.MCRJPATestCase;
+import org.mycore.datamodel.common.MCRLinkTableEntry;
+
+public class MCRHIBLinkTableStoreTest extends MCRJPATestCase {
+
+    private static final String FROM = "junit_test_00000001";
+
+    private MCRHIBLinkTableStore store;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        store = new MCRHIBLinkTableStore();
+    }
+
+    @Test
+    public void createBulk() {
+        store.create(FROM, "junit_test_00000002", "reference", "");
+        startNewTransaction();
+        store.create(Arrays.asList(
+            new MCRLinkTableEntry(FROM, "junit_test_00000002", "reference", "host"),
+            new MCRLinkTableEntry(FROM, "junit_test_00000003", "reference", null),
+            new MCRLinkTableEntry("junit_test_00000004", "junit_test_00000003", "parent", "")));
+        startNewTransaction();
+        assertEquals(new HashSet<>(Arrays.asList("junit_test_00000002", "junit_test_00000003")),
+            new HashSet<>(store.getDestinationsOf(FROM, "reference")));
+        assertEquals("host", getAttr(FROM, "junit_test_00000002", "reference"));
+        assertEquals(Collections.singletonList("junit_test_00000004"),
+            store.getSourcesOf("junit_test_00000003", "parent"));
+    }
+
+    @Test
+    public void maxLength() {
+        assertEquals(64, store.getMaxLength("from"));
+        assertEquals(194, store.getMaxLength("to"));
+        assertEquals(75, store.getMaxLength("type"));
+        assertEquals(194, store.getMaxLength("attr"));
+    }
+
+    @Test
+    public void update() {
+        store.create(Arrays.asList(
+            new MCRLinkTableEntry(FROM, "junit_test_00000002", "reference", ""),
+            new MCRLinkTableEntry(FROM, "junit_test_00000003", "reference", ""),
+            new MCRLinkTableEntry(FROM, "junit_test_00000004", "parent", ""),
+            new MCRLinkTableEntry("junit_test_00000005", "junit_test_00000003", "reference", "")));
+        startNewTransaction();
+        store.update(FROM, Arrays.asList(
+            new MCRLinkTableEntry(FROM, "junit_test_00000003", "reference", "related"),
+            new MCRLinkTableEntry(FROM, "junit_test_00000004", "parent", ""),
+            new MCRLinkTableEntry(FROM, "junit_test_00000006", "derivate", "")));
+        startNewTransaction();
+        assertEquals(Collections.singletonList("junit_test_00000003"), store.getDestinationsOf(FROM, "reference"));
+        assertEquals("related", getAttr(FROM, "junit_test_00000003", "reference"));
+        assertEquals(Collections.singletonList("junit_test_00000004"), store.getDestinationsOf(FROM, "parent"));
+        assertEquals(Collections.singletonList("junit_test_00000006"), store.getDestinationsOf(FROM, "derivate"));
+        assertEquals("Links of other sources should not be changed", 2,
+            store.getSourcesOf("junit_test_00000003", "reference").size());
+
+        store.update(FROM, Collections.emptyList());
+        startNewTransaction();
+        assertTrue(store.getDestinationsOf(FROM, null).isEmpty());
+        assertEquals(Collections.singletonList("junit_test_00000005"),
+            store.getSourcesOf("junit_test_00000003", "reference"));
+    }
+
+    private static String getAttr(String from, String to, String type) {
+        MCRLINKHREFPK key = new MCRLINKHREFPK();
+        key.setMcrfrom(from);
+        key.setMcrto(to);
+        key.setMcrtype(type);
+        MCRLINKHREF link = MCREntityManagerProvider.getCurrentEntityManager().find(MCRLINKHREF.class, key);
+        return link == null ? null : link.getMcrattr();
+    }
+
+}
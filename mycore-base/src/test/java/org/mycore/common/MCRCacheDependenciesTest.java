@@ -0,0 +1,65 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.common;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.mycore.common.config.MCRConfiguration2;
+
+public class MCRCacheDependenciesTest extends MCRTestCase {
+
+    @Test
+    public void modified() {
+        String object = MCRCacheDependencies.object("junit_test_00000001");
+        String classification = MCRCacheDependencies.classification("junit");
+        MCRCacheDependencies.Stamp objectStamp = MCRCacheDependencies.stamp(List.of(object));
+        MCRCacheDependencies.Stamp classificationStamp = MCRCacheDependencies.stamp(List.of(classification));
+        assertTrue(objectStamp.isValid());
+
+        MCRCacheDependencies.modified(classification);
+        assertTrue("Stamp should not depend on other objects", objectStamp.isValid());
+        assertFalse(classificationStamp.isValid());
+
+        MCRCacheDependencies.modified(object);
+        assertFalse(objectStamp.isValid());
+    }
+
+    @Test
+    public void config() {
+        MCRCacheDependencies.Stamp stamp = MCRCacheDependencies
+            .stamp(List.of(MCRCacheDependencies.config("MCR.Junit.Cached")));
+        MCRConfiguration2.set("MCR.Junit.Other", "other");
+        assertTrue(stamp.isValid());
+        MCRConfiguration2.set("MCR.Junit.Cached", "modified");
+        assertFalse(stamp.isValid());
+    }
+
+    @Test
+    public void modifiedAll() {
+        MCRCacheDependencies.Stamp stamp = MCRCacheDependencies.stamp(List.of());
+        assertTrue(stamp.isValid());
+        MCRCacheDependencies.modifiedAll();
+        assertFalse(stamp.isValid());
+    }
+
+}
@@ -19,6 +19,8 @@
 package org.mycore.common;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
 import org.junit.After;
 import org.junit.Before;
@@ -82,6 +84,17 @@ public class MCRSessionTest extends MCRTestCase {
         session.setUserInformation(SUPER_USER_INSTANCE);
     }
 
+    @Test
+    public void onCommitTask() {
+        Runnable task = () -> {
+        };
+        assertFalse(session.getOnCommitTask(Runnable.class).isPresent());
+        session.onCommit(task);
+        assertSame(task, session.getOnCommitTask(Runnable.class).get());
+        session.discardOnCommitTasks();
+        assertFalse(session.getOnCommitTask(Runnable.class).isPresent());
+    }
+
     private static MCRUserInformation getSimpleUserInformation(String userID) {
         return new MCRUserInformation() {
             @Override
@@ -0,0 +1,211 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.common.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRException;
+import org.mycore.common.MCRJPATestCase;
+import org.mycore.common.MCRTransactionHelper;
+import org.mycore.datamodel.metadata.MCRObject;
+import org.mycore.datamodel.metadata.MCRObjectID;
+
+public class MCRAsyncEventHandlerTest extends MCRJPATestCase {
+
+    private MCRObject object;
+
+    private RecordingHandler handler;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        object = new MCRObject();
+        object.setId(MCRObjectID.getInstance("junit_test_00000001"));
+        handler = new RecordingHandler();
+        MCREventManager.instance().clear().addEventHandler(MCREvent.ObjectType.OBJECT, handler);
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Metadata.Type.test", Boolean.TRUE.toString());
+        return testProperties;
+    }
+
+    @Test
+    public void afterCommit() throws Exception {
+        handler.expect(1);
+        MCREventManager.instance().handleEvent(event(null));
+        assertTrue("Event should wait for commit", handler.events.isEmpty());
+        commit();
+        handler.await();
+        assertEquals(1, handler.events.size());
+    }
+
+    @Test
+    public void rollback() throws Exception {
+        MCREventManager.instance().handleEvent(event(null));
+        MCRTransactionHelper.rollbackTransaction();
+        beginTransaction();
+        handler.expect(1);
+        MCREvent committed = event(null);
+        MCREventManager.instance().handleEvent(committed);
+        commit();
+        handler.await();
+        assertEquals(List.of(committed), handler.events);
+    }
+
+    @Test
+    public void coalesce() throws Exception {
+        CountDownLatch block = new CountDownLatch(1);
+        handler.block = block;
+        handler.expect(1);
+        MCREvent first = event(null);
+        MCREventManager.instance().handleEvent(first);
+        commit();
+        handler.await();
+
+        //handler is blocked in first event
+        handler.expect(1);
+        MCRObject old = new MCRObject();
+        MCREventManager.instance().handleEvent(event(old));
+        MCREvent last = event(null);
+        MCREventManager.instance().handleEvent(last);
+        commit();
+        block.countDown();
+        handler.await();
+        assertEquals(List.of(first, last), handler.events);
+        assertSame("Coalesced event should keep old state", old, last.get(MCREvent.OBJECT_OLD_KEY));
+    }
+
+    @Test
+    public void failingHandler() {
+        MCREventManager.instance().addEventHandler(MCREvent.ObjectType.OBJECT, new MCREventHandlerBase() {
+            @Override
+            protected void handleObjectUpdated(MCREvent evt, MCRObject obj) {
+                throw new MCRException("junit");
+            }
+        });
+        try {
+            MCREventManager.instance().handleEvent(event(null));
+            fail("Exception of synchronous handler should be thrown");
+        } catch (MCRException e) {
+            //expected
+        }
+        commit();
+        assertTrue("Asynchronous handler should not be called", handler.events.isEmpty());
+    }
+
+    @Test
+    public void heldEvents() throws Exception {
+        MCRTransactionHelper.commitTransaction();
+        MCREventManager.holdEvents();
+        MCREventManager.instance().handleEvent(event(null));
+        MCREventManager.releaseEvents(false);
+        MCREventManager.holdEvents();
+        MCREventManager.instance().handleEvent(event(null));
+        assertTrue("Event should wait for the release", handler.events.isEmpty());
+        handler.expect(1);
+        MCREventManager.releaseEvents(true);
+        handler.await();
+        assertEquals(1, handler.events.size());
+        beginTransaction();
+    }
+
+    @Test
+    public void fullQueue() throws Exception {
+        MCRAsyncEventDispatcher dispatcher = new MCRAsyncEventDispatcher(1, 1);
+        MCREvent fired = event(null);
+        handler.expect(2);
+        MCREventHandler firing = new MCREventHandlerBase() {
+            @Override
+            protected void handleObjectUpdated(MCREvent evt, MCRObject obj) {
+                if (evt != fired) {
+                    //the queue is full while this event is handled
+                    dispatcher.submit(fired, List.of(this, handler), null);
+                }
+            }
+        };
+        dispatcher.submit(event(null), List.of(firing, handler), null);
+        handler.await();
+        assertEquals(2, handler.events.size());
+        assertSame(fired, handler.events.get(1));
+        dispatcher.prepareClose();
+        dispatcher.close();
+    }
+
+    private MCREvent event(MCRObject old) {
+        MCREvent evt = new MCREvent(MCREvent.ObjectType.OBJECT, MCREvent.EventType.UPDATE);
+        evt.put(MCREvent.OBJECT_KEY, object);
+        if (old != null) {
+            evt.put(MCREvent.OBJECT_OLD_KEY, old);
+        }
+        return evt;
+    }
+
+    private void commit() {
+        MCRTransactionHelper.commitTransaction();
+        beginTransaction();
+    }
+
+    private static class RecordingHandler extends MCREventHandlerBase implements MCRAsyncEventHandler {
+
+        private final List<MCREvent> events = new CopyOnWriteArrayList<>();
+
+        private volatile CountDownLatch handled = new CountDownLatch(0);
+
+        private volatile CountDownLatch block;
+
+        void expect(int count) {
+            handled = new CountDownLatch(count);
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("Event was not handled in time", handled.await(10, TimeUnit.SECONDS));
+        }
+
+        @Override
+        protected void handleObjectUpdated(MCREvent evt, MCRObject obj) {
+            events.add(evt);
+            CountDownLatch currentBlock = block;
+            block = null;
+            handled.countDown();
+            if (currentBlock != null) {
+                try {
+                    currentBlock.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+}
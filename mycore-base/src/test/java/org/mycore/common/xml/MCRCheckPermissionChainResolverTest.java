@@ -25,6 +25,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.mycore.access.MCRAccessManager;
 import org.mycore.access.MCRAccessMock;
+import org.mycore.access.mcrimpl.MCRAccessControlSystem;
 import org.mycore.common.MCRTestCase;
 
 import javax.xml.transform.Source;
@@ -53,6 +54,8 @@ public class MCRCheckPermissionChainResolverTest extends MCRTestCase {
     @Override
     public void setUp() throws Exception {
         super.setUp();
+        //decisions of guest sessions are shared
+        MCRAccessManager.invalidAllPermissionCachesById(MOCK_ID, MCRAccessControlSystem.POOL_PRIVILEGE_ID);
         MCRMockResolver.setResultSource(resultSource);
     }
 
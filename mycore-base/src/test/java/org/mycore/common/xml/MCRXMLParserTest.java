@@ -18,6 +18,7 @@
 
 package org.mycore.common.xml;
 
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.fail;
 
 import java.io.File;
@@ -26,6 +27,7 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.Map;
 
 import org.junit.Before;
@@ -84,10 +86,58 @@ public class MCRXMLParserTest extends MCRTestCase {
         MCRXMLParserFactory.getValidatingParser().parseXML(new MCRURLContent(xmlFile.toUri().toURL()));
     }
 
+    @Test
+    public void testValidXMLCachedGrammars() throws SAXParseException, IOException {
+        MCRXMLParser parser = getCachedGrammarsParser();
+        parser.parseXML(new MCRURLContent(xmlResource));
+        parser.parseXML(new MCRURLContent(xmlFile.toUri().toURL()));
+        assertThrows(SAXParseException.class, () -> parser.parseXML(new MCRURLContent(xmlResourceInvalid)));
+    }
+
+    @Test
+    public void testModifiedSchema() throws SAXParseException, IOException {
+        checkModifiedSchema(MCRXMLParserFactory.getValidatingParser());
+    }
+
+    @Test
+    public void testModifiedSchemaCachedGrammars() throws SAXParseException, IOException {
+        checkModifiedSchema(getCachedGrammarsParser());
+    }
+
+    /**
+     * Returns a parser as configured by <code>MCR.XMLParser.CacheGrammars=true</code>. The factory reads the property
+     * once, so tests of the default configuration and of cached grammars can not share it.
+     */
+    private static MCRXMLParser getCachedGrammarsParser() {
+        return new MCRXMLParserImpl(new MCRXMLParserFactory.MCRXMLReaderSchemaFactory());
+    }
+
+    private void checkModifiedSchema(MCRXMLParser parser) throws SAXParseException, IOException {
+        Path schema = testFolder.getRoot().toPath().resolve("modified.xsd");
+        Path xml = testFolder.getRoot().toPath().resolve("modified.xml");
+        Files.writeString(xml, "<p xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+            + " xsi:noNamespaceSchemaLocation=\"modified.xsd\">JUnit</p>");
+        Files.writeString(schema, getSchema("xs:string"));
+        parser.parseXML(new MCRURLContent(xml.toUri().toURL()));
+        parser.parseXML(new MCRURLContent(xml.toUri().toURL()));
+
+        Files.writeString(schema, getSchema("xs:int"));
+        Files.setLastModifiedTime(schema, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+        URL modified = xml.toUri().toURL();
+        assertThrows("Modified schema was not used for validation", SAXParseException.class,
+            () -> parser.parseXML(new MCRURLContent(modified)));
+    }
+
+    private static String getSchema(String type) {
+        return "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"><xs:element name=\"p\" type=\"" + type
+            + "\"/></xs:schema>";
+    }
+
     @Override
     protected Map<String, String> getTestProperties() {
         Map<String, String> testProperties = super.getTestProperties();
         testProperties.put("MCR.XMLParser.ValidateSchema", "true");
+        testProperties.put("MCR.XMLParser.LastModifiedCheckPeriod", "0");
         testProperties.put("log4j.logger.org.mycore.common.xml.MCRParserXerces", "FATAL");
         return testProperties;
     }
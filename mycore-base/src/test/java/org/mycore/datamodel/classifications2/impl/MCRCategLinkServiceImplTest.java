@@ -34,6 +34,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -43,6 +45,7 @@ import org.junit.Test;
 import org.mycore.backend.jpa.MCREntityManagerProvider;
 import org.mycore.common.MCRException;
 import org.mycore.common.MCRJPATestCase;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.content.MCRURLContent;
 import org.mycore.common.xml.MCRXMLParserFactory;
 import org.mycore.datamodel.classifications2.MCRCategLinkReference;
@@ -107,6 +110,33 @@ public class MCRCategLinkServiceImplTest extends MCRJPATestCase {
         assertEquals("Link count does not match.", testLinks.size(), getLinkCount());
     }
 
+    @Test
+    public void setLinksTwice() {
+        addTestLinks();
+        startNewTransaction();
+        addTestLinks();
+        startNewTransaction();
+        assertEquals("Link count does not match.", testLinks.size(), getLinkCount());
+    }
+
+    @Test
+    public void updateLinks() {
+        addTestLinks();
+        startNewTransaction();
+        MCRCategoryID europe = category.getChildren().get(0).getId();
+        MCRCategoryID uk = category.getChildren().get(0).getChildren().get(1).getId();
+        MCRCategLinkReference northSeaReference = new MCRCategLinkReference("North Sea", "sea");
+        SERVICE.updateLinks(northSeaReference, Arrays.asList(uk, europe, uk));
+        startNewTransaction();
+        assertEquals("Link count does not match.", testLinks.size(), getLinkCount());
+        assertEquals(new HashSet<>(Arrays.asList(uk, europe)),
+            new HashSet<>(SERVICE.getLinksFromReference(northSeaReference)));
+        SERVICE.updateLinks(northSeaReference, Collections.emptyList());
+        startNewTransaction();
+        assertEquals("Link count does not match.", testLinks.size() - 2, getLinkCount());
+        assertTrue(SERVICE.getLinksFromReference(northSeaReference).isEmpty());
+    }
+
     private int getLinkCount() {
         EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
         CriteriaBuilder cb = em.getCriteriaBuilder();
@@ -193,6 +223,73 @@ public class MCRCategLinkServiceImplTest extends MCRJPATestCase {
             .orElse(null);
     }
 
+    @Test
+    public void precomputedCounts() {
+        addTestLinks();
+        startNewTransaction();
+        SERVICE.rebuildLinkCounts();
+        startNewTransaction();
+        assertPrecomputedCounts();
+
+        MCRConfiguration2.set(MCRCategLinkCounter.ENABLED_PROPERTY, "true");
+        MCRCategory europe = category.getChildren().get(0);
+        MCRCategoryID germany = europe.getChildren().get(0).getId();
+        MCRCategoryID uk = europe.getChildren().get(1).getId();
+        SERVICE.updateLinks(new MCRCategLinkReference("North Sea", "sea"), Arrays.asList(europe.getId()));
+        SERVICE.deleteLink(LONDON_REFERENCE);
+        SERVICE.deleteLinks(Arrays.asList(ENGLAND_REFERENCE));
+        SERVICE.setLinks(new MCRCategLinkReference("Thames", "river"), Arrays.asList(germany, uk));
+        startNewTransaction();
+        assertPrecomputedCounts();
+
+        DAO.moveCategory(germany, category.getId());
+        startNewTransaction();
+        assertPrecomputedCounts();
+    }
+
+    @Test
+    public void insertConcurrentCount() {
+        String classID = category.getId().getRootID();
+        EntityManager other = MCREntityManagerProvider.getEntityManagerFactory().createEntityManager();
+        try {
+            other.getTransaction().begin();
+            other.persist(new MCRCategoryLinkCount(classID, "Europe", "sea", 1));
+            other.getTransaction().commit();
+        } finally {
+            other.close();
+        }
+        EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        MCRCategLinkCounter.insertZeroCounts(em, classID, "sea", Set.of("Europe", "Asia"));
+        startNewTransaction();
+        assertEquals(Map.of(new MCRCategoryID(classID, "Europe"), 1, new MCRCategoryID(classID, "Asia"), 0),
+            MCRCategLinkCounter.getCounts(em, classID, "sea"));
+    }
+
+    private void assertPrecomputedCounts() {
+        MCRCategory root = DAO.getCategory(category.getId(), -1);
+        for (MCRCategory parent : Arrays.asList(root, root.getChildren().get(0))) {
+            for (String type : Arrays.asList(null, "city", "state", "river", "sea")) {
+                for (boolean childrenOnly : new boolean[] { false, true }) {
+                    MCRConfiguration2.set(MCRCategLinkCounter.ENABLED_PROPERTY, "false");
+                    Map<MCRCategoryID, Long> expected = toLongMap(
+                        SERVICE.countLinksForType(parent, type, childrenOnly));
+                    MCRConfiguration2.set(MCRCategLinkCounter.ENABLED_PROPERTY, "true");
+                    Map<MCRCategoryID, Long> actual = toLongMap(
+                        SERVICE.countLinksForType(parent, type, childrenOnly));
+                    assertEquals("Counts of " + parent.getId() + " for type " + type + " do not match.",
+                        expected, actual);
+                }
+            }
+        }
+    }
+
+    private static Map<MCRCategoryID, Long> toLongMap(Map<MCRCategoryID, Number> counts) {
+        return counts.entrySet()
+            .stream()
+            .filter(e -> e.getValue().longValue() != 0)
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().longValue()));
+    }
+
     /**
      * Test method for {@link org.mycore.datamodel.classifications2.impl.MCRCategLinkServiceImpl#countLinks(MCRCategory, boolean)}.
      */
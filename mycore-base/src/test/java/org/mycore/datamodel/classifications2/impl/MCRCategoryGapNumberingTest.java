@@ -0,0 +1,178 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.classifications2.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRJPATestCase;
+import org.mycore.common.MCRStreamUtils;
+import org.mycore.datamodel.classifications2.MCRCategory;
+import org.mycore.datamodel.classifications2.MCRCategoryID;
+import org.mycore.datamodel.classifications2.MCRLabel;
+
+public class MCRCategoryGapNumberingTest extends MCRJPATestCase {
+
+    private static final int GAP = 10;
+
+    private static final MCRCategoryDAOImpl DAO = new MCRCategoryDAOImpl();
+
+    private MCRCategoryID rootID;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        MCRCategory category = MCRCategoryDAOImplTest
+            .loadClassificationResource(MCRCategoryDAOImplTest.WORLD_CLASS_RESOURCE_NAME);
+        rootID = category.getId();
+        DAO.addCategory(null, category);
+        startNewTransaction();
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Category.DAO.NestedSet.Gap", Integer.toString(GAP));
+        return testProperties;
+    }
+
+    @Test
+    public void insertIntoGap() {
+        MCRCategoryImpl root = getRoot();
+        assertValid(root);
+        assertEquals("Root category should be numbered with gaps", GAP, getChild(root, 0).getLeft());
+        Map<MCRCategoryID, String> before = getLeftRightValues(root);
+
+        MCRCategoryID europe = new MCRCategoryID(rootID.getRootID(), "Europe");
+        DAO.addCategory(europe, newCategory("Italy"), 1);
+        DAO.addCategory(europe, newCategory("Poland"));
+        DAO.addCategory(rootID, newCategory("Africa"));
+        startNewTransaction();
+
+        root = getRoot();
+        assertValid(root);
+        Map<MCRCategoryID, String> after = getLeftRightValues(root);
+        //appending may only move the right value of the parent into its gap
+        before.keySet().removeAll(List.of(europe, rootID));
+        before.forEach((id, values) -> assertEquals("Values of " + id + " should not change", values,
+            after.get(id)));
+        assertEquals(List.of("Germany", "Italy", "UK", "France", "Spain", "Poland"),
+            getChild(root, 0).getChildren().stream().map(c -> c.getId().getID()).collect(Collectors.toList()));
+        assertEquals("Africa", getChild(root, 2).getId().getID());
+    }
+
+    @Test
+    public void renumberIfGapIsExhausted() {
+        MCRCategoryID thuringia = new MCRCategoryID(rootID.getRootID(), "Thuringia");
+        for (int i = 0; i < 3 * GAP; i++) {
+            DAO.addCategory(thuringia, newCategory("District" + i), 0);
+            DAO.addCategory(rootID, newCategory("Continent" + i), 1);
+        }
+        startNewTransaction();
+        MCRCategoryImpl root = getRoot();
+        assertValid(root);
+        MCRCategoryImpl thuringiaCategory = (MCRCategoryImpl) DAO.getCategory(thuringia, 1);
+        assertEquals(3 * GAP, thuringiaCategory.getChildren().size());
+        assertEquals("District" + (3 * GAP - 1), thuringiaCategory.getChildren().get(0).getId().getID());
+        assertEquals("Continent" + (3 * GAP - 1), getChild(root, 1).getId().getID());
+    }
+
+    @Test
+    public void moveAndDelete() {
+        MCRCategoryID germany = new MCRCategoryID(rootID.getRootID(), "Germany");
+        MCRCategoryID asia = new MCRCategoryID(rootID.getRootID(), "Asia");
+        DAO.moveCategory(germany, asia, 0);
+        startNewTransaction();
+        assertValid(getRoot());
+        assertEquals(asia, DAO.getParents(germany).get(0).getId());
+
+        DAO.deleteCategory(new MCRCategoryID(rootID.getRootID(), "Thuringia"));
+        DAO.deleteCategory(new MCRCategoryID(rootID.getRootID(), "Saxony"));
+        startNewTransaction();
+        MCRCategoryImpl root = getRoot();
+        assertValid(root);
+        MCRCategoryImpl germanyCategory = (MCRCategoryImpl) DAO.getCategory(germany, 0);
+        assertEquals(germanyCategory.getLeft() + 1, germanyCategory.getRight());
+        DAO.addCategory(germany, newCategory("Bavaria"));
+        startNewTransaction();
+        assertValid(getRoot());
+    }
+
+    @Test
+    public void renumber() {
+        DAO.renumber(rootID.getRootID(), 1);
+        startNewTransaction();
+        MCRCategoryImpl root = getRoot();
+        assertValid(root);
+        long count = MCRStreamUtils.flatten(root, MCRCategory::getChildren, Collection::stream).count();
+        assertEquals("Compact numbering should not leave gaps", 2 * count - 1, root.getRight());
+    }
+
+    private MCRCategoryImpl getRoot() {
+        return (MCRCategoryImpl) DAO.getCategory(rootID, -1);
+    }
+
+    private static MCRCategoryImpl getChild(MCRCategory category, int index) {
+        return (MCRCategoryImpl) category.getChildren().get(index);
+    }
+
+    private MCRCategoryImpl newCategory(String id) {
+        MCRCategoryImpl category = new MCRCategoryImpl();
+        category.setId(new MCRCategoryID(rootID.getRootID(), id));
+        category.getLabels().add(new MCRLabel("de", id, null));
+        return category;
+    }
+
+    private static Map<MCRCategoryID, String> getLeftRightValues(MCRCategoryImpl root) {
+        Map<MCRCategoryID, String> values = new HashMap<>();
+        MCRStreamUtils.flatten(root, MCRCategory::getChildren, Collection::stream)
+            .map(MCRCategoryImpl.class::cast)
+            .forEach(c -> values.put(c.getId(), c.getLeft() + "-" + c.getRight()));
+        return values;
+    }
+
+    /**
+     * Checks that the values form a nested set matching the tree built from the parent relation.
+     */
+    private static void assertValid(MCRCategoryImpl category) {
+        int value = category.getLeft();
+        for (MCRCategory child : category.getChildren()) {
+            MCRCategoryImpl childImpl = (MCRCategoryImpl) child;
+            assertTrue(child.getId() + " should start after " + value, childImpl.getLeft() > value);
+            assertEquals(category.getLevel() + 1, childImpl.getLevel());
+            assertValid(childImpl);
+            value = childImpl.getRight();
+        }
+        if (category.getChildren().isEmpty()) {
+            assertEquals(category.getId() + " has no children", category.getLeft() + 1, category.getRight());
+        } else {
+            assertTrue(category.getId() + " should end after " + value, category.getRight() > value);
+        }
+    }
+
+}
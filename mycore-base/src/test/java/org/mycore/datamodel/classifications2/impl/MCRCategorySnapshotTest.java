@@ -0,0 +1,169 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.classifications2.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRJPATestCase;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRTransactionHelper;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.datamodel.classifications2.MCRCategory;
+import org.mycore.datamodel.classifications2.MCRCategoryID;
+import org.mycore.datamodel.classifications2.MCRLabel;
+
+import jakarta.persistence.EntityManager;
+
+public class MCRCategorySnapshotTest extends MCRJPATestCase {
+
+    private static final String SNAPSHOT_PROPERTY = "MCR.Category.DAO.Snapshot.Enabled";
+
+    private static final MCRCategoryDAOImpl DAO = new MCRCategoryDAOImpl();
+
+    private MCRCategory category;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        //modifications are committed by tasks of the current session
+        MCRSessionMgr.getCurrentSession();
+        category = MCRCategoryDAOImplTest.loadClassificationResource(MCRCategoryDAOImplTest.WORLD_CLASS_RESOURCE_NAME);
+        DAO.addCategory(null, category);
+        commit();
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put(SNAPSHOT_PROPERTY, "true");
+        return testProperties;
+    }
+
+    @Test
+    public void readsMatchDatabase() {
+        String rootID = category.getId().getRootID();
+        List<MCRCategoryID> ids = List.of(category.getId(), new MCRCategoryID(rootID, "Europe"),
+            new MCRCategoryID(rootID, "Germany"), new MCRCategoryID(rootID, "Thuringia"),
+            new MCRCategoryID(rootID, "Asia"), new MCRCategoryID(rootID, "Atlantis"));
+        for (MCRCategoryID id : ids) {
+            assertSameResult(() -> DAO.exist(id));
+            assertSameResult(() -> DAO.hasChildren(id));
+            assertSameResult(() -> describe(DAO.getCategory(id, -1)));
+            assertSameResult(() -> describe(DAO.getCategory(id, 0)));
+            assertSameResult(() -> describe(DAO.getCategory(id, 1)));
+            assertSameResult(() -> describe(DAO.getRootCategory(id, 1)));
+            assertSameResult(() -> describeAll(DAO.getChildren(id)));
+            assertSameResult(() -> describeAll(DAO.getParents(id)));
+        }
+        assertNull(DAO.getCategory(MCRCategoryID.rootID("Atlantis"), -1));
+        assertFalse(DAO.exist(MCRCategoryID.rootID("Atlantis")));
+    }
+
+    @Test
+    public void modification() {
+        MCRCategoryID germany = new MCRCategoryID(category.getId().getRootID(), "Germany");
+        assertTrue(DAO.hasChildren(germany));
+        MCRLabel label = new MCRLabel("de", "Bundesrepublik Deutschland", null);
+        DAO.setLabel(germany, label);
+        MCRCategoryID thuringia = new MCRCategoryID(germany.getRootID(), "Thuringia");
+        DAO.moveCategory(thuringia, category.getId());
+        assertEquals("Uncommitted changes should be visible in the same transaction", label.getText(),
+            DAO.getCategory(germany, 0).getLabel("de").get().getText());
+        assertEquals(1, DAO.getParents(thuringia).size());
+        commit();
+        assertEquals(label.getText(), DAO.getCategory(germany, 0).getLabel("de").get().getText());
+        assertEquals(1, DAO.getParents(thuringia).size());
+        assertSameResult(() -> describe(DAO.getCategory(category.getId(), -1)));
+        DAO.deleteCategory(germany);
+        commit();
+        assertFalse(DAO.exist(germany));
+        assertSameResult(() -> describe(DAO.getCategory(category.getId(), -1)));
+    }
+
+    @Test
+    public void rollback() throws Exception {
+        String rootID = category.getId().getRootID();
+        MCRCategoryID germany = new MCRCategoryID(rootID, "Germany");
+        String text = DAO.getCategory(germany, 0).getLabel("de").get().getText();
+        long lastModified = DAO.getLastModified(rootID);
+        DAO.setLabel(germany, new MCRLabel("de", "Deutschland (verworfen)", null));
+        long[] otherThread = new long[1];
+        Thread reader = new Thread(() -> otherThread[0] = DAO.getLastModified(rootID));
+        reader.start();
+        reader.join();
+        assertEquals("Uncommitted modification should not be visible to other threads", lastModified,
+            otherThread[0]);
+        MCRTransactionHelper.rollbackTransaction();
+        beginTransaction();
+        getEntityManager().ifPresent(EntityManager::clear);
+        assertEquals(lastModified, DAO.getLastModified(rootID));
+        assertEquals(text, DAO.getCategory(germany, 0).getLabel("de").get().getText());
+
+        MCRLabel label = new MCRLabel("de", "Bundesrepublik Deutschland", null);
+        DAO.setLabel(germany, label);
+        commit();
+        assertTrue(DAO.getLastModified(rootID) > lastModified);
+        assertEquals(label.getText(), DAO.getCategory(germany, 0).getLabel("de").get().getText());
+        assertSameResult(() -> describe(DAO.getCategory(category.getId(), -1)));
+    }
+
+    private void commit() {
+        endTransaction();
+        MCRTransactionHelper.commitTransaction();
+        beginTransaction();
+    }
+
+    private static <T> void assertSameResult(Supplier<T> read) {
+        T snapshotResult = read.get();
+        MCRConfiguration2.set(SNAPSHOT_PROPERTY, "false");
+        try {
+            assertEquals(read.get(), snapshotResult);
+        } finally {
+            MCRConfiguration2.set(SNAPSHOT_PROPERTY, "true");
+        }
+    }
+
+    private static String describeAll(List<MCRCategory> categories) {
+        return categories == null ? null
+            : categories.stream().map(MCRCategorySnapshotTest::describe).collect(Collectors.joining(","));
+    }
+
+    private static String describe(MCRCategory category) {
+        if (category == null) {
+            return null;
+        }
+        MCRCategoryImpl impl = (MCRCategoryImpl) category;
+        return impl.getId() + "[" + impl.getInternalID() + "," + impl.getLeft() + "," + impl.getRight() + ","
+            + impl.getLevel() + "," + impl.getURI() + "," + impl.getLabels() + ","
+            + (impl.getParent() == null ? null : impl.getParent().getId()) + "]"
+            + "(" + describeAll(impl.getChildren()) + ")";
+    }
+
+}
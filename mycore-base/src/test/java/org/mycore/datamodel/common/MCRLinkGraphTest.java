@@ -0,0 +1,161 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.datamodel.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.mycore.common.MCRJPATestCase;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRTransactionHelper;
+import org.mycore.common.config.MCRConfiguration2;
+
+public class MCRLinkGraphTest extends MCRJPATestCase {
+
+    private static final String PARENT = MCRLinkTableManager.ENTRY_TYPE_PARENT;
+
+    private static final String REFERENCE = MCRLinkTableManager.ENTRY_TYPE_REFERENCE;
+
+    private static MCRLinkTableEntry link(String from, String to, String type) {
+        return new MCRLinkTableEntry(from, to, type, null);
+    }
+
+    private static MCRLinkGraph buildGraph() {
+        return MCRLinkGraph.build(Stream.of(
+            link("mcr_test_00000002", "mcr_test_00000001", PARENT),
+            link("mcr_test_00000003", "mcr_test_00000002", PARENT),
+            link("mcr_test_00000004", "mcr_test_00000002", PARENT),
+            link("mcr_test_00000004", "mcr_test_00000001", REFERENCE),
+            link("mcr_test_00000004", "mcr_test_00000001", REFERENCE),
+            link("mcr_test_00000004", "class##categ", "classid"),
+            link("mcr_test_4", "mcr_test_00000001", REFERENCE)));
+    }
+
+    @Test
+    public void getLinks() {
+        MCRLinkGraph graph = buildGraph();
+        assertEquals(6, graph.size());
+        assertEquals(Set.of("mcr_test_00000002"), Set.copyOf(graph.getSources("mcr_test_00000001", PARENT)));
+        assertEquals(Set.of("mcr_test_00000002", "mcr_test_00000004", "mcr_test_4"),
+            Set.copyOf(graph.getSources("mcr_test_00000001", null)));
+        assertEquals(Set.of("mcr_test_00000002", "mcr_test_00000001", "class##categ"),
+            Set.copyOf(graph.getDestinations("mcr_test_00000004", null)));
+        assertEquals(List.of("mcr_test_00000004"), graph.getSources("class##categ", "classid"));
+        assertEquals(List.of("mcr_test_00000001"), graph.getDestinations("mcr_test_4", REFERENCE));
+        assertEquals(2, graph.countSources("mcr_test_00000001", REFERENCE));
+        assertEquals(0, graph.countSources("mcr_test_00000001", "unknown"));
+        assertTrue(graph.getSources("mcr_test_00000099", null).isEmpty());
+        assertTrue(graph.getSources("mcr_test_1", null).isEmpty());
+    }
+
+    @Test
+    public void sparseNumbers() {
+        MCRLinkGraph graph = MCRLinkGraph.build(Stream.of(
+            link("mcr_test_999999999", "mcr_test_00000001", PARENT),
+            link("mcr_test_00002000", "mcr_test_999999999", PARENT),
+            link("mcr_test_2000", "mcr_test_00000001", REFERENCE)));
+        assertEquals(3, graph.size());
+        assertEquals(List.of("mcr_test_00002000"), graph.getSources("mcr_test_999999999", PARENT));
+        assertEquals(List.of("mcr_test_999999999", "mcr_test_00000001"),
+            graph.getTransitiveDestinations("mcr_test_00002000", PARENT));
+        assertEquals(List.of("mcr_test_00000001"), graph.getDestinations("mcr_test_2000", null));
+        assertTrue(graph.getSources("mcr_test_00000999", null).isEmpty());
+    }
+
+    @Test
+    public void traverse() {
+        MCRLinkGraph graph = buildGraph();
+        assertEquals(Set.of("mcr_test_00000002", "mcr_test_00000003", "mcr_test_00000004"),
+            Set.copyOf(graph.getTransitiveSources("mcr_test_00000001", PARENT)));
+        assertEquals(List.of("mcr_test_00000002", "mcr_test_00000001"),
+            graph.getTransitiveDestinations("mcr_test_00000003", PARENT));
+        assertEquals(List.of("mcr_test_00000001", "mcr_test_00000002", "mcr_test_00000004"),
+            graph.sort(List.of("mcr_test_00000004", "mcr_test_00000002", "mcr_test_00000001"), PARENT));
+        List<String> sorted = graph.sort(List.of("mcr_test_4", "mcr_test_00000002", "mcr_test_00000001"));
+        assertEquals(3, sorted.size());
+        assertEquals("mcr_test_00000001", sorted.get(0));
+    }
+
+    @Test
+    public void sortCycle() {
+        MCRLinkGraph graph = MCRLinkGraph.build(Stream.of(
+            link("a", "b", REFERENCE),
+            link("b", "a", REFERENCE),
+            link("a", "c", REFERENCE)));
+        assertNull(graph.sort(List.of("a", "b", "c")));
+        assertEquals(List.of("c", "a"), graph.sort(List.of("a", "c")));
+    }
+
+    @Test
+    public void setLinks() {
+        MCRLinkGraph graph = buildGraph();
+        graph.setLinks("mcr_test_00000004", List.of(link("mcr_test_00000004", "mcr_test_00000003", PARENT)));
+        assertEquals(4, graph.size());
+        assertEquals(List.of("mcr_test_00000003"), graph.getDestinations("mcr_test_00000004", null));
+        assertEquals(List.of("mcr_test_00000004"), graph.getSources("mcr_test_00000003", PARENT));
+        assertTrue(graph.getSources("class##categ", null).isEmpty());
+        assertEquals(List.of("mcr_test_00000002", "mcr_test_00000003", "mcr_test_00000004"),
+            graph.getTransitiveSources("mcr_test_00000001", PARENT));
+        graph.setLinks("mcr_test_00000004", List.of());
+        assertEquals(3, graph.size());
+    }
+
+    @Test
+    public void linkTableManager() {
+        MCRConfiguration2.set("MCR.Persistence.LinkTable.Graph.Enabled", "true");
+        //the graph is updated by tasks of the current session
+        MCRSessionMgr.getCurrentSession();
+        MCRLinkTableManager manager = MCRLinkTableManager.instance();
+        MCRLinkGraph graph = manager.getLinkGraph();
+        manager.addReferenceLinks(List.of(
+            link("mcr_test_00000002", "mcr_test_00000001", PARENT),
+            link("mcr_test_00000003", "mcr_test_00000002", PARENT)));
+        assertEquals("Uncommitted links should be visible in the same transaction", List.of("mcr_test_00000002"),
+            manager.getSourceOf("mcr_test_00000001", PARENT));
+        assertEquals(0, graph.size());
+        commit();
+        assertEquals(2, graph.size());
+        assertEquals(List.of("mcr_test_00000002", "mcr_test_00000003"),
+            graph.getTransitiveSources("mcr_test_00000001", PARENT));
+
+        manager.deleteReferenceLink("mcr_test_00000003");
+        commit();
+        assertEquals(0, manager.countReferenceLinkTo("mcr_test_00000002"));
+        assertTrue(manager.rebuildLinkGraph().isEmpty());
+
+        manager.getLinkGraph().setLinks("mcr_test_00000003", List.of(link("mcr_test_00000003", "x", PARENT)));
+        assertEquals(Set.of(new MCRLinkTableEntry("mcr_test_00000003", "x", PARENT, "obsolete")),
+            Set.copyOf(manager.rebuildLinkGraph()));
+        assertEquals(List.of("mcr_test_00000002"), manager.getSourceOf("mcr_test_00000001", PARENT));
+    }
+
+    private void commit() {
+        endTransaction();
+        MCRTransactionHelper.commitTransaction();
+        beginTransaction();
+    }
+
+}
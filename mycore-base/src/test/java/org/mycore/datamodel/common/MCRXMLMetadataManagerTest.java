@@ -31,7 +31,9 @@ import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
@@ -193,6 +195,38 @@ public class MCRXMLMetadataManagerTest extends MCRStoreTestCase {
         assertTrue(getStore().listIDs().isEmpty());
     }
 
+    @Test
+    public void streamIDsForBase() throws IOException {
+        assertEquals(0, getStore().streamIDsForBase("foo_bar").count());
+        MCRObjectID secondID = MCRObjectID.getInstance("MyCoRe_document_00000002");
+        getStore().create(secondID, MyCoRe_document_00000001.blob, MyCoRe_document_00000001.lastModified);
+        getStore().create(MyCoRe_document_00000001.id, MyCoRe_document_00000001.blob,
+            MyCoRe_document_00000001.lastModified);
+        assertEquals(List.of(MyCoRe_document_00000001.id.toString(), secondID.toString()),
+            getStore().streamIDsForBase("MyCoRe_document").collect(Collectors.toList()));
+    }
+
+    @Test
+    public void streamObjectDates() throws IOException {
+        assertEquals(0, getStore().streamObjectDates("foo_bar").count());
+        MCRObjectID secondID = MCRObjectID.getInstance("MyCoRe_document_00000002");
+        Date secondDate = new Date(MyCoRe_document_00000001.lastModified.getTime() - 60_000);
+        getStore().create(secondID, MyCoRe_document_00000001.blob, secondDate);
+        getStore().create(MyCoRe_document_00000001.id, MyCoRe_document_00000001.blob,
+            MyCoRe_document_00000001.lastModified);
+        getStore().create(MCR_document_00000001.id, MCR_document_00000001.blob, MCR_document_00000001.lastModified);
+        List<String> ids = List.of(MyCoRe_document_00000001.id.toString(), secondID.toString());
+        List<MCRObjectIDDate> dates = getStore().streamObjectDates("MyCoRe_document").collect(Collectors.toList());
+        assertEquals(ids, dates.stream().map(MCRObjectIDDate::getId).collect(Collectors.toList()));
+        assertEquals("Bulk dates should equal the dates of single objects",
+            getStore().retrieveObjectDates(ids).stream().map(MCRObjectIDDate::getLastModified)
+                .collect(Collectors.toList()),
+            dates.stream().map(MCRObjectIDDate::getLastModified).collect(Collectors.toList()));
+        assertTrue(dates.get(0).getLastModified().after(dates.get(1).getLastModified()));
+        assertEquals(3, getStore().listObjectDates("document").size());
+        assertEquals(3, getStore().listObjectDates().size());
+    }
+
     private static class XMLInfo {
         XMLInfo(String id, byte[] blob, Date lastModified) {
             this.id = MCRObjectID.getInstance(id);
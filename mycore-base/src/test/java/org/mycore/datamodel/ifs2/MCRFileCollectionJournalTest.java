@@ -0,0 +1,111 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mycore.common.content.MCRByteContent;
+import org.mycore.common.content.streams.MCRMD5InputStream;
+
+/**
+ * JUnit test for the journal of {@link MCRFileCollection}
+ */
+public class MCRFileCollectionJournalTest extends MCRIFS2TestCase {
+
+    private MCRFileCollection col;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        col = getStore().create();
+    }
+
+    @Test
+    public void journal() throws Exception {
+        MCRFile file = col.createFile("foo.txt");
+        String md5 = file.setContent(new MCRByteContent("Hello World".getBytes(StandardCharsets.UTF_8)));
+        Path journalFile = col.getLocalPath().resolve(MCRFileCollection.JOURNAL_FILE);
+        assertTrue("Journal should exist", Files.exists(journalFile));
+        assertFalse(col.getMetadata().getRootElement().getChildren().isEmpty());
+        assertNull("Journal must not be visible as child", col.getChild(MCRFileCollection.JOURNAL_FILE));
+        assertEquals(1, col.getNumChildren());
+
+        //simulate crash: load collection again without compaction
+        MCRFileCollection col2 = new MCRFileCollection(getStore(), col.getID());
+        assertFalse("Journal should be compacted after replay", Files.exists(journalFile));
+        assertEquals(md5, ((MCRFile) col2.getChild("foo.txt")).getMD5());
+    }
+
+    @Test
+    public void threshold() throws Exception {
+        Path journalFile = col.getLocalPath().resolve(MCRFileCollection.JOURNAL_FILE);
+        col.createFile("1.txt");
+        col.createFile("2.txt");
+        assertTrue(Files.exists(journalFile));
+        col.createFile("3.txt");
+        assertFalse("Journal should be compacted after reaching threshold", Files.exists(journalFile));
+        MCRFile file = col.createFile("4.txt");
+        assertTrue(Files.exists(journalFile));
+        col.compactJournal();
+        assertFalse(Files.exists(journalFile));
+        assertEquals(MCRFile.MD5_OF_EMPTY_FILE,
+            ((MCRFile) new MCRFileCollection(getStore(), col.getID()).getChild("4.txt")).getMD5());
+        file.delete();
+        assertNull(new MCRFileCollection(getStore(), col.getID()).getChild("4.txt"));
+    }
+
+    @Test
+    public void incompleteEntry() throws Exception {
+        MCRFile file = col.createFile("foo.txt");
+        String md5 = file.setContent(new MCRByteContent("Hello World".getBytes(StandardCharsets.UTF_8)));
+        Path journalFile = col.getLocalPath().resolve(MCRFileCollection.JOURNAL_FILE);
+        Files.writeString(journalFile, "d41d8cd98f00b204e9800998ecf8427e\t0", StandardOpenOption.APPEND);
+        MCRFileCollection col2 = new MCRFileCollection(getStore(), col.getID());
+        assertEquals(md5, ((MCRFile) col2.getChild("foo.txt")).getMD5());
+    }
+
+    @Test
+    public void modifiedAfterEntry() throws Exception {
+        MCRFile file = col.createFile("foo.txt");
+        file.setContent(new MCRByteContent("Hello World".getBytes(StandardCharsets.UTF_8)));
+        byte[] modified = "Hello MyCoRe".getBytes(StandardCharsets.UTF_8);
+        Files.write(file.getLocalPath(), modified);
+        String md5 = MCRMD5InputStream.getMD5String(MCRMD5InputStream.buildMD5Digest().digest(modified));
+        MCRFileCollection col2 = new MCRFileCollection(getStore(), col.getID());
+        assertEquals(md5, ((MCRFile) col2.getChild("foo.txt")).getMD5());
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.IFS2.FileCollection.Journal.Enabled", "true");
+        testProperties.put("MCR.IFS2.FileCollection.Journal.Threshold", "3");
+        return testProperties;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.ifs2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.Test;
+import org.mycore.common.content.MCRJDOMContent;
+
+/**
+ * JUnit test for the ID index of {@link MCRStore}
+ */
+public class MCRStoreIDIndexTest extends MCRIFS2MetadataTestCase {
+
+    @Test
+    public void index() throws Exception {
+        MCRMetadataStore store = getMetaDataStore();
+        assertEquals(0, store.getHighestStoredID());
+        Path indexFile = store.getBaseDirectory().resolve(MCRStoreIDIndex.INDEX_FILE);
+        assertTrue("ID index should exist", Files.exists(indexFile));
+        assertTrue("ID index must not count as content", store.isEmpty());
+
+        store.create(new MCRJDOMContent(new Document(new Element("root"))), 3);
+        store.create(new MCRJDOMContent(new Document(new Element("root"))), 12);
+        store.create(new MCRJDOMContent(new Document(new Element("root"))), 1_000_000);
+        assertEquals(1_000_000, store.getHighestStoredID());
+        assertTrue(store.exists(12));
+        assertFalse(store.exists(13));
+        assertArrayEquals(new int[] { 3, 12, 1_000_000 }, store.getStoredIDs().toArray());
+        assertEquals(Integer.valueOf(1_000_000), store.listIDs(MCRStore.DESCENDING).next());
+
+        store.delete(1_000_000);
+        assertEquals(12, store.getHighestStoredID());
+        assertFalse(store.exists(1_000_000));
+    }
+
+    @Test
+    public void rebuild() throws Exception {
+        MCRMetadataStore store = getMetaDataStore();
+        store.create(new MCRJDOMContent(new Document(new Element("root"))), 5);
+        store.create(new MCRJDOMContent(new Document(new Element("root"))), 7);
+
+        //create data bypassing the index
+        Path slot = store.getSlot(9);
+        Files.createDirectories(slot.getParent());
+        Files.copy(store.getSlot(7), slot);
+        Path slot11 = store.getSlot(11);
+        Files.createDirectories(slot11.getParent());
+        Files.copy(store.getSlot(7), slot11);
+        assertEquals(7, store.getHighestStoredID());
+        assertTrue("Data missing in the index should be found", store.exists(11));
+        assertEquals("Data found should be added to the index", 11, store.getHighestStoredID());
+        store.delete(11);
+
+        store.rebuildIDIndex();
+        assertTrue(store.exists(9));
+        assertEquals(9, store.getHighestStoredID());
+        assertArrayEquals(new int[] { 5, 7, 9 }, store.getStoredIDs().toArray());
+
+        //a new store instance reuses the persisted index
+        MCRStoreManager.removeStore(STORE_ID);
+        MCRMetadataStore store2 = MCRStoreManager.createStore(STORE_ID, MCRMetadataStore.class);
+        Files.delete(slot);
+        assertEquals("Index should not be rebuilt on opening", 9, store2.getHighestStoredID());
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.IFS2.Store.TEST.IDIndex", "true");
+        return testProperties;
+    }
+}
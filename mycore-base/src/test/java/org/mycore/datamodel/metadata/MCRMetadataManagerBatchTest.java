@@ -0,0 +1,150 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.datamodel.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.access.MCRAccessBaseImpl;
+import org.mycore.common.MCRException;
+import org.mycore.common.MCRStoreTestCase;
+import org.mycore.common.events.MCREvent;
+import org.mycore.common.events.MCREvent.ObjectType;
+import org.mycore.common.events.MCREventHandlerBase;
+import org.mycore.common.events.MCREventManager;
+import org.mycore.datamodel.common.MCRLinkTableEventHandler;
+import org.mycore.datamodel.common.MCRXMLMetadataEventHandler;
+import org.mycore.frontend.cli.MCRObjectCommands;
+
+public class MCRMetadataManagerBatchTest extends MCRStoreTestCase {
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        registerEventHandlers();
+    }
+
+    private static void registerEventHandlers() {
+        MCREventManager.instance().clear();
+        MCREventManager.instance().addEventHandler(ObjectType.OBJECT, new MCRXMLMetadataEventHandler());
+        MCREventManager.instance().addEventHandler(ObjectType.OBJECT, new MCRLinkTableEventHandler());
+    }
+
+    @Test
+    public void createAll() {
+        MCRObject root = createObject("test_document_00000001", null);
+        MCRObject child1 = createObject("test_document_00000002", root.getId());
+        MCRObject orphan = createObject("test_document_00000003", MCRObjectID.getInstance("test_document_00000099"));
+        MCRObject child2 = createObject("test_document_00000004", root.getId());
+        MCRObject grandChild = createObject("test_document_00000005", child1.getId());
+
+        MCRMetadataBatchResult result = MCRMetadataManager
+            .createAll(List.of(root, child1, orphan, child2, grandChild));
+
+        assertEquals(List.of(root.getId(), child1.getId(), child2.getId(), grandChild.getId()),
+            result.getSucceeded());
+        assertTrue(result.hasFailures());
+        assertEquals(1, result.getFailed().size());
+        assertTrue(result.getFailed().containsKey(orphan));
+        assertFalse(MCRMetadataManager.exists(orphan.getId()));
+
+        MCRObject storedRoot = MCRMetadataManager.retrieveMCRObject(root.getId());
+        assertEquals(2, storedRoot.getStructure().getChildren().size());
+        assertTrue(storedRoot.getStructure().containsChild(child1.getId()));
+        assertTrue(storedRoot.getStructure().containsChild(child2.getId()));
+        MCRObject storedChild = MCRMetadataManager.retrieveMCRObject(child1.getId());
+        assertTrue(storedChild.getStructure().containsChild(grandChild.getId()));
+    }
+
+    @Test
+    public void createAllParentLinkFailure() {
+        MCRObject root = createObject("test_document_00000001", null);
+        MCRObject child = createObject("test_document_00000002", root.getId());
+        // fail before the parent is written to the metadata store
+        MCREventManager.instance().clear();
+        MCREventManager.instance().addEventHandler(ObjectType.OBJECT, new MCREventHandlerBase() {
+            @Override
+            protected void handleObjectUpdated(MCREvent evt, MCRObject obj) {
+                throw new MCRException("Parent update failed: " + obj.getId());
+            }
+        });
+        MCREventManager.instance().addEventHandler(ObjectType.OBJECT, new MCRXMLMetadataEventHandler());
+        MCREventManager.instance().addEventHandler(ObjectType.OBJECT, new MCRLinkTableEventHandler());
+
+        MCRMetadataBatchResult result = MCRMetadataManager.createAll(List.of(root, child));
+
+        assertEquals(List.of(root.getId(), child.getId()), result.getSucceeded());
+        assertFalse(result.hasFailures());
+        assertTrue(result.hasParentLinkFailures());
+        assertEquals(List.of(child.getId()), List.copyOf(result.getParentLinkFailed().keySet()));
+        assertTrue(MCRMetadataManager.exists(child.getId()));
+        assertFalse(MCRMetadataManager.retrieveMCRObject(root.getId()).getStructure().containsChild(child.getId()));
+
+        registerEventHandlers();
+        MCRObjectCommands.repairParentLink(child.getId().toString());
+        assertTrue(MCRMetadataManager.retrieveMCRObject(root.getId()).getStructure().containsChild(child.getId()));
+    }
+
+    @Test
+    public void updateAll() {
+        MCRObject first = createObject("test_document_00000001", null);
+        MCRObject second = createObject("test_document_00000002", null);
+        assertFalse(MCRMetadataManager.createAll(List.of(first, second)).hasFailures());
+
+        MCRObject missing = createObject("test_document_00000003", null);
+        first.getService().addFlag("junit", "updated");
+        MCRMetadataBatchResult result = MCRMetadataManager.updateAll(List.of(first, missing, second));
+
+        assertEquals(List.of(first.getId(), missing.getId(), second.getId()), result.getSucceeded());
+        assertFalse(result.hasFailures());
+        assertTrue("Update of a missing object should create it", MCRMetadataManager.exists(missing.getId()));
+        assertEquals(List.of("updated"), MCRMetadataManager.retrieveMCRObject(first.getId()).getService()
+            .getFlags("junit"));
+    }
+
+    private static MCRObject createObject(String id, MCRObjectID parent) {
+        MCRObject object = new MCRObject();
+        object.setId(MCRObjectID.getInstance(id));
+        object.setSchema("noSchema");
+        if (parent != null) {
+            object.getStructure().setParent(parent);
+        }
+        return object;
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties
+            .put("MCR.Persistence.LinkTable.Store.Class", "org.mycore.backend.hibernate.MCRHIBLinkTableStore");
+        testProperties.put("MCR.Access.Class", MCRAccessBaseImpl.class.getName());
+        testProperties.put("MCR.Metadata.Type.document", "true");
+        testProperties.put("MCR.Metadata.Batch.Size", "2");
+        return testProperties;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.datamodel.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.jdom2.Document;
+import org.jdom2.input.SAXBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.mycore.common.MCRStoreTestCase;
+
+public class MCRObjectCacheTest extends MCRStoreTestCase {
+
+    private MCRObjectID id;
+
+    private Document xml;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        id = MCRObjectID.getInstance("mcr_test_00000001");
+        xml = new SAXBuilder().build(getClass().getResource("/mcr_test_01.xml"));
+        getStore().create(id, xml, new Date());
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Metadata.Type.test", Boolean.TRUE.toString());
+        return testProperties;
+    }
+
+    @Test
+    public void copies() {
+        MCRObject object = MCRMetadataManager.retrieveMCRObject(id);
+        object.setLabel("modified");
+        MCRObject other = MCRMetadataManager.retrieveMCRObject(id);
+        assertNotSame(object, other);
+        assertEquals("JUnit Test object 1", other.getLabel());
+    }
+
+    @Test
+    public void shared() {
+        MCRBase shared = MCRObjectCache.instance().get(id);
+        assertSame(shared, MCRObjectCache.instance().get(id));
+        assertNotSame(shared, MCRMetadataManager.retrieveMCRObject(id));
+    }
+
+    @Test
+    public void update() {
+        MCRBase shared = MCRObjectCache.instance().get(id);
+        assertEquals("JUnit Test object 1", MCRMetadataManager.retrieveMCRObject(id).getLabel());
+        xml.getRootElement().setAttribute("label", "updated");
+        getStore().update(id, xml, new Date());
+        assertEquals("updated", MCRMetadataManager.retrieveMCRObject(id).getLabel());
+        assertNotSame(shared, MCRObjectCache.instance().get(id));
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.datamodel.metadata;
+
+/**
+ * Gives tests of other packages access to the package private methods of {@link MCRObjectCache}.
+ */
+public final class MCRObjectCacheTestUtil {
+
+    private MCRObjectCacheTestUtil() {
+    }
+
+    /**
+     * Caches the given instance as shared instance of the given ID, without storing it.
+     */
+    public static void put(MCRObjectID id, MCRBase base) {
+        MCRObjectCache.instance().put(id, base);
+    }
+}
@@ -34,9 +34,13 @@ import org.junit.Test;
 import org.mycore.access.MCRAccessBaseImpl;
 import org.mycore.access.MCRAccessException;
 import org.mycore.common.MCRStoreTestCase;
+import org.mycore.common.MCRTransactionHelper;
+import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.events.MCREvent.ObjectType;
 import org.mycore.common.events.MCREventManager;
+import org.mycore.datamodel.common.MCRLinkGraph;
 import org.mycore.datamodel.common.MCRLinkTableEventHandler;
+import org.mycore.datamodel.common.MCRLinkTableManager;
 import org.mycore.datamodel.common.MCRXMLMetadataEventHandler;
 
 public class MCRObjectUtilsTest extends MCRStoreTestCase {
@@ -140,6 +144,51 @@ public class MCRObjectUtilsTest extends MCRStoreTestCase {
         assertEquals(7, descendants.size());
     }
 
+    @Test
+    public void linkGraph() {
+        MCRConfiguration2.set("MCR.Persistence.LinkTable.Graph.Enabled", "true");
+        endTransaction();
+        MCRTransactionHelper.commitTransaction();
+        beginTransaction();
+        assertNotNull(MCRLinkTableManager.instance().getCommittedLinkGraph());
+        MCRObject doc = MCRMetadataManager.retrieveMCRObject(l31.getId());
+        assertEquals(Arrays.asList(l21.getId(), l11.getId(), root.getId()),
+            MCRObjectUtils.getAncestors(doc).stream().map(MCRObject::getId).collect(Collectors.toList()));
+        assertEquals(6, MCRObjectUtils.getDescendants(root).size());
+        assertEquals(Arrays.asList(l21.getId(), l22.getId(), l31.getId()),
+            MCRObjectUtils.getDescendants(l11).stream().map(MCRObject::getId).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void linkGraphRollback() {
+        MCRConfiguration2.set("MCR.Persistence.LinkTable.Graph.Enabled", "true");
+        endTransaction();
+        MCRTransactionHelper.commitTransaction();
+        beginTransaction();
+        MCRLinkTableManager manager = MCRLinkTableManager.instance();
+        String from = l12.getId().toString();
+        String to = l13.getId().toString();
+        assertNotNull(manager.getCommittedLinkGraph());
+        manager.addReferenceLink(from, to, MCRLinkTableManager.ENTRY_TYPE_REFERENCE, null);
+        assertNull(manager.getCommittedLinkGraph());
+        getEntityManager().ifPresent(em -> em.getTransaction().rollback());
+        MCRTransactionHelper.rollbackTransaction();
+
+        beginTransaction();
+        MCRLinkGraph graph = manager.getCommittedLinkGraph();
+        assertNotNull(graph);
+        assertTrue(graph.getDestinations(from, MCRLinkTableManager.ENTRY_TYPE_REFERENCE).isEmpty());
+        manager.addReferenceLink(to, from, MCRLinkTableManager.ENTRY_TYPE_REFERENCE, null);
+        endTransaction();
+        MCRTransactionHelper.commitTransaction();
+
+        beginTransaction();
+        graph = manager.getCommittedLinkGraph();
+        assertNotNull(graph);
+        assertTrue(graph.getDestinations(from, MCRLinkTableManager.ENTRY_TYPE_REFERENCE).isEmpty());
+        assertEquals(List.of(from), graph.getDestinations(to, MCRLinkTableManager.ENTRY_TYPE_REFERENCE));
+    }
+
     @Test
     public void removeLink() throws MCRAccessException {
         // remove parent link
@@ -37,6 +37,7 @@ import org.mycore.backend.jpa.objectinfo.MCRObjectInfoEntity;
 import org.mycore.backend.jpa.objectinfo.MCRObjectInfoEntityQueryResolver;
 import org.mycore.common.MCRJPATestCase;
 import org.mycore.common.content.MCRURLContent;
+import org.mycore.datamodel.common.MCRObjectIDDate;
 import org.mycore.common.xml.MCRXMLParserFactory;
 import org.mycore.datamodel.classifications2.MCRCategLinkReference;
 import org.mycore.datamodel.classifications2.MCRCategLinkService;
@@ -165,6 +166,15 @@ public class MCRObjectInfoEntityQueryResolverTest extends MCRJPATestCase {
         Assert.assertEquals("All objects should match", 2, count);
     }
 
+    @Test
+    public void streamIdDatesTest() {
+        List<MCRObjectIDDate> result = instance.streamIdDates("junit", "foo").collect(Collectors.toList());
+        Assert.assertEquals("Only one object should match", 1, result.size());
+        Assert.assertEquals(TEST_ID_1, result.get(0).getId());
+        Assert.assertEquals(YESTERDAY.toEpochMilli(), result.get(0).getLastModified().getTime());
+        Assert.assertEquals(0, instance.streamIdDates("junit", "bar").count());
+    }
+
     @Test
     public void createdBeforeTest() {
         MCRObjectQuery createdBeforeTwoWeeksAgo = new MCRObjectQuery().createdBefore(TWO_WEEKS_AGO);
@@ -0,0 +1,76 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.frontend.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MCRCommandCheckpointTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        MCRCommandCheckpoint.disable();
+    }
+
+    @Test
+    public void resume() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("checkpoints.txt");
+        assertFalse(MCRCommandCheckpoint.isEnabled());
+        MCRCommandCheckpoint.complete("export object junit_test_00000001 to directory /tmp");
+        assertFalse("Nothing should be recorded without checkpoint file",
+            MCRCommandCheckpoint.isCompleted("export object junit_test_00000001 to directory /tmp"));
+
+        assertEquals(0, MCRCommandCheckpoint.enable(file));
+        MCRCommandCheckpoint.complete("export object junit_test_00000001 to directory /tmp");
+        MCRCommandCheckpoint.complete("export object junit_test_00000002 to directory /tmp");
+        MCRCommandCheckpoint.complete("export object junit_test_00000002 to directory /tmp");
+        MCRCommandCheckpoint.disable();
+        //simulate crash while writing
+        Files.writeString(file, "export object junit_test_000", StandardOpenOption.APPEND);
+
+        assertEquals(3, MCRCommandCheckpoint.enable(file));
+        assertTrue(MCRCommandCheckpoint.isCompleted("export object junit_test_00000001 to directory /tmp"));
+        assertTrue(MCRCommandCheckpoint.isCompleted("export object junit_test_00000002 to directory /tmp"));
+        assertFalse(MCRCommandCheckpoint.isCompleted("export object junit_test_00000003 to directory /tmp"));
+        MCRCommandCheckpoint.complete("export object junit_test_00000003 to directory /tmp");
+        MCRCommandCheckpoint.disable();
+
+        assertEquals(List.of("export object junit_test_00000001 to directory /tmp",
+            "export object junit_test_00000002 to directory /tmp", "export object junit_test_000",
+            "export object junit_test_00000003 to directory /tmp"),
+            Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+}
@@ -17,14 +17,21 @@
  */
 package org.mycore.services.queuedjob;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
+import org.mycore.backend.jpa.MCREntityManagerProvider;
 import org.mycore.common.MCRJPATestCase;
 
 /**
@@ -67,4 +74,120 @@ public class MCRJobQueueTest extends MCRJPATestCase {
         assertTrue("job should be done", Boolean.parseBoolean(job.getParameter("done")));
     }
 
+    @Test
+    public void testClaim() {
+        MCRJobQueue queue = MCRJobQueue.getInstance(MCRClaimTestJobAction.class);
+        for (int c = 1; c <= 3; c++) {
+            MCRJob job = new MCRJob(MCRClaimTestJobAction.class);
+            job.setParameter("count", Integer.toString(c));
+            assertTrue("job should be offered", queue.offer(job));
+        }
+        endTransaction();
+        startNewTransaction();
+
+        MCRJob job = queue.poll();
+        assertNotNull("job should be claimed", job);
+        assertEquals(MCRJobStatus.PROCESSING, job.getStatus());
+        assertEquals(MCRJobQueue.NODE_ID, job.getNode());
+        assertNotNull("job should have a lease", job.getHeartbeat());
+        endTransaction();
+        startNewTransaction();
+        assertEquals("all jobs should be claimed at once", 0, queue.size());
+
+        //simulate a node that stopped while processing the job
+        MCREntityManagerProvider.getCurrentEntityManager()
+            .createQuery("UPDATE MCRJob SET node='stopped', heartbeat=:expired WHERE id=:id")
+            .setParameter("expired", new Date(System.currentTimeMillis() - 60 * 60 * 1000))
+            .setParameter("id", job.getId())
+            .executeUpdate();
+        endTransaction();
+        MCRStalledJobResetter.getInstance(MCRClaimTestJobAction.class).run();
+        startNewTransaction();
+        assertEquals("job with expired lease should be reset", 1, queue.size());
+
+        //a prefetched job is offered again
+        MCRJob offered = new MCRJob(MCRClaimTestJobAction.class);
+        offered.setParameter("count", "2");
+        queue.offer(offered);
+        endTransaction();
+        startNewTransaction();
+        assertEquals(2, queue.size());
+
+        job = queue.poll();
+        assertEquals("job offered again should be skipped", "3", job.getParameter("count"));
+    }
+
+    @Test
+    public void testExcludedAction() {
+        MCRJobQueue queue = MCRJobQueue.getInstance(MCRExcludeTestJobAction.class);
+        for (int c = 1; c <= 3; c++) {
+            MCRJob job = new MCRJob(MCRExcludeTestJobAction.class);
+            job.setParameter("count", Integer.toString(c));
+            assertTrue("job should be offered", queue.offer(job));
+        }
+        endTransaction();
+        startNewTransaction();
+
+        assertNull("jobs of excluded actions should not be claimed",
+            queue.poll(Set.of(MCRExcludeTestJobAction.class)));
+        endTransaction();
+        startNewTransaction();
+        assertEquals("jobs of excluded actions should stay in the queue", 3, queue.size());
+
+        MCRJob job = queue.poll();
+        assertNotNull("job should be claimed", job);
+        endTransaction();
+        startNewTransaction();
+        assertEquals(0, queue.size());
+
+        //prefetched jobs of an action that became excluded are given back
+        assertNull(queue.poll(Set.of(MCRExcludeTestJobAction.class)));
+        endTransaction();
+        startNewTransaction();
+        assertEquals("prefetched jobs should be given back", 2, queue.size());
+    }
+
+    @Test
+    public void testPollingWakeupChannel() throws InterruptedException {
+        LinkedBlockingQueue<Class<? extends MCRJobAction>> wakeups = new LinkedBlockingQueue<>();
+        MCRJobPollingWakeupChannel channel = new MCRJobPollingWakeupChannel();
+        channel.start(wakeups::add);
+        try {
+            MCRJob job = new MCRJob(MCRClaimTestJobAction.class);
+            job.setParameter("count", "1");
+            MCRJobQueue.getInstance(MCRClaimTestJobAction.class).offer(job);
+            endTransaction();
+            assertEquals("job added by another node should wake up the queue", MCRClaimTestJobAction.class,
+                wakeups.poll(30, TimeUnit.SECONDS));
+            assertEquals("no wakeup without new jobs", null, wakeups.poll(3, TimeUnit.SECONDS));
+        } finally {
+            channel.stop();
+        }
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.QueuedJob.MCRClaimTestJobAction.autostart", "false");
+        testProperties.put("MCR.QueuedJob.MCRExcludeTestJobAction.autostart", "false");
+        testProperties.put("MCR.QueuedJob.WakeupChannel.PollInterval", "1");
+        return testProperties;
+    }
+
+    public static class MCRClaimTestJobAction extends MCRTestJobAction {
+
+        public MCRClaimTestJobAction(MCRJob job) {
+            super(job);
+        }
+
+    }
+
+    public static class MCRExcludeTestJobAction extends MCRTestJobAction {
+
+        public MCRExcludeTestJobAction(MCRJob job) {
+            super(job);
+        }
+
+    }
+
 }
@@ -92,7 +92,7 @@ class MCRDirectoryStreamHelper {
 
         @Override
         public boolean accept(Path entry) {
-            return !MCRFileCollection.DATA_FILE.equals(entry.getFileName().toString());
+            return !MCRFileCollection.isDataFile(entry.getFileName().toString());
         }
     }
 
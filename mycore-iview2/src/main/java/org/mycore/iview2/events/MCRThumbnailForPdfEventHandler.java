@@ -29,6 +29,7 @@ import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.events.MCRAsyncEventHandler;
 import org.mycore.common.events.MCREvent;
 import org.mycore.common.events.MCREventHandlerBase;
 import org.mycore.datamodel.metadata.MCRDerivate;
@@ -41,11 +42,12 @@ import org.mycore.services.queuedjob.MCRJobQueue;
 
 /**
  * This event handler creates iview2 files for title pages in PDFs which can be
- * used as thumbnails in IIIF API
+ * used as thumbnails in IIIF API. It is called after the transaction was committed, as it only deletes generated
+ * files and queues jobs.
  *
  * @author Robert Stephan
  */
-public class MCRThumbnailForPdfEventHandler extends MCREventHandlerBase {
+public class MCRThumbnailForPdfEventHandler extends MCREventHandlerBase implements MCRAsyncEventHandler {
 
     public static final MCRDefaultTileFileProvider TILE_FILE_PROVIDER = new MCRDefaultTileFileProvider();
 
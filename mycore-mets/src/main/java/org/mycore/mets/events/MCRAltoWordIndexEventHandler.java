@@ -0,0 +1,70 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.events;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.events.MCREvent;
+import org.mycore.common.events.MCREventHandlerBase;
+import org.mycore.datamodel.common.MCRMarkManager;
+import org.mycore.datamodel.metadata.MCRDerivate;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.mets.solr.MCRAltoWordIndex;
+
+/**
+ * EventHandler removes deleted ALTO files and derivates from the {@link MCRAltoWordIndex}.
+ */
+public class MCRAltoWordIndexEventHandler extends MCREventHandlerBase {
+    private static final Logger LOGGER = LogManager.getLogger(MCRAltoWordIndexEventHandler.class);
+
+    @Override
+    protected void handlePathDeleted(MCREvent evt, Path file, BasicFileAttributes attrs) {
+        if (!(file instanceof MCRPath) || !MCRAltoWordIndex.isEnabled()) {
+            return;
+        }
+        MCRPath altoFile = MCRPath.toMCRPath(file);
+        if (MCRMarkManager.instance().isMarkedForDeletion(MCRObjectID.getInstance(altoFile.getOwner()))) {
+            // the index of the derivate is removed at once, see handleDerivateDeleted
+            return;
+        }
+        try {
+            MCRAltoWordIndex.delete(altoFile);
+        } catch (IOException e) {
+            LOGGER.error("Error while removing {} from the alto word index", file, e);
+        }
+    }
+
+    @Override
+    protected void handleDerivateDeleted(MCREvent evt, MCRDerivate der) {
+        if (!MCRAltoWordIndex.isEnabled()) {
+            return;
+        }
+        try {
+            MCRAltoWordIndex.deleteDerivate(der.getId().toString());
+        } catch (IOException e) {
+            LOGGER.error("Error while removing {} from the alto word index", der.getId(), e);
+        }
+    }
+
+}
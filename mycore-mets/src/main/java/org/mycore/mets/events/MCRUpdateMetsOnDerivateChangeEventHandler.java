@@ -31,11 +31,13 @@ import org.mycore.datamodel.metadata.MCRDerivate;
 import org.mycore.datamodel.metadata.MCRMetadataManager;
 import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.mets.tools.MCRDeferredMetsUpdate;
 import org.mycore.mets.tools.MCRMetsSave;
 
 /**
  * EventHandler updates the mets.xml after a file is added to an existing
- * derivate.
+ * derivate. If <code>MCR.Mets.Update.Deferred</code> is set, the changed files
+ * are collected and the mets.xml is updated once after commit.
  * 
  * @author shermann
  */
@@ -53,13 +55,7 @@ public class MCRUpdateMetsOnDerivateChangeEventHandler extends MCREventHandlerBa
      * @return true if the mets shoud be updated, otherwise false
      */
     protected boolean checkUpdateMets(MCREvent evt, Path file, BasicFileAttributes attrs) {
-        // don't update if no MCRPath
-        if (!(file instanceof MCRPath)) {
-            return false;
-        }
-        // don't update if mets.xml is deleted
-        Path fileName = file.getFileName();
-        if (fileName != null && fileName.toString().equals(mets)) {
+        if (!isMetsContent(file)) {
             return false;
         }
         MCRPath mcrPath = MCRPath.toMCRPath(file);
@@ -74,13 +70,43 @@ public class MCRUpdateMetsOnDerivateChangeEventHandler extends MCREventHandlerBa
         return !MCRMarkManager.instance().isMarkedForDeletion(mcrDerivate);
     }
 
+    private boolean isMetsContent(Path file) {
+        // don't update if no MCRPath
+        if (!(file instanceof MCRPath)) {
+            return false;
+        }
+        // don't update if mets.xml is deleted
+        Path fileName = file.getFileName();
+        return fileName == null || !fileName.toString().equals(mets);
+    }
+
+    /**
+     * Marks the derivate of the file for a deferred mets.xml update. The derivate is only checked by
+     * {@link #checkUpdateMets(MCREvent, Path, BasicFileAttributes)} for its first changed file.
+     *
+     * @return true if the update is deferred, otherwise false
+     */
+    private boolean deferUpdate(MCREvent evt, Path file, BasicFileAttributes attrs) {
+        if (!MCRDeferredMetsUpdate.isEnabled()) {
+            return false;
+        }
+        if (isMetsContent(file)) {
+            MCRPath mcrPath = MCRPath.toMCRPath(file);
+            if (MCRDeferredMetsUpdate.isChanged(MCRObjectID.getInstance(mcrPath.getOwner()))
+                || checkUpdateMets(evt, file, attrs)) {
+                MCRDeferredMetsUpdate.markChanged(mcrPath);
+            }
+        }
+        return true;
+    }
+
     /* (non-Javadoc)
      * @see org.mycore.common.events.MCREventHandlerBase
      * #handleFileDeleted(org.mycore.common.events.MCREvent, org.mycore.datamodel.ifs.MCRFile)
      */
     @Override
     protected void handlePathDeleted(MCREvent evt, Path file, BasicFileAttributes attrs) {
-        if (!checkUpdateMets(evt, file, attrs)) {
+        if (deferUpdate(evt, file, attrs) || !checkUpdateMets(evt, file, attrs)) {
             return;
         }
         MCRPath mcrPath = MCRPath.toMCRPath(file);
@@ -93,7 +119,7 @@ public class MCRUpdateMetsOnDerivateChangeEventHandler extends MCREventHandlerBa
 
     @Override
     protected void handlePathCreated(MCREvent evt, Path file, BasicFileAttributes attrs) {
-        if (!checkUpdateMets(evt, file, attrs)) {
+        if (deferUpdate(evt, file, attrs) || !checkUpdateMets(evt, file, attrs)) {
             return;
         }
         MCRPath mcrPath = MCRPath.toMCRPath(file);
@@ -19,20 +19,27 @@
 package org.mycore.mets.resource;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.frontend.jersey.MCRJerseyUtil;
+import org.mycore.mets.solr.MCRAltoWordIndex;
 import org.mycore.solr.MCRSolrClientFactory;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
@@ -89,6 +96,29 @@ import jakarta.ws.rs.core.Response;
  *
  * ]
  * </pre>
+ *
+ * <p>If the {@link MCRAltoWordIndex} is enabled, the words of a derivate matching the query terms can be paged
+ * without solr. The words are ordered by term, then by ALTO file. Quoted phrases are split into their words.</p>
+ *
+ * <b>Example: rsc/alto/highlight/mycore_derivate_00000001/words?q=jena&amp;start=0&amp;rows=100</b>
+ *
+ * <pre>
+ * {
+ *     "numFound": 2,
+ *     "start": 0,
+ *     "hits": [
+ *         {
+ *             "id": "mycore_derivate_00000001:/alto/alto_1.xml",
+ *             "content": "Jena",
+ *             "xpos": 1566,
+ *             "vpos": 1100,
+ *             "width": 105,
+ *             "height": 44
+ *         },
+ *         ...
+ *     ]
+ * }
+ * </pre>
  */
 @Path("/alto/highlight")
 public class MCRAltoHighlightResource {
@@ -119,6 +149,48 @@ public class MCRAltoHighlightResource {
         }
     }
 
+    @GET
+    @Path("{derivateId}/words")
+    @Produces(MCRJerseyUtil.APPLICATION_JSON_UTF8)
+    public Response words(@PathParam("derivateId") String derivateId, @QueryParam("q") String query,
+        @QueryParam("start") @DefaultValue("0") int start, @QueryParam("rows") Integer rows) {
+        if (!MCRAltoWordIndex.isEnabled()) {
+            throw new WebApplicationException("The alto word index is disabled.", Response.Status.NOT_FOUND);
+        }
+        if (!MCRObjectID.isValid(derivateId) || query == null || start < 0 || (rows != null && rows < 0)) {
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+        int maxRows = MCRConfiguration2.getInt("MCR.Mets.AltoWordIndex.MaxRows").orElse(1000);
+        int rowCount = Math.min(maxRows, Optional.ofNullable(rows)
+            .orElseGet(() -> MCRConfiguration2.getInt("MCR.Mets.AltoWordIndex.Rows").orElse(100)));
+        Set<String> terms = buildTerms(query);
+        MCRAltoWordIndex.Hits result;
+        try {
+            result = MCRAltoWordIndex.find(derivateId, terms, start, rowCount);
+        } catch (Exception exc) {
+            throw new WebApplicationException("Unable to find '" + query + "' in derivate " + derivateId, exc,
+                Response.Status.INTERNAL_SERVER_ERROR);
+        }
+        JsonArray hits = new JsonArray();
+        result.getHits().forEach(hit -> hits.add(buildHitObject(derivateId + ":" + hit.getPath(), hit.getWord())));
+        JsonObject response = new JsonObject();
+        response.addProperty("numFound", result.getNumFound());
+        response.addProperty("start", start);
+        response.add("hits", hits);
+        return Response.ok().entity(new Gson().toJson(response)).build();
+    }
+
+    /**
+     * Splits the query into the terms of the {@link MCRAltoWordIndex}. The word index does not store word
+     * positions, so quoted phrases are not supported: their words are searched as single terms.
+     */
+    protected Set<String> buildTerms(String query) {
+        return Arrays.stream(query.split("[\\s\"]+"))
+            .map(MCRAltoWordIndex::toTerm)
+            .filter(term -> !term.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
     protected String buildQuery(String query) {
         String fixedQuery = query.trim().replaceAll("\\s\\s", " ");
         List<String> words = new ArrayList<>();
@@ -193,6 +265,17 @@ public class MCRAltoHighlightResource {
         return ifsId.replaceFirst("ifs\\d?:/", "");
     }
 
+    private JsonObject buildHitObject(String id, MCRAltoWordIndex.Word word) {
+        JsonObject hit = new JsonObject();
+        hit.addProperty("id", id);
+        hit.addProperty("content", word.getContent());
+        hit.addProperty("xpos", word.getHpos());
+        hit.addProperty("vpos", word.getVpos());
+        hit.addProperty("width", word.getWidth());
+        hit.addProperty("height", word.getHeight());
+        return hit;
+    }
+
     private JsonObject buildPositionObject(String altoWord) {
         JsonObject positionObject = new JsonObject();
         String plainWord = altoWord.replaceAll("<em>|</em>", "");
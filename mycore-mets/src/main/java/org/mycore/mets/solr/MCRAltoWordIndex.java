@@ -0,0 +1,728 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.solr;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.mycore.common.MCRCache;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.datamodel.niofs.MCRPath;
+
+/**
+ * Local index of the word coordinates of the ALTO files of a derivate. For every derivate one file is stored below
+ * <code>MCR.Mets.AltoWordIndex.Directory</code>. It starts with the indexed ALTO files and the sorted term
+ * dictionary, followed by the postings of all terms. Every term knows the offset and number of its postings, and a
+ * posting, the ALTO file and bounding box of a word, has a fixed size. So a range of hits is read by seeking to it.
+ * The index is built by {@link MCRSolrAltoExtractor} and answers where terms occur in a derivate without querying
+ * solr.
+ * <p>
+ * Changes of single ALTO files are written to a segment per file in the directory <code>{derivate}.segments</code>,
+ * as the extractor sees one file at a time. All segments of a derivate are merged into its index in one pass, before
+ * the index is read.
+ */
+public final class MCRAltoWordIndex {
+
+    private static final int VERSION = 2;
+
+    private static final String SUFFIX = ".words";
+
+    private static final String SEGMENTS_SUFFIX = ".segments";
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    /** last modification time of a segment that removes its file from the index */
+    private static final long DELETED = -1;
+
+    /** file, variant of the word, hpos, vpos, width, height */
+    private static final int POSTING_SIZE = 6 * Integer.BYTES;
+
+    private static final Pattern TERM_TRIM = Pattern.compile("^[^\\p{L}\\p{N}]+|[^\\p{L}\\p{N}]+$");
+
+    private static final Object[] LOCKS = Stream.generate(Object::new).limit(64).toArray();
+
+    private MCRAltoWordIndex() {
+    }
+
+    public static boolean isEnabled() {
+        return MCRConfiguration2.getBoolean("MCR.Mets.AltoWordIndex.Enabled").orElse(false);
+    }
+
+    private static Path getDirectory() {
+        return MCRConfiguration2.getString("MCR.Mets.AltoWordIndex.Directory")
+            .map(Paths::get)
+            .orElseThrow(() -> MCRConfiguration2.createConfigurationException("MCR.Mets.AltoWordIndex.Directory"));
+    }
+
+    /**
+     * Normalizes a word or query term: leading and trailing characters which are no letters or digits are
+     * removed and the term is lower cased.
+     *
+     * @param word the word
+     * @return the term, empty if the word has no letters or digits
+     */
+    public static String toTerm(String word) {
+        return TERM_TRIM.matcher(word).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks if the given ALTO file is indexed with at least the given modification time.
+     *
+     * @param altoFile the ALTO file
+     * @param lastModified the last modification time of the ALTO file
+     */
+    public static boolean isUpToDate(MCRPath altoFile, FileTime lastModified) throws IOException {
+        String derivateId = altoFile.getOwner();
+        String path = altoFile.getOwnerRelativePath();
+        Long indexed;
+        synchronized (getLock(derivateId)) {
+            Segment segment = readSegment(getSegmentFile(derivateId, path), false);
+            if (segment != null) {
+                indexed = segment.lastModified == DELETED ? null : segment.lastModified;
+            } else {
+                indexed = getFiles(derivateId).get(path);
+            }
+        }
+        return indexed != null && indexed >= lastModified.toMillis();
+    }
+
+    /**
+     * Replaces the words of the given ALTO file in the index of its derivate. The words are written to the segment of
+     * the file, and are merged into the index of the derivate once it is read.
+     *
+     * @param altoFile the ALTO file
+     * @param lastModified the last modification time of the ALTO file
+     * @param words the words of the ALTO file in document order
+     */
+    public static void write(MCRPath altoFile, FileTime lastModified, List<Word> words) throws IOException {
+        write(altoFile.getOwner(), altoFile.getOwnerRelativePath(), lastModified, words);
+    }
+
+    static void write(String derivateId, String path, FileTime lastModified, List<Word> words) throws IOException {
+        writeSegment(derivateId, new Segment(path, lastModified.toMillis(), words));
+    }
+
+    /**
+     * Lists the indexed ALTO files of a derivate.
+     *
+     * @param derivateId the derivate
+     * @return the owner relative paths of the ALTO files in alphabetical order
+     */
+    public static List<String> listFiles(String derivateId) throws IOException {
+        merge(derivateId);
+        Header header = readHeader(getIndexFile(derivateId), null);
+        return header == null ? Collections.emptyList() : new ArrayList<>(header.files.keySet());
+    }
+
+    /**
+     * Returns a range of the words of a derivate which match one of the given terms. The words are ordered by
+     * term, then by ALTO file and by their position in the file. Only the postings of the range are read.
+     *
+     * @param derivateId the derivate
+     * @param terms the terms, see {@link #toTerm(String)}
+     * @param start the index of the first word to return
+     * @param rows the maximum number of words to return
+     * @return the number of matching words and the words of the range, no words if the derivate is not indexed
+     */
+    public static Hits find(String derivateId, Collection<String> terms, int start, int rows) throws IOException {
+        Set<String> searchTerms = new HashSet<>(terms);
+        merge(derivateId);
+        try (FileChannel channel = FileChannel.open(getIndexFile(derivateId), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, searchTerms::contains);
+            if (header == null) {
+                return new Hits(0, Collections.emptyList());
+            }
+            List<String> paths = new ArrayList<>(header.files.keySet());
+            int numFound = header.terms.stream().mapToInt(TermEntry::getCount).sum();
+            List<Hit> hits = new ArrayList<>();
+            long skip = start;
+            for (TermEntry term : header.terms) {
+                if (hits.size() >= rows) {
+                    break;
+                }
+                if (skip >= term.count) {
+                    skip -= term.count;
+                    continue;
+                }
+                int count = (int) Math.min(term.count - skip, rows - hits.size());
+                ByteBuffer postings = ByteBuffer.allocate(count * POSTING_SIZE);
+                long position = header.postingsStart + term.offset + skip * POSTING_SIZE;
+                while (postings.hasRemaining()) {
+                    if (channel.read(postings, position + postings.position()) < 0) {
+                        throw new EOFException("Word index of " + derivateId + " is truncated.");
+                    }
+                }
+                postings.flip();
+                for (int i = 0; i < count; i++) {
+                    String path = paths.get(postings.getInt());
+                    String content = term.variants.get(postings.getInt());
+                    hits.add(new Hit(path, new Word(content, postings.getInt(), postings.getInt(), postings.getInt(),
+                        postings.getInt())));
+                }
+                skip = 0;
+            }
+            return new Hits(numFound, hits);
+        } catch (NoSuchFileException e) {
+            return new Hits(0, Collections.emptyList());
+        }
+    }
+
+    /**
+     * Removes the words of an ALTO file from the index of its derivate.
+     *
+     * @param altoFile the ALTO file
+     */
+    public static void delete(MCRPath altoFile) throws IOException {
+        delete(altoFile.getOwner(), altoFile.getOwnerRelativePath());
+    }
+
+    static void delete(String derivateId, String path) throws IOException {
+        if (Files.exists(getIndexFile(derivateId)) || Files.isDirectory(getSegmentDirectory(derivateId))) {
+            writeSegment(derivateId, new Segment(path, DELETED, Collections.emptyList()));
+        }
+    }
+
+    /**
+     * Removes the index of a derivate.
+     *
+     * @param derivateId the derivate
+     */
+    public static void deleteDerivate(String derivateId) throws IOException {
+        synchronized (getLock(derivateId)) {
+            Files.deleteIfExists(getIndexFile(derivateId));
+            FilesCache.INSTANCE.remove(derivateId);
+            Path segmentDirectory = getSegmentDirectory(derivateId);
+            for (Path segmentFile : listSegments(segmentDirectory)) {
+                Files.deleteIfExists(segmentFile);
+            }
+            Files.deleteIfExists(segmentDirectory);
+        }
+    }
+
+    private static Path getIndexFile(String derivateId) {
+        return getDerivateFile(derivateId, SUFFIX);
+    }
+
+    private static Path getSegmentDirectory(String derivateId) {
+        return getDerivateFile(derivateId, SEGMENTS_SUFFIX);
+    }
+
+    private static Path getSegmentFile(String derivateId, String path) {
+        UUID name = UUID.nameUUIDFromBytes(path.getBytes(StandardCharsets.UTF_8));
+        return getSegmentDirectory(derivateId).resolve(name + SEGMENT_SUFFIX);
+    }
+
+    private static Path getDerivateFile(String derivateId, String suffix) {
+        Path directory = getDirectory();
+        Path file = directory.resolve(derivateId + suffix).normalize();
+        if (!directory.equals(file.getParent())) {
+            throw new IllegalArgumentException("Invalid derivate " + derivateId);
+        }
+        return file;
+    }
+
+    private static Object getLock(String derivateId) {
+        return LOCKS[Math.floorMod(derivateId.hashCode(), LOCKS.length)];
+    }
+
+    /**
+     * Returns the indexed files of the merged index of the derivate, without the pending segments.
+     */
+    private static Map<String, Long> getFiles(String derivateId) throws IOException {
+        Path indexFile = getIndexFile(derivateId);
+        long lastModified = Files.exists(indexFile) ? Files.getLastModifiedTime(indexFile).toMillis() : 0;
+        // the index may be replaced by another process
+        Map<String, Long> files = FilesCache.INSTANCE.getIfUpToDate(derivateId, lastModified);
+        if (files == null) {
+            Header header = readHeader(indexFile, null);
+            files = header == null ? Collections.emptyMap() : header.files;
+            FilesCache.INSTANCE.put(derivateId, files);
+        }
+        return files;
+    }
+
+    private static void writeSegment(String derivateId, Segment segment) throws IOException {
+        Path segmentFile = getSegmentFile(derivateId, segment.path);
+        synchronized (getLock(derivateId)) {
+            Files.createDirectories(segmentFile.getParent());
+            Path tempFile = Files.createTempFile(segmentFile.getParent(), segmentFile.getFileName().toString(),
+                ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    out.writeInt(VERSION);
+                    out.writeUTF(segment.path);
+                    out.writeLong(segment.lastModified);
+                    out.writeInt(segment.words.size());
+                    for (Word word : segment.words) {
+                        out.writeUTF(word.getContent());
+                        out.writeInt(word.getHpos());
+                        out.writeInt(word.getVpos());
+                        out.writeInt(word.getWidth());
+                        out.writeInt(word.getHeight());
+                    }
+                }
+                Files.move(tempFile, segmentFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Reads a segment, its words only if <code>withWords</code> is true. Returns null if the segment does not exist
+     * or has another version.
+     */
+    private static Segment readSegment(Path segmentFile, boolean withWords) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmentFile)))) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+            String path = in.readUTF();
+            long lastModified = in.readLong();
+            if (!withWords) {
+                return new Segment(path, lastModified, Collections.emptyList());
+            }
+            int wordCount = in.readInt();
+            List<Word> words = new ArrayList<>(wordCount);
+            for (int i = 0; i < wordCount; i++) {
+                words.add(new Word(in.readUTF(), in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+            }
+            return new Segment(path, lastModified, words);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static List<Path> listSegments(Path segmentDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(segmentDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+        } catch (NoSuchFileException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Merges all segments of the derivate into its index, reading and writing the index once.
+     */
+    private static void merge(String derivateId) throws IOException {
+        Path segmentDirectory = getSegmentDirectory(derivateId);
+        if (!Files.isDirectory(segmentDirectory)) {
+            return;
+        }
+        synchronized (getLock(derivateId)) {
+            List<Path> segmentFiles = listSegments(segmentDirectory);
+            if (!segmentFiles.isEmpty()) {
+                List<Segment> segments = new ArrayList<>(segmentFiles.size());
+                for (Path segmentFile : segmentFiles) {
+                    Segment segment = readSegment(segmentFile, true);
+                    if (segment != null) {
+                        segments.add(segment);
+                    }
+                }
+                Path indexFile = getIndexFile(derivateId);
+                Index index = readIndex(indexFile);
+                index.remove(segments.stream().map(segment -> segment.path).collect(Collectors.toSet()));
+                segments.stream()
+                    .filter(segment -> segment.lastModified != DELETED)
+                    .forEach(index::add);
+                writeIndex(indexFile, index);
+                FilesCache.INSTANCE.remove(derivateId);
+                for (Path segmentFile : segmentFiles) {
+                    Files.deleteIfExists(segmentFile);
+                }
+            }
+            try {
+                Files.deleteIfExists(segmentDirectory);
+            } catch (DirectoryNotEmptyException e) {
+                // a segment is just written by another process
+            }
+        }
+    }
+
+    private static Header readHeader(Path indexFile, Predicate<String> termFilter) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            return readHeader(channel, termFilter);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the indexed files and the entries of the terms accepted by the filter, the terms are skipped if the
+     * filter is null. Returns null if the index has another version, so it is rebuilt.
+     */
+    private static Header readHeader(FileChannel channel, Predicate<String> termFilter) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        if (in.readInt() != VERSION) {
+            return null;
+        }
+        Header header = new Header(2 * Integer.BYTES + in.readInt());
+        int fileCount = in.readInt();
+        for (int i = 0; i < fileCount; i++) {
+            header.files.put(in.readUTF(), in.readLong());
+        }
+        if (termFilter == null) {
+            return header;
+        }
+        int termCount = in.readInt();
+        for (int i = 0; i < termCount; i++) {
+            String term = in.readUTF();
+            List<String> variants = new ArrayList<>();
+            int variantCount = in.readInt();
+            for (int j = 0; j < variantCount; j++) {
+                variants.add(in.readUTF());
+            }
+            long offset = in.readLong();
+            int count = in.readInt();
+            if (termFilter.test(term)) {
+                header.terms.add(new TermEntry(term, variants, offset, count));
+            }
+        }
+        return header;
+    }
+
+    private static Index readIndex(Path indexFile) throws IOException {
+        Index index = new Index();
+        Header header;
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            header = readHeader(channel, term -> true);
+        } catch (NoSuchFileException e) {
+            return index;
+        }
+        if (header == null) {
+            return index;
+        }
+        List<String> paths = new ArrayList<>(header.files.keySet());
+        index.files.putAll(header.files);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            in.skipNBytes(header.postingsStart);
+            for (TermEntry term : header.terms) {
+                List<Hit> hits = new ArrayList<>(term.count);
+                for (int i = 0; i < term.count; i++) {
+                    String path = paths.get(in.readInt());
+                    String content = term.variants.get(in.readInt());
+                    hits.add(new Hit(path, new Word(content, in.readInt(), in.readInt(), in.readInt(), in.readInt())));
+                }
+                index.terms.put(term.term, hits);
+            }
+        }
+        return index;
+    }
+
+    private static void writeIndex(Path indexFile, Index index) throws IOException {
+        if (index.files.isEmpty()) {
+            Files.deleteIfExists(indexFile);
+            return;
+        }
+        Map<String, Integer> fileNumbers = new HashMap<>();
+        index.files.keySet().forEach(path -> fileNumbers.put(path, fileNumbers.size()));
+        Map<String, Map<String, Integer>> variantNumbers = new HashMap<>();
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        try (DataOutputStream header = new DataOutputStream(headerBytes)) {
+            header.writeInt(index.files.size());
+            for (Map.Entry<String, Long> file : index.files.entrySet()) {
+                header.writeUTF(file.getKey());
+                header.writeLong(file.getValue());
+            }
+            header.writeInt(index.terms.size());
+            long offset = 0;
+            for (Map.Entry<String, List<Hit>> term : index.terms.entrySet()) {
+                List<Hit> hits = term.getValue();
+                // keep the document order of the words of a file
+                hits.sort(Comparator.comparingInt((Hit hit) -> fileNumbers.get(hit.path)));
+                Map<String, Integer> variants = new LinkedHashMap<>();
+                hits.forEach(hit -> variants.putIfAbsent(hit.word.getContent(), variants.size()));
+                variantNumbers.put(term.getKey(), variants);
+                header.writeUTF(term.getKey());
+                header.writeInt(variants.size());
+                for (String variant : variants.keySet()) {
+                    header.writeUTF(variant);
+                }
+                header.writeLong(offset);
+                header.writeInt(hits.size());
+                offset += (long) hits.size() * POSTING_SIZE;
+            }
+        }
+        Files.createDirectories(indexFile.getParent());
+        Path tempFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(VERSION);
+                out.writeInt(headerBytes.size());
+                headerBytes.writeTo(out);
+                for (Map.Entry<String, List<Hit>> term : index.terms.entrySet()) {
+                    Map<String, Integer> variants = variantNumbers.get(term.getKey());
+                    for (Hit hit : term.getValue()) {
+                        out.writeInt(fileNumbers.get(hit.path));
+                        out.writeInt(variants.get(hit.word.getContent()));
+                        out.writeInt(hit.word.getHpos());
+                        out.writeInt(hit.word.getVpos());
+                        out.writeInt(hit.word.getWidth());
+                        out.writeInt(hit.word.getHeight());
+                    }
+                }
+            }
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Complete content of the index of a derivate, used to modify it.
+     */
+    private static final class Index {
+
+        /** last modification time of the indexed files by path */
+        private final Map<String, Long> files = new TreeMap<>();
+
+        private final Map<String, List<Hit>> terms = new TreeMap<>();
+
+        /**
+         * Removes the words of all given files in one pass.
+         */
+        void remove(Set<String> paths) {
+            if (!files.keySet().removeAll(paths)) {
+                return;
+            }
+            terms.values().forEach(hits -> hits.removeIf(hit -> paths.contains(hit.path)));
+            terms.values().removeIf(List::isEmpty);
+        }
+
+        void add(Segment segment) {
+            files.put(segment.path, segment.lastModified);
+            for (Word word : segment.words) {
+                String term = toTerm(word.getContent());
+                if (!term.isEmpty()) {
+                    terms.computeIfAbsent(term, t -> new ArrayList<>()).add(new Hit(segment.path, word));
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Indexed files of the merged index by derivate, so checking every ALTO file of a derivate reads them once.
+     * Created on first use, as the cache needs the configuration.
+     */
+    private static final class FilesCache {
+
+        private static final MCRCache<String, Map<String, Long>> INSTANCE = new MCRCache<>(1000,
+            "ALTO word index files");
+
+    }
+
+    /**
+     * The words of an ALTO file, waiting to be merged into the index of its derivate.
+     */
+    private static final class Segment {
+
+        private final String path;
+
+        private final long lastModified;
+
+        private final List<Word> words;
+
+        Segment(String path, long lastModified, List<Word> words) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.words = words;
+        }
+
+    }
+
+    /**
+     * The indexed files and the dictionary of an index.
+     */
+    private static final class Header {
+
+        private final Map<String, Long> files = new LinkedHashMap<>();
+
+        private final List<TermEntry> terms = new ArrayList<>();
+
+        private final long postingsStart;
+
+        Header(long postingsStart) {
+            this.postingsStart = postingsStart;
+        }
+
+    }
+
+    /**
+     * A term of the dictionary, its variants in the ALTO files and the location of its postings.
+     */
+    private static final class TermEntry {
+
+        private final String term;
+
+        private final List<String> variants;
+
+        private final long offset;
+
+        private final int count;
+
+        TermEntry(String term, List<String> variants, long offset, int count) {
+            this.term = term;
+            this.variants = variants;
+            this.offset = offset;
+            this.count = count;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+    }
+
+    /**
+     * The number of matching words and a range of them.
+     */
+    public static final class Hits {
+
+        private final int numFound;
+
+        private final List<Hit> hits;
+
+        public Hits(int numFound, List<Hit> hits) {
+            this.numFound = numFound;
+            this.hits = hits;
+        }
+
+        public int getNumFound() {
+            return numFound;
+        }
+
+        public List<Hit> getHits() {
+            return hits;
+        }
+
+    }
+
+    /**
+     * A word and the ALTO file it occurs in.
+     */
+    public static final class Hit {
+
+        private final String path;
+
+        private final Word word;
+
+        public Hit(String path, Word word) {
+            this.path = path;
+            this.word = word;
+        }
+
+        /**
+         * Returns the owner relative path of the ALTO file.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        public Word getWord() {
+            return word;
+        }
+
+    }
+
+    /**
+     * A word of an ALTO file and its bounding box.
+     */
+    public static final class Word {
+
+        private final String content;
+
+        private final int hpos;
+
+        private final int vpos;
+
+        private final int width;
+
+        private final int height;
+
+        public Word(String content, int hpos, int vpos, int width, int height) {
+            this.content = content;
+            this.hpos = hpos;
+            this.vpos = vpos;
+            this.width = width;
+            this.height = height;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public int getHpos() {
+            return hpos;
+        }
+
+        public int getVpos() {
+            return vpos;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+    }
+
+}
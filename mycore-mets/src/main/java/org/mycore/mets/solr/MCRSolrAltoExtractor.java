@@ -23,66 +23,162 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.solr.common.SolrInputDocument;
-import org.jdom2.Document;
-import org.jdom2.Element;
-import org.jdom2.JDOMException;
-import org.jdom2.Namespace;
-import org.jdom2.filter.Filters;
-import org.jdom2.input.SAXBuilder;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
 import org.mycore.datamodel.niofs.MCRPath;
 import org.mycore.solr.index.file.MCRSolrFileIndexAccumulator;
 
 /**
  * Extract content and word coordinates of ALTO XML and adds it to the alto_words and alto_content field.
+ * <p>
+ * The ALTO file is streamed, only the <code>String</code> elements below
+ * <code>alto:Layout/alto:Page/alto:PrintSpace</code> are evaluated.
  *
  * @author Matthias Eichner
  */
 public class MCRSolrAltoExtractor implements MCRSolrFileIndexAccumulator {
 
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    private static final String[] PRINT_SPACE_PATH = { "Layout", "Page", "PrintSpace" };
+
+    private static final Pattern DECIMAL_ZERO = Pattern.compile("\\.0");
+
     @Override
     public void accumulate(SolrInputDocument document, Path filePath, BasicFileAttributes attributes)
         throws IOException {
-        String parentPath = MCRPath.toMCRPath(filePath).getParent().getOwnerRelativePath();
+        MCRPath altoFile = MCRPath.toMCRPath(filePath);
+        String parentPath = altoFile.getParent().getOwnerRelativePath();
         if (!parentPath.startsWith("/alto")) {
             return;
         }
+        List<MCRAltoWordIndex.Word> words;
         try (InputStream is = Files.newInputStream(filePath)) {
-            SAXBuilder builder = new SAXBuilder();
-            Document altoDocument = builder.build(is);
-            extract(altoDocument.getRootElement(), document);
-        } catch (JDOMException e) {
+            words = extract(is, document);
+        } catch (XMLStreamException e) {
             LogManager.getLogger().error("Unable to parse {}", filePath, e);
+            return;
+        }
+        if (MCRAltoWordIndex.isEnabled()) {
+            try {
+                if (!MCRAltoWordIndex.isUpToDate(altoFile, attributes.lastModifiedTime())) {
+                    MCRAltoWordIndex.write(altoFile, attributes.lastModifiedTime(), words);
+                }
+            } catch (IOException e) {
+                LogManager.getLogger().error("Unable to update word index of {}", filePath, e);
+            }
         }
     }
 
-    private void extract(Element root, SolrInputDocument document) {
+    /**
+     * Streams the given ALTO document and adds its words to the solr document. Nothing is added if the ALTO
+     * document cannot be parsed.
+     *
+     * @param altoStream the ALTO document
+     * @param document the solr document
+     * @return the words with numeric coordinates for the {@link MCRAltoWordIndex}
+     */
+    List<MCRAltoWordIndex.Word> extract(InputStream altoStream, SolrInputDocument document)
+        throws XMLStreamException {
         StringBuilder altoContent = new StringBuilder();
-        String exp = "alto:Layout/alto:Page/alto:PrintSpace//alto:String";
-        Namespace namespace = root.getNamespace();
-        Namespace altoNS = Namespace.getNamespace("alto", namespace.getURI());
-        XPathExpression<Element> stringExp = XPathFactory.instance().compile(exp, Filters.element(), null, altoNS);
-
-        for (Element stringElement : stringExp.evaluate(root)) {
-            String content = stringElement.getAttributeValue("CONTENT");
-            String hpos = stringElement.getAttributeValue("HPOS");
-            String vpos = stringElement.getAttributeValue("VPOS");
-            String width = stringElement.getAttributeValue("WIDTH");
-            String height = stringElement.getAttributeValue("HEIGHT");
-            if (hpos == null || vpos == null || width == null || height == null) {
-                continue;
+        List<String> altoWords = new ArrayList<>();
+        List<MCRAltoWordIndex.Word> words = new ArrayList<>();
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(altoStream);
+        try {
+            String altoNamespace = null;
+            // element depth and number of PRINT_SPACE_PATH steps matched by the current element and its ancestors
+            int depth = 0;
+            int matched = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (depth == 1) {
+                        altoNamespace = getNamespaceURI(reader);
+                    } else if (matched == PRINT_SPACE_PATH.length) {
+                        if (isAltoElement(reader, altoNamespace, "String")) {
+                            addWord(reader, altoContent, altoWords, words);
+                        }
+                    } else if (matched == depth - 2
+                        && isAltoElement(reader, altoNamespace, PRINT_SPACE_PATH[matched])) {
+                        matched++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (matched > 0 && matched == depth - 1) {
+                        matched--;
+                    }
+                    depth--;
+                }
             }
-            String regEx = "\\.0";
-            String altoWord = String.join("|", content, hpos.replaceAll(regEx, ""), vpos.replaceAll(regEx, ""),
-                width.replaceAll(regEx, ""), height.replaceAll(regEx, ""));
-            altoContent.append(content).append(' ');
-            document.addField("alto_words", altoWord);
+        } finally {
+            reader.close();
         }
+        altoWords.forEach(altoWord -> document.addField("alto_words", altoWord));
         document.addField("alto_content", altoContent.toString().trim());
+        return words;
+    }
+
+    private void addWord(XMLStreamReader stringElement, StringBuilder altoContent, List<String> altoWords,
+        List<MCRAltoWordIndex.Word> words) {
+        String content = getAttributeValue(stringElement, "CONTENT");
+        String hpos = getAttributeValue(stringElement, "HPOS");
+        String vpos = getAttributeValue(stringElement, "VPOS");
+        String width = getAttributeValue(stringElement, "WIDTH");
+        String height = getAttributeValue(stringElement, "HEIGHT");
+        if (hpos == null || vpos == null || width == null || height == null) {
+            return;
+        }
+        String altoWord = String.join("|", content, removeDecimalZero(hpos), removeDecimalZero(vpos),
+            removeDecimalZero(width), removeDecimalZero(height));
+        altoContent.append(content).append(' ');
+        altoWords.add(altoWord);
+        if (content != null) {
+            try {
+                words.add(new MCRAltoWordIndex.Word(content, toInt(hpos), toInt(vpos), toInt(width), toInt(height)));
+            } catch (NumberFormatException e) {
+                LogManager.getLogger().debug("Skipping word '{}' with invalid coordinates.", content);
+            }
+        }
+    }
+
+    private static int toInt(String coordinate) {
+        return (int) Math.round(Double.parseDouble(coordinate));
+    }
+
+    private static String removeDecimalZero(String value) {
+        return DECIMAL_ZERO.matcher(value).replaceAll("");
+    }
+
+    private static boolean isAltoElement(XMLStreamReader reader, String altoNamespace, String localName) {
+        return localName.equals(reader.getLocalName()) && altoNamespace.equals(getNamespaceURI(reader));
+    }
+
+    private static String getNamespaceURI(XMLStreamReader reader) {
+        String namespaceURI = reader.getNamespaceURI();
+        return namespaceURI == null ? "" : namespaceURI;
+    }
+
+    /**
+     * Returns the value of the attribute without namespace or null if the element has no such attribute.
+     */
+    private static String getAttributeValue(XMLStreamReader reader, String localName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespaceURI = reader.getAttributeNamespace(i);
+            if (localName.equals(reader.getAttributeLocalName(i))
+                && (namespaceURI == null || namespaceURI.isEmpty())) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
     }
 
 }
@@ -0,0 +1,115 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.tools;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mycore.common.MCRSession;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.datamodel.common.MCRMarkManager;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.datamodel.niofs.MCRPath;
+
+/**
+ * Collects the files added to or deleted from derivates and updates the mets.xml of every changed derivate once
+ * after the next commit of the current session, instead of once per file. Enabled with
+ * <code>MCR.Mets.Update.Deferred</code>.
+ * <p>
+ * The changed files are kept in a task registered with {@link MCRSession#onCommit(Runnable)}, so they are discarded
+ * together with the task on rollback or when the session is released without commit.
+ *
+ * @see MCRMetsSave#updateMetsOnFileChanges(MCRObjectID, java.util.Collection)
+ */
+public final class MCRDeferredMetsUpdate {
+
+    private static final Logger LOGGER = LogManager.getLogger(MCRDeferredMetsUpdate.class);
+
+    private MCRDeferredMetsUpdate() {
+    }
+
+    public static boolean isEnabled() {
+        return MCRConfiguration2.getBoolean("MCR.Mets.Update.Deferred").orElse(false);
+    }
+
+    /**
+     * Checks if the derivate has changed files waiting for the commit of the current session.
+     *
+     * @param derivateId the derivate
+     */
+    public static boolean isChanged(MCRObjectID derivateId) {
+        return MCRSessionMgr.hasCurrentSession() && MCRSessionMgr.getCurrentSession()
+            .getOnCommitTask(Changes.class)
+            .filter(changes -> changes.files.containsKey(derivateId))
+            .isPresent();
+    }
+
+    /**
+     * Marks the derivate of the given file dirty. Without a current session the mets.xml is updated immediately.
+     *
+     * @param file the added or deleted file
+     */
+    public static void markChanged(MCRPath file) {
+        MCRObjectID derivateId = MCRObjectID.getInstance(file.getOwner());
+        if (!MCRSessionMgr.hasCurrentSession()) {
+            update(derivateId, Set.of(file));
+            return;
+        }
+        MCRSession session = MCRSessionMgr.getCurrentSession();
+        Changes changes = session.getOnCommitTask(Changes.class).orElseGet(() -> {
+            Changes newChanges = new Changes();
+            session.onCommit(newChanges);
+            return newChanges;
+        });
+        changes.files.computeIfAbsent(derivateId, id -> new LinkedHashSet<>()).add(file);
+    }
+
+    private static void update(MCRObjectID derivateId, Set<MCRPath> files) {
+        if (MCRMarkManager.instance().isMarkedForDeletion(derivateId)) {
+            return;
+        }
+        try {
+            LOGGER.info("Updating mets file of {} for {} changed files", derivateId, files.size());
+            MCRMetsSave.updateMetsOnFileChanges(derivateId, List.copyOf(files));
+        } catch (Exception e) {
+            LOGGER.error("Error while updating mets file of {}", derivateId, e);
+        }
+    }
+
+    /**
+     * Changed files of the current transaction, updated after commit.
+     */
+    private static final class Changes implements Runnable {
+
+        private final Map<MCRObjectID, Set<MCRPath>> files = new LinkedHashMap<>();
+
+        @Override
+        public void run() {
+            files.forEach(MCRDeferredMetsUpdate::update);
+        }
+
+    }
+
+}
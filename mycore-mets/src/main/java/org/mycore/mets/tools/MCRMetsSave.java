@@ -42,7 +42,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -106,6 +108,9 @@ public class MCRMetsSave {
 
     private static final Logger LOGGER = LogManager.getLogger(MCRMetsSave.class);
 
+    /** Locks of the derivates whose mets.xml is currently updated */
+    private static final Map<MCRObjectID, DerivateLock> DERIVATE_LOCKS = new ConcurrentHashMap<>();
+
     /**
      * Saves the content of the given document to file and then adds the file to
      * the derivate with the given id. The name of the file depends on property
@@ -115,7 +120,7 @@ public class MCRMetsSave {
      * @return
      *          true if the given document was successfully saved, otherwise false
      */
-    public static synchronized boolean saveMets(Document document, MCRObjectID derivateId) {
+    public static boolean saveMets(Document document, MCRObjectID derivateId) {
         return saveMets(document, derivateId, true, true);
     }
 
@@ -132,7 +137,17 @@ public class MCRMetsSave {
      * @return
      *          true if the given document was successfully saved, otherwise false
      */
-    public static synchronized boolean saveMets(Document document, MCRObjectID derivateId, boolean overwrite,
+    public static boolean saveMets(Document document, MCRObjectID derivateId, boolean overwrite,
+        boolean validate) {
+        DerivateLock lock = lock(derivateId);
+        try {
+            return saveMetsLocked(document, derivateId, overwrite, validate);
+        } finally {
+            unlock(derivateId, lock);
+        }
+    }
+
+    private static boolean saveMetsLocked(Document document, MCRObjectID derivateId, boolean overwrite,
         boolean validate) {
         // add the file to the existing derivate in ifs
         MCRPath metsFile = getMetsFile(derivateId.toString());
@@ -172,16 +187,55 @@ public class MCRMetsSave {
      */
     public static void updateMetsOnFileAdd(MCRPath file) throws Exception {
         MCRObjectID derivateID = MCRObjectID.getInstance(file.getOwner());
-        Document mets = getCurrentMets(derivateID.toString());
-        if (mets == null) {
-            LOGGER.info("Derivate with id \"{}\" has no mets file. Nothing to do", derivateID);
-            return;
-        }
-        mets = MCRMetsSave.updateOnFileAdd(mets, file);
-        if (mets != null) {
-            MCRMetsSave.saveMets(mets, derivateID);
+        DerivateLock lock = lock(derivateID);
+        try {
+            Document mets = getCurrentMets(derivateID.toString());
+            if (mets == null) {
+                LOGGER.info("Derivate with id \"{}\" has no mets file. Nothing to do", derivateID);
+                return;
+            }
+            mets = MCRMetsSave.updateOnFileAdd(mets, file);
+            if (mets != null) {
+                MCRMetsSave.saveMets(mets, derivateID);
+            }
+        } finally {
+            unlock(derivateID, lock);
         }
+    }
 
+    /**
+     * Updates the mets.xml belonging to the given derivate once for several changed files. Existing files are
+     * added to the mets document, files which do not exist anymore are removed from it.
+     *
+     * @param derivateID
+     *            the derivate containing the files
+     * @param files
+     *            the added or deleted files in the order they were changed
+     */
+    public static void updateMetsOnFileChanges(MCRObjectID derivateID, Collection<MCRPath> files)
+        throws JDOMException, SAXException, IOException {
+        DerivateLock lock = lock(derivateID);
+        try {
+            Document mets = getCurrentMets(derivateID.toString());
+            if (mets == null) {
+                LOGGER.info("Derivate with id \"{}\" has no mets file. Nothing to do", derivateID);
+                return;
+            }
+            boolean changed = false;
+            for (MCRPath file : files) {
+                Document updatedMets = Files.exists(file) ? updateOnFileAdd(mets, file)
+                    : updateOnFileDelete(mets, file);
+                if (updatedMets != null) {
+                    mets = updatedMets;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                saveMets(mets, derivateID);
+            }
+        } finally {
+            unlock(derivateID, lock);
+        }
     }
 
     /**
@@ -479,14 +533,19 @@ public class MCRMetsSave {
      */
     public static void updateMetsOnFileDelete(MCRPath file) throws JDOMException, SAXException, IOException {
         MCRObjectID derivateID = MCRObjectID.getInstance(file.getOwner());
-        Document mets = getCurrentMets(derivateID.toString());
-        if (mets == null) {
-            LOGGER.info("Derivate with id \"{}\" has no mets file. Nothing to do", derivateID);
-            return;
-        }
-        mets = MCRMetsSave.updateOnFileDelete(mets, file);
-        if (mets != null) {
-            MCRMetsSave.saveMets(mets, derivateID);
+        DerivateLock lock = lock(derivateID);
+        try {
+            Document mets = getCurrentMets(derivateID.toString());
+            if (mets == null) {
+                LOGGER.info("Derivate with id \"{}\" has no mets file. Nothing to do", derivateID);
+                return;
+            }
+            mets = MCRMetsSave.updateOnFileDelete(mets, file);
+            if (mets != null) {
+                MCRMetsSave.saveMets(mets, derivateID);
+            }
+        } finally {
+            unlock(derivateID, lock);
         }
     }
 
@@ -518,15 +577,20 @@ public class MCRMetsSave {
      */
     public static void updateMetsOnUrnGenerate(MCRObjectID derivateID, Map<String, String> fileUrnMap)
         throws JDOMException, SAXException, IOException {
-        Document mets = getCurrentMets(derivateID.toString());
-        if (mets == null) {
-            LOGGER.info("Derivate with id \"{}\" has no mets file. Nothing to do", derivateID);
-            return;
+        DerivateLock lock = lock(derivateID);
+        try {
+            Document mets = getCurrentMets(derivateID.toString());
+            if (mets == null) {
+                LOGGER.info("Derivate with id \"{}\" has no mets file. Nothing to do", derivateID);
+                return;
+            }
+            LOGGER.info("Update {} URNS in mets.xml", fileUrnMap.size());
+            Mets metsObject = new Mets(mets);
+            updateURNsInMetsDocument(metsObject, fileUrnMap);
+            saveMets(metsObject.asDocument(), derivateID);
+        } finally {
+            unlock(derivateID, lock);
         }
-        LOGGER.info("Update {} URNS in mets.xml", fileUrnMap.size());
-        Mets metsObject = new Mets(mets);
-        updateURNsInMetsDocument(metsObject, fileUrnMap);
-        saveMets(metsObject.asDocument(), derivateID);
     }
 
     /**
@@ -957,4 +1021,39 @@ public class MCRMetsSave {
         return prefix + "_" + base;
     }
 
+    /**
+     * Acquires the lock of the given derivate. Updates of different derivates run concurrently, updates of the
+     * same derivate one after another.
+     */
+    private static DerivateLock lock(MCRObjectID derivateId) {
+        DerivateLock lock = DERIVATE_LOCKS.compute(derivateId, (id, l) -> {
+            DerivateLock derivateLock = l == null ? new DerivateLock() : l;
+            derivateLock.users++;
+            return derivateLock;
+        });
+        lock.lock();
+        return lock;
+    }
+
+    private static void unlock(MCRObjectID derivateId, DerivateLock lock) {
+        lock.unlock();
+        DERIVATE_LOCKS.computeIfPresent(derivateId, (id, l) -> --l.users == 0 ? null : l);
+    }
+
+    /**
+     * Returns the number of derivates whose lock is held or waited for.
+     */
+    static int getDerivateLockCount() {
+        return DERIVATE_LOCKS.size();
+    }
+
+    private static final class DerivateLock extends ReentrantLock {
+
+        private static final long serialVersionUID = 1L;
+
+        /** number of threads holding or waiting for this lock, guarded by {@link #DERIVATE_LOCKS} */
+        private int users;
+
+    }
+
 }
@@ -20,6 +20,8 @@ package org.mycore.mets.resource;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Set;
+
 import org.junit.Test;
 
 public class MCRAltoHighlightResourceTest {
@@ -38,4 +40,11 @@ public class MCRAltoHighlightResourceTest {
             r.buildQuery("Berlin   \"Jena Stadt\"     Hamburg"));
     }
 
+    @Test
+    public void buildTerms() {
+        MCRAltoHighlightResource r = new MCRAltoHighlightResource();
+        assertEquals(Set.of("jena"), r.buildTerms("Jena"));
+        assertEquals(Set.of("jena", "stadt", "berlin"), r.buildTerms("\"Jena Stadt\"   Berlin, -"));
+    }
+
 }
@@ -0,0 +1,138 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+
+public class MCRAltoWordIndexTest extends MCRTestCase {
+
+    private static final String DERIVATE_ID = "mcr_derivate_00000001";
+
+    private static final FileTime MODIFIED = FileTime.fromMillis(1000);
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Mets.AltoWordIndex.Directory", junitFolder.getRoot().toPath()
+            .resolve("alto-words").toString());
+        return testProperties;
+    }
+
+    @Test
+    public void toTerm() {
+        assertEquals("jena", MCRAltoWordIndex.toTerm("Jena,"));
+        assertEquals("jena-paradies", MCRAltoWordIndex.toTerm("\"Jena-Paradies\""));
+        assertEquals("", MCRAltoWordIndex.toTerm("-"));
+    }
+
+    @Test
+    public void find() throws Exception {
+        MCRAltoWordIndex.write(DERIVATE_ID, "/alto/alto_2.xml", MODIFIED, List.of(
+            new MCRAltoWordIndex.Word("Berlin", 1, 2, 3, 4),
+            new MCRAltoWordIndex.Word("Jena", 5, 6, 7, 8)));
+        MCRAltoWordIndex.write(DERIVATE_ID, "/alto/alto_1.xml", MODIFIED, List.of(
+            new MCRAltoWordIndex.Word("Jena", 10, 20, 30, 40),
+            new MCRAltoWordIndex.Word("-", 50, 20, 5, 40),
+            new MCRAltoWordIndex.Word("Stadt", 60, 20, 30, 40),
+            new MCRAltoWordIndex.Word("jena.", 10, 80, 30, 40)));
+        assertEquals(List.of("/alto/alto_1.xml", "/alto/alto_2.xml"), MCRAltoWordIndex.listFiles(DERIVATE_ID));
+
+        Set<String> terms = Set.of("jena", "stadt", "weimar");
+        MCRAltoWordIndex.Hits hits = MCRAltoWordIndex.find(DERIVATE_ID, terms, 0, 10);
+        assertEquals(4, hits.getNumFound());
+        assertEquals(List.of("/alto/alto_1.xml:Jena", "/alto/alto_1.xml:jena.", "/alto/alto_2.xml:Jena",
+            "/alto/alto_1.xml:Stadt"), toStrings(hits));
+        assertEquals(80, hits.getHits().get(1).getWord().getVpos());
+        assertEquals(8, hits.getHits().get(2).getWord().getHeight());
+
+        hits = MCRAltoWordIndex.find(DERIVATE_ID, terms, 2, 1);
+        assertEquals(4, hits.getNumFound());
+        assertEquals(List.of("/alto/alto_2.xml:Jena"), toStrings(hits));
+        assertEquals(List.of("/alto/alto_1.xml:Stadt"), toStrings(MCRAltoWordIndex.find(DERIVATE_ID, terms, 3, 10)));
+        assertTrue(MCRAltoWordIndex.find(DERIVATE_ID, terms, 4, 10).getHits().isEmpty());
+        assertEquals(0, MCRAltoWordIndex.find("mcr_derivate_00000002", terms, 0, 10).getNumFound());
+
+        MCRAltoWordIndex.deleteDerivate(DERIVATE_ID);
+        assertTrue(MCRAltoWordIndex.listFiles(DERIVATE_ID).isEmpty());
+    }
+
+    @Test
+    public void replaceFile() throws Exception {
+        MCRAltoWordIndex.write(DERIVATE_ID, "/alto/alto_1.xml", MODIFIED, List.of(
+            new MCRAltoWordIndex.Word("Jena", 10, 20, 30, 40)));
+        MCRAltoWordIndex.write(DERIVATE_ID, "/alto/alto_2.xml", MODIFIED, List.of(
+            new MCRAltoWordIndex.Word("Jena", 1, 2, 3, 4)));
+        MCRAltoWordIndex.write(DERIVATE_ID, "/alto/alto_1.xml", MODIFIED, List.of(
+            new MCRAltoWordIndex.Word("Weimar", 10, 20, 30, 40)));
+
+        assertEquals(List.of("/alto/alto_2.xml:Jena"),
+            toStrings(MCRAltoWordIndex.find(DERIVATE_ID, Set.of("jena"), 0, 10)));
+        assertEquals(List.of("/alto/alto_1.xml:Weimar"),
+            toStrings(MCRAltoWordIndex.find(DERIVATE_ID, Set.of("weimar"), 0, 10)));
+    }
+
+    @Test
+    public void mergeSegments() throws Exception {
+        MCRAltoWordIndex.write(DERIVATE_ID, "/alto/alto_1.xml", MODIFIED, List.of(
+            new MCRAltoWordIndex.Word("Jena", 10, 20, 30, 40)));
+        MCRAltoWordIndex.write(DERIVATE_ID, "/alto/alto_2.xml", MODIFIED, List.of(
+            new MCRAltoWordIndex.Word("Jena", 1, 2, 3, 4)));
+        Path directory = junitFolder.getRoot().toPath().resolve("alto-words");
+        assertFalse(Files.exists(directory.resolve(DERIVATE_ID + ".words")));
+        assertEquals(List.of("/alto/alto_1.xml", "/alto/alto_2.xml"), MCRAltoWordIndex.listFiles(DERIVATE_ID));
+        assertTrue(Files.exists(directory.resolve(DERIVATE_ID + ".words")));
+        assertFalse(Files.exists(directory.resolve(DERIVATE_ID + ".segments")));
+
+        MCRAltoWordIndex.delete(DERIVATE_ID, "/alto/alto_1.xml");
+        MCRAltoWordIndex.write(DERIVATE_ID, "/alto/alto_3.xml", MODIFIED, List.of(
+            new MCRAltoWordIndex.Word("Jena", 5, 6, 7, 8)));
+        assertEquals(List.of("/alto/alto_2.xml:Jena", "/alto/alto_3.xml:Jena"),
+            toStrings(MCRAltoWordIndex.find(DERIVATE_ID, Set.of("jena"), 0, 10)));
+        assertEquals(List.of("/alto/alto_2.xml", "/alto/alto_3.xml"), MCRAltoWordIndex.listFiles(DERIVATE_ID));
+
+        MCRAltoWordIndex.delete(DERIVATE_ID, "/alto/alto_2.xml");
+        MCRAltoWordIndex.delete(DERIVATE_ID, "/alto/alto_3.xml");
+        assertTrue(MCRAltoWordIndex.listFiles(DERIVATE_ID).isEmpty());
+        assertFalse(Files.exists(directory.resolve(DERIVATE_ID + ".words")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDerivate() throws Exception {
+        MCRAltoWordIndex.find("../alto", Set.of("jena"), 0, 10);
+    }
+
+    private static List<String> toStrings(MCRAltoWordIndex.Hits hits) {
+        return hits.getHits().stream().map(hit -> hit.getPath() + ":" + hit.getWord().getContent())
+            .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.solr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+
+public class MCRSolrAltoExtractorTest {
+
+    @Test
+    public void extract() throws Exception {
+        SolrInputDocument document = new SolrInputDocument();
+        List<MCRAltoWordIndex.Word> words;
+        try (InputStream is = getClass().getResourceAsStream("/alto/alto-1.xml")) {
+            words = new MCRSolrAltoExtractor().extract(is, document);
+        }
+        assertEquals(List.of("Jena|100|110|80|30", "Zeitung|100|200|1205|35", "Berlin|100|100|100|30"),
+            List.copyOf(document.getFieldValues("alto_words")));
+        assertEquals("Jena Zeitung Berlin", document.getFieldValue("alto_content"));
+        assertEquals(3, words.size());
+        assertEquals("Zeitung", words.get(1).getContent());
+        assertEquals(120, words.get(1).getWidth());
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void extractInvalid() throws Exception {
+        SolrInputDocument document = new SolrInputDocument();
+        String alto = "<alto><Layout><Page><PrintSpace><String CONTENT=\"Jena\" HPOS=\"1\" VPOS=\"1\" WIDTH=\"1\""
+            + " HEIGHT=\"1\"/></PrintSpace></Page></Layout>";
+        try {
+            new MCRSolrAltoExtractor().extract(new ByteArrayInputStream(alto.getBytes(StandardCharsets.UTF_8)),
+                document);
+        } finally {
+            assertNull(document.getFieldValues("alto_words"));
+            assertNull(document.getFieldValue("alto_content"));
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.mets.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mycore.common.MCRSessionMgr;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.MCRTransactionHelper;
+import org.mycore.common.content.MCRPathContent;
+import org.mycore.common.events.MCREvent;
+import org.mycore.common.events.MCREventHandlerBase;
+import org.mycore.common.events.MCREventManager;
+import org.mycore.datamodel.ifs2.MCRStoreManager;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.mets.model.Mets;
+import org.mycore.mets.model.files.FileGrp;
+
+public class MCRDeferredMetsUpdateTest extends MCRTestCase {
+
+    private static final String DERIVATE_ID = "junit_derivate_00000001";
+
+    @Rule
+    public TemporaryFolder storeFolder = new TemporaryFolder();
+
+    private MetsSaveCounter metsSaves;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        // only count saves, the configured handlers would need stored derivates
+        MCREventManager.instance().clear();
+        try (InputStream mets = getClass().getResourceAsStream("/xml/test-mets-1.xml")) {
+            Files.copy(mets, MCRPath.getPath(DERIVATE_ID, "/mets.xml"));
+        }
+        metsSaves = new MetsSaveCounter();
+        MCREventManager.instance().addEventHandler(MCREvent.ObjectType.PATH, metsSaves);
+        MCRSessionMgr.getCurrentSession();
+        MCRTransactionHelper.beginTransaction();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        if (MCRTransactionHelper.isTransactionActive()) {
+            MCRTransactionHelper.rollbackTransaction();
+        }
+        MCREventManager.instance().removeEventHandler(MCREvent.ObjectType.PATH, metsSaves);
+        MCRStoreManager.removeStore("IFS2_junit_derivate");
+        super.tearDown();
+    }
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Metadata.Type.derivate", "true");
+        testProperties.put("MCR.IFS2.Store.IFS2_junit_derivate.BaseDir", storeFolder.getRoot().getAbsolutePath());
+        testProperties.put("MCR.Mets.Update.Deferred", "true");
+        return testProperties;
+    }
+
+    @Test
+    public void coalesceChanges() throws Exception {
+        MCRPath added1 = createFile("file13.jpg");
+        MCRPath added2 = createFile("file14.jpg");
+        MCRPath deleted1 = MCRPath.getPath(DERIVATE_ID, "/file1.jpg");
+        MCRPath deleted2 = MCRPath.getPath(DERIVATE_ID, "/file2.jpg");
+        MCRDeferredMetsUpdate.markChanged(added1);
+        MCRDeferredMetsUpdate.markChanged(deleted1);
+        MCRDeferredMetsUpdate.markChanged(added2);
+        MCRDeferredMetsUpdate.markChanged(deleted2);
+        MCRDeferredMetsUpdate.markChanged(added1);
+        assertTrue(MCRDeferredMetsUpdate.isChanged(MCRObjectID.getInstance(DERIVATE_ID)));
+        assertEquals("mets.xml must not be saved before commit", 0, metsSaves.count.get());
+
+        MCRTransactionHelper.commitTransaction();
+        MCRTransactionHelper.beginTransaction();
+
+        assertEquals("mets.xml should be saved once for all changes", 1, metsSaves.count.get());
+        assertFalse(MCRDeferredMetsUpdate.isChanged(MCRObjectID.getInstance(DERIVATE_ID)));
+        FileGrp master = getMasterGroup();
+        assertTrue(master.contains("file13.jpg"));
+        assertTrue(master.contains("file14.jpg"));
+        assertFalse(master.contains("file1.jpg"));
+        assertFalse(master.contains("file2.jpg"));
+        assertTrue(master.contains("file3.jpg"));
+    }
+
+    @Test
+    public void discardOnRollback() throws Exception {
+        MCRDeferredMetsUpdate.markChanged(createFile("file13.jpg"));
+        MCRTransactionHelper.rollbackTransaction();
+        assertFalse(MCRDeferredMetsUpdate.isChanged(MCRObjectID.getInstance(DERIVATE_ID)));
+
+        MCRDeferredMetsUpdate.markChanged(createFile("file14.jpg"));
+        MCRTransactionHelper.commitTransaction();
+        MCRTransactionHelper.beginTransaction();
+
+        assertEquals(1, metsSaves.count.get());
+        FileGrp master = getMasterGroup();
+        assertFalse("changes of rolled back transaction must be discarded", master.contains("file13.jpg"));
+        assertTrue(master.contains("file14.jpg"));
+    }
+
+    @Test
+    public void releaseDerivateLocks() throws Exception {
+        MCRObjectID derivateId = MCRObjectID.getInstance(DERIVATE_ID);
+        List<MCRPath> files = new ArrayList<>();
+        for (int i = 13; i < 21; i++) {
+            files.add(createFile("file" + i + ".jpg"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> updates = new ArrayList<>();
+            for (MCRPath file : files) {
+                updates.add(executor.submit(() -> {
+                    MCRSessionMgr.unlock();
+                    try {
+                        MCRMetsSave.updateMetsOnFileChanges(derivateId, List.of(file));
+                    } finally {
+                        MCRSessionMgr.getCurrentSession().close();
+                        MCRSessionMgr.releaseCurrentSession();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> update : updates) {
+                update.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("locks should be removed after the updates", 0, MCRMetsSave.getDerivateLockCount());
+        assertEquals(files.size(), metsSaves.count.get());
+        FileGrp master = getMasterGroup();
+        for (MCRPath file : files) {
+            assertTrue("concurrent update was lost: " + file, master.contains(file.getFileName().toString()));
+        }
+    }
+
+    private static MCRPath createFile(String name) throws Exception {
+        MCRPath file = MCRPath.getPath(DERIVATE_ID, "/" + name);
+        Files.write(file, name.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static FileGrp getMasterGroup() throws Exception {
+        Mets mets = new Mets(new MCRPathContent(MCRPath.getPath(DERIVATE_ID, "/mets.xml")).asXML());
+        return mets.getFileSec().getFileGroup(FileGrp.USE_MASTER);
+    }
+
+    private static class MetsSaveCounter extends MCREventHandlerBase {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        protected void handlePathUpdated(MCREvent evt, Path path, BasicFileAttributes attrs) {
+            if ("mets.xml".equals(path.getFileName().toString())) {
+                count.incrementAndGet();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.mycore.mods;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jdom2.Element;
+import org.mycore.common.MCRConstants;
+import org.mycore.datamodel.classifications2.MCRCategoryID;
+import org.mycore.datamodel.common.MCRLinkTableEntry;
+import org.mycore.datamodel.common.MCRLinkTableEntryProvider;
+import org.mycore.datamodel.common.MCRLinkTableManager;
+import org.mycore.datamodel.metadata.MCRObject;
+
+/**
+ * Provides reference links for the linked <code>mods:relatedItem</code> elements of MODS objects and the categories
+ * of their classified MODS elements. The relationship type is stored as attribute of the link.
+ */
+public class MCRMODSLinkProvider implements MCRLinkTableEntryProvider {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @Override
+    public Collection<MCRLinkTableEntry> getLinks(MCRObject obj) {
+        if (!MCRMODSWrapper.isSupported(obj)) {
+            return Collections.emptyList();
+        }
+        List<MCRLinkTableEntry> links = new ArrayList<>();
+        for (Element linkingNode : new MCRMODSWrapper(obj).getLinkedRelatedItems()) {
+            String targetID = linkingNode.getAttributeValue("href", MCRConstants.XLINK_NAMESPACE);
+            if (targetID == null) {
+                continue;
+            }
+            String relationshipTypeRaw = linkingNode.getAttributeValue("type");
+            MCRMODSRelationshipType relType = getRelationshipType(relationshipTypeRaw);
+            if (relType == null) {
+                LOGGER.warn("Unknown relationship type {} of {} in {}, the link was not added to the link table",
+                    relationshipTypeRaw, targetID, obj.getId());
+            } else if (relType != MCRMODSRelationshipType.host) {
+                //MCR-1328 (no reference links for 'host')
+                links.add(new MCRLinkTableEntry(obj.getId().toString(), targetID,
+                    MCRLinkTableManager.ENTRY_TYPE_REFERENCE, relType.toString()));
+            }
+        }
+        return links;
+    }
+
+    @Override
+    public Collection<MCRCategoryID> getCategories(MCRObject obj) {
+        if (!MCRMODSWrapper.isSupported(obj)) {
+            return Collections.emptyList();
+        }
+        return new MCRMODSWrapper(obj).getMcrCategoryIDs();
+    }
+
+    private static MCRMODSRelationshipType getRelationshipType(String relationshipTypeRaw) {
+        if (relationshipTypeRaw == null) {
+            return null;
+        }
+        try {
+            return MCRMODSRelationshipType.valueOf(relationshipTypeRaw);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
@@ -23,6 +23,7 @@ package org.mycore.mods;
  * @author Thomas Scheffler
  * @see MCRMODSMetadataShareAgent
  * @see MCRMODSLinksEventHandler
+ * @see MCRMODSLinkProvider
  * @since 2015.03
  */
 public enum MCRMODSRelationshipType {
@@ -97,6 +97,13 @@ public class MCRMODSLinkedMetadataTest extends MCRJPATestCase {
             MCRLinkTableManager.instance().countReferenceLinkTo(seriesID));
     }
 
+    @Test
+    public void testLinksAfterUpdate() throws MCRAccessException {
+        MCRMetadataManager.update(MCRMetadataManager.retrieveMCRObject(bookID));
+        Assert.assertEquals("The reference link from " + bookID + " to " + seriesID + " should be kept.", 1,
+            MCRLinkTableManager.instance().countReferenceLinkTo(seriesID));
+    }
+
     @Test
     public void testUpdate() throws IOException, URISyntaxException, MCRPersistenceException,
         MCRActiveLinkException, JDOMException, SAXException, MCRAccessException {
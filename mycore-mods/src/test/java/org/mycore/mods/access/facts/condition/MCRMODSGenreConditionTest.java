@@ -44,7 +44,7 @@ public class MCRMODSGenreConditionTest extends MCRTestCase {
     }
 
     @Test
-    public void testConditionMatch() throws NoSuchFieldException, IllegalAccessException {
+    public void testConditionMatch() {
         MCRMODSWrapper mw = new MCRMODSWrapper();
         MCRObject object = mw.getMCRObject();
         mw.setMODS(new Element("mods", MCRConstants.MODS_NAMESPACE));
@@ -64,7 +64,7 @@ public class MCRMODSGenreConditionTest extends MCRTestCase {
     }
 
     @Test
-    public void testConditionNotMatch() throws NoSuchFieldException, IllegalAccessException {
+    public void testConditionNotMatch() {
         MCRMODSWrapper mw = new MCRMODSWrapper();
         MCRObject object = mw.getMCRObject();
         mw.setMODS(new Element("mods", MCRConstants.MODS_NAMESPACE));
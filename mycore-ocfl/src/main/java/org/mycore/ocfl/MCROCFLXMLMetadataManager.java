@@ -24,6 +24,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -155,6 +156,12 @@ public class MCROCFLXMLMetadataManager extends org.mycore.ocfl.metadata.MCROCFLX
         return super.retrieveObjectDates(ids);
     }
 
+    @Override
+    public Stream<MCRObjectIDDate> streamObjectDates(String base) {
+        LOGGER.warn(DEP_WARN);
+        return super.streamObjectDates(base);
+    }
+
     @Override
     public void update(MCRObjectID mcrid, MCRContent xml, Date lastModified)
         throws MCRPersistenceException {
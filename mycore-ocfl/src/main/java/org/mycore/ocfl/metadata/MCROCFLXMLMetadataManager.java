@@ -24,6 +24,7 @@ import java.io.UncheckedIOException;
 import java.time.ZoneOffset;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +32,7 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
@@ -113,6 +115,11 @@ public class MCROCFLXMLMetadataManager implements MCRXMLMetadataManagerAdapter {
         // not supported yet
     }
 
+    @Override
+    public void rebuildIDIndex(String base) {
+        // IDs are listed from the OCFL repository, there is no ID index
+    }
+
     @Override
     public void create(MCRObjectID mcrid, MCRContent xml, Date lastModified) throws MCRPersistenceException {
         create(mcrid, xml, lastModified, null);
@@ -404,6 +411,24 @@ public class MCROCFLXMLMetadataManager implements MCRXMLMetadataManagerAdapter {
         }
     }
 
+    /**
+     * Reads the head version of every object of the base once from its inventory, the content is not accessed.
+     */
+    @Override
+    public Stream<MCRObjectIDDate> streamObjectDates(String base) {
+        OcflRepository repository = getRepository();
+        String prefix = base + "_";
+        return repository.listObjectIds()
+            .filter(this::isMetadata)
+            .filter(ocflID -> removePrefix(ocflID).startsWith(prefix))
+            .map(ocflID -> repository.describeVersion(ObjectVersionId.head(ocflID)))
+            .filter(version -> convertMessageToType(version.getVersionInfo().getMessage())
+                != MCROCFLMetadataVersion.DELETED)
+            .map(version -> (MCRObjectIDDate) new MCRObjectIDDateImpl(
+                Date.from(version.getVersionInfo().getCreated().toInstant()), removePrefix(version.getObjectId())))
+            .sorted(Comparator.comparing(MCRObjectIDDate::getId));
+    }
+
     @Override
     public long getLastModified(MCRObjectID id) throws IOException {
         return getLastModified(getOCFLObjectID(id));
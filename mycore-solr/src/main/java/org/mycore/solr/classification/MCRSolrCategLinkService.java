@@ -53,6 +53,21 @@ public class MCRSolrCategLinkService extends MCRCategLinkServiceImpl {
         MCRSolrClassificationUtil.bulkIndex(solrClient, solrDocumentList);
     }
 
+    @Override
+    public void updateLinks(MCRCategLinkReference objectReference, Collection<MCRCategoryID> categories) {
+        super.updateLinks(objectReference, categories);
+        // solr
+        SolrClient solrClient = MCRSolrClassificationUtil.getCore().getClient();
+        try {
+            delete(solrClient, objectReference);
+        } catch (Exception exc) {
+            LOGGER.error("Unable to delete links of object {}", objectReference.getObjectID(), exc);
+        }
+        List<SolrInputDocument> solrDocumentList = MCRSolrClassificationUtil
+            .toSolrDocument(objectReference, categories);
+        MCRSolrClassificationUtil.bulkIndex(solrClient, solrDocumentList);
+    }
+
     @Override
     public void deleteLink(MCRCategLinkReference reference) {
         super.deleteLink(reference);
@@ -42,6 +42,7 @@ import org.mycore.solr.MCRSolrCore;
 import org.mycore.solr.MCRSolrUtils;
 import org.mycore.solr.classification.MCRSolrClassificationUtil;
 import org.mycore.solr.index.MCRSolrIndexer;
+import org.mycore.solr.index.file.MCRSolrFileLedger;
 import org.mycore.solr.schema.MCRSolrConfigReloader;
 import org.mycore.solr.schema.MCRSolrSchemaReloader;
 import org.mycore.solr.search.MCRSolrSearchUtils;
@@ -233,6 +234,14 @@ public class MCRSolrCommands extends MCRAbstractCommands {
         MCRSolrIndexer.dropIndex(core.getClient());
     }
 
+    @MCRCommand(
+        syntax = "clear solr file ledger",
+        help = "forgets which file contents were sent to the main core, so they are sent again on the next rebuild",
+        order = 215)
+    public static void clearFileLedger() {
+        MCRSolrFileLedger.clear();
+    }
+
     @MCRCommand(
         syntax = "delete from solr index all objects of type {0} in core {1}",
         help = "deletes all objects of type {0} from index in Solr in core with the id {1}",
@@ -18,19 +18,29 @@
 
 package org.mycore.solr.index;
 
+import static org.mycore.solr.MCRSolrConstants.SOLR_CONFIG_PREFIX;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.client.solrj.SolrClient;
-import org.apache.solr.client.solrj.response.UpdateResponse;
 import org.mycore.common.MCRSessionMgr;
 import org.mycore.common.config.MCRConfiguration2;
 import org.mycore.common.content.MCRContent;
@@ -46,10 +56,21 @@ import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.datamodel.niofs.MCRPath;
 import org.mycore.solr.MCRSolrClientFactory;
 import org.mycore.solr.index.handlers.MCRSolrIndexHandlerFactory;
-import org.mycore.util.concurrent.MCRDelayedRunnable;
+import org.mycore.solr.index.handlers.stream.MCRSolrFilesIndexHandler;
 import org.mycore.util.concurrent.MCRTransactionableRunnable;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
+ * Updates the solr index on changes of objects, derivates and files.
+ *
+ * Index operations are put into a {@link MCRSolrIndexQueue} after the transaction is committed. The queue coalesces
+ * operations on the same object or file and is processed in batches of <code>MCR.Solr.Indexer.BulkSize</code> by
+ * <code>MCR.Solr.Indexer.Queue.ThreadCount</code> threads. If <code>MCR.Solr.Indexer.Queue.File</code> is set,
+ * pending operations are stored in this file and processed after a restart. Failed operations are retried after
+ * <code>MCR.Solr.Indexer.Queue.RetryDelay</code> milliseconds, doubled for every attempt, up to
+ * <code>MCR.Solr.Indexer.Queue.MaxRetries</code> times.
+ *
  * @author Thomas Scheffler (yagee)
  */
 public class MCRSolrIndexEventHandler extends MCREventHandlerBase {
@@ -58,13 +79,39 @@ public class MCRSolrIndexEventHandler extends MCREventHandlerBase {
 
     private static long DELAY_IN_MS = MCRConfiguration2.getLong("MCR.Solr.DelayIndexing_inMS").orElse(2000l);
 
-    private static DelayQueue<MCRDelayedRunnable> SOLR_TASK_QUEUE = new DelayQueue<MCRDelayedRunnable>();
-
-    private static ScheduledExecutorService SOLR_TASK_EXECUTOR = Executors.newSingleThreadScheduledExecutor();
+    private static final long POLL_TIMEOUT_IN_MS = 60_000;
+
+    private static final MCRSolrIndexQueue SOLR_TASK_QUEUE = openTaskQueue();
+
+    private static final int SOLR_TASK_THREADS = MCRConfiguration2
+        .getInt(SOLR_CONFIG_PREFIX + "Indexer.Queue.ThreadCount").orElse(2);
+
+    private static final ExecutorService SOLR_TASK_EXECUTOR = Executors.newFixedThreadPool(SOLR_TASK_THREADS,
+        new ThreadFactoryBuilder().setNameFormat("SOLR-Index-Queue-#%d").build());
+
+    private static MCRSolrIndexQueue openTaskQueue() {
+        Path queueFile = MCRConfiguration2.getString(SOLR_CONFIG_PREFIX + "Indexer.Queue.File")
+            .map(Paths::get)
+            .orElse(null);
+        MCRSolrIndexQueue queue = new MCRSolrIndexQueue(queueFile, DELAY_IN_MS,
+            MCRConfiguration2.getLong(SOLR_CONFIG_PREFIX + "Indexer.Queue.RetryDelay").orElse(10_000L),
+            MCRConfiguration2.getInt(SOLR_CONFIG_PREFIX + "Indexer.Queue.MaxRetries").orElse(10));
+        try {
+            queue.open();
+        } catch (IOException e) {
+            LOGGER.error("Could not open solr index queue {}, pending operations will not survive a restart.",
+                queueFile, e);
+            queue.close();
+        }
+        return queue;
+    }
 
-    private static synchronized void putIntoTaskQueue(MCRDelayedRunnable task) {
-        SOLR_TASK_QUEUE.remove(task);
-        SOLR_TASK_QUEUE.add(task);
+    private static void putIntoTaskQueue(MCRSolrIndexQueue.Operation operation, String id) {
+        MCRSessionMgr.getCurrentSession().onCommit(() -> {
+            //MCR-2349 initialize solr client early enough
+            MCRSolrClientFactory.getMainSolrClient();
+            SOLR_TASK_QUEUE.add(operation, id);
+        });
     }
 
     static {
@@ -72,15 +119,9 @@ public class MCRSolrIndexEventHandler extends MCREventHandlerBase {
         //and its ShutdownHandler are registred
         MCRSolrIndexer.SOLR_EXECUTOR.submit(() -> null);
 
-        SOLR_TASK_EXECUTOR.scheduleWithFixedDelay(new Runnable() {
-
-            @Override
-            public void run() {
-                LOGGER.debug("SOLR Task Executor invoked: " + SOLR_TASK_QUEUE.size() + " Documents to process");
-                processSolrTaskQueue();
-
-            }
-        }, DELAY_IN_MS * 2, DELAY_IN_MS * 2, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < SOLR_TASK_THREADS; i++) {
+            SOLR_TASK_EXECUTOR.submit(MCRSolrIndexEventHandler::processSolrTaskQueue);
+        }
 
         MCRShutdownHandler.getInstance().addCloseable(new MCRShutdownHandler.Closeable() {
             @Override
@@ -93,6 +134,7 @@ public class MCRSolrIndexEventHandler extends MCREventHandlerBase {
                 //MCR-2349
                 //MCRSolrIndexer requires an early stop of index jobs
                 SOLR_TASK_EXECUTOR.shutdown();
+                SOLR_TASK_QUEUE.stop();
                 try {
                     SOLR_TASK_EXECUTOR.awaitTermination(10, TimeUnit.MINUTES);
                 } catch (InterruptedException e) {
@@ -102,29 +144,168 @@ public class MCRSolrIndexEventHandler extends MCREventHandlerBase {
                 if (!SOLR_TASK_QUEUE.isEmpty()) {
                     LOGGER.info("There are still {} solr indexing tasks to complete before shutdown",
                         SOLR_TASK_QUEUE.size());
-                    processSolrTaskQueue();
+                    List<MCRSolrIndexQueue.Entry> entries = SOLR_TASK_QUEUE.drain(MCRSolrIndexer.BULK_SIZE);
+                    while (!entries.isEmpty()) {
+                        processEntries(entries);
+                        entries = SOLR_TASK_QUEUE.drain(MCRSolrIndexer.BULK_SIZE);
+                    }
                 }
             }
 
             @Override
             public void close() {
-                //all work done in prepareClose phase
+                //operations still running or waiting for a retry are processed again on next start
+                SOLR_TASK_QUEUE.close();
             }
         });
     }
 
     private static void processSolrTaskQueue() {
-        while (!SOLR_TASK_QUEUE.isEmpty()) {
+        try {
+            while (!SOLR_TASK_EXECUTOR.isShutdown()) {
+                List<MCRSolrIndexQueue.Entry> entries = SOLR_TASK_QUEUE.poll(MCRSolrIndexer.BULK_SIZE,
+                    POLL_TIMEOUT_IN_MS);
+                if (!entries.isEmpty()) {
+                    LOGGER.debug("SOLR Task Executor invoked: {} of {} Documents to process", entries.size(),
+                        SOLR_TASK_QUEUE.size());
+                    processEntries(entries);
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.error("Error in SOLR indexing", e);
+        } catch (RuntimeException e) {
+            LOGGER.error("Error in SOLR indexing", e);
+            if (!SOLR_TASK_EXECUTOR.isShutdown()) {
+                SOLR_TASK_EXECUTOR.submit(MCRSolrIndexEventHandler::processSolrTaskQueue);
+            }
+        }
+    }
+
+    private static void processEntries(List<MCRSolrIndexQueue.Entry> entries) {
+        Map<MCRSolrIndexQueue.Operation, List<MCRSolrIndexQueue.Entry>> operations = entries.stream()
+            .collect(Collectors.groupingBy(MCRSolrIndexQueue.Entry::getOperation,
+                () -> new EnumMap<>(MCRSolrIndexQueue.Operation.class), Collectors.toList()));
+        new MCRTransactionableRunnable(() -> {
+            final SolrClient mainSolrClient = MCRSolrClientFactory.getMainSolrClient();
+            operations.forEach((operation, operationEntries) -> {
+                LOGGER.info("Sending {} {} operations to SOLR...", operationEntries.size(), operation);
+                try {
+                    processEntries(operation, operationEntries, mainSolrClient);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Error in SOLR indexing of {}", operationEntries, e);
+                    retry(operationEntries);
+                }
+            });
+        }).run();
+    }
+
+    private static void processEntries(MCRSolrIndexQueue.Operation operation, List<MCRSolrIndexQueue.Entry> entries,
+        SolrClient mainSolrClient) {
+        switch (operation) {
+            case INDEX_OBJECT -> indexObjects(entries);
+            case DELETE_OBJECT, DELETE_FILE -> {
+                MCRSolrIndexer.deleteById(mainSolrClient,
+                    entries.stream().map(MCRSolrIndexQueue.Entry::getId).toArray(String[]::new));
+                acknowledge(entries);
+            }
+            case DELETE_DERIVATE -> entries.forEach(entry -> {
+                MCRSolrIndexer.deleteDerivate(mainSolrClient, entry.getId());
+                SOLR_TASK_QUEUE.acknowledge(entry);
+            });
+            case INDEX_FILE -> entries.forEach(entry -> indexFile(entry, mainSolrClient));
+            case INDEX_DERIVATE_FILES -> entries.forEach(entry -> {
+                MCRSolrFilesIndexHandler indexHandler = new MCRSolrFilesIndexHandler(entry.getId(), mainSolrClient);
+                submitIndexHandler(indexHandler, List.of(entry));
+            });
+            default -> throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+    }
+
+    private static void indexObjects(List<MCRSolrIndexQueue.Entry> entries) {
+        long tStart = System.currentTimeMillis();
+        Map<MCRObjectID, MCRContent> contentMap = new HashMap<>();
+        List<MCRSolrIndexQueue.Entry> indexedEntries = new ArrayList<>();
+        for (MCRSolrIndexQueue.Entry entry : entries) {
+            MCRObjectID id = MCRObjectID.getInstance(entry.getId());
             try {
-                MCRDelayedRunnable processingTask = SOLR_TASK_QUEUE.poll(DELAY_IN_MS, TimeUnit.MILLISECONDS);
-                if (processingTask != null) {
-                    LOGGER.info("Sending {} to SOLR...", processingTask.getId());
-                    processingTask.run();
+                if (MCRXMLMetadataManager.instance().exists(id)) {
+                    contentMap.put(id, MCRXMLMetadataManager.instance().retrieveContent(id));
+                    indexedEntries.add(entry);
+                    continue;
                 }
-            } catch (InterruptedException e) {
-                LOGGER.error("Error in SOLR indexing", e);
+                LOGGER.warn("Unable to index '{}' cause it doesn't exists anymore!", id);
+            } catch (Exception ex) {
+                LOGGER.error("Error creating transfer thread for object {}", id, ex);
+                SOLR_TASK_QUEUE.retry(entry);
+                continue;
             }
+            SOLR_TASK_QUEUE.acknowledge(entry);
+        }
+        if (contentMap.isEmpty()) {
+            return;
+        }
+        MCRSolrIndexHandler indexHandler;
+        if (contentMap.size() == 1) {
+            Map.Entry<MCRObjectID, MCRContent> content = contentMap.entrySet().iterator().next();
+            indexHandler = MCRSolrIndexHandlerFactory.getInstance().getIndexHandler(content.getValue(),
+                content.getKey());
+        } else {
+            indexHandler = MCRSolrIndexHandlerFactory.getInstance().getIndexHandler(contentMap);
+        }
+        submitIndexHandler(indexHandler, indexedEntries);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Solr: submitting data of {} objects for indexing done in {}ms ", contentMap.size(),
+                System.currentTimeMillis() - tStart);
+        }
+    }
+
+    private static void indexFile(MCRSolrIndexQueue.Entry entry, SolrClient mainSolrClient) {
+        try {
+            Path path = toPath(entry.getId());
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            submitIndexHandler(MCRSolrIndexHandlerFactory.getInstance().getIndexHandler(path, attrs, mainSolrClient),
+                List.of(entry));
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("Skipping file {} deleted before indexing.", entry.getId());
+            SOLR_TASK_QUEUE.acknowledge(entry);
+        } catch (Exception ex) {
+            LOGGER.error("Error creating transfer thread for file {}", entry.getId(), ex);
+            SOLR_TASK_QUEUE.retry(entry);
+        }
+    }
+
+    private static void submitIndexHandler(MCRSolrIndexHandler indexHandler, List<MCRSolrIndexQueue.Entry> entries) {
+        indexHandler.setCommitWithin(1000);
+        MCRSolrIndexer.submit(indexHandler, MCRSolrIndexer.HIGH_PRIORITY)
+            .whenComplete((subHandlers, exc) -> {
+                if (exc == null) {
+                    acknowledge(entries);
+                } else {
+                    retry(entries);
+                }
+            });
+    }
+
+    private static void acknowledge(List<MCRSolrIndexQueue.Entry> entries) {
+        entries.forEach(SOLR_TASK_QUEUE::acknowledge);
+    }
+
+    private static void retry(List<MCRSolrIndexQueue.Entry> entries) {
+        entries.forEach(SOLR_TASK_QUEUE::retry);
+    }
+
+    /**
+     * Returns the path for an URI stored in the queue. {@link MCRPath} URIs are resolved without the
+     * file system provider, which is not installed in every environment.
+     */
+    private static Path toPath(String uri) {
+        URI pathURI = URI.create(uri);
+        if (!"file".equals(pathURI.getScheme())) {
+            String uriPath = pathURI.getPath();
+            int ownerEnd = uriPath.indexOf(':');
+            return MCRPath.getPath(uriPath.substring(1, ownerEnd), uriPath.substring(ownerEnd + 1));
         }
+        return Paths.get(pathURI);
     }
 
     @Override
@@ -189,15 +370,7 @@ public class MCRSolrIndexEventHandler extends MCREventHandlerBase {
 
     @Override
     protected void updateDerivateFileIndex(MCREvent evt, MCRDerivate derivate) {
-        MCRSessionMgr.getCurrentSession().onCommit(() -> {
-            //MCR-2349 initialize solr client early enough
-            final SolrClient mainSolrClient = MCRSolrClientFactory.getMainSolrClient();
-            putIntoTaskQueue(new MCRDelayedRunnable("updateDerivateFileIndex_" + derivate.getId().toString(),
-                DELAY_IN_MS, new MCRTransactionableRunnable(() -> {
-                    MCRSolrIndexer.rebuildContentIndex(Collections.singletonList(derivate.getId().toString()),
-                        mainSolrClient, MCRSolrIndexer.HIGH_PRIORITY);
-                })));
-        });
+        putIntoTaskQueue(MCRSolrIndexQueue.Operation.INDEX_DERIVATE_FILES, derivate.getId().toString());
     }
 
     @Override
@@ -210,62 +383,21 @@ public class MCRSolrIndexEventHandler extends MCREventHandlerBase {
         if (MCRMarkManager.instance().isMarked(objectOrDerivate)) {
             return;
         }
-        MCRSessionMgr.getCurrentSession().onCommit(() -> {
-            long tStart = System.currentTimeMillis();
-
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Solr: submitting data of \"{}\" for indexing", objectOrDerivate.getId());
-            }
-
-            putIntoTaskQueue(new MCRDelayedRunnable(objectOrDerivate.getId().toString(), DELAY_IN_MS,
-                new MCRTransactionableRunnable(() -> {
-                    try {
-                        /*RS: do not use old stuff, get it fresh ...
-                        MCRContent content = (MCRContent) evt.get("content");
-                        if (content == null) {
-                            content = new MCRBaseContent(objectOrDerivate);
-                        }*/
-                        MCRContent content = MCRXMLMetadataManager.instance()
-                            .retrieveContent(objectOrDerivate.getId());
-
-                        MCRSolrIndexHandler indexHandler = MCRSolrIndexHandlerFactory.getInstance()
-                            .getIndexHandler(content, objectOrDerivate.getId());
-                        indexHandler.setCommitWithin(1000);
-                        MCRSolrIndexer.submitIndexHandler(indexHandler, MCRSolrIndexer.HIGH_PRIORITY);
-
-                        if (LOGGER.isDebugEnabled()) {
-                            LOGGER.debug("Solr: submitting data of \"{}\" for indexing done in {}ms ",
-                                objectOrDerivate.getId(), System.currentTimeMillis() - tStart);
-                        }
-
-                    } catch (Exception ex) {
-                        LOGGER.error("Error creating transfer thread for object {}", objectOrDerivate, ex);
-                    }
-                })));
-        });
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Solr: submitting data of \"{}\" for indexing", objectOrDerivate.getId());
+        }
+        //content is retrieved fresh from the metadata store when the queue is processed
+        putIntoTaskQueue(MCRSolrIndexQueue.Operation.INDEX_OBJECT, objectOrDerivate.getId().toString());
     }
 
     protected synchronized void solrDelete(MCRObjectID id) {
         LOGGER.debug("Solr: submitting data of \"{}\" for deleting", id);
-        MCRSessionMgr.getCurrentSession().onCommit(() -> {
-            //MCR-2349 initialize solr client early enough
-            final SolrClient mainSolrClient = MCRSolrClientFactory.getMainSolrClient();
-            putIntoTaskQueue(new MCRDelayedRunnable(id.toString(), DELAY_IN_MS, new MCRTransactionableRunnable(() -> {
-                MCRSolrIndexer.deleteById(mainSolrClient, id.toString());
-            })));
-        });
+        putIntoTaskQueue(MCRSolrIndexQueue.Operation.DELETE_OBJECT, id.toString());
     }
 
     protected synchronized void deleteDerivate(MCRDerivate derivate) {
         LOGGER.debug("Solr: submitting data of \"{}\" for derivate", derivate.getId());
-        MCRSessionMgr.getCurrentSession().onCommit(() -> {
-            //MCR-2349 initialize solr client early enough
-            final SolrClient mainSolrClient = MCRSolrClientFactory.getMainSolrClient();
-            putIntoTaskQueue(new MCRDelayedRunnable(derivate.getId().toString(), DELAY_IN_MS,
-                new MCRTransactionableRunnable(() -> {
-                    MCRSolrIndexer.deleteDerivate(mainSolrClient, derivate.getId().toString());
-                })));
-        });
+        putIntoTaskQueue(MCRSolrIndexQueue.Operation.DELETE_DERIVATE, derivate.getId().toString());
     }
 
     protected synchronized void addFile(Path path, BasicFileAttributes attrs) {
@@ -280,39 +412,15 @@ public class MCRSolrIndexEventHandler extends MCREventHandlerBase {
                 }
             }
         }
-        MCRSessionMgr.getCurrentSession().onCommit(() -> {
-            //MCR-2349 initialize solr client early enough
-            final SolrClient mainSolrClient = MCRSolrClientFactory.getMainSolrClient();
-            putIntoTaskQueue(
-                new MCRDelayedRunnable(path.toUri().toString(), DELAY_IN_MS, new MCRTransactionableRunnable(() -> {
-                    try {
-                        MCRSolrIndexer
-                            .submitIndexHandler(
-                                MCRSolrIndexHandlerFactory.getInstance().getIndexHandler(path, attrs, mainSolrClient),
-                                MCRSolrIndexer.HIGH_PRIORITY);
-                    } catch (Exception ex) {
-                        LOGGER.error("Error creating transfer thread for file {}", path, ex);
-                    }
-                })));
-        });
+        //attributes are read again when the queue is processed
+        putIntoTaskQueue(MCRSolrIndexQueue.Operation.INDEX_FILE, path.toUri().toString());
     }
 
     protected synchronized void removeFile(Path file) {
         if (isMarkedForDeletion(file)) {
             return;
         }
-        MCRSessionMgr.getCurrentSession().onCommit(() -> {
-            //MCR-2349 initialize solr client early enough
-            final SolrClient mainSolrClient = MCRSolrClientFactory.getMainSolrClient();
-            putIntoTaskQueue(
-                new MCRDelayedRunnable(file.toUri().toString(), DELAY_IN_MS, new MCRTransactionableRunnable(() -> {
-                    UpdateResponse updateResponse = MCRSolrIndexer
-                        .deleteById(mainSolrClient, file.toUri().toString());
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("Deleted file {}. Response:{}", file, updateResponse);
-                    }
-                })));
-        });
+        putIntoTaskQueue(MCRSolrIndexQueue.Operation.DELETE_FILE, file.toUri().toString());
     }
 
     /**
@@ -0,0 +1,364 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.solr.index;
+
+import static org.mycore.solr.MCRSolrConstants.SOLR_CONFIG_PREFIX;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrInputDocument;
+import org.mycore.common.MCRException;
+import org.mycore.common.MCRSystemUserInformation;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.common.content.MCRByteContent;
+import org.mycore.common.content.MCRContent;
+import org.mycore.common.processing.MCRAbstractProcessable;
+import org.mycore.common.processing.MCRProcessableStatus;
+import org.mycore.datamodel.common.MCRXMLMetadataManager;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.solr.index.document.MCRSolrInputDocumentFactory;
+import org.mycore.solr.index.statistic.MCRSolrIndexStatisticCollector;
+import org.mycore.util.concurrent.MCRFixedUserCallable;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Indexes a list of objects in three stages, that run concurrently in their own threads:
+ * <ol>
+ * <li>readers read the metadata of <code>MCR.Solr.Indexer.Pipeline.TransformSize</code> objects at a time from the
+ * store,</li>
+ * <li>transformers transform them to solr input documents with {@link MCRSolrInputDocumentFactory}, which reuses
+ * its compiled stylesheet for every batch,</li>
+ * <li>senders send the documents to solr in batches of <code>MCR.Solr.Indexer.BulkSize</code>.</li>
+ * </ol>
+ * The stages are connected by bounded queues, so a stage that does not keep up blocks the stage before it and
+ * memory usage does not depend on the number of objects. The number of threads of each stage is configured by
+ * <code>MCR.Solr.Indexer.Pipeline.ReaderThreadCount</code>, <code>TransformerThreadCount</code> and
+ * <code>SenderThreadCount</code>.
+ *
+ * A batch that cannot be transformed or sent is retried one object at a time, so a single broken object is
+ * skipped and logged. The progress is reported in the processable collection "Solr Indexer".
+ */
+class MCRSolrIndexPipeline extends MCRAbstractProcessable {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final long POLL_TIMEOUT_IN_MS = 100;
+
+    private final List<String> ids;
+
+    private final SolrClient solrClient;
+
+    private final ContentReader reader;
+
+    private final int commitWithin;
+
+    private final int readerThreads;
+
+    private final int transformerThreads;
+
+    private final int senderThreads;
+
+    private final int transformSize;
+
+    private final int sendSize;
+
+    private final BlockingQueue<Map<MCRObjectID, MCRContent>> contents;
+
+    private final BlockingQueue<SolrInputDocument> documents;
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    private final AtomicInteger activeReaders = new AtomicInteger();
+
+    private final AtomicInteger activeTransformers = new AtomicInteger();
+
+    private final AtomicInteger indexed = new AtomicInteger();
+
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * @param ids the IDs of the objects to index
+     * @param solrClient the solr client to send the documents to
+     * @param commitWithin the commitWithin of the update requests in milliseconds
+     */
+    MCRSolrIndexPipeline(List<String> ids, SolrClient solrClient, int commitWithin) {
+        this(ids, solrClient, commitWithin, MCRXMLMetadataManager.instance()::retrieveContent);
+    }
+
+    MCRSolrIndexPipeline(List<String> ids, SolrClient solrClient, int commitWithin, ContentReader reader) {
+        this.ids = ids;
+        this.solrClient = solrClient;
+        this.commitWithin = commitWithin;
+        this.reader = reader;
+        this.readerThreads = getInt("Indexer.Pipeline.ReaderThreadCount", 2);
+        this.transformerThreads = getInt("Indexer.Pipeline.TransformerThreadCount", 4);
+        this.senderThreads = getInt("Indexer.Pipeline.SenderThreadCount", 2);
+        this.transformSize = getInt("Indexer.Pipeline.TransformSize", 10);
+        this.sendSize = MCRSolrIndexer.BULK_SIZE;
+        this.contents = new ArrayBlockingQueue<>(2 * transformerThreads);
+        this.documents = new ArrayBlockingQueue<>(2 * senderThreads * sendSize);
+        setName("Index " + ids.size() + " objects");
+        properties.put("threads (read/transform/send)", readerThreads + "/" + transformerThreads + "/" + senderThreads);
+    }
+
+    private static int getInt(String property, int defaultValue) {
+        return Math.max(1, MCRConfiguration2.getInt(SOLR_CONFIG_PREFIX + property).orElse(defaultValue));
+    }
+
+    /**
+     * Runs the pipeline and returns when all documents were sent to solr.
+     */
+    void run() {
+        MCRSolrIndexer.SOLR_COLLECTION.add(this);
+        setStatus(MCRProcessableStatus.processing);
+        ExecutorService executor = Executors.newFixedThreadPool(readerThreads + transformerThreads + senderThreads,
+            new ThreadFactoryBuilder().setNameFormat("SOLR-Pipeline-#%d").build());
+        try {
+            activeReaders.set(readerThreads);
+            activeTransformers.set(transformerThreads);
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < readerThreads; i++) {
+                workers.add(start(executor, this::read, activeReaders));
+            }
+            for (int i = 0; i < transformerThreads; i++) {
+                workers.add(start(executor, this::transform, activeTransformers));
+            }
+            for (int i = 0; i < senderThreads; i++) {
+                workers.add(start(executor, this::send, null));
+            }
+            CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+            setProgress(100);
+            setStatus(MCRProcessableStatus.successful);
+            LOGGER.info("Indexed {} of {} objects, {} failed.", indexed.get(), ids.size(), failed.get());
+        } catch (CompletionException e) {
+            setError(e.getCause());
+            throw new MCRException("Error while indexing " + ids.size() + " objects.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            MCRSolrIndexer.SOLR_COLLECTION.remove(this);
+        }
+    }
+
+    /**
+     * Starts a worker of a stage. If it fails, all other workers are interrupted.
+     *
+     * @param active the counter of active workers of the stage, is decremented when the worker ends
+     */
+    private CompletableFuture<Void> start(ExecutorService executor, Worker worker, AtomicInteger active) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                worker.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MCRException("Indexing was interrupted.", e);
+            } finally {
+                if (active != null) {
+                    active.decrementAndGet();
+                }
+            }
+        }, executor).whenComplete((result, e) -> {
+            if (e != null) {
+                executor.shutdownNow();
+            }
+        });
+    }
+
+    private void read() throws InterruptedException {
+        int start;
+        while ((start = nextId.getAndAdd(transformSize)) < ids.size()) {
+            List<String> batch = ids.subList(start, Math.min(start + transformSize, ids.size()));
+            Map<MCRObjectID, MCRContent> contentMap = callAsSystemUser(() -> readContents(batch));
+            if (!contentMap.isEmpty()) {
+                contents.put(contentMap);
+            }
+        }
+    }
+
+    /**
+     * Reads the metadata into memory, so the transformers do not wait for the store.
+     */
+    private Map<MCRObjectID, MCRContent> readContents(List<String> batch) {
+        Map<MCRObjectID, MCRContent> contentMap = new LinkedHashMap<>();
+        for (String id : batch) {
+            try {
+                MCRObjectID objectID = MCRObjectID.getInstance(id);
+                MCRContent content = reader.read(objectID);
+                contentMap.put(objectID, new MCRByteContent(content.asByteArray(), content.lastModified()));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Error reading object {} for indexing.", id, e);
+                failed();
+            }
+        }
+        return contentMap;
+    }
+
+    private void transform() throws InterruptedException {
+        while (true) {
+            Map<MCRObjectID, MCRContent> contentMap = contents.poll(POLL_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
+            if (contentMap != null) {
+                for (SolrInputDocument document : callAsSystemUser(() -> getDocuments(contentMap))) {
+                    documents.put(document);
+                }
+            } else if (activeReaders.get() == 0 && contents.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private List<SolrInputDocument> getDocuments(Map<MCRObjectID, MCRContent> contentMap) {
+        MCRSolrInputDocumentFactory documentFactory = MCRSolrInputDocumentFactory.getInstance();
+        List<SolrInputDocument> result = new ArrayList<>(contentMap.size());
+        try {
+            documentFactory.getDocuments(contentMap).forEachRemaining(result::add);
+            return result;
+        } catch (Exception e) {
+            LOGGER.warn("Error while transforming {} objects. Transform one by one.", contentMap.size(), e);
+        }
+        result.clear();
+        for (Map.Entry<MCRObjectID, MCRContent> entry : contentMap.entrySet()) {
+            try {
+                result.add(documentFactory.getDocument(entry.getKey(), entry.getValue()));
+            } catch (Exception e) {
+                LOGGER.error("Error transforming object {} for indexing.", entry.getKey(), e);
+                failed();
+            }
+        }
+        return result;
+    }
+
+    private void send() throws InterruptedException {
+        List<SolrInputDocument> batch = new ArrayList<>(sendSize);
+        while (true) {
+            SolrInputDocument document = documents.poll(POLL_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
+            if (document != null) {
+                batch.add(document);
+                documents.drainTo(batch, sendSize - batch.size());
+            }
+            //send full batches, or what is there if the transformers are slower
+            if (batch.size() >= sendSize || document == null && !batch.isEmpty()) {
+                send(batch);
+                batch.clear();
+            } else if (document == null && activeTransformers.get() == 0 && documents.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private void send(List<SolrInputDocument> batch) {
+        long start = System.currentTimeMillis();
+        try {
+            UpdateResponse response = solrClient.add(batch, commitWithin);
+            if (response.getStatus() == 0) {
+                indexed(batch.size());
+            } else {
+                LOGGER.warn("Error while sending {} documents: {}. Send one by one.", batch.size(),
+                    response.getResponse());
+                sendOneByOne(batch);
+            }
+        } catch (SolrServerException | IOException | RuntimeException e) {
+            LOGGER.warn("Error while sending {} documents. Send one by one.", batch.size(), e);
+            sendOneByOne(batch);
+        }
+        MCRSolrIndexStatisticCollector.DOCUMENTS.addDocument(batch.size());
+        MCRSolrIndexStatisticCollector.DOCUMENTS.addTime(System.currentTimeMillis() - start);
+    }
+
+    private void sendOneByOne(List<SolrInputDocument> batch) {
+        for (SolrInputDocument document : batch) {
+            try {
+                UpdateResponse response = solrClient.add(document, commitWithin);
+                if (response.getStatus() != 0) {
+                    throw new MCRException("Solr returned status " + response.getStatus());
+                }
+                indexed(1);
+            } catch (SolrServerException | IOException | RuntimeException e) {
+                LOGGER.error("Error sending document {} to solr.", document.getFieldValue("id"), e);
+                failed();
+            }
+        }
+    }
+
+    private void indexed(int count) {
+        indexed.addAndGet(count);
+        updateProgress();
+    }
+
+    private void failed() {
+        failed.incrementAndGet();
+        updateProgress();
+    }
+
+    private synchronized void updateProgress() {
+        int done = indexed.get() + failed.get();
+        setProgress((int) Math.min(100, done * 100L / ids.size()));
+        setProgressText(done + " of " + ids.size() + " objects indexed, " + failed.get() + " failed");
+    }
+
+    private static <T> T callAsSystemUser(Callable<T> callable) {
+        try {
+            return new MCRFixedUserCallable<>(callable, MCRSystemUserInformation.getSystemUserInstance()).call();
+        } catch (Exception e) {
+            throw new MCRException(e);
+        }
+    }
+
+    /**
+     * Number of objects indexed, objects that could not be read, transformed or sent are not counted.
+     */
+    int getIndexed() {
+        return indexed.get();
+    }
+
+    /**
+     * Number of objects that could not be read, transformed or sent.
+     */
+    int getFailed() {
+        return failed.get();
+    }
+
+    @FunctionalInterface
+    interface ContentReader {
+        MCRContent read(MCRObjectID id) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Worker {
+        void run() throws InterruptedException;
+    }
+
+}
@@ -0,0 +1,528 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.solr.index;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Durable queue of pending index operations of {@link MCRSolrIndexEventHandler}.
+ *
+ * Operations are coalesced by their key: adding an operation for a key that is still waiting replaces the waiting
+ * operation and restarts its delay. An operation is handed out only after its delay expired and never while
+ * another operation of the same key is processed.
+ *
+ * If a log file is given, every added operation is written to it before it is queued and every
+ * {@link #acknowledge(Entry) acknowledged} operation is marked as done. Operations never acknowledged, e.g. because
+ * the application crashed, are queued again when the log file is opened on the next start.
+ *
+ * The log file is used by one process at a time, guarded by a lock on the file <code>&lt;log file&gt;.lock</code>.
+ * Other processes sharing the configuration, e.g. command line interfaces running beside the web application,
+ * use <code>&lt;log file&gt;.&lt;process ID&gt;</code> instead. Such files left by a terminated process are taken
+ * over by the next process opening its queue.
+ *
+ * Operations that could not be processed are {@link #retry(Entry) retried} with an exponential backoff.
+ */
+class MCRSolrIndexQueue {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String ADDED = "E";
+
+    private static final String ACKNOWLEDGED = "A";
+
+    private static final String SEPARATOR = "\t";
+
+    /**
+     * Minimum number of lines before the log file is compacted while the queue is not empty
+     */
+    private static final int COMPACTION_THRESHOLD = 10_000;
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private static final long MAX_RETRY_DELAY = 60 * 60 * 1000;
+
+    private final Path logFile;
+
+    private final long delay;
+
+    private final long retryDelay;
+
+    private final int maxRetries;
+
+    /** operations waiting for their retry, not ordered by due time */
+    private final Map<String, Entry> retries = new HashMap<>();
+
+    private Path activeLogFile;
+
+    private FileChannel lockChannel;
+
+    private final LinkedHashMap<String, Entry> pending = new LinkedHashMap<>();
+
+    private final Map<String, Entry> inProgress = new HashMap<>();
+
+    private BufferedWriter log;
+
+    private long sequence;
+
+    private int logLines;
+
+    private boolean stopped;
+
+    /**
+     * @param logFile the log file of the queue or null, if queued operations should not survive a restart
+     * @param delay the delay in milliseconds before a queued operation is handed out
+     */
+    MCRSolrIndexQueue(Path logFile, long delay) {
+        this(logFile, delay, 10_000, 10);
+    }
+
+    /**
+     * @param logFile the log file of the queue or null, if queued operations should not survive a restart
+     * @param delay the delay in milliseconds before a queued operation is handed out
+     * @param retryDelay the delay in milliseconds before a failed operation is handed out again, doubled for every
+     *        further attempt
+     * @param maxRetries the number of retries before a failed operation is dropped
+     */
+    MCRSolrIndexQueue(Path logFile, long delay, long retryDelay, int maxRetries) {
+        this.logFile = logFile;
+        this.delay = delay;
+        this.retryDelay = retryDelay;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Opens the log file and queues all operations that were not acknowledged.
+     *
+     * @return the number of operations replayed from the log file
+     */
+    synchronized int open() throws IOException {
+        if (logFile == null) {
+            return 0;
+        }
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        activeLogFile = logFile;
+        lockChannel = tryLock(logFile);
+        if (lockChannel == null) {
+            activeLogFile = logFile.resolveSibling(logFile.getFileName() + "." + ProcessHandle.current().pid());
+            lockChannel = tryLock(activeLogFile);
+            if (lockChannel == null) {
+                throw new IOException("Solr index queue " + activeLogFile + " is in use.");
+            }
+            LOGGER.info("Solr index queue {} is used by another process, using {}.", logFile, activeLogFile);
+        }
+        if (Files.exists(activeLogFile)) {
+            replay(activeLogFile, false).forEach(e -> pending.put(e.getKey(), e));
+        }
+        List<FileChannel> orphans = takeOverOrphans();
+        try {
+            compact();
+        } finally {
+            for (FileChannel orphan : orphans) {
+                orphan.close();
+            }
+        }
+        if (!pending.isEmpty()) {
+            LOGGER.info("Replaying {} pending index operations from {}.", pending.size(), activeLogFile);
+        }
+        return pending.size();
+    }
+
+    /**
+     * Queues the operations of log files of terminated processes and deletes the files. The returned lock channels
+     * have to be closed after the operations were written to the own log file.
+     */
+    private List<FileChannel> takeOverOrphans() throws IOException {
+        Pattern orphanName = Pattern.compile(Pattern.quote(logFile.getFileName().toString()) + "\\.\\d+");
+        List<Path> candidates;
+        try (Stream<Path> files = Files.list(logFile.toAbsolutePath().getParent())) {
+            candidates = files.filter(file -> orphanName.matcher(file.getFileName().toString()).matches())
+                .filter(file -> !file.equals(activeLogFile.toAbsolutePath()))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        List<FileChannel> orphans = new ArrayList<>();
+        for (Path orphan : candidates) {
+            FileChannel orphanLock = tryLock(orphan);
+            if (orphanLock == null) {
+                continue;
+            }
+            orphans.add(orphanLock);
+            List<Entry> entries = replay(orphan, true);
+            LOGGER.info("Taking over {} pending index operations from {}.", entries.size(), orphan);
+            entries.forEach(e -> pending.put(e.getKey(), e));
+            Files.delete(orphan);
+            Files.deleteIfExists(orphan.resolveSibling(orphan.getFileName() + LOCK_SUFFIX));
+        }
+        return orphans;
+    }
+
+    /**
+     * @return the channel holding the lock or null, if the log file is used by another process
+     */
+    private static FileChannel tryLock(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file.resolveSibling(file.getFileName() + LOCK_SUFFIX),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return channel;
+            }
+        } catch (OverlappingFileLockException e) {
+            //locked by another queue of this process
+        }
+        channel.close();
+        return null;
+    }
+
+    /**
+     * Adds an operation, replacing any waiting operation with the same key.
+     */
+    synchronized void add(Operation operation, String id) {
+        Entry entry = new Entry(++sequence, operation, id, System.currentTimeMillis() + delay, 0);
+        writeLog(String.join(SEPARATOR, ADDED, Long.toString(entry.sequence), operation.name(), id));
+        Entry replaced = pending.remove(entry.getKey());
+        if (replaced == null) {
+            replaced = retries.remove(entry.getKey());
+        }
+        if (replaced != null) {
+            writeLog(String.join(SEPARATOR, ACKNOWLEDGED, Long.toString(replaced.sequence)));
+        }
+        pending.put(entry.getKey(), entry);
+        notifyAll();
+    }
+
+    /**
+     * Waits for operations that are due and hands them out. Every returned entry has to be passed to
+     * {@link #acknowledge(Entry)} after it was processed.
+     *
+     * @param maxSize maximum number of entries to return
+     * @param timeout maximum time to wait in milliseconds
+     * @return the due entries, an empty list if none became due within the timeout or the queue was stopped
+     */
+    synchronized List<Entry> poll(int maxSize, long timeout) throws InterruptedException {
+        long end = System.currentTimeMillis() + timeout;
+        while (!stopped) {
+            long now = System.currentTimeMillis();
+            List<Entry> entries = take(maxSize, now);
+            if (!entries.isEmpty()) {
+                return entries;
+            }
+            long wait = Stream.concat(
+                pending.values().stream().filter(e -> !inProgress.containsKey(e.getKey())).limit(1),
+                retries.values().stream())
+                .mapToLong(e -> e.due)
+                .min()
+                .orElse(Long.MAX_VALUE);
+            wait = Math.min(wait, end) - now;
+            if (wait <= 0) {
+                break;
+            }
+            wait(wait);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Hands out waiting operations without respecting their delay. Operations waiting for a retry are kept.
+     *
+     * @param maxSize maximum number of entries to return
+     */
+    synchronized List<Entry> drain(int maxSize) {
+        return take(maxSize, Long.MAX_VALUE);
+    }
+
+    private List<Entry> take(int maxSize, long now) {
+        List<Entry> entries = new ArrayList<>();
+        Iterator<Entry> dueRetries = retries.values().iterator();
+        while (now != Long.MAX_VALUE && dueRetries.hasNext() && entries.size() < maxSize) {
+            Entry entry = dueRetries.next();
+            if (entry.due <= now) {
+                dueRetries.remove();
+                inProgress.put(entry.getKey(), entry);
+                entries.add(entry);
+            }
+        }
+        Iterator<Entry> it = pending.values().iterator();
+        while (it.hasNext() && entries.size() < maxSize) {
+            Entry entry = it.next();
+            if (entry.due > now) {
+                //entries are ordered by due time
+                break;
+            }
+            if (inProgress.putIfAbsent(entry.getKey(), entry) == null) {
+                it.remove();
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Marks the given entry as processed.
+     */
+    synchronized void acknowledge(Entry entry) {
+        if (!inProgress.remove(entry.getKey(), entry)) {
+            //already acknowledged or waiting for a retry
+            return;
+        }
+        writeLog(String.join(SEPARATOR, ACKNOWLEDGED, Long.toString(entry.sequence)));
+        if (log != null && (isEmpty() || logLines > Math.max(COMPACTION_THRESHOLD, 4 * size()))) {
+            try {
+                compact();
+            } catch (IOException e) {
+                LOGGER.error("Could not compact solr index queue {}.", activeLogFile, e);
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Hands out the given entry again after a delay, that is doubled for every attempt. The entry is dropped after
+     * the maximum number of retries or if another operation with the same key was added meanwhile.
+     */
+    synchronized void retry(Entry entry) {
+        if (!inProgress.remove(entry.getKey(), entry)) {
+            return;
+        }
+        if (entry.attempts >= maxRetries || pending.containsKey(entry.getKey())) {
+            if (entry.attempts >= maxRetries) {
+                LOGGER.error("Dropping {} after {} failed attempts.", entry, entry.attempts + 1);
+            }
+            inProgress.put(entry.getKey(), entry);
+            acknowledge(entry);
+            return;
+        }
+        long retryIn = Math.min(MAX_RETRY_DELAY, retryDelay << Math.min(entry.attempts, 20));
+        LOGGER.warn("Retrying {} in {} ms.", entry, retryIn);
+        Entry retry = new Entry(entry.sequence, entry.operation, entry.id, System.currentTimeMillis() + retryIn,
+            entry.attempts + 1);
+        retries.put(retry.getKey(), retry);
+        notifyAll();
+    }
+
+    /**
+     * Returns the number of waiting and processed operations.
+     */
+    synchronized int size() {
+        return pending.size() + inProgress.size() + retries.size();
+    }
+
+    synchronized boolean isEmpty() {
+        return pending.isEmpty() && inProgress.isEmpty() && retries.isEmpty();
+    }
+
+    /**
+     * Wakes up all threads waiting in {@link #poll(int, long)}, further calls return immediately.
+     */
+    synchronized void stop() {
+        stopped = true;
+        notifyAll();
+    }
+
+    /**
+     * Closes the log file. Operations are still queued afterwards, but not written to the log file anymore.
+     */
+    synchronized void close() {
+        closeLog();
+        if (lockChannel == null) {
+            return;
+        }
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            LOGGER.error("Error while releasing lock of solr index queue {}.", activeLogFile, e);
+        }
+        lockChannel = null;
+    }
+
+    private void closeLog() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            LOGGER.error("Error while closing solr index queue {}.", activeLogFile, e);
+        }
+        log = null;
+    }
+
+    /**
+     * Reads the operations of a log file, that were not acknowledged.
+     *
+     * @param renumber true, if the operations should get new sequence numbers, as they come from another log file
+     */
+    private List<Entry> replay(Path file, boolean renumber) throws IOException {
+        Map<Long, Entry> entries = new HashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(SEPARATOR, 4);
+            try {
+                if (parts.length == 4 && ADDED.equals(parts[0])) {
+                    long seq = Long.parseLong(parts[1]);
+                    entries.put(seq, new Entry(seq, Operation.valueOf(parts[2]), parts[3], 0, 0));
+                    if (!renumber) {
+                        sequence = Math.max(sequence, seq);
+                    }
+                } else if (parts.length == 2 && ACKNOWLEDGED.equals(parts[0])) {
+                    entries.remove(Long.parseLong(parts[1]));
+                } else {
+                    LOGGER.warn("Skipping invalid line in solr index queue {}: {}", file, line);
+                }
+            } catch (IllegalArgumentException e) {
+                //incomplete last line if writing the log was interrupted
+                LOGGER.warn("Skipping invalid line in solr index queue {}: {}", file, line);
+            }
+        }
+        return entries.values()
+            .stream()
+            .sorted(Comparator.comparingLong(e -> e.sequence))
+            .map(e -> renumber ? new Entry(++sequence, e.operation, e.id, 0, 0) : e)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Rewrites the log file, so that it only contains operations not acknowledged yet.
+     */
+    private void compact() throws IOException {
+        if (activeLogFile == null) {
+            return;
+        }
+        closeLog();
+        logLines = 0;
+        if (isEmpty()) {
+            log = Files.newBufferedWriter(activeLogFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            return;
+        }
+        Path tmpFile = activeLogFile.resolveSibling(activeLogFile.getFileName() + ".tmp");
+        List<Entry> entries = new ArrayList<>(inProgress.values());
+        entries.addAll(retries.values());
+        entries.addAll(pending.values());
+        try (BufferedWriter writer = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8)) {
+            for (Entry entry : entries) {
+                writer.write(String.join(SEPARATOR, ADDED, Long.toString(entry.sequence),
+                    entry.operation.name(), entry.id));
+                writer.newLine();
+            }
+        }
+        Files.move(tmpFile, activeLogFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logLines = entries.size();
+        log = Files.newBufferedWriter(activeLogFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private void writeLog(String line) {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.write(line);
+            log.newLine();
+            log.flush();
+            logLines++;
+        } catch (IOException e) {
+            LOGGER.error("Could not write to solr index queue {}.", activeLogFile, e);
+        }
+    }
+
+    /**
+     * Operations that can be queued.
+     */
+    enum Operation {
+        INDEX_OBJECT(""), DELETE_OBJECT(""), DELETE_DERIVATE(""), INDEX_FILE(""), DELETE_FILE(""),
+        INDEX_DERIVATE_FILES("updateDerivateFileIndex_");
+
+        private final String keyPrefix;
+
+        Operation(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        String getKey(String id) {
+            return keyPrefix + id;
+        }
+    }
+
+    /**
+     * A queued operation.
+     */
+    static final class Entry {
+
+        private final long sequence;
+
+        private final Operation operation;
+
+        private final String id;
+
+        private final long due;
+
+        private final int attempts;
+
+        private Entry(long sequence, Operation operation, String id, long due, int attempts) {
+            this.sequence = sequence;
+            this.operation = operation;
+            this.id = id;
+            this.due = due;
+            this.attempts = attempts;
+        }
+
+        Operation getOperation() {
+            return operation;
+        }
+
+        /**
+         * Returns the object ID or the path URI the operation applies to.
+         */
+        String getId() {
+            return id;
+        }
+
+        String getKey() {
+            return operation.getKey(id);
+        }
+
+        @Override
+        public String toString() {
+            return operation + " " + id;
+        }
+    }
+
+}
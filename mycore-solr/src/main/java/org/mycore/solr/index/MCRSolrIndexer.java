@@ -22,12 +22,12 @@ import static org.mycore.solr.MCRSolrConstants.SOLR_CONFIG_PREFIX;
 
 import java.io.IOException;
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -51,12 +51,12 @@ import org.mycore.common.processing.MCRProcessableRegistry;
 import org.mycore.datamodel.common.MCRXMLMetadataManager;
 import org.mycore.datamodel.metadata.MCRObjectID;
 import org.mycore.solr.MCRSolrUtils;
+import org.mycore.solr.index.file.MCRSolrFileLedger;
 import org.mycore.solr.index.handlers.MCRSolrIndexHandlerFactory;
 import org.mycore.solr.index.handlers.MCRSolrOptimizeIndexHandler;
 import org.mycore.solr.index.handlers.stream.MCRSolrFilesIndexHandler;
 import org.mycore.solr.index.statistic.MCRSolrIndexStatistic;
 import org.mycore.solr.index.statistic.MCRSolrIndexStatisticCollector;
-import org.mycore.solr.search.MCRSolrSearchUtils;
 import org.mycore.util.concurrent.MCRFixedUserCallable;
 import org.mycore.util.concurrent.processing.MCRProcessableExecutor;
 import org.mycore.util.concurrent.processing.MCRProcessableFactory;
@@ -241,6 +241,9 @@ public class MCRSolrIndexer {
             }
             updateResponse = req.process(client);
             client.commit();
+            if (MCRSolrFileLedger.isTracked(client)) {
+                MCRSolrFileLedger.removeFiles(solrIDs);
+            }
         } catch (Exception e) {
             LOGGER.error("Error deleting document from solr", e);
         }
@@ -276,6 +279,9 @@ public class MCRSolrIndexer {
             req.deleteByQuery(deleteQuery.toString());
             updateResponse = req.process(solrClient);
             solrClient.commit();
+            if (MCRSolrFileLedger.isTracked(solrClient)) {
+                MCRSolrFileLedger.removeDerivate(id);
+            }
         } catch (Exception e) {
             LOGGER.error("Error deleting document from solr", e);
         }
@@ -315,7 +321,9 @@ public class MCRSolrIndexer {
     }
 
     /**
-     * Rebuilds solr's metadata index.
+     * Rebuilds solr's metadata index. Lists of more than {@link #BULK_SIZE} objects are indexed by a
+     * {@link MCRSolrIndexPipeline} and this method returns after all of them were sent to solr. Smaller lists are
+     * submitted as one index handler.
      *
      * @param list
      *            list of identifiers of the objects to index
@@ -328,6 +336,11 @@ public class MCRSolrIndexer {
             LOGGER.info("Sorry, no documents to index");
             return;
         }
+        if (list.size() > BULK_SIZE) {
+            LOGGER.info("Sending {} objects to solr for reindexing", list.size());
+            new MCRSolrIndexPipeline(list, solrClient, BATCH_AUTO_COMMIT_WITHIN_MS).run();
+            return;
+        }
 
         StopWatch swatch = new StopWatch();
         swatch.start();
@@ -432,10 +445,24 @@ public class MCRSolrIndexer {
      *            higher priority means earlier execution
      */
     public static void submitIndexHandler(MCRSolrIndexHandler indexHandler, int priority) {
+        submit(indexHandler, priority);
+    }
+
+    /**
+     * Submits a index handler to the executor service (execute as a thread) with the given priority.
+     *
+     * @param indexHandler
+     *            index handler to submit
+     * @param priority
+     *            higher priority means earlier execution
+     * @return completes when the index handler was executed, sub handlers are not awaited
+     */
+    static CompletableFuture<List<MCRSolrIndexHandler>> submit(MCRSolrIndexHandler indexHandler, int priority) {
         MCRFixedUserCallable<List<MCRSolrIndexHandler>> indexTask = new MCRFixedUserCallable<>(
             new MCRSolrIndexTask(indexHandler), MCRSystemUserInformation.getSystemUserInstance());
         MCRProcessableSupplier<List<MCRSolrIndexHandler>> supplier = SOLR_EXECUTOR.submit(indexTask, priority);
         supplier.getFuture().whenCompleteAsync(afterIndex(indexHandler, priority), SOLR_SUB_EXECUTOR);
+        return supplier.getFuture();
     }
 
     private static BiConsumer<? super List<MCRSolrIndexHandler>, ? super Throwable> afterIndex(
@@ -461,6 +488,9 @@ public class MCRSolrIndexer {
     public static void dropIndex(SolrClient client) throws Exception {
         LOGGER.info("Dropping solr index...");
         client.deleteByQuery("*:*", BATCH_AUTO_COMMIT_WITHIN_MS);
+        if (MCRSolrFileLedger.isTracked(client)) {
+            MCRSolrFileLedger.clear();
+        }
         LOGGER.info("Dropping solr index...done");
     }
 
@@ -474,6 +504,10 @@ public class MCRSolrIndexer {
         String deleteQuery = new MessageFormat("objectType:{0} _root_:*_{1}_*", Locale.ROOT)
             .format(new Object[] { type, type });
         client.deleteByQuery(deleteQuery, BATCH_AUTO_COMMIT_WITHIN_MS);
+        if ("derivate".equals(type) && MCRSolrFileLedger.isTracked(client)) {
+            //nested file documents are removed with their derivates
+            MCRSolrFileLedger.clear();
+        }
         LOGGER.info("Dropping solr index for type {}...done", type);
     }
 
@@ -504,39 +538,16 @@ public class MCRSolrIndexer {
 
     /**
      * Synchronizes the solr server with the mycore store for a given object type. As a result the solr server contains
-     * the same documents as the store. All solr zombie documents will be removed, and all not indexed mycore objects
-     * will be indexed.
+     * the same documents as the store. All solr zombie documents will be removed, and all not indexed or outdated
+     * mycore objects will be indexed.
+     *
+     * @see MCRSolrMetadataSynchronizer
      */
     public static void synchronizeMetadataIndex(SolrClient client, String objectType)
         throws IOException, SolrServerException {
         LOGGER.info("synchronize {}", objectType);
-        // get ids from store
-        LOGGER.info("fetching mycore store...");
-        List<String> storeList = MCRXMLMetadataManager.instance().listIDsOfType(objectType);
-        LOGGER.info("there are {} mycore objects", storeList.size());
-        // get ids from solr
-        LOGGER.info("fetching solr...");
-        List<String> solrList = MCRSolrSearchUtils.listIDs(client, "objectType:" + objectType);
-        LOGGER.info("there are {} solr objects", solrList.size());
-
-        // documents to remove
-        List<String> toRemove = new ArrayList<>(1000);
-        for (String id : solrList) {
-            if (!storeList.contains(id)) {
-                toRemove.add(id);
-            }
-        }
-        if (!toRemove.isEmpty()) {
-            LOGGER.info("remove {} zombie objects from solr", toRemove.size());
-            deleteById(client, toRemove.toArray(new String[toRemove.size()]));
-        }
+        new MCRSolrMetadataSynchronizer(client, objectType, BULK_SIZE).synchronize();
         deleteOrphanedNestedDocuments(client);
-        // documents to add
-        storeList.removeAll(solrList);
-        if (!storeList.isEmpty()) {
-            LOGGER.info("index {} mycore objects", storeList.size());
-            rebuildMetadataIndex(storeList, client);
-        }
     }
 
 }
@@ -0,0 +1,239 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.solr.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.mycore.common.processing.MCRAbstractProcessable;
+import org.mycore.common.processing.MCRProcessableDefaultCollection;
+import org.mycore.common.processing.MCRProcessableRegistry;
+import org.mycore.common.processing.MCRProcessableStatus;
+import org.mycore.datamodel.common.MCRObjectIDDate;
+import org.mycore.datamodel.common.MCRXMLMetadataManager;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.solr.search.MCRSolrSearchUtils;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+
+/**
+ * Synchronizes the solr index of one object type with the metadata store.
+ *
+ * The IDs of the store and the IDs of solr are compared as two streams ordered by ID, the store side is read with
+ * {@link MCRXMLMetadataManager#streamObjectDates(String)}, which reads the dates of one base in bulk, and the solr
+ * side with a cursor. Objects missing in solr or modified after they were indexed are indexed, solr
+ * documents of objects not stored anymore are deleted.
+ *
+ * The progress is reported in the processable collection "Solr Synchronizer".
+ */
+class MCRSolrMetadataSynchronizer extends MCRAbstractProcessable {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int ROWS = 1000;
+
+    private static final MCRProcessableDefaultCollection SYNCHRONIZER_COLLECTION;
+
+    static {
+        SYNCHRONIZER_COLLECTION = new MCRProcessableDefaultCollection("Solr Synchronizer");
+        MCRProcessableRegistry.getSingleInstance().register(SYNCHRONIZER_COLLECTION);
+    }
+
+    private final SolrClient solrClient;
+
+    private final String objectType;
+
+    private final int bulkSize;
+
+    private final List<String> toIndex = new ArrayList<>();
+
+    private final List<String> toDelete = new ArrayList<>();
+
+    private long checked;
+
+    private long missing;
+
+    private long stale;
+
+    private long zombies;
+
+    /**
+     * @param solrClient the solr client to synchronize
+     * @param objectType the object type to synchronize
+     * @param bulkSize number of objects sent to solr at a time
+     */
+    MCRSolrMetadataSynchronizer(SolrClient solrClient, String objectType, int bulkSize) {
+        this.solrClient = solrClient;
+        this.objectType = objectType;
+        this.bulkSize = bulkSize;
+        setName("Synchronize solr index of type " + objectType);
+    }
+
+    /**
+     * Runs the synchronization.
+     */
+    void synchronize() {
+        SYNCHRONIZER_COLLECTION.add(this);
+        setStatus(MCRProcessableStatus.processing);
+        try {
+            merge();
+            setProgress(100);
+            setStatus(MCRProcessableStatus.successful);
+            LOGGER.info("synchronized {}: {} objects checked, {} missing, {} outdated, {} zombies removed",
+                objectType, checked, missing, stale, zombies);
+        } catch (RuntimeException e) {
+            setError(e);
+            throw e;
+        } finally {
+            SYNCHRONIZER_COLLECTION.remove(this);
+        }
+    }
+
+    private void merge() {
+        List<String> bases = MCRXMLMetadataManager.instance()
+            .getObjectBaseIds()
+            .stream()
+            .filter(base -> base.endsWith("_" + objectType))
+            //IDs of one base are sorted after all IDs with a lower base, even if the base is a prefix of another
+            .sorted(Comparator.comparing(base -> base + "_"))
+            .collect(Collectors.toList());
+        PeekingIterator<MCRObjectIDDate> storeIt = Iterators.peekingIterator(storeIterator(bases));
+
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(CommonParams.Q, "objectType:" + objectType);
+        params.set(CommonParams.FL, "id,modified");
+        params.set(CommonParams.SORT, "id asc");
+        PeekingIterator<SolrDocument> solrIt = Iterators
+            .peekingIterator(MCRSolrSearchUtils.cursorStream(solrClient, params, ROWS).iterator());
+
+        while (storeIt.hasNext() || solrIt.hasNext()) {
+            int cmp;
+            if (!solrIt.hasNext()) {
+                cmp = -1;
+            } else if (!storeIt.hasNext()) {
+                cmp = 1;
+            } else {
+                cmp = storeIt.peek().getId().compareTo(getId(solrIt.peek()));
+            }
+            if (cmp < 0) {
+                missing++;
+                index(storeIt.next().getId());
+            } else if (cmp > 0) {
+                delete(getId(solrIt.next()));
+            } else {
+                MCRObjectIDDate storeDate = storeIt.next();
+                if (isOutdated(storeDate, solrIt.next())) {
+                    stale++;
+                    index(storeDate.getId());
+                }
+            }
+            if (++checked % ROWS == 0) {
+                setProgressText(getProgressText(null));
+            }
+        }
+        flushIndex();
+        flushDelete();
+    }
+
+    private Iterator<MCRObjectIDDate> storeIterator(List<String> bases) {
+        AtomicInteger basesDone = new AtomicInteger();
+        return bases.stream()
+            .flatMap(base -> {
+                setProgress(basesDone.getAndIncrement() * 100 / bases.size());
+                setProgressText(getProgressText(base));
+                try {
+                    return MCRXMLMetadataManager.instance().streamObjectDates(base);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+            .iterator();
+    }
+
+    private static String getId(SolrDocument doc) {
+        return doc.getFieldValue("id").toString();
+    }
+
+    private static boolean isOutdated(MCRObjectIDDate storeDate, SolrDocument doc) {
+        Object modified = doc.getFieldValue("modified");
+        if (!(modified instanceof Date) || storeDate.getLastModified() == null) {
+            return true;
+        }
+        //servdates are stored with a precision of seconds
+        long storeSeconds = TimeUnit.MILLISECONDS.toSeconds(storeDate.getLastModified().getTime());
+        long solrSeconds = TimeUnit.MILLISECONDS.toSeconds(((Date) modified).getTime());
+        return storeSeconds > solrSeconds;
+    }
+
+    private void index(String id) {
+        toIndex.add(id);
+        if (toIndex.size() >= bulkSize * 10) {
+            flushIndex();
+        }
+    }
+
+    private void delete(String id) {
+        //IDs with different number lengths are not sorted numerically, so check before deleting
+        if (MCRObjectID.isValid(id) && MCRXMLMetadataManager.instance().exists(MCRObjectID.getInstance(id))) {
+            return;
+        }
+        zombies++;
+        toDelete.add(id);
+        if (toDelete.size() >= ROWS) {
+            flushDelete();
+        }
+    }
+
+    private void flushIndex() {
+        if (!toIndex.isEmpty()) {
+            MCRSolrIndexer.rebuildMetadataIndex(new ArrayList<>(toIndex), solrClient);
+            toIndex.clear();
+        }
+    }
+
+    private void flushDelete() {
+        if (!toDelete.isEmpty()) {
+            LOGGER.info("remove {} zombie objects from solr", toDelete.size());
+            MCRSolrIndexer.deleteById(solrClient, toDelete.toArray(String[]::new));
+            toDelete.clear();
+        }
+    }
+
+    private String getProgressText(String base) {
+        return String.format(Locale.ROOT, "%s%d checked, %d missing, %d outdated, %d zombies",
+            base == null ? "" : base + ": ", checked, missing, stale, zombies);
+    }
+
+}
@@ -0,0 +1,310 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.solr.index.file;
+
+import static org.mycore.solr.MCRSolrConstants.SOLR_CONFIG_PREFIX;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.mycore.backend.jpa.MCREntityManagerProvider;
+import org.mycore.common.MCRException;
+import org.mycore.common.MCRUtils;
+import org.mycore.common.config.MCRConfiguration2;
+import org.mycore.datamodel.niofs.MCRFileAttributes;
+import org.mycore.datamodel.niofs.MCRPath;
+import org.mycore.solr.MCRSolrClientFactory;
+import org.mycore.solr.MCRSolrConstants;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.PersistenceException;
+
+/**
+ * Remembers which content of a file was sent to solr for text extraction, so unchanged files are not sent again.
+ *
+ * For every file of a derivate, whose content was sent to the main core, the MD5 checksum of the content,
+ * <code>MCR.Solr.FileIndex.ExtractorVersion</code> and a hash of every metadata field is stored. A file whose
+ * checksum and extractor version match is not extracted again: if its metadata did not change either, it is skipped,
+ * otherwise only the changed metadata fields are sent as atomic update, if
+ * <code>MCR.Solr.FileIndex.Ledger.AtomicUpdate</code> is enabled. This requires a solr schema that keeps the
+ * extracted fields on atomic updates, i.e. stores them. Increase the extractor version after changing the extraction
+ * in solr to send all files again.
+ *
+ * The ledger is used if <code>MCR.Solr.FileIndex.Ledger.Enabled</code> is true. It is cleared when the index is
+ * dropped and must be cleared with the command <code>clear solr file ledger</code> if the index was changed otherwise,
+ * e.g. restored from a backup.
+ */
+public final class MCRSolrFileLedger {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String FIELD_SEPARATOR = "\n";
+
+    private static final String HASH_SEPARATOR = "=";
+
+    private static final int MAX_FIELD_HASHES_LENGTH = 4096;
+
+    private MCRSolrFileLedger() {
+    }
+
+    /**
+     * @return true if the ledger is enabled and the client sends to the main core
+     */
+    public static boolean isTracked(SolrClient solrClient) {
+        return isEnabled() && MCRSolrClientFactory.get(MCRSolrConstants.MAIN_CORE_TYPE)
+            .map(core -> core.getClient() == solrClient || core.getConcurrentClient() == solrClient)
+            .orElse(false);
+    }
+
+    public static boolean isEnabled() {
+        return MCRConfiguration2.getBoolean(SOLR_CONFIG_PREFIX + "FileIndex.Ledger.Enabled").orElse(false);
+    }
+
+    public static boolean isAtomicUpdateEnabled() {
+        return MCRConfiguration2.getBoolean(SOLR_CONFIG_PREFIX + "FileIndex.Ledger.AtomicUpdate").orElse(false);
+    }
+
+    public static String getExtractorVersion() {
+        return MCRConfiguration2.getString(SOLR_CONFIG_PREFIX + "FileIndex.ExtractorVersion").orElse("1");
+    }
+
+    /**
+     * @return the MD5 checksum of the file, if it is stored in a derivate, otherwise null
+     */
+    public static String getMD5(Path file, BasicFileAttributes attrs) {
+        if (!(file instanceof MCRPath) || !(attrs instanceof MCRFileAttributes)) {
+            return null;
+        }
+        return ((MCRFileAttributes<?>) attrs).md5sum();
+    }
+
+    /**
+     * @return the entry of the file or null, if the content of the file was not sent to solr
+     */
+    public static MCRSolrFileLedgerEntry getEntry(Path file) {
+        return getEntry(MCRPath.toMCRPath(file).getOwner(), getFileId(file));
+    }
+
+    static MCRSolrFileLedgerEntry getEntry(String derivateID, String fileId) {
+        return getEntry(MCREntityManagerProvider.getCurrentEntityManager(), derivateID, fileId);
+    }
+
+    private static MCRSolrFileLedgerEntry getEntry(EntityManager em, String derivateID, String fileId) {
+        //derivate and file hash are unique
+        List<MCRSolrFileLedgerEntry> entries = em
+            .createNamedQuery("MCRSolrFileLedgerEntry.byFile", MCRSolrFileLedgerEntry.class)
+            .setParameter("derivate", derivateID)
+            .setParameter("fileHash", getHash(fileId))
+            .getResultList();
+        return entries.stream()
+            .filter(entry -> entry.getFileId().equals(fileId))
+            .findFirst()
+            .orElse(null);
+    }
+
+    /**
+     * @return true if the content with the given checksum was extracted by the current extractor version
+     */
+    public static boolean isContentIndexed(MCRSolrFileLedgerEntry entry, String md5) {
+        return entry.getMd5().equals(md5) && entry.getExtractorVersion().equals(getExtractorVersion());
+    }
+
+    /**
+     * Compares the metadata with the metadata that was sent with the content.
+     *
+     * @param entry the entry of the file
+     * @param document the current metadata of the file
+     * @return an atomic update of the changed fields or null, if no field was changed
+     */
+    public static SolrInputDocument getAtomicUpdate(MCRSolrFileLedgerEntry entry, SolrInputDocument document) {
+        Map<String, String> indexedHashes = parseFieldHashes(entry.getFieldHashes());
+        Map<String, String> currentHashes = getFieldHashes(document);
+        if (entry.getFieldHashes() != null && indexedHashes.equals(currentHashes)) {
+            return null;
+        }
+        SolrInputDocument update = new SolrInputDocument();
+        update.setField("id", document.getFieldValue("id"));
+        for (SolrInputField field : document) {
+            if (!"id".equals(field.getName())
+                && !currentHashes.get(field.getName()).equals(indexedHashes.get(field.getName()))) {
+                update.setField(field.getName(), Collections.singletonMap("set", field.getValues()));
+            }
+        }
+        indexedHashes.keySet().stream()
+            .filter(name -> !currentHashes.containsKey(name))
+            .forEach(name -> update.setField(name, Collections.singletonMap("set", null)));
+        return update;
+    }
+
+    /**
+     * Stores that the content and the metadata of the file was sent to solr. The entry is written in a transaction of
+     * its own, so an entry inserted concurrently by another index task is updated instead of failing this task.
+     */
+    public static void record(Path file, String md5, SolrInputDocument document) {
+        record(MCRPath.toMCRPath(file).getOwner(), getFileId(file), md5, document);
+    }
+
+    static void record(String derivateID, String fileId, String md5, SolrInputDocument document) {
+        String fieldHashes = formatFieldHashes(getFieldHashes(document));
+        try {
+            store(derivateID, fileId, md5, fieldHashes);
+        } catch (PersistenceException e) {
+            LOGGER.debug("Entry of {} was stored concurrently, updating it.", fileId, e);
+            store(derivateID, fileId, md5, fieldHashes);
+        }
+    }
+
+    private static void store(String derivateID, String fileId, String md5, String fieldHashes) {
+        EntityManager em = MCREntityManagerProvider.getEntityManagerFactory().createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            MCRSolrFileLedgerEntry entry = getEntry(em, derivateID, fileId);
+            boolean isNew = entry == null;
+            if (isNew) {
+                entry = new MCRSolrFileLedgerEntry();
+                entry.setDerivate(derivateID);
+                entry.setFileId(fileId);
+                entry.setFileHash(getHash(fileId));
+            }
+            entry.setMd5(md5);
+            entry.setExtractorVersion(getExtractorVersion());
+            entry.setFieldHashes(fieldHashes.length() <= MAX_FIELD_HASHES_LENGTH ? fieldHashes : null);
+            entry.setIndexed(Instant.now());
+            if (isNew) {
+                em.persist(entry);
+            }
+            transaction.commit();
+        } finally {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Removes the entries of all files of a derivate.
+     */
+    public static void removeDerivate(String derivateID) {
+        MCREntityManagerProvider.getCurrentEntityManager()
+            .createNamedQuery("MCRSolrFileLedgerEntry.deleteByDerivate")
+            .setParameter("derivate", derivateID)
+            .executeUpdate();
+    }
+
+    /**
+     * Removes the entries of the given solr document IDs. IDs of objects and derivates are ignored.
+     */
+    public static void removeFiles(String... solrIDs) {
+        EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        for (String solrID : solrIDs) {
+            String derivateID = getDerivate(solrID);
+            if (derivateID != null) {
+                em.createNamedQuery("MCRSolrFileLedgerEntry.deleteByFile")
+                    .setParameter("derivate", derivateID)
+                    .setParameter("fileHash", getHash(solrID))
+                    .executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Removes all entries, so the content of all files is sent again.
+     */
+    public static void clear() {
+        MCREntityManagerProvider.getCurrentEntityManager()
+            .createNamedQuery("MCRSolrFileLedgerEntry.deleteAll")
+            .executeUpdate();
+    }
+
+    private static String getFileId(Path file) {
+        return file.toUri().toString();
+    }
+
+    /**
+     * @return the owner of a file URI like <code>ifs2:/junit_derivate_00000001:/file.pdf</code>, or null
+     */
+    private static String getDerivate(String solrID) {
+        URI uri;
+        try {
+            uri = URI.create(solrID);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (uri.getScheme() == null || "file".equals(uri.getScheme()) || uri.getPath() == null) {
+            return null;
+        }
+        int ownerEnd = uri.getPath().indexOf(':');
+        return ownerEnd > 1 ? uri.getPath().substring(1, ownerEnd) : null;
+    }
+
+    private static Map<String, String> getFieldHashes(SolrInputDocument document) {
+        Map<String, String> hashes = new TreeMap<>();
+        for (SolrInputField field : document) {
+            if (!"id".equals(field.getName())) {
+                String values = field.getValues().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(FIELD_SEPARATOR));
+                hashes.put(field.getName(), getHash(values));
+            }
+        }
+        return hashes;
+    }
+
+    private static String getHash(String value) {
+        try {
+            return MCRUtils.asMD5String(1, null, value);
+        } catch (NoSuchAlgorithmException e) {
+            throw new MCRException(e);
+        }
+    }
+
+    private static String formatFieldHashes(Map<String, String> hashes) {
+        return hashes.entrySet().stream()
+            .map(hash -> hash.getKey() + HASH_SEPARATOR + hash.getValue())
+            .collect(Collectors.joining(FIELD_SEPARATOR));
+    }
+
+    private static Map<String, String> parseFieldHashes(String fieldHashes) {
+        Map<String, String> hashes = new TreeMap<>();
+        if (fieldHashes != null && !fieldHashes.isEmpty()) {
+            for (String line : fieldHashes.split(FIELD_SEPARATOR)) {
+                int separator = line.lastIndexOf(HASH_SEPARATOR);
+                hashes.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        }
+        return hashes;
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.solr.index.file;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.NamedQueries;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * The indexed state of a file, whose content was sent to solr for text extraction.
+ *
+ * @see MCRSolrFileLedger
+ */
+@Entity
+@Table(name = "MCRSolrFileLedger",
+    uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "derivate", "fileHash" }, name = "SolrFileLedgerFile")
+    })
+@NamedQueries({
+    @NamedQuery(name = "MCRSolrFileLedgerEntry.byFile",
+        query = "SELECT entry FROM MCRSolrFileLedgerEntry entry"
+            + " WHERE entry.derivate = :derivate AND entry.fileHash = :fileHash"),
+    @NamedQuery(name = "MCRSolrFileLedgerEntry.deleteByDerivate",
+        query = "DELETE FROM MCRSolrFileLedgerEntry entry WHERE entry.derivate = :derivate"),
+    @NamedQuery(name = "MCRSolrFileLedgerEntry.deleteByFile",
+        query = "DELETE FROM MCRSolrFileLedgerEntry entry"
+            + " WHERE entry.derivate = :derivate AND entry.fileHash = :fileHash"),
+    @NamedQuery(name = "MCRSolrFileLedgerEntry.deleteAll",
+        query = "DELETE FROM MCRSolrFileLedgerEntry")
+})
+public class MCRSolrFileLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column
+    private long id;
+
+    @Column(length = 64, nullable = false)
+    private String derivate;
+
+    @Column(length = 4096, nullable = false)
+    private String fileId;
+
+    @Column(length = 32, nullable = false)
+    private String fileHash;
+
+    @Column(length = 32, nullable = false)
+    private String md5;
+
+    @Column(length = 64, nullable = false)
+    private String extractorVersion;
+
+    @Column(length = 4096)
+    private String fieldHashes;
+
+    @Column(nullable = false)
+    private Instant indexed;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the ID of the derivate containing the file
+     */
+    public String getDerivate() {
+        return derivate;
+    }
+
+    public void setDerivate(String derivate) {
+        this.derivate = derivate;
+    }
+
+    /**
+     * @return the ID of the solr document of the file
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    public void setFileId(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * @return the MD5 hash of the file ID, that is unique within the derivate
+     */
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public void setFileHash(String fileHash) {
+        this.fileHash = fileHash;
+    }
+
+    /**
+     * @return the MD5 checksum of the indexed content
+     */
+    public String getMd5() {
+        return md5;
+    }
+
+    public void setMd5(String md5) {
+        this.md5 = md5;
+    }
+
+    /**
+     * @return the value of <code>MCR.Solr.FileIndex.ExtractorVersion</code> when the content was indexed
+     */
+    public String getExtractorVersion() {
+        return extractorVersion;
+    }
+
+    public void setExtractorVersion(String extractorVersion) {
+        this.extractorVersion = extractorVersion;
+    }
+
+    /**
+     * @return one line <code>name=hash</code> per metadata field sent with the content
+     */
+    public String getFieldHashes() {
+        return fieldHashes;
+    }
+
+    public void setFieldHashes(String fieldHashes) {
+        this.fieldHashes = fieldHashes;
+    }
+
+    /**
+     * @return the time the file was last sent to solr
+     */
+    public Instant getIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(Instant indexed) {
+        this.indexed = indexed;
+    }
+
+}
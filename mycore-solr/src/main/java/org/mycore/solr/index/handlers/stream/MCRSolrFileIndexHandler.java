@@ -31,11 +31,14 @@ import org.apache.logging.log4j.Logger;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.request.ContentStreamUpdateRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.SolrInputField;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.mycore.common.MCRUtils;
 import org.mycore.solr.index.cs.MCRSolrPathContentStream;
+import org.mycore.solr.index.file.MCRSolrFileLedger;
+import org.mycore.solr.index.file.MCRSolrFileLedgerEntry;
 import org.mycore.solr.index.file.MCRSolrPathDocumentFactory;
 import org.mycore.solr.index.statistic.MCRSolrIndexStatistic;
 import org.mycore.solr.index.statistic.MCRSolrIndexStatisticCollector;
@@ -48,6 +51,8 @@ public class MCRSolrFileIndexHandler extends MCRSolrAbstractStreamIndexHandler {
 
     protected BasicFileAttributes attrs;
 
+    private boolean contentSent = true;
+
     public MCRSolrFileIndexHandler(Path file, BasicFileAttributes attrs, SolrClient solrClient) {
         super(solrClient);
         this.file = file;
@@ -61,6 +66,11 @@ public class MCRSolrFileIndexHandler extends MCRSolrAbstractStreamIndexHandler {
     @Override
     public void index() throws SolrServerException, IOException {
         String solrID = file.toUri().toString();
+        SolrInputDocument doc = MCRSolrPathDocumentFactory.getInstance().getDocument(file, attrs);
+        String md5 = MCRSolrFileLedger.isTracked(getSolrClient()) ? MCRSolrFileLedger.getMD5(file, attrs) : null;
+        if (md5 != null && indexMetadata(doc, md5)) {
+            return;
+        }
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Solr: indexing file \"{}\"", file);
         }
@@ -70,7 +80,7 @@ public class MCRSolrFileIndexHandler extends MCRSolrAbstractStreamIndexHandler {
             updateRequest.addContentStream(stream);
 
             /* set the additional parameters */
-            updateRequest.setParams(getSolrParams(file, attrs));
+            updateRequest.setParams(getSolrParams(doc));
             updateRequest.setCommitWithin(getCommitWithin());
 
             if (LOGGER.isDebugEnabled()) {
@@ -85,11 +95,43 @@ public class MCRSolrFileIndexHandler extends MCRSolrAbstractStreamIndexHandler {
                     System.currentTimeMillis() - t);
             }
         } //MCR-1911: close any open resource
+        if (md5 != null) {
+            MCRSolrFileLedger.record(file, md5, doc);
+        }
+    }
+
+    /**
+     * Sends only the metadata, if the content was already indexed.
+     *
+     * @return true if the content does not need to be sent
+     * @see MCRSolrFileLedger
+     */
+    private boolean indexMetadata(SolrInputDocument doc, String md5) throws SolrServerException, IOException {
+        MCRSolrFileLedgerEntry entry = MCRSolrFileLedger.getEntry(file);
+        if (entry == null || !MCRSolrFileLedger.isContentIndexed(entry, md5)) {
+            return false;
+        }
+        SolrInputDocument update = MCRSolrFileLedger.getAtomicUpdate(entry, doc);
+        if (update == null) {
+            LOGGER.debug("Solr: skipping unchanged file \"{}\"", file);
+            contentSent = false;
+            return true;
+        }
+        if (!MCRSolrFileLedger.isAtomicUpdateEnabled()) {
+            return false;
+        }
+        LOGGER.debug("Solr: updating metadata of unchanged file \"{}\": {}", file, update);
+        UpdateRequest updateRequest = new UpdateRequest();
+        updateRequest.add(update);
+        updateRequest.setCommitWithin(getCommitWithin());
+        getSolrClient().request(updateRequest);
+        MCRSolrFileLedger.record(file, md5, doc);
+        contentSent = false;
+        return true;
     }
 
-    private ModifiableSolrParams getSolrParams(Path file, BasicFileAttributes attrs) throws IOException {
+    private ModifiableSolrParams getSolrParams(SolrInputDocument doc) {
         ModifiableSolrParams params = new ModifiableSolrParams();
-        SolrInputDocument doc = MCRSolrPathDocumentFactory.getInstance().getDocument(file, attrs);
         for (SolrInputField field : doc) {
             String name = "literal." + field.getName();
             if (field.getValueCount() > 1) {
@@ -117,7 +159,7 @@ public class MCRSolrFileIndexHandler extends MCRSolrAbstractStreamIndexHandler {
 
     @Override
     public int getDocuments() {
-        return 1;
+        return contentSent ? 1 : 0;
     }
 
     @Override
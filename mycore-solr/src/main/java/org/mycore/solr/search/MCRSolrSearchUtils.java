@@ -20,9 +20,12 @@ package org.mycore.solr.search;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -36,6 +39,8 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
 import org.jdom2.Document;
@@ -141,6 +146,66 @@ public abstract class MCRSolrSearchUtils {
         return StreamSupport.stream(solrDocumentSpliterator, parallel);
     }
 
+    /**
+     * Creates a sequential stream of SolrDocument's using a cursor. The documents are fetched lazily page by page,
+     * so the result size does not affect memory usage and the order is stable even if the index is changed
+     * concurrently.
+     *
+     * @param solrClient the client to query
+     * @param params solr parameter, must contain a <code>sort</code> on the unique key field
+     * @param rowsPerRequest number of documents fetched per request
+     * @return stream of solr documents in the requested order
+     */
+    public static Stream<SolrDocument> cursorStream(SolrClient solrClient, SolrParams params, int rowsPerRequest) {
+        return StreamSupport.stream(new SolrDocumentCursorSpliterator(solrClient, params, rowsPerRequest), false);
+    }
+
+    /**
+     * Spliterator for solr documents using a cursor, does not support splitting.
+     */
+    public static class SolrDocumentCursorSpliterator extends Spliterators.AbstractSpliterator<SolrDocument> {
+
+        protected SolrClient solrClient;
+
+        protected ModifiableSolrParams params;
+
+        protected String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+
+        protected Iterator<SolrDocument> page = Collections.emptyIterator();
+
+        protected boolean done;
+
+        public SolrDocumentCursorSpliterator(SolrClient solrClient, SolrParams params, int rows) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.solrClient = solrClient;
+            this.params = new ModifiableSolrParams(params);
+            this.params.set(CommonParams.ROWS, rows);
+            this.params.remove(CommonParams.START);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super SolrDocument> action) {
+            while (!page.hasNext()) {
+                if (done) {
+                    return false;
+                }
+                params.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+                QueryResponse response;
+                try {
+                    response = solrClient.query(params);
+                } catch (SolrServerException | IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                String nextCursorMark = response.getNextCursorMark();
+                done = cursorMark.equals(nextCursorMark);
+                cursorMark = nextCursorMark;
+                page = response.getResults().iterator();
+            }
+            action.accept(page.next());
+            return true;
+        }
+    }
+
     /**
      * Spliterator for solr documents.
      */
@@ -0,0 +1,147 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.solr.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.jdom2.Element;
+import org.junit.Test;
+import org.mycore.common.MCRTestCase;
+import org.mycore.common.content.MCRContent;
+import org.mycore.common.content.MCRJDOMContent;
+import org.mycore.datamodel.metadata.MCRObjectID;
+import org.mycore.solr.index.document.MCRSolrInputDocumentFactory;
+
+public class MCRSolrIndexPipelineTest extends MCRTestCase {
+
+    private static final String UNREADABLE_ID = "junit_test_00000099";
+
+    private static final String UNTRANSFORMABLE_ID = "junit_test_00000013";
+
+    private static final String REJECTED_ID = "junit_test_00000042";
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Metadata.Type.test", Boolean.TRUE.toString());
+        testProperties.put("MCR.Solr.SolrInputDocument.Factory", TestDocumentFactory.class.getName());
+        testProperties.put("MCR.Solr.Indexer.Pipeline.ReaderThreadCount", "3");
+        testProperties.put("MCR.Solr.Indexer.Pipeline.TransformerThreadCount", "3");
+        testProperties.put("MCR.Solr.Indexer.Pipeline.TransformSize", "7");
+        return testProperties;
+    }
+
+    @Test
+    public void run() {
+        List<String> ids = IntStream.rangeClosed(1, 250)
+            .mapToObj(i -> MCRObjectID.formatID("junit", "test", i))
+            .collect(Collectors.toList());
+        TestSolrClient solrClient = new TestSolrClient();
+        MCRSolrIndexPipeline pipeline = new MCRSolrIndexPipeline(ids, solrClient, 0, id -> {
+            if (id.toString().equals(UNREADABLE_ID)) {
+                throw new IOException("junit");
+            }
+            Element root = new Element("mycoreobject");
+            root.setAttribute("ID", id.toString());
+            return new MCRJDOMContent(root);
+        });
+        pipeline.run();
+
+        assertEquals(247, pipeline.getIndexed());
+        assertEquals(3, pipeline.getFailed());
+        assertEquals(100, pipeline.getProgress().intValue());
+        assertEquals(247, solrClient.ids.size());
+        assertFalse(solrClient.ids.contains(UNREADABLE_ID));
+        assertFalse(solrClient.ids.contains(UNTRANSFORMABLE_ID));
+        assertFalse(solrClient.ids.contains(REJECTED_ID));
+        assertTrue(solrClient.ids.contains("junit_test_00000250"));
+    }
+
+    public static class TestDocumentFactory extends MCRSolrInputDocumentFactory {
+
+        @Override
+        public SolrInputDocument getDocument(MCRObjectID id, MCRContent content) throws IOException {
+            if (id.toString().equals(UNTRANSFORMABLE_ID)) {
+                throw new IOException("junit");
+            }
+            SolrInputDocument document = new SolrInputDocument();
+            document.setField("id", id.toString());
+            return document;
+        }
+
+        @Override
+        public Iterator<SolrInputDocument> getDocuments(Map<MCRObjectID, MCRContent> contentMap)
+            throws IOException {
+            List<SolrInputDocument> documents = new ArrayList<>();
+            for (Map.Entry<MCRObjectID, MCRContent> entry : contentMap.entrySet()) {
+                documents.add(getDocument(entry.getKey(), entry.getValue()));
+            }
+            return documents.iterator();
+        }
+    }
+
+    private static class TestSolrClient extends SolrClient {
+
+        private static final long serialVersionUID = 1L;
+
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public NamedList<Object> request(SolrRequest request, String collection) throws SolrServerException {
+            List<SolrInputDocument> documents = ((UpdateRequest) request).getDocuments();
+            List<String> requestIds = documents.stream()
+                .map(document -> (String) document.getFieldValue("id"))
+                .collect(Collectors.toList());
+            if (requestIds.contains(REJECTED_ID)) {
+                throw new SolrServerException("junit");
+            }
+            ids.addAll(requestIds);
+            NamedList<Object> header = new NamedList<>();
+            header.add("status", 0);
+            header.add("QTime", 0);
+            NamedList<Object> response = new NamedList<>();
+            response.add("responseHeader", header);
+            return response;
+        }
+
+        @Override
+        public void close() {
+            ids.clear();
+        }
+    }
+
+}
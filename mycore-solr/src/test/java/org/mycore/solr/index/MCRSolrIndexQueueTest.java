@@ -0,0 +1,171 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.solr.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mycore.solr.index.MCRSolrIndexQueue.Entry;
+import org.mycore.solr.index.MCRSolrIndexQueue.Operation;
+
+public class MCRSolrIndexQueueTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void coalesce() throws Exception {
+        MCRSolrIndexQueue queue = new MCRSolrIndexQueue(null, 0);
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000001");
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000002");
+        queue.add(Operation.DELETE_OBJECT, "junit_test_00000001");
+        queue.add(Operation.INDEX_DERIVATE_FILES, "junit_derivate_00000001");
+        assertEquals(3, queue.size());
+
+        List<Entry> entries = queue.poll(10, 0);
+        assertEquals(3, entries.size());
+        assertEquals(Operation.INDEX_OBJECT, entries.get(0).getOperation());
+        assertEquals("junit_test_00000002", entries.get(0).getId());
+        assertEquals(Operation.DELETE_OBJECT, entries.get(1).getOperation());
+        assertEquals("junit_test_00000001", entries.get(1).getId());
+        assertEquals(Operation.INDEX_DERIVATE_FILES, entries.get(2).getOperation());
+
+        entries.forEach(queue::acknowledge);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void delay() throws Exception {
+        MCRSolrIndexQueue queue = new MCRSolrIndexQueue(null, 60_000);
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000001");
+        assertTrue("Entry should not be handed out before its delay expired", queue.poll(10, 10).isEmpty());
+        assertEquals(1, queue.drain(10).size());
+    }
+
+    @Test
+    public void inProgress() throws Exception {
+        MCRSolrIndexQueue queue = new MCRSolrIndexQueue(null, 0);
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000001");
+        Entry entry = queue.poll(10, 0).get(0);
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000001");
+        assertTrue("Key should not be handed out while it is processed", queue.poll(10, 10).isEmpty());
+        queue.acknowledge(entry);
+        assertEquals(1, queue.poll(10, 0).size());
+    }
+
+    @Test
+    public void replay() throws Exception {
+        Path logFile = folder.getRoot().toPath().resolve("solr").resolve("index-queue.log");
+        MCRSolrIndexQueue queue = new MCRSolrIndexQueue(logFile, 0);
+        assertEquals(0, queue.open());
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000001");
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000002");
+        queue.add(Operation.DELETE_FILE, "ifs2:/junit_derivate_00000001:/test.txt");
+        List<Entry> entries = queue.poll(2, 0);
+        queue.acknowledge(entries.get(0));
+        //simulate crash, second entry is never acknowledged
+        queue.close();
+        Files.writeString(logFile, "E\t4\tINDEX_OB", StandardOpenOption.APPEND);
+
+        MCRSolrIndexQueue restarted = new MCRSolrIndexQueue(logFile, 0);
+        assertEquals(2, restarted.open());
+        List<Entry> replayed = restarted.poll(10, 0);
+        assertEquals(2, replayed.size());
+        assertEquals("junit_test_00000002", replayed.get(0).getId());
+        assertEquals("ifs2:/junit_derivate_00000001:/test.txt", replayed.get(1).getId());
+        replayed.forEach(restarted::acknowledge);
+        restarted.close();
+        assertEquals(0, Files.size(logFile));
+
+        restarted.add(Operation.INDEX_OBJECT, "junit_test_00000003");
+        restarted.add(Operation.INDEX_OBJECT, "junit_test_00000003");
+        MCRSolrIndexQueue restartedAgain = new MCRSolrIndexQueue(logFile, 0);
+        assertEquals("Queue should not be written to log file after close", 0, restartedAgain.open());
+    }
+
+    @Test
+    public void retry() throws Exception {
+        MCRSolrIndexQueue queue = new MCRSolrIndexQueue(null, 0, 50, 1);
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000001");
+        Entry entry = queue.poll(10, 0).get(0);
+        queue.retry(entry);
+        assertEquals(1, queue.size());
+        assertTrue("Failed entry should not be handed out before its retry delay", queue.poll(10, 0).isEmpty());
+        assertTrue("Failed entry should not be drained", queue.drain(10).isEmpty());
+        Entry retried = queue.poll(10, 1000).get(0);
+        assertEquals("junit_test_00000001", retried.getId());
+        queue.retry(retried);
+        assertTrue("Entry should be dropped after the maximum number of retries", queue.isEmpty());
+
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000002");
+        entry = queue.poll(10, 0).get(0);
+        queue.retry(entry);
+        queue.add(Operation.DELETE_OBJECT, "junit_test_00000002");
+        List<Entry> entries = queue.poll(10, 0);
+        assertEquals("Newer operation should replace a failed one", 1, entries.size());
+        assertEquals(Operation.DELETE_OBJECT, entries.get(0).getOperation());
+    }
+
+    @Test
+    public void retryReplay() throws Exception {
+        Path logFile = folder.getRoot().toPath().resolve("index-queue.log");
+        MCRSolrIndexQueue queue = new MCRSolrIndexQueue(logFile, 0, 60_000, 10);
+        queue.open();
+        queue.add(Operation.INDEX_OBJECT, "junit_test_00000001");
+        Entry entry = queue.poll(10, 0).get(0);
+        queue.retry(entry);
+        queue.acknowledge(entry);
+        queue.close();
+
+        MCRSolrIndexQueue restarted = new MCRSolrIndexQueue(logFile, 0);
+        assertEquals("Failed entry should be kept for a retry after restart", 1, restarted.open());
+        restarted.close();
+    }
+
+    @Test
+    public void sharedLogFile() throws Exception {
+        Path logFile = folder.getRoot().toPath().resolve("index-queue.log");
+        MCRSolrIndexQueue queue = new MCRSolrIndexQueue(logFile, 0);
+        queue.open();
+        MCRSolrIndexQueue other = new MCRSolrIndexQueue(logFile, 0);
+        other.open();
+        Path otherLogFile = logFile.resolveSibling("index-queue.log." + ProcessHandle.current().pid());
+        other.add(Operation.INDEX_OBJECT, "junit_test_00000001");
+        assertTrue("Locked log file should not be shared", Files.exists(otherLogFile));
+        assertEquals(0, Files.size(logFile));
+        other.close();
+        queue.close();
+
+        MCRSolrIndexQueue restarted = new MCRSolrIndexQueue(logFile, 0);
+        assertEquals("Log file of another process should be taken over", 1, restarted.open());
+        assertFalse(Files.exists(otherLogFile));
+        assertEquals("junit_test_00000001", restarted.poll(10, 0).get(0).getId());
+        restarted.close();
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of ***  M y C o R e  ***
+ * See http://www.mycore.de/ for details.
+ *
+ * MyCoRe is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MyCoRe is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MyCoRe.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.mycore.solr.index.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+import org.mycore.backend.jpa.MCREntityManagerProvider;
+import org.mycore.common.MCRJPATestCase;
+import org.mycore.common.config.MCRConfiguration2;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+public class MCRSolrFileLedgerTest extends MCRJPATestCase {
+
+    private static final String DERIVATE_ID = "junit_derivate_00000001";
+
+    private static final String FILE_ID = "ifs2:/" + DERIVATE_ID + ":/file.pdf";
+
+    private static final String MD5 = "d41d8cd98f00b204e9800998ecf8427e";
+
+    @Override
+    protected Map<String, String> getTestProperties() {
+        Map<String, String> testProperties = super.getTestProperties();
+        testProperties.put("MCR.Metadata.Type.derivate", Boolean.TRUE.toString());
+        return testProperties;
+    }
+
+    @Test
+    public void record() {
+        assertNull(MCRSolrFileLedger.getEntry(DERIVATE_ID, FILE_ID));
+        MCRSolrFileLedger.record(DERIVATE_ID, FILE_ID, MD5, getDocument("file.pdf", "cat1", "cat2"));
+        startNewTransaction();
+
+        MCRSolrFileLedgerEntry entry = MCRSolrFileLedger.getEntry(DERIVATE_ID, FILE_ID);
+        assertNotNull(entry);
+        assertTrue(MCRSolrFileLedger.isContentIndexed(entry, MD5));
+        assertFalse("Changed content should be indexed again",
+            MCRSolrFileLedger.isContentIndexed(entry, "00000000000000000000000000000000"));
+        MCRConfiguration2.set("MCR.Solr.FileIndex.ExtractorVersion", "2");
+        assertFalse("Content should be indexed again by a new extractor",
+            MCRSolrFileLedger.isContentIndexed(entry, MD5));
+
+        MCRSolrFileLedger.record(DERIVATE_ID, FILE_ID, MD5, getDocument("file.pdf", "cat1", "cat2"));
+        startNewTransaction();
+        assertTrue(MCRSolrFileLedger.isContentIndexed(MCRSolrFileLedger.getEntry(DERIVATE_ID, FILE_ID), MD5));
+    }
+
+    @Test
+    public void uniqueFile() {
+        MCRSolrFileLedger.record(DERIVATE_ID, FILE_ID, MD5, getDocument("file.pdf"));
+        MCRSolrFileLedger.record(DERIVATE_ID, FILE_ID, MD5, getDocument("file.pdf", "cat1"));
+        startNewTransaction();
+        EntityManager em = MCREntityManagerProvider.getCurrentEntityManager();
+        assertEquals(1L, em.createQuery("SELECT count(e) FROM MCRSolrFileLedgerEntry e", Long.class)
+            .getSingleResult().longValue());
+
+        MCRSolrFileLedgerEntry duplicate = new MCRSolrFileLedgerEntry();
+        duplicate.setDerivate(DERIVATE_ID);
+        duplicate.setFileId(FILE_ID);
+        duplicate.setFileHash(MCRSolrFileLedger.getEntry(DERIVATE_ID, FILE_ID).getFileHash());
+        duplicate.setMd5(MD5);
+        duplicate.setExtractorVersion("1");
+        duplicate.setIndexed(Instant.now());
+        assertThrows("Entries of the same file should be rejected", PersistenceException.class, () -> {
+            em.persist(duplicate);
+            em.flush();
+        });
+    }
+
+    @Test
+    public void getAtomicUpdate() {
+        MCRSolrFileLedger.record(DERIVATE_ID, FILE_ID, MD5, getDocument("file.pdf", "cat1", "cat2"));
+        startNewTransaction();
+        MCRSolrFileLedgerEntry entry = MCRSolrFileLedger.getEntry(DERIVATE_ID, FILE_ID);
+
+        assertNull("Unchanged metadata should not be sent",
+            MCRSolrFileLedger.getAtomicUpdate(entry, getDocument("file.pdf", "cat1", "cat2")));
+
+        SolrInputDocument document = getDocument("file.pdf", "cat1", "cat3");
+        document.removeField("fileName");
+        document.setField("derivateModified", "2024-01-01T00:00:00Z");
+        SolrInputDocument update = MCRSolrFileLedger.getAtomicUpdate(entry, document);
+        assertNotNull(update);
+        assertEquals(FILE_ID, update.getFieldValue("id"));
+        assertEquals(Map.of("set", document.getFieldValues("fileCategory")), update.getFieldValue("fileCategory"));
+        assertEquals(Map.of("set", document.getFieldValues("derivateModified")),
+            update.getFieldValue("derivateModified"));
+        assertTrue("Removed field should be unset", update.containsKey("fileName"));
+        assertNull(((Map<?, ?>) update.getFieldValue("fileName")).get("set"));
+        assertFalse("Unchanged field should not be sent", update.containsKey("filePath"));
+    }
+
+    @Test
+    public void remove() {
+        String otherFileId = "ifs2:/" + DERIVATE_ID + ":/other.pdf";
+        MCRSolrFileLedger.record(DERIVATE_ID, FILE_ID, MD5, getDocument("file.pdf"));
+        MCRSolrFileLedger.record(DERIVATE_ID, otherFileId, MD5, getDocument("other.pdf"));
+        startNewTransaction();
+
+        MCRSolrFileLedger.removeFiles(FILE_ID, "junit_test_00000001");
+        startNewTransaction();
+        assertNull(MCRSolrFileLedger.getEntry(DERIVATE_ID, FILE_ID));
+        assertNotNull(MCRSolrFileLedger.getEntry(DERIVATE_ID, otherFileId));
+
+        MCRSolrFileLedger.removeDerivate(DERIVATE_ID);
+        startNewTransaction();
+        assertNull(MCRSolrFileLedger.getEntry(DERIVATE_ID, otherFileId));
+    }
+
+    private static SolrInputDocument getDocument(String fileName, String... categories) {
+        SolrInputDocument document = new SolrInputDocument();
+        document.setField("id", FILE_ID);
+        document.setField("derivateID", DERIVATE_ID);
+        document.setField("fileName", fileName);
+        document.setField("filePath", "/" + fileName);
+        for (String category : categories) {
+            document.addField("fileCategory", category);
+        }
+        return document;
+    }
+
+}
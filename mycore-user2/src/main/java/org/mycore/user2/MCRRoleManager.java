@@ -167,7 +167,7 @@ public class MCRRoleManager {
     }
 
     /**
-     * Stores role membership information of the user
+     * Stores role membership information of the user, replacing any previous role assignments
      * 
      * @param user the user 
      */
@@ -183,7 +183,7 @@ public class MCRRoleManager {
             categories.add(categID);
         }
         LOGGER.info("Assigning {} to these roles: {}", user.getUserID(), categories);
-        CATEG_LINK_SERVICE.setLinks(ref, categories);
+        CATEG_LINK_SERVICE.updateLinks(ref, categories);
     }
 
     static Collection<MCRCategoryID> getRoleIDs(MCRUser user) {
@@ -274,7 +274,6 @@ public class MCRUserManager {
             user.internalID = db.internalID;
             em.detach(db);
             em.merge(user);
-            MCRRoleManager.unassignRoles(user);
             MCRRoleManager.storeRoleAssignments(user);
             MCREvent evt = new MCREvent(MCREvent.ObjectType.USER, MCREvent.EventType.UPDATE);
             evt.put(MCREvent.USER_KEY, user);